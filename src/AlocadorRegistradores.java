@@ -0,0 +1,453 @@
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Alocação de registradores por varredura linear (linear scan) sobre o TAC.
+ *
+ * O gerador numera os temporários por comando (R1, R2, ... reiniciando a cada comando), sem analisar
+ * quando cada valor deixa de ser usado: uma expressão longa ocupa um registrador por operando.
+ * Aqui cada definição vira um registrador virtual próprio, a vivacidade de cada um é calculada sobre
+ * o grafo de fluxo, e os intervalos de vida resultantes são distribuídos entre K registradores físicos:
+ * quando um intervalo termina, seu registrador pode ser reaproveitado.
+ *
+ * Quando os intervalos vivos ao mesmo tempo não cabem em K registradores, a alocação é refeita com
+ * K - 2 registradores e os dois últimos ficam reservados para derramamento: o intervalo que termina
+ * mais tarde é derramado (heurística de Poletto e Sarkar) para um slot, gravado com SPILL logo após
+ * cada definição e recarregado com RELOAD em um registrador reservado antes de cada uso.
+ */
+public class AlocadorRegistradores implements PassoOtimizacao {
+
+    public static final int MINIMO_REGISTRADORES = 2; // Os dois reservados bastam mesmo com tudo derramado
+
+    // Intervalo de vida de um registrador virtual: posições (índices no TAC) do primeiro ao último ponto vivo
+    private static final class Intervalo {
+        final String virtual;
+        int inicio = Integer.MAX_VALUE;
+        int fim = -1;
+        String fisico; // Registrador atribuído (null se derramado)
+        String slot;   // Slot de derramamento (null se em registrador)
+
+        Intervalo(String virtual) {
+            this.virtual = virtual;
+        }
+
+        void incluir(int posicao) {
+            inicio = Math.min(inicio, posicao);
+            fim = Math.max(fim, posicao);
+        }
+    }
+
+    // Trecho do TAC entre dois pontos sem nenhum registrador vivo (um comando ou uma condição)
+    private static final class Comando {
+        final int inicio;
+        int fim;
+        int pico;
+
+        Comando(int inicio) {
+            this.inicio = inicio;
+        }
+    }
+
+    private final int quantidadeRegistradores; // K
+
+    // Estatísticas da última alocação
+    private int registradoresOriginais;
+    private int quantidadeVirtuais;
+    private int fisicosUsados;
+    private int picoPressao;
+    private int linhaPico;
+    private int derramados;
+    private int instrucoesSpill;
+    private int instrucoesReload;
+    private boolean reservouRegistradores;
+    private final List<Comando> comandos = new ArrayList<>();
+    private List<InstrucaoTAC> codigoOriginal;
+
+    public AlocadorRegistradores(int quantidadeRegistradores) {
+        if (quantidadeRegistradores < MINIMO_REGISTRADORES) {
+            throw new IllegalArgumentException("São necessários pelo menos " + MINIMO_REGISTRADORES + " registradores físicos.");
+        }
+        this.quantidadeRegistradores = quantidadeRegistradores;
+    }
+
+    /**
+     * Aloca os registradores do TAC e devolve o código reescrito com registradores físicos (R1..RK).
+     */
+    public List<String> alocar(List<String> codigo) {
+        return InstrucaoTAC.escreverTodas(alocarInstrucoes(InstrucaoTAC.lerTodas(codigo)));
+    }
+
+    @Override
+    public String getNome() {
+        return "registradores=" + quantidadeRegistradores;
+    }
+
+    @Override
+    public List<InstrucaoTAC> executar(List<InstrucaoTAC> codigo) {
+        return alocarInstrucoes(codigo);
+    }
+
+    public List<InstrucaoTAC> alocarInstrucoes(List<InstrucaoTAC> codigo) {
+        codigoOriginal = codigo;
+        registradoresOriginais = contarRegistradores(codigo);
+
+        List<InstrucaoTAC> renomeado = separarDefinicoes(codigo);
+        Map<String, Intervalo> intervalos = calcularIntervalos(renomeado);
+        quantidadeVirtuais = intervalos.size();
+
+        // Primeiro com todos os K registradores; se algo for derramado, reserva dois para os RELOADs
+        reservouRegistradores = false;
+        if (!varrer(intervalos, quantidadeRegistradores)) {
+            reservouRegistradores = true;
+            varrer(intervalos, quantidadeRegistradores - 2);
+        }
+        return reescrever(renomeado, intervalos);
+    }
+
+    /**
+     * Relatório da alocação: registradores antes e depois, derramamentos e pressão de registradores por comando.
+     */
+    @Override
+    public String relatorio() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Alocação de registradores (varredura linear, K = ").append(quantidadeRegistradores).append(")\n");
+        sb.append(String.format("  %-35s %d\n", "Registradores do gerador:", registradoresOriginais));
+        sb.append(String.format("  %-35s %d\n", "Intervalos de vida (virtuais):", quantidadeVirtuais));
+        sb.append(String.format("  %-35s %d\n", "Registradores físicos usados:", fisicosUsados));
+        sb.append(String.format("  %-35s %d (linha %d do TAC)\n", "Pressão máxima:", picoPressao, linhaPico + 1));
+        sb.append(String.format("  %-35s %d\n", "Intervalos derramados:", derramados));
+        sb.append(String.format("  %-35s %d / %d\n", "Instruções SPILL / RELOAD:", instrucoesSpill, instrucoesReload));
+        if (reservouRegistradores) {
+            sb.append(String.format("  %-35s R%d, R%d\n", "Reservados para derramamento:", quantidadeRegistradores - 1, quantidadeRegistradores));
+        }
+        sb.append("Pressão de registradores por comando (linhas do TAC):\n");
+        for (Comando comando : comandos) {
+            sb.append(String.format("  %5d-%-5d pico %-3d %s\n", comando.inicio + 1, comando.fim + 1, comando.pico,
+                    codigoOriginal.get(comando.inicio)));
+        }
+        return sb.toString();
+    }
+
+    // ---------------------------------------------------------
+    // Intervalos de vida
+    // ---------------------------------------------------------
+
+    /**
+     * Separa os registradores em teias (webs): definições que alcançam um mesmo uso formam uma teia,
+     * e cada teia recebe um nome virtual próprio. Assim os reusos do mesmo nome em comandos diferentes
+     * não formam um único intervalo. As formas de dois endereços continuam a teia do valor que leem.
+     * Usa definições alcançantes (reaching definitions) sobre o grafo de fluxo.
+     */
+    private static List<InstrucaoTAC> separarDefinicoes(List<InstrucaoTAC> codigo) {
+        GrafoFluxoControle grafo = GrafoFluxoControle.construir(codigo);
+        List<BlocoBasico> blocos = grafo.getBlocos();
+
+        // Numera as definições e, por registrador, o conjunto das suas definições
+        List<String> registradorDaDefinicao = new ArrayList<>();
+        Map<String, BitSet> definicoesPorRegistrador = new HashMap<>();
+        int[] definicaoNaPosicao = new int[codigo.size()];
+        int posicao = 0;
+        for (BlocoBasico bloco : blocos) {
+            for (InstrucaoTAC instrucao : bloco.instrucoes) {
+                String destino = instrucao.registradorDefinido();
+                definicaoNaPosicao[posicao++] = destino == null ? -1 : registradorDaDefinicao.size();
+                if (destino != null) {
+                    definicoesPorRegistrador.computeIfAbsent(destino, r -> new BitSet()).set(registradorDaDefinicao.size());
+                    registradorDaDefinicao.add(destino);
+                }
+            }
+        }
+
+        // Definições alcançantes na entrada de cada bloco (para frente, até estabilizar)
+        List<BitSet> entradas = new ArrayList<>();
+        for (int i = 0; i < blocos.size(); i++) {
+            entradas.add(new BitSet());
+        }
+        int[] inicioDoBloco = new int[blocos.size()];
+        for (int i = 1; i < blocos.size(); i++) {
+            inicioDoBloco[i] = inicioDoBloco[i - 1] + blocos.get(i - 1).instrucoes.size();
+        }
+        boolean mudou = true;
+        while (mudou) {
+            mudou = false;
+            for (BlocoBasico bloco : blocos) {
+                BitSet saida = (BitSet) entradas.get(bloco.indice).clone();
+                for (int k = 0; k < bloco.instrucoes.size(); k++) {
+                    int definicao = definicaoNaPosicao[inicioDoBloco[bloco.indice] + k];
+                    if (definicao >= 0) {
+                        saida.andNot(definicoesPorRegistrador.get(registradorDaDefinicao.get(definicao)));
+                        saida.set(definicao);
+                    }
+                }
+                for (BlocoBasico sucessor : bloco.sucessores) {
+                    BitSet entrada = entradas.get(sucessor.indice);
+                    BitSet antes = (BitSet) entrada.clone();
+                    entrada.or(saida);
+                    if (!entrada.equals(antes)) {
+                        mudou = true;
+                    }
+                }
+            }
+        }
+
+        // Une as definições que alcançam cada uso (union-find sobre os números das definições)
+        int[] pai = new int[registradorDaDefinicao.size()];
+        for (int d = 0; d < pai.length; d++) {
+            pai[d] = d;
+        }
+        List<Map<String, Integer>> usoNaPosicao = new ArrayList<>(); // Registrador lido -> uma definição que o alcança
+        for (BlocoBasico bloco : blocos) {
+            BitSet alcancantes = (BitSet) entradas.get(bloco.indice).clone();
+            for (int k = 0; k < bloco.instrucoes.size(); k++) {
+                InstrucaoTAC instrucao = bloco.instrucoes.get(k);
+                Map<String, Integer> usos = new HashMap<>();
+                for (String usado : instrucao.registradoresUsados()) {
+                    BitSet definicoes = (BitSet) alcancantes.clone();
+                    definicoes.and(definicoesPorRegistrador.getOrDefault(usado, new BitSet()));
+                    int primeira = definicoes.nextSetBit(0);
+                    for (int d = primeira; d >= 0; d = definicoes.nextSetBit(d + 1)) {
+                        unir(pai, primeira, d);
+                    }
+                    usos.put(usado, primeira); // -1: lido sem definição anterior
+                }
+                usoNaPosicao.add(usos);
+
+                int definicao = definicaoNaPosicao[inicioDoBloco[bloco.indice] + k];
+                if (definicao >= 0) {
+                    String destino = registradorDaDefinicao.get(definicao);
+                    if (instrucao.isFormaCurta() && usos.get(destino) >= 0) {
+                        unir(pai, usos.get(destino), definicao);
+                    }
+                    alcancantes.andNot(definicoesPorRegistrador.get(destino));
+                    alcancantes.set(definicao);
+                }
+            }
+        }
+
+        // Nomeia as teias na ordem em que aparecem e reescreve o código
+        Map<Integer, String> nomes = new HashMap<>();
+        List<InstrucaoTAC> resultado = new ArrayList<>(codigo.size());
+        posicao = 0;
+        for (BlocoBasico bloco : blocos) {
+            for (InstrucaoTAC instrucao : bloco.instrucoes) {
+                Map<String, Integer> usos = usoNaPosicao.get(posicao);
+                int definicao = definicaoNaPosicao[posicao];
+                resultado.add(instrucao.comRegistradores(
+                        r -> usos.get(r) < 0 ? r : nomeDaTeia(nomes, raiz(pai, usos.get(r))),
+                        r -> nomeDaTeia(nomes, raiz(pai, definicao))));
+                posicao++;
+            }
+        }
+        return resultado;
+    }
+
+    private static String nomeDaTeia(Map<Integer, String> nomes, int raiz) {
+        return nomes.computeIfAbsent(raiz, r -> "V" + (nomes.size() + 1));
+    }
+
+    private static int raiz(int[] pai, int d) {
+        while (pai[d] != d) {
+            pai[d] = pai[pai[d]];
+            d = pai[d];
+        }
+        return d;
+    }
+
+    private static void unir(int[] pai, int a, int b) {
+        pai[raiz(pai, a)] = raiz(pai, b);
+    }
+
+    /**
+     * Calcula o intervalo de vida de cada registrador virtual e, de quebra, a pressão de registradores
+     * (quantos valores estão vivos ao mesmo tempo) em cada instrução e em cada comando.
+     */
+    private Map<String, Intervalo> calcularIntervalos(List<InstrucaoTAC> codigo) {
+        GrafoFluxoControle grafo = GrafoFluxoControle.construir(codigo);
+        List<Set<String>> vivosNaEntrada = grafo.registradoresVivosNaEntrada();
+
+        int[] pressao = new int[codigo.size()];
+        boolean[] semVivosDepois = new boolean[codigo.size()];
+        Map<String, Intervalo> intervalos = new LinkedHashMap<>();
+        int posicao = codigo.size();
+        for (int b = grafo.getBlocos().size() - 1; b >= 0; b--) {
+            BlocoBasico bloco = grafo.getBlocos().get(b);
+            Set<String> vivos = GrafoFluxoControle.registradoresVivosNaSaida(bloco, vivosNaEntrada);
+            for (int k = bloco.instrucoes.size() - 1; k >= 0; k--) {
+                posicao--;
+                InstrucaoTAC instrucao = bloco.instrucoes.get(k);
+                String destino = instrucao.registradorDefinido();
+                semVivosDepois[posicao] = vivos.isEmpty();
+
+                // Pressão: valores vivos antes da instrução ou depois dela (contando o destino, ainda que não seja lido)
+                Set<String> ocupados = new HashSet<>(vivos);
+                if (destino != null) {
+                    ocupados.add(destino);
+                }
+                int depois = ocupados.size();
+                GrafoFluxoControle.recuarVivos(instrucao, vivos);
+                pressao[posicao] = Math.max(vivos.size(), depois);
+                ocupados.addAll(vivos);
+                for (String registrador : ocupados) {
+                    intervalos.computeIfAbsent(registrador, Intervalo::new).incluir(posicao);
+                }
+            }
+        }
+
+        // Pressão máxima geral e por comando (trechos separados por pontos sem registradores vivos)
+        picoPressao = 0;
+        linhaPico = 0;
+        comandos.clear();
+        Comando atual = null;
+        for (int p = 0; p < codigo.size(); p++) {
+            if (codigo.get(p).isLabel()) {
+                continue;
+            }
+            if (atual == null) {
+                atual = new Comando(p);
+                comandos.add(atual);
+            }
+            atual.fim = p;
+            atual.pico = Math.max(atual.pico, pressao[p]);
+            if (pressao[p] > picoPressao) {
+                picoPressao = pressao[p];
+                linhaPico = p;
+            }
+            if (semVivosDepois[p]) {
+                atual = null;
+            }
+        }
+        return intervalos;
+    }
+
+    // ---------------------------------------------------------
+    // Varredura linear
+    // ---------------------------------------------------------
+
+    /**
+     * Distribui os intervalos, em ordem de início, entre 'disponiveis' registradores físicos.
+     * Um intervalo que termina até o início do próximo libera seu registrador (a instrução lê
+     * os operandos antes de escrever o destino). Sem registrador livre, derrama quem termina mais tarde.
+     * @return true se nenhum intervalo foi derramado.
+     */
+    private boolean varrer(Map<String, Intervalo> intervalos, int disponiveis) {
+        List<Intervalo> ordenados = new ArrayList<>(intervalos.values());
+        ordenados.sort((a, b) -> a.inicio != b.inicio ? Integer.compare(a.inicio, b.inicio) : Integer.compare(a.fim, b.fim));
+
+        List<Intervalo> ativos = new ArrayList<>();
+        List<String> livres = new ArrayList<>();
+        for (int r = disponiveis; r >= 1; r--) {
+            livres.add("R" + r); // Pilha: R1 sai primeiro
+        }
+        Set<String> usados = new HashSet<>();
+        derramados = 0;
+        int proximoSlot = 0;
+
+        for (Intervalo intervalo : ordenados) {
+            intervalo.fisico = null;
+            intervalo.slot = null;
+            for (int k = ativos.size() - 1; k >= 0; k--) {
+                if (ativos.get(k).fim <= intervalo.inicio) {
+                    livres.add(ativos.remove(k).fisico);
+                }
+            }
+            livres.sort((a, b) -> Integer.compare(Integer.parseInt(b.substring(1)), Integer.parseInt(a.substring(1))));
+
+            if (!livres.isEmpty()) {
+                intervalo.fisico = livres.remove(livres.size() - 1);
+                ativos.add(intervalo);
+            } else {
+                Intervalo maisLongo = intervalo;
+                for (Intervalo ativo : ativos) {
+                    if (ativo.fim > maisLongo.fim) {
+                        maisLongo = ativo;
+                    }
+                }
+                if (maisLongo != intervalo) {
+                    intervalo.fisico = maisLongo.fisico;
+                    maisLongo.fisico = null;
+                    ativos.remove(maisLongo);
+                    ativos.add(intervalo);
+                }
+                maisLongo.slot = "S" + proximoSlot++;
+                derramados++;
+            }
+            if (intervalo.fisico != null) {
+                usados.add(intervalo.fisico);
+            }
+        }
+        fisicosUsados = usados.size() + (derramados > 0 ? 2 : 0);
+        return derramados == 0;
+    }
+
+    // ---------------------------------------------------------
+    // Reescrita
+    // ---------------------------------------------------------
+
+    /**
+     * Troca os virtuais pelos físicos. Para os derramados: RELOAD em um registrador reservado antes
+     * da instrução que lê o valor e SPILL logo depois da que o escreve.
+     */
+    private List<InstrucaoTAC> reescrever(List<InstrucaoTAC> codigo, Map<String, Intervalo> intervalos) {
+        String reservado1 = "R" + (quantidadeRegistradores - 1);
+        String reservado2 = "R" + quantidadeRegistradores;
+        instrucoesSpill = 0;
+        instrucoesReload = 0;
+
+        List<InstrucaoTAC> resultado = new ArrayList<>(codigo.size());
+        for (InstrucaoTAC instrucao : codigo) {
+            Map<String, String> recarregados = new LinkedHashMap<>(); // Virtual derramado -> reservado
+            for (String usado : instrucao.registradoresUsados()) {
+                Intervalo intervalo = intervalos.get(usado);
+                if (intervalo.slot != null && !recarregados.containsKey(usado)) {
+                    String reservado = recarregados.isEmpty() ? reservado1 : reservado2;
+                    recarregados.put(usado, reservado);
+                    resultado.add(new InstrucaoTAC("RELOAD", reservado, intervalo.slot));
+                    instrucoesReload++;
+                }
+            }
+
+            String[] derramadoDefinido = new String[2]; // {slot, reservado}
+            resultado.add(instrucao.comRegistradores(
+                    r -> recarregados.containsKey(r) ? recarregados.get(r) : intervalos.get(r).fisico,
+                    r -> {
+                        Intervalo intervalo = intervalos.get(r);
+                        if (intervalo.slot == null) {
+                            return intervalo.fisico;
+                        }
+                        derramadoDefinido[0] = intervalo.slot;
+                        derramadoDefinido[1] = reservado1; // Os operandos já foram lidos
+                        return reservado1;
+                    }));
+
+            // Formas de dois endereços escrevem no registrador lido: o destino derramado é o recarregado
+            String destino = instrucao.registradorDefinido();
+            if (destino != null && derramadoDefinido[0] == null && recarregados.containsKey(destino)) {
+                derramadoDefinido[0] = intervalos.get(destino).slot;
+                derramadoDefinido[1] = recarregados.get(destino);
+            }
+            if (derramadoDefinido[0] != null) {
+                resultado.add(new InstrucaoTAC("SPILL", derramadoDefinido[0], derramadoDefinido[1]));
+                instrucoesSpill++;
+            }
+        }
+        return resultado;
+    }
+
+    // Quantidade de registradores distintos no código do gerador
+    private static int contarRegistradores(List<InstrucaoTAC> codigo) {
+        Set<String> nomes = new HashSet<>();
+        for (InstrucaoTAC instrucao : codigo) {
+            nomes.addAll(instrucao.registradoresUsados());
+            if (instrucao.registradorDefinido() != null) {
+                nomes.add(instrucao.registradorDefinido());
+            }
+        }
+        return nomes.size();
+    }
+}
@@ -1,35 +1,50 @@
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * Responsável por ler o código fonte caractere a caractere e agrupá-los em Tokens.
  * Implementa a lógica de autômato finito para reconhecimento de padrões.
  */
-public class AnalisadorLexico {
+public class AnalisadorLexico implements FonteDeTokens {
     private final String codigoFonte; // O código fonte completo carregado em memória
     private int posicaoAtual = 0;     // Ponteiro para o caractere sendo lido
-    private int linhaAtual = 1;       // Contador de linhas para reporte de erros
-
-    // Mapa estático contendo as palavras reservadas da linguagem para consulta rápida
-    private static final Map<String, TipoToken> palavrasReservadas;
-
-    static {
-        palavrasReservadas = new HashMap<>();
-        palavrasReservadas.put("inteiro", TipoToken.TIPO_INTEIRO);
-        palavrasReservadas.put("real", TipoToken.TIPO_REAL);
-        palavrasReservadas.put("caracter", TipoToken.TIPO_CARACTER);
-        palavrasReservadas.put("se", TipoToken.SE);
-        palavrasReservadas.put("entao", TipoToken.ENTAO);
-        palavrasReservadas.put("senao", TipoToken.SENAO);
-        palavrasReservadas.put("enquanto", TipoToken.ENQUANTO);
-        palavrasReservadas.put("E", TipoToken.OP_BOOLEANO_E);
-        palavrasReservadas.put("OR", TipoToken.OP_BOOLEANO_OR);
-        palavrasReservadas.put("NOT", TipoToken.OP_BOOLEANO_NOT);
-        palavrasReservadas.put("RESTO", TipoToken.OP_RESTO);
-    }
+    private int linhaAtual;           // Contador de linhas para reporte de erros
+    private int inicioToken = 0;      // Posição do primeiro caractere do último token reconhecido
+    private int idToken = -1;         // ID interno do último identificador reconhecido (-1 para outros tokens)
+
+    // Internação dos identificadores em IDs densos, compartilhada por todos os tokens desta análise
+    private final TabelaDeNomes nomes;
+
+    // Palavras reservadas da linguagem e seus tipos (índices correspondentes).
+    // São internadas primeiro na TabelaDeNomes, recebendo os IDs 0..N-1: assim, uma única
+    // busca na tabela de nomes classifica o trecho como palavra reservada ou identificador.
+    private static final String[] PALAVRAS_RESERVADAS = {
+            "inteiro", "real", "caracter", "se", "entao", "senao", "enquanto", "E", "OR", "NOT", "RESTO"
+    };
+    private static final TipoToken[] TIPOS_RESERVADOS = {
+            TipoToken.TIPO_INTEIRO, TipoToken.TIPO_REAL, TipoToken.TIPO_CARACTER,
+            TipoToken.SE, TipoToken.ENTAO, TipoToken.SENAO, TipoToken.ENQUANTO,
+            TipoToken.OP_BOOLEANO_E, TipoToken.OP_BOOLEANO_OR, TipoToken.OP_BOOLEANO_NOT, TipoToken.OP_RESTO
+    };
 
     public AnalisadorLexico(String codigoFonte) {
-        this.codigoFonte = codigoFonte;
+        this(codigoFonte, new TabelaDeNomes(), 1);
+    }
+
+    /**
+     * Analisa um trecho do código fonte que continua outro já analisado (ver FonteEmTrechos): os nomes
+     * são internados na mesma tabela, mantendo os IDs, e as linhas são contadas a partir de 'primeiraLinha'.
+     */
+    public AnalisadorLexico(String trecho, TabelaDeNomes nomes, int primeiraLinha) {
+        this.codigoFonte = trecho;
+        this.nomes = nomes;
+        this.linhaAtual = primeiraLinha;
+        if (nomes.tamanho() == 0) {
+            for (String palavra : PALAVRAS_RESERVADAS) {
+                nomes.internar(palavra);
+            }
+        }
+    }
+
+    public TabelaDeNomes getTabelaDeNomes() {
+        return nomes;
     }
 
     /**
@@ -37,10 +52,43 @@ public class AnalisadorLexico {
      * @return Objeto Token contendo tipo, lexema e linha.
      * @throws RuntimeException em caso de caracteres inválidos ou identificadores muito longos.
      */
+    @Override
     public Token proximoToken() {
+        TipoToken tipo = reconhecer();
+        if (tipo == TipoToken.IDENTIFICADOR) {
+            // O lexema é a String canônica da tabela de nomes (uma por identificador distinto)
+            return new Token(tipo, nomes.nome(idToken), linhaAtual, idToken);
+        }
+        return new Token(tipo, BufferDeTokens.lexema(codigoFonte, tipo, inicioToken, posicaoAtual - inicioToken), linhaAtual);
+    }
+
+    /**
+     * Analisa todo o código fonte de uma vez, gravando os tokens diretamente em um BufferDeTokens
+     * (arrays paralelos de tipo, início, comprimento e linha), sem criar objetos Token nem substrings.
+     * O último token gravado é sempre o EOF.
+     * @throws RuntimeException em caso de erro léxico.
+     */
+    public BufferDeTokens tokenizar() {
+        BufferDeTokens buffer = new BufferDeTokens(codigoFonte, nomes);
+        TipoToken tipo;
+        do {
+            tipo = reconhecer();
+            buffer.adicionar(tipo, inicioToken, posicaoAtual - inicioToken, linhaAtual, idToken);
+        } while (tipo != TipoToken.EOF);
+        return buffer;
+    }
+
+    /**
+     * Núcleo do autômato: avança sobre o próximo token e devolve seu tipo.
+     * Ao retornar, o lexema ocupa o intervalo [inicioToken, posicaoAtual) do código fonte.
+     */
+    private TipoToken reconhecer() {
+        idToken = -1;
+
         // Verifica se chegamos ao final do arquivo
         if (posicaoAtual >= codigoFonte.length()) {
-            return new Token(TipoToken.EOF, "", linhaAtual);
+            inicioToken = posicaoAtual;
+            return TipoToken.EOF;
         }
 
         char atual = codigoFonte.charAt(posicaoAtual);
@@ -52,11 +100,14 @@ public class AnalisadorLexico {
             }
             posicaoAtual++;
             if (posicaoAtual >= codigoFonte.length()) {
-                return new Token(TipoToken.EOF, "", linhaAtual);
+                inicioToken = posicaoAtual;
+                return TipoToken.EOF;
             }
             atual = codigoFonte.charAt(posicaoAtual);
         }
 
+        inicioToken = posicaoAtual;
+
         // Se for dígito ou ponto, inicia a extração de um número
         if (Character.isDigit(atual) || atual == '.') {
             return extrairNumero();
@@ -73,95 +124,91 @@ public class AnalisadorLexico {
                 // Verifica se é o fim do programa '$.'
                 if (posicaoAtual + 1 < codigoFonte.length() && codigoFonte.charAt(posicaoAtual + 1) == '.') {
                     posicaoAtual += 2;
-                    return new Token(TipoToken.FIM_PROGRAMA, "$.", linhaAtual);
+                    return TipoToken.FIM_PROGRAMA;
                 }
                 posicaoAtual++;
-                return new Token(TipoToken.INICIO_PROGRAMA, "$", linhaAtual);
+                return TipoToken.INICIO_PROGRAMA;
             case ';':
                 posicaoAtual++;
-                return new Token(TipoToken.PONTO_E_VIRGULA, ";", linhaAtual);
+                return TipoToken.PONTO_E_VIRGULA;
             case ',':
                 posicaoAtual++;
-                return new Token(TipoToken.VIRGULA, ",", linhaAtual);
+                return TipoToken.VIRGULA;
             case '(':
                 posicaoAtual++;
-                return new Token(TipoToken.ABRE_PARENTESES, "(", linhaAtual);
+                return TipoToken.ABRE_PARENTESES;
             case ')':
                 posicaoAtual++;
-                return new Token(TipoToken.FECHA_PARENTESES, ")", linhaAtual);
+                return TipoToken.FECHA_PARENTESES;
             case '+':
                 posicaoAtual++;
-                return new Token(TipoToken.OP_SOMA, "+", linhaAtual);
+                return TipoToken.OP_SOMA;
             case '>':
-                posicaoAtual++;
-                if (posicaoAtual < codigoFonte.length() && codigoFonte.charAt(posicaoAtual) == '=') {
-                    posicaoAtual++;
-                    return new Token(TipoToken.OP_LOGICO, ">=", linhaAtual);
-                }
-                return new Token(TipoToken.OP_LOGICO, ">", linhaAtual);
             case '<':
+                // '>', '>=', '<' e '<='
                 posicaoAtual++;
                 if (posicaoAtual < codigoFonte.length() && codigoFonte.charAt(posicaoAtual) == '=') {
                     posicaoAtual++;
-                    return new Token(TipoToken.OP_LOGICO, "<=", linhaAtual);
                 }
-                return new Token(TipoToken.OP_LOGICO, "<", linhaAtual);
+                return TipoToken.OP_LOGICO;
             case '=':
                 posicaoAtual++;
                 if (posicaoAtual < codigoFonte.length() && codigoFonte.charAt(posicaoAtual) == '=') {
                     posicaoAtual++;
-                    return new Token(TipoToken.OP_LOGICO, "==", linhaAtual);
+                    return TipoToken.OP_LOGICO;
                 }
-                return new Token(TipoToken.OP_ATRIBUICAO, "=", linhaAtual);
+                return TipoToken.OP_ATRIBUICAO;
             case '!':
                 posicaoAtual++;
                 if (posicaoAtual < codigoFonte.length() && codigoFonte.charAt(posicaoAtual) == '=') {
                     posicaoAtual++;
-                    return new Token(TipoToken.OP_LOGICO, "!=", linhaAtual);
+                    return TipoToken.OP_LOGICO;
                 }
-                throw new RuntimeException("Erro Léxico: Caractere inesperado '!' na linha " + linhaAtual);
+                throw new ErroCompilacao(OpcoesCompilacao.Fase.LEXICO, linhaAtual, "Erro Léxico: Caractere inesperado '!' na linha " + linhaAtual);
             case '*':
                 posicaoAtual++;
-                return new Token(TipoToken.OP_MULT, "*", linhaAtual);
+                return TipoToken.OP_MULT;
             case '/':
                 posicaoAtual++;
-                return new Token(TipoToken.OP_DIV, "/", linhaAtual);
+                return TipoToken.OP_DIV;
         }
-        throw new RuntimeException("Erro Léxico: Caractere inesperado '" + atual + "' na linha " + linhaAtual);
+        throw new ErroCompilacao(OpcoesCompilacao.Fase.LEXICO, linhaAtual, "Erro Léxico: Caractere inesperado '" + atual + "' na linha " + linhaAtual);
     }
 
     /**
      * Extrai uma sequência alfanumérica e verifica se é uma Palavra Reservada ou Identificador.
      * Aplica a regra de limite máximo de 10 caracteres.
      */
-    private Token extrairIdentificador() {
+    private TipoToken extrairIdentificador() {
         int inicio = posicaoAtual;
         while (posicaoAtual < codigoFonte.length() &&
                 (Character.isLetterOrDigit(codigoFonte.charAt(posicaoAtual)))) {
             posicaoAtual++;
         }
-        String lexema = codigoFonte.substring(inicio, posicaoAtual);
+        int comprimento = posicaoAtual - inicio;
 
         // Validação da Premissa: Limite de caracteres
-        if (lexema.length() > 10) {
-            throw new RuntimeException("Erro Léxico: Identificador '" + lexema + "' excede o limite de 10 caracteres na linha " + linhaAtual);
+        if (comprimento > 10) {
+            throw new ErroCompilacao(OpcoesCompilacao.Fase.LEXICO, linhaAtual, "Erro Léxico: Identificador '" + codigoFonte.substring(inicio, posicaoAtual) + "' excede o limite de 10 caracteres na linha " + linhaAtual);
         }
 
-        // Verifica se o lexema extraído existe no mapa de palavras reservadas
-        TipoToken tipo = palavrasReservadas.getOrDefault(lexema, TipoToken.IDENTIFICADOR);
-        return new Token(tipo, lexema, linhaAtual);
+        // Interna o trecho: IDs abaixo de PALAVRAS_RESERVADAS.length são palavras reservadas
+        int id = nomes.internar(codigoFonte, inicio, posicaoAtual);
+        if (id < PALAVRAS_RESERVADAS.length) {
+            return TIPOS_RESERVADOS[id];
+        }
+        idToken = id;
+        return TipoToken.IDENTIFICADOR;
     }
 
     /**
      * Extrai uma sequência numérica (inteiro ou real).
      */
-    private Token extrairNumero() {
-        int inicio = posicaoAtual;
+    private TipoToken extrairNumero() {
         while (posicaoAtual < codigoFonte.length() &&
                 (Character.isDigit(codigoFonte.charAt(posicaoAtual)) || codigoFonte.charAt(posicaoAtual) == '.')) {
             posicaoAtual++;
         }
-        String lexema = codigoFonte.substring(inicio, posicaoAtual);
-        return new Token(TipoToken.NUMERO, lexema, linhaAtual);
+        return TipoToken.NUMERO;
     }
-}
\ No newline at end of file
+}
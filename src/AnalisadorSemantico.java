@@ -1,36 +1,90 @@
+import java.util.ArrayDeque;
+
 /**
  * Responsável pela validação de regras de contexto que a gramática não captura.
  * Principais verificações:
  * 1. Uso de variáveis não declaradas.
  * 2. Incompatibilidade de tipos (ex: atribuir float a int).
+ *
+ * Os erros são acumulados nos Diagnosticos da tabela de símbolos e lançados juntos ao fim da análise,
+ * em um único ErroCompilacao. Um termo com variável não declarada tem tipo desconhecido (null) e
+ * não entra nas comparações de tipo, para não gerar um segundo erro pelo mesmo problema.
  */
 public class AnalisadorSemantico {
 
     private TabelaDeSimbolos tabela;
+    private final Diagnosticos diagnosticos;
+
+    // Visitante usado no percurso da árvore plana: só atua nos nós que têm regras semânticas
+    private final VisitanteArvore visitante = new VisitanteArvore() {
+        @Override
+        public boolean visitarAtribuicao(ArvorePlana arvore, int no) {
+            validarAtribuicao(arvore, no);
+            return true;
+        }
+
+        @Override
+        public boolean visitarCondicaoSimples(ArvorePlana arvore, int no) {
+            validarCondicaoSimples(arvore, no);
+            return true;
+        }
+    };
 
     public AnalisadorSemantico(TabelaDeSimbolos tabela) {
+        this(tabela, tabela.getDiagnosticos());
+    }
+
+    /**
+     * Analisador que acumula os erros em 'diagnosticos' em vez dos da tabela (semântica paralela:
+     * a tabela é compartilhada apenas para leitura).
+     */
+    public AnalisadorSemantico(TabelaDeSimbolos tabela, Diagnosticos diagnosticos) {
         this.tabela = tabela;
+        this.diagnosticos = diagnosticos;
     }
 
     /**
-     * Percorre a árvore sintática recursivamente verificando regras em nós específicos.
+     * Percorre a árvore sintática verificando regras em nós específicos.
+     * @throws ErroCompilacao com todos os erros semânticos encontrados.
      */
     public void analisar(NoArvore no) {
-        if (no == null) {
+        percorrer(no);
+        diagnosticos.lancarSeHouver();
+    }
+
+    /**
+     * Verifica um comando isolado (modo em fluxo), acumulando os erros nos Diagnosticos do analisador
+     * sem lançá-los: quem conduz o fluxo os lança ao fim do programa.
+     */
+    public void verificar(NoArvore comando) {
+        percorrer(comando);
+    }
+
+    // Percurso em pré-ordem com pilha explícita (filhos empilhados do último ao primeiro, para sair em ordem)
+    private void percorrer(NoArvore raiz) {
+        if (raiz == null) {
             return;
         }
 
-        switch (no.valor) {
-            case "Atribuicao":
-                validarAtribuicao(no);
-                break;
-            case "CondicaoSimples":
-                validarCondicaoSimples(no);
-                break;
-        }
+        ArrayDeque<NoArvore> pendentes = new ArrayDeque<>();
+        pendentes.push(raiz);
+        while (!pendentes.isEmpty()) {
+            NoArvore no = pendentes.pop();
 
-        for (NoArvore filho : no.filhos) {
-            analisar(filho);
+            switch (no.valor) {
+                case "Atribuicao":
+                    validarAtribuicao(no);
+                    break;
+                case "CondicaoSimples":
+                    validarCondicaoSimples(no);
+                    break;
+            }
+
+            for (int i = no.filhos.size() - 1; i >= 0; i--) {
+                if (no.filhos.get(i) != null) {
+                    pendentes.push(no.filhos.get(i));
+                }
+            }
         }
     }
 
@@ -43,14 +97,15 @@ public class AnalisadorSemantico {
         int linha = noVar.linha;
 
         // Verifica se a variável foi declarada
-        String tipoVar = tabela.verificarDeclarada(varNome, linha);
+        TipoDado tipoVar = tabela.verificarDeclarada(noVar.id, varNome, linha, diagnosticos);
 
         // Determina o tipo resultante da expressão à direita
-        String tipoExpr = determinarTipoExpressao(noAtribuicao, 2);
+        TipoDado tipoExpr = determinarTipoExpressao(noAtribuicao, 2);
 
         // Verifica compatibilidade estrita de tipos
-        if (!tipoVar.equals(tipoExpr)) {
-            throw new RuntimeException("Erro Semântico: Tipos incompatíveis na atribuição. " +
+        if (incompativeis(tipoVar, tipoExpr)) {
+            diagnosticos.registrar(OpcoesCompilacao.Fase.SEMANTICO, linha,
+                    "Erro Semântico: Tipos incompatíveis na atribuição. " +
                     "Variável '" + varNome + "' (" + tipoVar + ") " +
                     "recebendo (" + tipoExpr + "). Linha " + linha);
         }
@@ -63,11 +118,12 @@ public class AnalisadorSemantico {
         NoArvore noTermo1 = noCondicaoSimples.filhos.get(0);
         NoArvore noTermo2 = noCondicaoSimples.filhos.get(2);
 
-        String tipoTermo1 = determinarTipoTermo(noTermo1);
-        String tipoTermo2 = determinarTipoTermo(noTermo2);
+        TipoDado tipoTermo1 = determinarTipoTermo(noTermo1);
+        TipoDado tipoTermo2 = determinarTipoTermo(noTermo2);
 
-        if (!tipoTermo1.equals(tipoTermo2)) {
-            throw new RuntimeException("Erro Semântico: Tipos incompatíveis na condição. " +
+        if (incompativeis(tipoTermo1, tipoTermo2)) {
+            diagnosticos.registrar(OpcoesCompilacao.Fase.SEMANTICO, noTermo1.linha,
+                    "Erro Semântico: Tipos incompatíveis na condição. " +
                     "Comparando (" + tipoTermo1 + ") com (" + tipoTermo2 + "). " +
                     "Linha " + noTermo1.linha);
         }
@@ -76,19 +132,22 @@ public class AnalisadorSemantico {
     /**
      * Calcula o tipo resultante de uma expressão aritmética composta.
      */
-    private String determinarTipoExpressao(NoArvore noPai, int indiceInicio) {
+    private TipoDado determinarTipoExpressao(NoArvore noPai, int indiceInicio) {
         NoArvore primeiroTermo = noPai.filhos.get(indiceInicio);
-        String tipoResultante = determinarTipoTermo(primeiroTermo.filhos.get(0));
+        TipoDado tipoResultante = determinarTipoTermo(primeiroTermo.filhos.get(0));
 
         // Verifica cada termo subsequente na expressão
         for (int i = indiceInicio + 2; i < noPai.filhos.size(); i += 2) {
             NoArvore proximoTermo = noPai.filhos.get(i);
-            String tipoProximo = determinarTipoTermo(proximoTermo.filhos.get(0));
+            TipoDado tipoProximo = determinarTipoTermo(proximoTermo.filhos.get(0));
 
-            if (!tipoResultante.equals(tipoProximo)) {
-                throw new RuntimeException("Erro Semântico: Tipos incompatíveis na expressão. " +
+            if (incompativeis(tipoResultante, tipoProximo)) {
+                diagnosticos.registrar(OpcoesCompilacao.Fase.SEMANTICO, proximoTermo.linha,
+                        "Erro Semântico: Tipos incompatíveis na expressão. " +
                         "Operação entre (" + tipoResultante + ") e (" + tipoProximo + "). " +
                         "Linha " + proximoTermo.linha);
+            } else if (tipoResultante == null) {
+                tipoResultante = tipoProximo;
             }
         }
         return tipoResultante;
@@ -97,19 +156,121 @@ public class AnalisadorSemantico {
     /**
      * Retorna o tipo de um termo simples (variável ou literal numérico).
      */
-    private String determinarTipoTermo(NoArvore noTermo) {
+    private TipoDado determinarTipoTermo(NoArvore noTermo) {
         String valor = noTermo.valor;
         int linha = noTermo.linha;
 
         // Identifica literais
         if (Character.isDigit(valor.charAt(0))) {
-            if (valor.contains(".")) {
-                return "real";
+            if (valor.indexOf('.') >= 0) {
+                return TipoDado.REAL;
+            }
+            return TipoDado.INTEIRO;
+        }
+
+        // Busca o tipo da variável na tabela pelo ID interno (acesso direto a array)
+        return tabela.verificarDeclarada(noTermo.id, valor, linha, diagnosticos);
+    }
+
+    // ---------------------------------------------------------
+    // Versão sobre a árvore plana (ArvorePlana)
+    // ---------------------------------------------------------
+
+    /**
+     * Percorre a árvore plana com o visitante tipado, aplicando as mesmas regras da versão NoArvore.
+     */
+    public void analisar(ArvorePlana arvore) {
+        analisar(arvore, arvore.getRaiz());
+    }
+
+    /**
+     * Analisa apenas a subárvore iniciada em 'no'.
+     * @throws ErroCompilacao com todos os erros semânticos encontrados.
+     */
+    public void analisar(ArvorePlana arvore, int no) {
+        arvore.percorrer(no, visitante);
+        diagnosticos.lancarSeHouver();
+    }
+
+    /**
+     * Verifica a subárvore iniciada em 'no' sem lançar os erros, que ficam nos Diagnosticos do analisador.
+     */
+    public void verificar(ArvorePlana arvore, int no) {
+        arvore.percorrer(no, visitante);
+    }
+
+    private void validarAtribuicao(ArvorePlana arvore, int noAtribuicao) {
+        int noVar = arvore.primeiroFilho(noAtribuicao);
+        String varNome = arvore.rotulo(noVar);
+        int linha = arvore.linha(noVar);
+
+        TipoDado tipoVar = tabela.verificarDeclarada(arvore.id(noVar), varNome, linha, diagnosticos);
+        TipoDado tipoExpr = determinarTipoExpressao(arvore, arvore.filho(noAtribuicao, 2));
+
+        if (incompativeis(tipoVar, tipoExpr)) {
+            diagnosticos.registrar(OpcoesCompilacao.Fase.SEMANTICO, linha,
+                    "Erro Semântico: Tipos incompatíveis na atribuição. " +
+                    "Variável '" + varNome + "' (" + tipoVar + ") " +
+                    "recebendo (" + tipoExpr + "). Linha " + linha);
+        }
+    }
+
+    private void validarCondicaoSimples(ArvorePlana arvore, int noCondicaoSimples) {
+        int noTermo1 = arvore.primeiroFilho(noCondicaoSimples);
+        int noTermo2 = arvore.filho(noCondicaoSimples, 2);
+
+        TipoDado tipoTermo1 = determinarTipoTermo(arvore, noTermo1);
+        TipoDado tipoTermo2 = determinarTipoTermo(arvore, noTermo2);
+
+        if (incompativeis(tipoTermo1, tipoTermo2)) {
+            diagnosticos.registrar(OpcoesCompilacao.Fase.SEMANTICO, arvore.linha(noTermo1),
+                    "Erro Semântico: Tipos incompatíveis na condição. " +
+                    "Comparando (" + tipoTermo1 + ") com (" + tipoTermo2 + "). " +
+                    "Linha " + arvore.linha(noTermo1));
+        }
+    }
+
+    /**
+     * Calcula o tipo da expressão que começa no nó Expressao 'primeiraExpressao'
+     * e segue pelos irmãos (Operador, Expressao)*.
+     */
+    private TipoDado determinarTipoExpressao(ArvorePlana arvore, int primeiraExpressao) {
+        TipoDado tipoResultante = determinarTipoTermo(arvore, arvore.primeiroFilho(primeiraExpressao));
+
+        for (int op = arvore.proximoIrmao(primeiraExpressao); op != ArvorePlana.NENHUM; ) {
+            int proximaExpressao = arvore.proximoIrmao(op);
+            TipoDado tipoProximo = determinarTipoTermo(arvore, arvore.primeiroFilho(proximaExpressao));
+
+            if (incompativeis(tipoResultante, tipoProximo)) {
+                diagnosticos.registrar(OpcoesCompilacao.Fase.SEMANTICO, arvore.linha(proximaExpressao),
+                        "Erro Semântico: Tipos incompatíveis na expressão. " +
+                        "Operação entre (" + tipoResultante + ") e (" + tipoProximo + "). " +
+                        "Linha " + arvore.linha(proximaExpressao));
+            } else if (tipoResultante == null) {
+                tipoResultante = tipoProximo;
             }
-            return "inteiro";
+            op = arvore.proximoIrmao(proximaExpressao);
+        }
+        return tipoResultante;
+    }
+
+    /**
+     * Tipo de um termo: literais são reconhecidos direto no código fonte, sem materializar o lexema.
+     */
+    private TipoDado determinarTipoTermo(ArvorePlana arvore, int noTermo) {
+        int token = arvore.token(noTermo);
+        BufferDeTokens buffer = arvore.getBuffer();
+
+        if (token != ArvorePlana.NENHUM && buffer.tipo(token) == TipoToken.NUMERO
+                && Character.isDigit(buffer.caractere(token, 0))) {
+            return buffer.contem(token, '.') ? TipoDado.REAL : TipoDado.INTEIRO;
         }
 
-        // Busca o tipo da variável na tabela
-        return tabela.verificarDeclarada(valor, linha);
+        return tabela.verificarDeclarada(arvore.id(noTermo), arvore.rotulo(noTermo), arvore.linha(noTermo), diagnosticos);
+    }
+
+    // Tipos diferentes; um tipo desconhecido (variável não declarada, já relatada) é compatível com qualquer outro
+    private static boolean incompativeis(TipoDado a, TipoDado b) {
+        return a != null && b != null && a != b;
     }
-}
\ No newline at end of file
+}
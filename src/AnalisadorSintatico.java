@@ -1,146 +1,408 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * Implementa um Analisador Descendente Recursivo (Recursive Descent Parser).
+ * Só a regra Comando é recursiva (no máximo 10 níveis, Premissa 2); Expressao e Condicao usam uma
+ * pilha explícita, pois parênteses e cadeias E / OR não têm limite de profundidade.
  * Responsável por verificar se a sequência de tokens obedece à gramática da linguagem.
  * Também constrói a Árvore Sintática e popula a Tabela de Símbolos.
+ *
+ * As regras constroem a árvore através de índices de nó (novoNo / novaFolha / adicionarFilho),
+ * o que permite gerar tanto a árvore de objetos (NoArvore) quanto a árvore plana (ArvorePlana)
+ * com a mesma implementação da gramática.
+ *
+ * Um erro sintático não encerra a análise (recuperação em modo pânico): o erro é registrado nos
+ * Diagnosticos da tabela de símbolos, os tokens são descartados até um ponto de sincronização
+ * (';' no fim do comando ou da declaração, 'entao' depois da condição de um 'se', ou '$.') e a
+ * análise continua no comando seguinte. Ao final, todos os erros são lançados em um ErroCompilacao.
+ * Erros léxicos continuam interrompendo a análise no ato.
  */
 public class AnalisadorSintatico {
 
-    private AnalisadorLexico lexico;
+    // Origem dos tokens: uma FonteDeTokens (léxico direto, em pipeline ou fita) OU um BufferDeTokens
+    private FonteDeTokens lexico; // Analisador léxico direto ou executando em pipeline
     private Token tokenAtual;
+    private BufferDeTokens buffer; // Tokens já analisados em arrays paralelos
+    private int indiceAtual;       // Posição do token atual no buffer
 
     // Tabela de símbolos populada durante as declarações para uso posterior na análise semântica
     private TabelaDeSimbolos tabelaDeSimbolos = new TabelaDeSimbolos();
-
-    public AnalisadorSintatico(AnalisadorLexico lexico) {
+    private final Diagnosticos diagnosticos = tabelaDeSimbolos.getDiagnosticos();
+
+    // Tokens consumidos até aqui e no último erro registrado: um erro no mesmo token é efeito do anterior
+    private int avancos;
+    private int avancosNoUltimoErro = -1;
+
+    // Destino da árvore em construção: ArvorePlana (programaPlano) ou lista de NoArvore (programa)
+    private ArvorePlana arvorePlana;
+    private List<NoArvore> nos;
+
+    // Pilha explícita de expressao() e condicao(): nós à espera de um filho e o que falta a cada um.
+    // As duas regras não se chamam e não são reentrantes, então compartilham a pilha (zerada na entrada)
+    private static final byte PRIMEIRO_OPERANDO = 0; // Expressao entre parênteses: falta a primeira subexpressão
+    private static final byte SEGUNDO_OPERANDO = 1;  // Expressao entre parênteses: falta a segunda
+    private static final byte ENTRE_PARENTESES = 2;  // Condicao: falta a subcondição antes do ')'
+    private static final byte A_DIREITA = 3;         // Condicao: falta a subcondição depois de E / OR
+    private int[] pilhaNos = new int[16];
+    private byte[] pilhaEstados = new byte[16];
+    private int topo;
+
+    public AnalisadorSintatico(FonteDeTokens lexico) {
         this.lexico = lexico;
-        this.tabelaDeSimbolos = new TabelaDeSimbolos();
         // Carrega o primeiro token para iniciar a análise ("Lookahead")
         this.tokenAtual = lexico.proximoToken();
     }
 
+    /**
+     * Analisa diretamente um BufferDeTokens, sem objetos Token: o token atual é apenas um índice.
+     */
+    public AnalisadorSintatico(BufferDeTokens buffer) {
+        this.buffer = buffer;
+        this.indiceAtual = 0;
+    }
+
     public TabelaDeSimbolos getTabelaDeSimbolos() {
         return this.tabelaDeSimbolos;
     }
 
+    // Acesso ao token atual, independente da origem dos tokens
+    private TipoToken tipoAtual() {
+        return buffer != null ? buffer.tipo(indiceAtual) : tokenAtual.tipo;
+    }
+
+    private int linhaAtual() {
+        return buffer != null ? buffer.linha(indiceAtual) : tokenAtual.linha;
+    }
+
+    private String lexemaAtual() {
+        return buffer != null ? buffer.lexema(indiceAtual) : tokenAtual.lexema;
+    }
+
+    private int idAtual() {
+        return buffer != null ? buffer.id(indiceAtual) : tokenAtual.id;
+    }
+
+    private int indiceTokenAtual() {
+        return buffer != null ? indiceAtual : ArvorePlana.NENHUM;
+    }
+
+    // ---------------------------------------------------------
+    // Construção da árvore por índices de nó
+    // ---------------------------------------------------------
+
+    /**
+     * Cria um nó de regra (Programa, Atribuicao, Condicao...).
+     */
+    private int novoNo(TipoNo tipo, int linha) {
+        if (arvorePlana != null) {
+            return arvorePlana.novoNo(tipo, ArvorePlana.NENHUM, linha);
+        }
+        nos.add(new NoArvore(tipo.getRotulo(), linha));
+        return nos.size() - 1;
+    }
+
+    /**
+     * Cria uma folha para o token atual.
+     */
+    private int novaFolha() {
+        return novaFolha(lexemaAtual(), indiceTokenAtual(), linhaAtual(), idAtual());
+    }
+
+    /**
+     * Cria uma folha com valor e linha explícitos (ex: parênteses da Condicao).
+     * @param token Índice do token no buffer, usado pela árvore plana para obter o lexema.
+     */
+    private int novaFolha(String valor, int token, int linha, int id) {
+        if (arvorePlana != null) {
+            return arvorePlana.novoNo(TipoNo.TERMINAL, token, linha);
+        }
+        nos.add(new NoArvore(valor, linha, id));
+        return nos.size() - 1;
+    }
+
+    private void adicionarFilho(int pai, int filho) {
+        if (arvorePlana != null) {
+            arvorePlana.adicionarFilho(pai, filho);
+        } else {
+            nos.get(pai).adicionarFilho(nos.get(filho));
+        }
+    }
+
     /**
      * Compara o token atual com o tipo esperado. Se casar, avança para o próximo token.
      * Caso contrário, lança um erro sintático.
      */
     private void consumir(TipoToken tipoEsperado) {
-        if (tokenAtual.tipo == tipoEsperado) {
-            tokenAtual = lexico.proximoToken();
+        if (tipoAtual() == tipoEsperado) {
+            avancar();
         } else {
-            throw new RuntimeException("Erro Sintático: Esperado " + tipoEsperado +
-                    " mas encontrado " + tokenAtual.tipo +
-                    " na linha " + tokenAtual.linha);
+            throw erroSintatico("Erro Sintático: Esperado " + tipoEsperado +
+                    " mas encontrado " + tipoAtual() +
+                    " na linha " + linhaAtual());
         }
     }
 
+    private void avancar() {
+        if (buffer == null) {
+            tokenAtual = lexico.proximoToken();
+        } else if (indiceAtual < buffer.tamanho() - 1) {
+            indiceAtual++; // O último token do buffer é o EOF, que permanece como atual
+        }
+        avancos++;
+    }
+
+    private ErroCompilacao erroSintatico(String mensagem) {
+        return new ErroCompilacao(OpcoesCompilacao.Fase.SINTATICO, linhaAtual(), mensagem);
+    }
+
+    /**
+     * Registra um erro sintático para seguir a análise; erros das outras fases (léxicos) são relançados,
+     * assim como o de limite de diagnósticos, que já traz todos os registrados e atravessa os comandos aninhados.
+     */
+    private void registrarErro(ErroCompilacao erro) {
+        if (erro.getFase() != OpcoesCompilacao.Fase.SINTATICO || erro.isLimiteAtingido()) {
+            throw erro;
+        }
+        if (avancos != avancosNoUltimoErro) {
+            diagnosticos.registrar(erro);
+            avancosNoUltimoErro = avancos;
+        }
+    }
+
+    /**
+     * Modo pânico: descarta tokens até um ponto de sincronização. Consome o ';' que encerra o comando
+     * com erro e para antes de '$.' e do EOF; com 'pararEmEntao', para também antes do 'entao'.
+     */
+    private void sincronizar(boolean pararEmEntao) {
+        while (tipoAtual() != TipoToken.FIM_PROGRAMA && tipoAtual() != TipoToken.EOF
+                && !(pararEmEntao && tipoAtual() == TipoToken.ENTAO)) {
+            TipoToken descartado = tipoAtual();
+            avancar();
+            if (descartado == TipoToken.PONTO_E_VIRGULA) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Regra inicial da gramática, construindo a árvore de objetos (NoArvore).
+     */
+    public NoArvore programa() {
+        nos = new ArrayList<>();
+        int raiz = regraPrograma();
+        NoArvore noPrograma = nos.get(raiz);
+        nos = null;
+        return noPrograma;
+    }
+
+    /**
+     * Regra inicial da gramática, construindo a árvore plana (arena de arrays).
+     * Disponível apenas quando o analisador lê de um BufferDeTokens.
+     */
+    public ArvorePlana programaPlano() {
+        if (buffer == null) {
+            throw new RuntimeException("A árvore plana requer tokens em um BufferDeTokens.");
+        }
+        arvorePlana = new ArvorePlana(buffer);
+        arvorePlana.setRaiz(regraPrograma());
+        ArvorePlana resultado = arvorePlana;
+        arvorePlana = null;
+        return resultado;
+    }
+
+    // ---------------------------------------------------------
+    // Modo em fluxo: um comando externo por vez
+    // ---------------------------------------------------------
+
+    /**
+     * Inicia a análise em fluxo (árvore de objetos): consome o '$' e as declarações, que vão para a
+     * tabela de símbolos. Em seguida, cada proximoComando() devolve a árvore de um comando externo,
+     * sem guardar nada dos anteriores, e encerrarFluxo() consome o '$.' final.
+     */
+    public void iniciarFluxo() {
+        nos = new ArrayList<>();
+        regraInicio(novoNo(TipoNo.PROGRAMA, 0));
+        nos.clear();
+    }
+
+    /**
+     * Verdadeiro enquanto houver comandos antes do '$.' (ou do fim do arquivo).
+     */
+    public boolean haComando() {
+        return tipoAtual() != TipoToken.FIM_PROGRAMA && tipoAtual() != TipoToken.EOF;
+    }
+
+    /**
+     * Analisa o próximo comando externo e devolve a sua árvore, que é a única mantida pelo analisador.
+     * Com erro sintático, o erro é registrado e o comando devolvido pode estar incompleto.
+     */
+    public NoArvore proximoComando() {
+        NoArvore comando = nos.get(comandoExterno());
+        nos.clear();
+        return comando;
+    }
+
+    /**
+     * Consome o '$.' e lança todos os erros acumulados (ErroCompilacao), se houver.
+     */
+    public void encerrarFluxo() {
+        regraFim(novoNo(TipoNo.PROGRAMA, 0));
+        nos = null;
+    }
+
     /**
      * Regra inicial da gramática:
      * Programa -> '$' Declaracoes* Comandos* '$.'
      */
-    public NoArvore programa() {
-        NoArvore noPrograma = new NoArvore("Programa", 0);
-        noPrograma.adicionarFilho(new NoArvore(tokenAtual.lexema, tokenAtual.linha));
-        consumir(TipoToken.INICIO_PROGRAMA);
+    private int regraPrograma() {
+        int noPrograma = novoNo(TipoNo.PROGRAMA, 0);
+        regraInicio(noPrograma);
+        while (haComando()) {
+            adicionarFilho(noPrograma, comandoExterno());
+        }
+        regraFim(noPrograma);
+        return noPrograma;
+    }
+
+    // '$' Declaracoes*
+    private void regraInicio(int noPrograma) {
+        adicionarFilho(noPrograma, novaFolha());
+        try {
+            consumir(TipoToken.INICIO_PROGRAMA);
+        } catch (ErroCompilacao e) {
+            registrarErro(e); // Segue como se o '$' estivesse presente
+        }
 
         // Processa as declarações de variáveis (inteiro, real, caracter)
-        while (tokenAtual.tipo == TipoToken.TIPO_INTEIRO ||
-                tokenAtual.tipo == TipoToken.TIPO_REAL ||
-                tokenAtual.tipo == TipoToken.TIPO_CARACTER) {
-            noPrograma.adicionarFilho(declaracaoTipo());
+        while (tipoAtual() == TipoToken.TIPO_INTEIRO ||
+                tipoAtual() == TipoToken.TIPO_REAL ||
+                tipoAtual() == TipoToken.TIPO_CARACTER) {
+            try {
+                adicionarFilho(noPrograma, declaracaoTipo());
+            } catch (ErroCompilacao e) {
+                registrarErro(e);
+                sincronizar(false);
+            }
         }
+    }
 
-        // Processa a lista de comandos
-        while (tokenAtual.tipo != TipoToken.FIM_PROGRAMA && tokenAtual.tipo != TipoToken.EOF) {
-            // Inicia a contagem de profundidade em 0 para validar a Premissa 2
-            noPrograma.adicionarFilho(comando(0));
+    // Comando no nível externo do programa
+    private int comandoExterno() {
+        int avancosAntes = avancos;
+        // Inicia a contagem de profundidade em 0 para validar a Premissa 2
+        int noComando = comando(0);
+        if (avancos == avancosAntes) {
+            // Nenhum comando começa com este token: descarta o comando inteiro, até depois do seu ';'
+            registrarErro(erroSintatico("Erro Sintático: Comando inválido iniciado por " + tipoAtual() +
+                    " na linha " + linhaAtual()));
+            sincronizar(false);
         }
+        return noComando;
+    }
 
-        noPrograma.adicionarFilho(new NoArvore(tokenAtual.lexema, tokenAtual.linha));
-        consumir(TipoToken.FIM_PROGRAMA);
+    // '$.', seguido do lançamento dos erros acumulados
+    private void regraFim(int noPrograma) {
+        adicionarFilho(noPrograma, novaFolha());
+        try {
+            consumir(TipoToken.FIM_PROGRAMA);
+        } catch (ErroCompilacao e) {
+            registrarErro(e);
+        }
 
-        System.out.println("Análise sintática concluída com sucesso!");
-        return noPrograma;
+        // Erros sintáticos e declarações duplicadas (registradas pela tabela de símbolos)
+        diagnosticos.lancarSeHouver();
     }
 
     /**
      * Regra: Tipo -> ('inteiro'|'real'|'caracter') ID (',' ID)* ';'
      * Também realiza a inserção dos identificadores na Tabela de Símbolos.
      */
-    private NoArvore declaracaoTipo() {
-        NoArvore noTipo = new NoArvore("DeclaracaoTipo", tokenAtual.linha);
+    private int declaracaoTipo() {
+        int noTipo = novoNo(TipoNo.DECLARACAO_TIPO, linhaAtual());
 
-        String tipoVariavel = tokenAtual.lexema;
-        noTipo.adicionarFilho(new NoArvore(tipoVariavel, tokenAtual.linha));
-        consumir(tokenAtual.tipo);
+        TipoDado tipoVariavel = TipoDado.deToken(tipoAtual());
+        adicionarFilho(noTipo, novaFolha());
+        consumir(tipoAtual());
 
         // Declaração da primeira variável
-        Token idToken = tokenAtual;
-        tabelaDeSimbolos.declarar(idToken.lexema, tipoVariavel, idToken.linha);
-        noTipo.adicionarFilho(new NoArvore(idToken.lexema, idToken.linha));
-        consumir(TipoToken.IDENTIFICADOR);
+        declararVariavel(noTipo, tipoVariavel);
 
         // Processa variáveis adicionais separadas por vírgula
-        while (tokenAtual.tipo == TipoToken.VIRGULA) {
-            noTipo.adicionarFilho(new NoArvore(tokenAtual.lexema, tokenAtual.linha));
+        while (tipoAtual() == TipoToken.VIRGULA) {
+            adicionarFilho(noTipo, novaFolha());
             consumir(TipoToken.VIRGULA);
 
-            idToken = tokenAtual;
-            tabelaDeSimbolos.declarar(idToken.lexema, tipoVariavel, idToken.linha);
-            noTipo.adicionarFilho(new NoArvore(idToken.lexema, idToken.linha));
-            consumir(TipoToken.IDENTIFICADOR);
+            declararVariavel(noTipo, tipoVariavel);
         }
 
-        noTipo.adicionarFilho(new NoArvore(tokenAtual.lexema, tokenAtual.linha));
+        adicionarFilho(noTipo, novaFolha());
         consumir(TipoToken.PONTO_E_VIRGULA);
 
         return noTipo;
     }
 
+    /**
+     * Consome o identificador atual e o registra na Tabela de Símbolos com o tipo da declaração.
+     */
+    private void declararVariavel(int noTipo, TipoDado tipoVariavel) {
+        String nomeVariavel = lexemaAtual();
+        int linhaVariavel = linhaAtual();
+        int idVariavel = idAtual();
+        adicionarFilho(noTipo, novaFolha());
+        consumir(TipoToken.IDENTIFICADOR); // Garante que é um identificador (ID válido) antes de declarar
+        tabelaDeSimbolos.declarar(idVariavel, nomeVariavel, tipoVariavel, linhaVariavel);
+    }
+
     /**
      * Regra: Comando -> Condicional | Iterativo | Atribuicao
      * Valida a profundidade máxima de aninhamento (Premissa 2).
+     * Um erro dentro do comando é registrado e a análise segue depois do próximo ';'.
      */
-    private NoArvore comando(int profundidade) {
-        if (profundidade > 10) {
-            throw new RuntimeException("Erro Sintático: Profundidade máxima de 10 comandos excedida na linha " + tokenAtual.linha);
-        }
+    private int comando(int profundidade) {
+        try {
+            if (profundidade > 10) {
+                throw erroSintatico("Erro Sintático: Profundidade máxima de 10 comandos excedida na linha " + linhaAtual());
+            }
 
-        if (tokenAtual.tipo == TipoToken.SE) {
-            return condicional(profundidade);
-        } else if (tokenAtual.tipo == TipoToken.ENQUANTO) {
-            return iterativo(profundidade);
-        } else if (tokenAtual.tipo == TipoToken.IDENTIFICADOR) {
-            return atribuicao();
+            if (tipoAtual() == TipoToken.SE) {
+                return condicional(profundidade);
+            } else if (tipoAtual() == TipoToken.ENQUANTO) {
+                return iterativo(profundidade);
+            } else if (tipoAtual() == TipoToken.IDENTIFICADOR) {
+                return atribuicao();
+            }
+        } catch (ErroCompilacao e) {
+            registrarErro(e);
+            sincronizar(false);
         }
-        return new NoArvore("ComandoVazio(ε)", tokenAtual.linha);
+        return novoNo(TipoNo.COMANDO_VAZIO, linhaAtual());
     }
 
     /**
      * Regra: Atribuicao -> ID '=' Expressao ';'
      */
-    private NoArvore atribuicao() {
-        NoArvore noAtribuicao = new NoArvore("Atribuicao", tokenAtual.linha);
-        noAtribuicao.adicionarFilho(new NoArvore(tokenAtual.lexema, tokenAtual.linha)); // ID
+    private int atribuicao() {
+        int noAtribuicao = novoNo(TipoNo.ATRIBUICAO, linhaAtual());
+        adicionarFilho(noAtribuicao, novaFolha()); // ID
         consumir(TipoToken.IDENTIFICADOR);
 
-        noAtribuicao.adicionarFilho(new NoArvore(tokenAtual.lexema, tokenAtual.linha)); // =
+        adicionarFilho(noAtribuicao, novaFolha()); // =
         consumir(TipoToken.OP_ATRIBUICAO);
 
         // Processa a expressão (pode ser composta por múltiplos termos e operações)
-        noAtribuicao.adicionarFilho(expressao());
+        adicionarFilho(noAtribuicao, expressao());
 
-        while (tokenAtual.tipo == TipoToken.OP_SOMA ||
-                tokenAtual.tipo == TipoToken.OP_MULT ||
-                tokenAtual.tipo == TipoToken.OP_DIV  ||
-                tokenAtual.tipo == TipoToken.OP_RESTO) {
+        while (tipoAtual() == TipoToken.OP_SOMA ||
+                tipoAtual() == TipoToken.OP_MULT ||
+                tipoAtual() == TipoToken.OP_DIV  ||
+                tipoAtual() == TipoToken.OP_RESTO) {
 
-            noAtribuicao.adicionarFilho(new NoArvore(tokenAtual.lexema, tokenAtual.linha)); // Operador
-            consumir(tokenAtual.tipo);
+            adicionarFilho(noAtribuicao, novaFolha()); // Operador
+            consumir(tipoAtual());
 
-            noAtribuicao.adicionarFilho(expressao());
+            adicionarFilho(noAtribuicao, expressao());
         }
 
         consumir(TipoToken.PONTO_E_VIRGULA);
@@ -150,60 +412,84 @@ public class AnalisadorSintatico {
     /**
      * Regra: Expressao -> Termo | Termo OP Termo | (Expressao)
      * Trata precedência básica através de parênteses.
+     * Sem recursão: as Expressao entre parênteses ainda abertas ficam na pilha explícita do analisador,
+     * então a profundidade dos parênteses é limitada pelo heap e não pela pilha da thread.
      */
-    private NoArvore expressao() {
-        NoArvore noExpressao = new NoArvore("Expressao", tokenAtual.linha);
-
-        if (tokenAtual.tipo == TipoToken.ABRE_PARENTESES) {
-            consumir(TipoToken.ABRE_PARENTESES);
-            noExpressao.adicionarFilho(expressao());
-
-            // Na gramática simplificada, espera-se um operador entre expressões parentizadas
-            if (tokenAtual.tipo == TipoToken.OP_SOMA || tokenAtual.tipo == TipoToken.OP_MULT ||
-                    tokenAtual.tipo == TipoToken.OP_DIV || tokenAtual.tipo == TipoToken.OP_RESTO) {
-                noExpressao.adicionarFilho(new NoArvore(tokenAtual.lexema, tokenAtual.linha));
-                consumir(tokenAtual.tipo);
+    private int expressao() {
+        topo = 0;
+        while (true) {
+            int noExpressao = novoNo(TipoNo.EXPRESSAO, linhaAtual());
+
+            if (tipoAtual() == TipoToken.ABRE_PARENTESES) {
+                consumir(TipoToken.ABRE_PARENTESES);
+                empilhar(noExpressao, PRIMEIRO_OPERANDO);
+                continue; // A primeira subexpressão é a próxima Expressao criada
+            } else if (tipoAtual() == TipoToken.NUMERO) {
+                adicionarFilho(noExpressao, novaFolha());
+                consumir(TipoToken.NUMERO);
+            } else if (tipoAtual() == TipoToken.IDENTIFICADOR) {
+                adicionarFilho(noExpressao, novaFolha());
+                consumir(TipoToken.IDENTIFICADOR);
+            } else {
+                throw erroSintatico("Erro Sintático: Esperado número, ID ou '(' na linha " + linhaAtual());
             }
 
-            noExpressao.adicionarFilho(expressao());
-            consumir(TipoToken.FECHA_PARENTESES);
-
-        } else if (tokenAtual.tipo == TipoToken.NUMERO) {
-            noExpressao.adicionarFilho(new NoArvore(tokenAtual.lexema, tokenAtual.linha));
-            consumir(TipoToken.NUMERO);
-        } else if (tokenAtual.tipo == TipoToken.IDENTIFICADOR) {
-            noExpressao.adicionarFilho(new NoArvore(tokenAtual.lexema, tokenAtual.linha));
-            consumir(TipoToken.IDENTIFICADOR);
-        } else {
-            throw new RuntimeException("Erro Sintático: Esperado número, ID ou '(' na linha " + tokenAtual.linha);
+            // Expressao completa: anexa à parentizada em aberto, que segue para o segundo operando ou se fecha
+            while (true) {
+                if (topo == 0) {
+                    return noExpressao;
+                }
+                int pai = pilhaNos[topo - 1];
+                adicionarFilho(pai, noExpressao);
+                if (pilhaEstados[topo - 1] == PRIMEIRO_OPERANDO) {
+                    // Na gramática simplificada, espera-se um operador entre expressões parentizadas
+                    if (tipoAtual() == TipoToken.OP_SOMA || tipoAtual() == TipoToken.OP_MULT ||
+                            tipoAtual() == TipoToken.OP_DIV || tipoAtual() == TipoToken.OP_RESTO) {
+                        adicionarFilho(pai, novaFolha());
+                        consumir(tipoAtual());
+                    }
+                    pilhaEstados[topo - 1] = SEGUNDO_OPERANDO;
+                    break;
+                }
+                consumir(TipoToken.FECHA_PARENTESES);
+                topo--;
+                noExpressao = pai;
+            }
         }
-
-        return noExpressao;
     }
 
     /**
      * Regra: Condicional -> 'se' Condicao 'entao' Comando ['senao' Comando]
      * Incrementa a profundidade ao chamar o próximo comando recursivamente.
      */
-    private NoArvore condicional(int profundidade) {
-        NoArvore noCondicional = new NoArvore("Condicional", tokenAtual.linha);
+    private int condicional(int profundidade) {
+        int noCondicional = novoNo(TipoNo.CONDICIONAL, linhaAtual());
 
-        noCondicional.adicionarFilho(new NoArvore(tokenAtual.lexema, tokenAtual.linha));
+        adicionarFilho(noCondicional, novaFolha());
         consumir(TipoToken.SE);
 
-        noCondicional.adicionarFilho(condicao());
+        try {
+            adicionarFilho(noCondicional, condicao());
+        } catch (ErroCompilacao e) {
+            // Condição inválida: sincroniza no 'entao' para ainda analisar o corpo
+            registrarErro(e);
+            sincronizar(true);
+            if (tipoAtual() != TipoToken.ENTAO) {
+                return noCondicional; // O ';' do comando já foi consumido (ou o programa acabou)
+            }
+        }
 
-        noCondicional.adicionarFilho(new NoArvore(tokenAtual.lexema, tokenAtual.linha));
+        adicionarFilho(noCondicional, novaFolha());
         consumir(TipoToken.ENTAO);
 
         // Corpo do IF (aumenta profundidade)
-        noCondicional.adicionarFilho(comando(profundidade + 1));
+        adicionarFilho(noCondicional, comando(profundidade + 1));
 
-        if (tokenAtual.tipo == TipoToken.SENAO) {
-            noCondicional.adicionarFilho(new NoArvore(tokenAtual.lexema, tokenAtual.linha));
+        if (tipoAtual() == TipoToken.SENAO) {
+            adicionarFilho(noCondicional, novaFolha());
             consumir(TipoToken.SENAO);
             // Corpo do ELSE (aumenta profundidade)
-            noCondicional.adicionarFilho(comando(profundidade + 1));
+            adicionarFilho(noCondicional, comando(profundidade + 1));
         }
 
         return noCondicional;
@@ -211,83 +497,115 @@ public class AnalisadorSintatico {
 
     /**
      * Regra: Condicao -> '(' CondicaoSimples ')' | '(' NOT Condicao ')'
-     * Suporta recursão para operadores lógicos (E / OR).
+     * Suporta condições compostas por operadores lógicos (E / OR).
+     * Sem recursão: cada Condicao à espera de uma subcondição (entre parênteses, depois de NOT ou à direita
+     * de E / OR) fica na pilha explícita, então cadeias E / OR longas não esgotam a pilha da thread.
      */
-    private NoArvore condicao() {
-        NoArvore noCondicao = new NoArvore("Condicao", tokenAtual.linha);
-
-        if (tokenAtual.tipo == TipoToken.ABRE_PARENTESES) {
-            consumir(TipoToken.ABRE_PARENTESES);
-            noCondicao.adicionarFilho(new NoArvore("(", tokenAtual.linha));
-
-            if (tokenAtual.tipo == TipoToken.ABRE_PARENTESES) {
-                // Condição aninhada
-                noCondicao.adicionarFilho(condicao());
-            }
-            else if (tokenAtual.tipo == TipoToken.OP_BOOLEANO_NOT) {
-                // Operador Unário NOT
-                noCondicao.adicionarFilho(new NoArvore(tokenAtual.lexema, tokenAtual.linha));
-                consumir(TipoToken.OP_BOOLEANO_NOT);
-                noCondicao.adicionarFilho(condicao());
-
-            } else {
-                // Condição relacional padrão (ex: a > b)
-                if (tokenAtual.tipo == TipoToken.IDENTIFICADOR) {
-                    NoArvore noSimples = new NoArvore("CondicaoSimples", tokenAtual.linha);
-
-                    noSimples.adicionarFilho(new NoArvore(tokenAtual.lexema, tokenAtual.linha)); // ID
-                    consumir(TipoToken.IDENTIFICADOR);
-
-                    noSimples.adicionarFilho(new NoArvore(tokenAtual.lexema, tokenAtual.linha)); // OP Relacional
-                    consumir(TipoToken.OP_LOGICO);
+    private int condicao() {
+        topo = 0;
+        while (true) {
+            int noCondicao = novoNo(TipoNo.CONDICAO, linhaAtual());
+
+            if (tipoAtual() == TipoToken.ABRE_PARENTESES) {
+                int tokenAbre = indiceTokenAtual();
+                consumir(TipoToken.ABRE_PARENTESES);
+                adicionarFilho(noCondicao, novaFolha("(", tokenAbre, linhaAtual(), -1));
+
+                if (tipoAtual() == TipoToken.ABRE_PARENTESES) {
+                    // Condição aninhada
+                    empilhar(noCondicao, ENTRE_PARENTESES);
+                    continue;
+                }
+                else if (tipoAtual() == TipoToken.OP_BOOLEANO_NOT) {
+                    // Operador Unário NOT
+                    adicionarFilho(noCondicao, novaFolha());
+                    consumir(TipoToken.OP_BOOLEANO_NOT);
+                    empilhar(noCondicao, ENTRE_PARENTESES);
+                    continue;
 
-                    if (tokenAtual.tipo == TipoToken.IDENTIFICADOR || tokenAtual.tipo == TipoToken.NUMERO) {
-                        noSimples.adicionarFilho(new NoArvore(tokenAtual.lexema, tokenAtual.linha));
-                        consumir(tokenAtual.tipo);
+                } else {
+                    // Condição relacional padrão (ex: a > b)
+                    if (tipoAtual() == TipoToken.IDENTIFICADOR) {
+                        int noSimples = novoNo(TipoNo.CONDICAO_SIMPLES, linhaAtual());
+
+                        adicionarFilho(noSimples, novaFolha()); // ID
+                        consumir(TipoToken.IDENTIFICADOR);
+
+                        adicionarFilho(noSimples, novaFolha()); // OP Relacional
+                        consumir(TipoToken.OP_LOGICO);
+
+                        if (tipoAtual() == TipoToken.IDENTIFICADOR || tipoAtual() == TipoToken.NUMERO) {
+                            adicionarFilho(noSimples, novaFolha());
+                            consumir(tipoAtual());
+                        } else {
+                            throw erroSintatico("Erro Sintático: Esperado valor após operador lógico na linha " + linhaAtual());
+                        }
+                        adicionarFilho(noCondicao, noSimples);
                     } else {
-                        throw new RuntimeException("Erro Sintático: Esperado valor após operador lógico.");
+                        throw erroSintatico("Erro Sintático: Esperado IDENTIFICADOR ou NOT após '(' na linha " + linhaAtual());
                     }
-                    noCondicao.adicionarFilho(noSimples);
-                } else {
-                    throw new RuntimeException("Erro Sintático: Esperado IDENTIFICADOR ou NOT após '('.");
                 }
-            }
+                fecharCondicao(noCondicao);
 
-            if (tokenAtual.tipo == TipoToken.FECHA_PARENTESES) {
-                noCondicao.adicionarFilho(new NoArvore(")", tokenAtual.linha));
-                consumir(TipoToken.FECHA_PARENTESES);
             } else {
-                throw new RuntimeException("Erro Sintático: Esperado ')' final.");
+                throw erroSintatico("Erro Sintático: Condição deve começar com '(' na linha " + linhaAtual());
             }
 
-        } else {
-            throw new RuntimeException("Erro Sintático: Condição deve começar com '('.");
+            // Suporte a condições compostas (E / OR): a subcondição à direita é a próxima Condicao criada.
+            // Sem operador, a Condicao está completa e é anexada à que a esperava na pilha.
+            while (tipoAtual() != TipoToken.OP_BOOLEANO_E && tipoAtual() != TipoToken.OP_BOOLEANO_OR) {
+                if (topo == 0) {
+                    return noCondicao;
+                }
+                topo--;
+                int pai = pilhaNos[topo];
+                adicionarFilho(pai, noCondicao);
+                if (pilhaEstados[topo] == ENTRE_PARENTESES) {
+                    fecharCondicao(pai);
+                }
+                noCondicao = pai;
+            }
+            adicionarFilho(noCondicao, novaFolha());
+            consumir(tipoAtual());
+            empilhar(noCondicao, A_DIREITA);
         }
+    }
 
-        // Suporte a condições compostas (E / OR)
-        while (tokenAtual.tipo == TipoToken.OP_BOOLEANO_E || tokenAtual.tipo == TipoToken.OP_BOOLEANO_OR) {
-            noCondicao.adicionarFilho(new NoArvore(tokenAtual.lexema, tokenAtual.linha));
-            consumir(tokenAtual.tipo);
-            noCondicao.adicionarFilho(condicao());
+    // ')' que encerra a parte entre parênteses de uma Condicao
+    private void fecharCondicao(int noCondicao) {
+        if (tipoAtual() == TipoToken.FECHA_PARENTESES) {
+            adicionarFilho(noCondicao, novaFolha(")", indiceTokenAtual(), linhaAtual(), -1));
+            consumir(TipoToken.FECHA_PARENTESES);
+        } else {
+            throw erroSintatico("Erro Sintático: Esperado ')' final na linha " + linhaAtual());
         }
+    }
 
-        return noCondicao;
+    // Guarda uma Expressao ou Condicao à espera da próxima subexpressão / subcondição
+    private void empilhar(int no, byte estado) {
+        if (topo == pilhaNos.length) {
+            pilhaNos = Arrays.copyOf(pilhaNos, topo * 2);
+            pilhaEstados = Arrays.copyOf(pilhaEstados, topo * 2);
+        }
+        pilhaNos[topo] = no;
+        pilhaEstados[topo] = estado;
+        topo++;
     }
 
     /**
      * Regra: Iterativo -> 'enquanto' Condicao Comando
      */
-    private NoArvore iterativo(int profundidade) {
-        NoArvore noIterativo = new NoArvore("Iterativo", tokenAtual.linha);
+    private int iterativo(int profundidade) {
+        int noIterativo = novoNo(TipoNo.ITERATIVO, linhaAtual());
 
-        noIterativo.adicionarFilho(new NoArvore(tokenAtual.lexema, tokenAtual.linha));
+        adicionarFilho(noIterativo, novaFolha());
         consumir(TipoToken.ENQUANTO);
 
-        noIterativo.adicionarFilho(condicao());
+        adicionarFilho(noIterativo, condicao());
 
         // Corpo do Loop (aumenta profundidade)
-        noIterativo.adicionarFilho(comando(profundidade + 1));
+        adicionarFilho(noIterativo, comando(profundidade + 1));
 
         return noIterativo;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,582 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Formato binário de um ProgramaVM (arquivo objeto, extensão .cmpo), para que o programa montado
+ * possa ser guardado e executado sem repetir a compilação nem reler o TAC em texto.
+ *
+ * Layout (inteiros little-endian; cada seção começa no deslocamento indicado no cabeçalho):
+ * - Cabeçalho: mágico "CMPO", versão, flags, quantidades e deslocamentos das seções.
+ * - Operações: um nome por código de operação; a carga confere com CodigoOperacao, para que um
+ *   arquivo gerado com outra numeração seja rejeitado em vez de executado errado.
+ * - Código: as instruções, TAMANHO_INSTRUCAO inteiros cada, exatamente como no ProgramaVM.
+ * - Constantes: os valores (long, reais como bits do double) seguidos de um byte por constante (1 = real).
+ * - Variáveis: nome e tipo de cada slot, na ordem da Tabela de Símbolos.
+ * - Labels: nome e instrução de destino.
+ * - Linhas (opcional): a linha do TAC de cada instrução, para as mensagens de erro de execução.
+ * - Nomes: os textos referenciados pelas outras seções (tamanho em 2 bytes + UTF-8).
+ *
+ * A escrita passa por um buffer direto e um FileChannel. A carga mapeia o arquivo somente leitura
+ * (FileChannel.map) e as consultas leem direto do mapeamento, sem copiar as seções. Para executar,
+ * paraPrograma copia apenas o código para um int[]: o laço de despacho da MaquinaVirtual sobre um
+ * array é bem mais rápido que sobre um IntBuffer.
+ */
+public class ArquivoObjeto {
+
+    public static final int MAGICO = 0x4F504D43; // "CMPO" em little-endian
+    public static final int VERSAO = 1;
+    public static final String EXTENSAO = ".cmpo";
+
+    private static final int FLAG_LINHAS = 1;
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+
+    // Posições dos campos do cabeçalho
+    private static final int CAB_MAGICO = 0;
+    private static final int CAB_VERSAO = 4;
+    private static final int CAB_FLAGS = 8;
+    private static final int CAB_OPERACOES = 12;
+    private static final int CAB_INSTRUCOES = 16;
+    private static final int CAB_REGISTRADORES = 20;
+    private static final int CAB_CONSTANTES = 24;
+    private static final int CAB_VARIAVEIS = 28;
+    private static final int CAB_SLOTS_SPILL = 32;
+    private static final int CAB_LABELS = 36;
+    private static final int CAB_OFS_OPERACOES = 40;
+    private static final int CAB_OFS_CODIGO = 44;
+    private static final int CAB_OFS_CONSTANTES = 48;
+    private static final int CAB_OFS_VARIAVEIS = 52;
+    private static final int CAB_OFS_LABELS = 56;
+    private static final int CAB_OFS_LINHAS = 60;
+    private static final int CAB_OFS_NOMES = 64;
+    private static final int CAB_TAMANHO_NOMES = 68;
+    private static final int TAMANHO_CABECALHO = 72;
+
+    private final Path arquivo;
+    private final MappedByteBuffer mapa;
+
+    private ArquivoObjeto(Path arquivo, MappedByteBuffer mapa) {
+        this.arquivo = arquivo;
+        this.mapa = mapa;
+    }
+
+    // ---------------------------------------------------------
+    // Escrita
+    // ---------------------------------------------------------
+
+    /**
+     * Grava o programa montado no formato objeto.
+     * @param incluirLinhas Grava também o mapa de linhas do TAC (usado nas mensagens de erro de execução).
+     */
+    public static void escrever(ProgramaVM programa, Path destino, boolean incluirLinhas) throws IOException {
+        // Os nomes são reunidos primeiro para que todos os deslocamentos sejam conhecidos antes da escrita
+        TabelaNomes nomes = new TabelaNomes();
+        int[] nomesOperacoes = new int[CodigoOperacao.QUANTIDADE];
+        for (int op = 0; op < CodigoOperacao.QUANTIDADE; op++) {
+            nomesOperacoes[op] = nomes.adicionar(CodigoOperacao.mnemonico(op));
+        }
+        String[] variaveis = programa.getVariaveis();
+        int[] nomesVariaveis = new int[variaveis.length];
+        for (int i = 0; i < variaveis.length; i++) {
+            nomesVariaveis[i] = nomes.adicionar(variaveis[i]);
+        }
+        List<Map.Entry<String, Integer>> labels = new ArrayList<>(programa.getLabels().entrySet());
+        labels.sort(Map.Entry.<String, Integer>comparingByValue().thenComparing(Map.Entry.comparingByKey()));
+        int[] nomesLabels = new int[labels.size()];
+        for (int i = 0; i < labels.size(); i++) {
+            nomesLabels[i] = nomes.adicionar(labels.get(i).getKey());
+        }
+
+        int instrucoes = programa.quantidadeInstrucoes();
+        long[] constantes = programa.getConstantes();
+        int ofsOperacoes = TAMANHO_CABECALHO;
+        int ofsCodigo = ofsOperacoes + 4 * CodigoOperacao.QUANTIDADE;
+        int ofsConstantes = alinhar(ofsCodigo + 4 * instrucoes * CodigoOperacao.TAMANHO_INSTRUCAO, 8);
+        int ofsVariaveis = alinhar(ofsConstantes + 9 * constantes.length, 4);
+        int ofsLabels = ofsVariaveis + 8 * variaveis.length;
+        int ofsLinhas = incluirLinhas ? ofsLabels + 8 * labels.size() : 0;
+        int ofsNomes = (incluirLinhas ? ofsLinhas + 4 * instrucoes : ofsLabels + 8 * labels.size());
+
+        try (FileChannel canal = FileChannel.open(destino, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             EscritorCanal saida = new EscritorCanal(canal)) {
+            saida.inteiro(MAGICO);
+            saida.inteiro(VERSAO);
+            saida.inteiro(incluirLinhas ? FLAG_LINHAS : 0);
+            saida.inteiro(CodigoOperacao.QUANTIDADE);
+            saida.inteiro(instrucoes);
+            saida.inteiro(programa.quantidadeRegistradores());
+            saida.inteiro(constantes.length);
+            saida.inteiro(variaveis.length);
+            saida.inteiro(programa.quantidadeSlotsSpill());
+            saida.inteiro(labels.size());
+            saida.inteiro(ofsOperacoes);
+            saida.inteiro(ofsCodigo);
+            saida.inteiro(ofsConstantes);
+            saida.inteiro(ofsVariaveis);
+            saida.inteiro(ofsLabels);
+            saida.inteiro(ofsLinhas);
+            saida.inteiro(ofsNomes);
+            saida.inteiro(nomes.tamanho());
+
+            for (int nome : nomesOperacoes) {
+                saida.inteiro(nome);
+            }
+            int[] codigo = programa.getCodigo();
+            for (int k = 0; k < instrucoes * CodigoOperacao.TAMANHO_INSTRUCAO; k++) {
+                saida.inteiro(codigo[k]);
+            }
+            saida.preencherAte(ofsConstantes);
+            for (long constante : constantes) {
+                saida.longo(constante);
+            }
+            for (int k = 0; k < constantes.length; k++) {
+                saida.octeto(programa.constanteReal(k) ? 1 : 0);
+            }
+            saida.preencherAte(ofsVariaveis);
+            TipoDado[] tipos = programa.getTiposVariaveis();
+            for (int i = 0; i < variaveis.length; i++) {
+                saida.inteiro(nomesVariaveis[i]);
+                saida.inteiro(tipos[i].ordinal());
+            }
+            for (int i = 0; i < labels.size(); i++) {
+                saida.inteiro(nomesLabels[i]);
+                saida.inteiro(labels.get(i).getValue());
+            }
+            if (incluirLinhas) {
+                int[] linhas = programa.getLinhasTac();
+                for (int i = 0; i < instrucoes; i++) {
+                    saida.inteiro(linhas[i]);
+                }
+            }
+            saida.bytes(nomes.conteudo());
+        }
+    }
+
+    private static int alinhar(int deslocamento, int alinhamento) {
+        return (deslocamento + alinhamento - 1) / alinhamento * alinhamento;
+    }
+
+    // Textos do arquivo, cada um com o tamanho em 2 bytes; o deslocamento identifica o nome
+    private static final class TabelaNomes {
+        private final Map<String, Integer> deslocamentos = new LinkedHashMap<>();
+        private final List<byte[]> textos = new ArrayList<>();
+        private int tamanho;
+
+        int adicionar(String nome) {
+            Integer existente = deslocamentos.get(nome);
+            if (existente != null) {
+                return existente;
+            }
+            byte[] bytes = nome.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 0xFFFF) {
+                throw new IllegalArgumentException("Nome longo demais para o arquivo objeto: " + nome);
+            }
+            int deslocamento = tamanho;
+            deslocamentos.put(nome, deslocamento);
+            textos.add(bytes);
+            tamanho += 2 + bytes.length;
+            return deslocamento;
+        }
+
+        int tamanho() {
+            return tamanho;
+        }
+
+        byte[] conteudo() {
+            ByteBuffer buffer = ByteBuffer.allocate(tamanho).order(ByteOrder.LITTLE_ENDIAN);
+            for (byte[] texto : textos) {
+                buffer.putShort((short) texto.length);
+                buffer.put(texto);
+            }
+            return buffer.array();
+        }
+    }
+
+    // Escrita sequencial por um buffer direto, esvaziado no canal quando enche
+    private static final class EscritorCanal implements AutoCloseable {
+        private final FileChannel canal;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANHO_BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+        private long posicao;
+
+        EscritorCanal(FileChannel canal) {
+            this.canal = canal;
+        }
+
+        void inteiro(int valor) throws IOException {
+            garantir(4);
+            buffer.putInt(valor);
+            posicao += 4;
+        }
+
+        void longo(long valor) throws IOException {
+            garantir(8);
+            buffer.putLong(valor);
+            posicao += 8;
+        }
+
+        void octeto(int valor) throws IOException {
+            garantir(1);
+            buffer.put((byte) valor);
+            posicao++;
+        }
+
+        void bytes(byte[] dados) throws IOException {
+            int k = 0;
+            while (k < dados.length) {
+                garantir(1);
+                int n = Math.min(buffer.remaining(), dados.length - k);
+                buffer.put(dados, k, n);
+                k += n;
+                posicao += n;
+            }
+        }
+
+        void preencherAte(long deslocamento) throws IOException {
+            while (posicao < deslocamento) {
+                octeto(0);
+            }
+        }
+
+        private void garantir(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                esvaziar();
+            }
+        }
+
+        private void esvaziar() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            esvaziar();
+        }
+    }
+
+    // ---------------------------------------------------------
+    // Carga e consulta
+    // ---------------------------------------------------------
+
+    /**
+     * Mapeia o arquivo somente leitura e valida o cabeçalho, os limites das seções, a tabela de operações e
+     * cada índice do arquivo (operandos, nomes, tipos e destinos dos labels), para que um arquivo corrompido
+     * seja rejeitado na carga em vez de falhar ou executar lixo na máquina virtual.
+     * @throws RuntimeException ("Erro de Carga: ...") se o arquivo não for um objeto válido desta versão.
+     */
+    public static ArquivoObjeto carregar(Path origem) throws IOException {
+        MappedByteBuffer mapa;
+        try (FileChannel canal = FileChannel.open(origem, StandardOpenOption.READ)) {
+            if (canal.size() < TAMANHO_CABECALHO || canal.size() > Integer.MAX_VALUE) {
+                throw new RuntimeException("Erro de Carga: '" + origem + "' não é um arquivo objeto (tamanho " + canal.size() + ").");
+            }
+            mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size()); // O mapeamento sobrevive ao canal
+        }
+        mapa.order(ByteOrder.LITTLE_ENDIAN);
+        ArquivoObjeto objeto = new ArquivoObjeto(origem, mapa);
+        objeto.validar();
+        return objeto;
+    }
+
+    private void validar() {
+        if (mapa.getInt(CAB_MAGICO) != MAGICO) {
+            throw new RuntimeException("Erro de Carga: '" + arquivo + "' não é um arquivo objeto (mágico inválido).");
+        }
+        if (mapa.getInt(CAB_VERSAO) != VERSAO) {
+            throw new RuntimeException("Erro de Carga: versão " + mapa.getInt(CAB_VERSAO) + " do arquivo objeto não suportada (esperada "
+                    + VERSAO + ").");
+        }
+        if (cabecalho(CAB_OPERACOES) != CodigoOperacao.QUANTIDADE) {
+            throw new RuntimeException("Erro de Carga: o arquivo objeto tem " + cabecalho(CAB_OPERACOES)
+                    + " operações; esta máquina virtual tem " + CodigoOperacao.QUANTIDADE + ".");
+        }
+        int instrucoes = quantidadeInstrucoes();
+        if (instrucoes < 1 || quantidadeRegistradores() < 0 || quantidadeConstantes() < 0 || quantidadeVariaveis() < 0
+                || quantidadeSlotsSpill() < 0 || quantidadeLabels() < 0 || cabecalho(CAB_TAMANHO_NOMES) < 0
+                || (long) quantidadeRegistradores() + quantidadeConstantes() > Integer.MAX_VALUE) {
+            throw new RuntimeException("Erro de Carga: '" + arquivo + "' tem um cabeçalho inválido.");
+        }
+
+        // Cada seção precisa caber no arquivo
+        validarSecao(CAB_OFS_OPERACOES, 4L * CodigoOperacao.QUANTIDADE, "operações");
+        validarSecao(CAB_OFS_CODIGO, 4L * instrucoes * CodigoOperacao.TAMANHO_INSTRUCAO, "código");
+        validarSecao(CAB_OFS_CONSTANTES, 9L * quantidadeConstantes(), "constantes");
+        validarSecao(CAB_OFS_VARIAVEIS, 8L * quantidadeVariaveis(), "variáveis");
+        validarSecao(CAB_OFS_LABELS, 8L * quantidadeLabels(), "labels");
+        if (temLinhas()) {
+            validarSecao(CAB_OFS_LINHAS, 4L * instrucoes, "linhas");
+        }
+        validarSecao(CAB_OFS_NOMES, cabecalho(CAB_TAMANHO_NOMES), "nomes");
+
+        for (int op = 0; op < CodigoOperacao.QUANTIDADE; op++) {
+            int deslocamento = mapa.getInt(cabecalho(CAB_OFS_OPERACOES) + 4 * op);
+            validarNome(deslocamento, "da operação " + op);
+            String nome = nome(deslocamento);
+            if (!nome.equals(CodigoOperacao.mnemonico(op))) {
+                throw new RuntimeException("Erro de Carga: a operação " + op + " do arquivo objeto é " + nome
+                        + ", mas nesta máquina virtual é " + CodigoOperacao.mnemonico(op) + ".");
+            }
+        }
+        for (int i = 0; i < quantidadeVariaveis(); i++) {
+            validarNome(mapa.getInt(cabecalho(CAB_OFS_VARIAVEIS) + 8 * i), "da variável " + i);
+            int tipo = mapa.getInt(cabecalho(CAB_OFS_VARIAVEIS) + 8 * i + 4);
+            if (tipo < 0 || tipo >= TipoDado.values().length) {
+                throw new RuntimeException("Erro de Carga: a variável " + i + " tem o tipo inválido " + tipo + ".");
+            }
+        }
+        for (int i = 0; i < quantidadeLabels(); i++) {
+            validarNome(mapa.getInt(cabecalho(CAB_OFS_LABELS) + 8 * i), "do label " + i);
+            if (destinoLabel(i) < 0 || destinoLabel(i) >= instrucoes) {
+                throw new RuntimeException("Erro de Carga: o label " + i + " aponta para a instrução " + destinoLabel(i)
+                        + ", fora do código (" + instrucoes + " instruções).");
+            }
+        }
+        for (int i = 0; i < instrucoes; i++) {
+            validarInstrucao(i);
+        }
+        // O MontadorTAC sempre termina o código com HALT; sem ele a execução passaria do fim do código
+        if (operacao(instrucoes - 1) != CodigoOperacao.HALT) {
+            throw new RuntimeException("Erro de Carga: o código de '" + arquivo + "' não termina em HALT.");
+        }
+    }
+
+    private void validarSecao(int campo, long tamanho, String secao) {
+        int inicio = cabecalho(campo);
+        if (inicio < TAMANHO_CABECALHO || inicio + tamanho > mapa.capacity()) {
+            throw new RuntimeException("Erro de Carga: '" + arquivo + "' está truncado (seção de " + secao
+                    + " fora do arquivo).");
+        }
+    }
+
+    private void validarNome(int deslocamento, String referencia) {
+        int tamanhoNomes = cabecalho(CAB_TAMANHO_NOMES);
+        if (deslocamento < 0 || deslocamento > tamanhoNomes - 2
+                || deslocamento + 2 + Short.toUnsignedInt(mapa.getShort(cabecalho(CAB_OFS_NOMES) + deslocamento)) > tamanhoNomes) {
+            throw new RuntimeException("Erro de Carga: o nome " + referencia + " está fora da seção de nomes.");
+        }
+    }
+
+    // Confere o código de operação e cada operando contra a seção que ele indexa (ver CodigoOperacao)
+    private void validarInstrucao(int i) {
+        int op = operacao(i);
+        int banco = quantidadeRegistradores() + quantidadeConstantes();
+        switch (op) {
+            case CodigoOperacao.MOV:
+                validarOperando(i, 0, banco, "o registrador");
+                validarOperando(i, 1, banco, "o registrador");
+                break;
+            case CodigoOperacao.LOAD:
+                validarOperando(i, 0, banco, "o registrador");
+                validarOperando(i, 1, quantidadeVariaveis(), "a variável");
+                break;
+            case CodigoOperacao.STORE:
+                validarOperando(i, 0, quantidadeVariaveis(), "a variável");
+                validarOperando(i, 1, banco, "o registrador");
+                break;
+            case CodigoOperacao.JMP:
+                validarOperando(i, 0, quantidadeInstrucoes(), "a instrução");
+                break;
+            case CodigoOperacao.JMPTRUE:
+            case CodigoOperacao.JMPFALSE:
+                validarOperando(i, 0, banco, "o registrador");
+                validarOperando(i, 1, quantidadeInstrucoes(), "a instrução");
+                break;
+            case CodigoOperacao.HALT:
+                break;
+            case CodigoOperacao.SPILL:
+                validarOperando(i, 0, quantidadeSlotsSpill(), "o slot de derramamento");
+                validarOperando(i, 1, banco, "o registrador");
+                break;
+            case CodigoOperacao.RELOAD:
+                validarOperando(i, 0, banco, "o registrador");
+                validarOperando(i, 1, quantidadeSlotsSpill(), "o slot de derramamento");
+                break;
+            default:
+                if (op < CodigoOperacao.ADD_I || op > CodigoOperacao.CMPGE_R) {
+                    throw new RuntimeException("Erro de Carga: operação inválida " + op + " na instrução " + i + ".");
+                }
+                // Aritméticas e comparações: reg[a] = reg[b] op reg[c]
+                for (int k = 0; k < 3; k++) {
+                    validarOperando(i, k, banco, "o registrador");
+                }
+        }
+    }
+
+    private void validarOperando(int instrucao, int k, int limite, String referencia) {
+        int valor = operando(instrucao, k);
+        if (valor < 0 || valor >= limite) {
+            throw new RuntimeException("Erro de Carga: a instrução " + instrucao + " (" + CodigoOperacao.mnemonico(operacao(instrucao))
+                    + ") usa " + referencia + " " + valor + ", fora do intervalo 0.." + (limite - 1) + ".");
+        }
+    }
+
+    private int cabecalho(int campo) {
+        return mapa.getInt(campo);
+    }
+
+    public Path getArquivo() {
+        return arquivo;
+    }
+
+    public int tamanho() {
+        return mapa.capacity();
+    }
+
+    public int quantidadeInstrucoes() {
+        return cabecalho(CAB_INSTRUCOES);
+    }
+
+    public int quantidadeRegistradores() {
+        return cabecalho(CAB_REGISTRADORES);
+    }
+
+    public int quantidadeConstantes() {
+        return cabecalho(CAB_CONSTANTES);
+    }
+
+    public int quantidadeVariaveis() {
+        return cabecalho(CAB_VARIAVEIS);
+    }
+
+    public int quantidadeSlotsSpill() {
+        return cabecalho(CAB_SLOTS_SPILL);
+    }
+
+    public int quantidadeLabels() {
+        return cabecalho(CAB_LABELS);
+    }
+
+    public boolean temLinhas() {
+        return (cabecalho(CAB_FLAGS) & FLAG_LINHAS) != 0;
+    }
+
+    /**
+     * Vista da seção de código sobre o mapeamento (sem cópia).
+     */
+    public IntBuffer codigo() {
+        return mapa.slice(cabecalho(CAB_OFS_CODIGO), 4 * quantidadeInstrucoes() * CodigoOperacao.TAMANHO_INSTRUCAO)
+                .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    public int operacao(int instrucao) {
+        return mapa.getInt(cabecalho(CAB_OFS_CODIGO) + 4 * instrucao * CodigoOperacao.TAMANHO_INSTRUCAO);
+    }
+
+    public int operando(int instrucao, int k) {
+        return mapa.getInt(cabecalho(CAB_OFS_CODIGO) + 4 * (instrucao * CodigoOperacao.TAMANHO_INSTRUCAO + 1 + k));
+    }
+
+    public long constante(int indice) {
+        return mapa.getLong(cabecalho(CAB_OFS_CONSTANTES) + 8 * indice);
+    }
+
+    public boolean constanteReal(int indice) {
+        return mapa.get(cabecalho(CAB_OFS_CONSTANTES) + 8 * quantidadeConstantes() + indice) != 0;
+    }
+
+    public String nomeVariavel(int indice) {
+        return nome(mapa.getInt(cabecalho(CAB_OFS_VARIAVEIS) + 8 * indice));
+    }
+
+    public TipoDado tipoVariavel(int indice) {
+        return TipoDado.values()[mapa.getInt(cabecalho(CAB_OFS_VARIAVEIS) + 8 * indice + 4)];
+    }
+
+    public String nomeLabel(int indice) {
+        return nome(mapa.getInt(cabecalho(CAB_OFS_LABELS) + 8 * indice));
+    }
+
+    public int destinoLabel(int indice) {
+        return mapa.getInt(cabecalho(CAB_OFS_LABELS) + 8 * indice + 4);
+    }
+
+    /**
+     * Linha do TAC que originou a instrução (-1 se o arquivo não tem o mapa de linhas ou a instrução foi gerada).
+     */
+    public int linhaTac(int instrucao) {
+        return temLinhas() ? mapa.getInt(cabecalho(CAB_OFS_LINHAS) + 4 * instrucao) : -1;
+    }
+
+    private String nome(int deslocamento) {
+        int inicio = cabecalho(CAB_OFS_NOMES) + deslocamento;
+        int tamanho = Short.toUnsignedInt(mapa.getShort(inicio));
+        byte[] bytes = new byte[tamanho];
+        mapa.get(inicio + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reconstrói o ProgramaVM para a MaquinaVirtual. Só o código é copiado em bloco para um int[];
+     * as tabelas são pequenas e lidas uma vez.
+     */
+    public ProgramaVM paraPrograma() {
+        int instrucoes = quantidadeInstrucoes();
+        int[] codigo = new int[instrucoes * CodigoOperacao.TAMANHO_INSTRUCAO];
+        codigo().get(codigo);
+
+        long[] constantes = new long[quantidadeConstantes()];
+        boolean[] constantesReais = new boolean[constantes.length];
+        for (int k = 0; k < constantes.length; k++) {
+            constantes[k] = constante(k);
+            constantesReais[k] = constanteReal(k);
+        }
+        String[] variaveis = new String[quantidadeVariaveis()];
+        TipoDado[] tipos = new TipoDado[variaveis.length];
+        for (int i = 0; i < variaveis.length; i++) {
+            variaveis[i] = nomeVariavel(i);
+            tipos[i] = tipoVariavel(i);
+        }
+        Map<String, Integer> labels = new LinkedHashMap<>();
+        for (int i = 0; i < quantidadeLabels(); i++) {
+            labels.put(nomeLabel(i), destinoLabel(i));
+        }
+        int[] linhas = new int[instrucoes];
+        for (int i = 0; i < instrucoes; i++) {
+            linhas[i] = linhaTac(i);
+        }
+        return new ProgramaVM(codigo, instrucoes, quantidadeRegistradores(), constantes, constantesReais,
+                variaveis, tipos, quantidadeSlotsSpill(), linhas, labels);
+    }
+
+    /**
+     * Descrição do arquivo: cabeçalho, tabelas e listagem das instruções, tudo lido do mapeamento.
+     */
+    public String descrever() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("--- Arquivo Objeto: ").append(arquivo.getFileName()).append(" ---\n");
+        sb.append(String.format("  %-35s %d (%d bytes)\n", "Versão:", VERSAO, tamanho()));
+        sb.append(String.format("  %-35s %d\n", "Instruções:", quantidadeInstrucoes()));
+        sb.append(String.format("  %-35s %d\n", "Registradores:", quantidadeRegistradores()));
+        sb.append(String.format("  %-35s %d\n", "Constantes:", quantidadeConstantes()));
+        sb.append(String.format("  %-35s %d\n", "Slots de derramamento:", quantidadeSlotsSpill()));
+        sb.append(String.format("  %-35s %s\n", "Mapa de linhas do TAC:", temLinhas() ? "sim" : "não"));
+        sb.append("Variáveis:\n");
+        for (int i = 0; i < quantidadeVariaveis(); i++) {
+            sb.append(String.format("  %-10s %s\n", nomeVariavel(i), tipoVariavel(i).getNome()));
+        }
+        sb.append("Labels:\n");
+        for (int i = 0; i < quantidadeLabels(); i++) {
+            sb.append(String.format("  %-10s @%d\n", nomeLabel(i), destinoLabel(i)));
+        }
+        sb.append("Código:\n");
+        for (int i = 0; i < quantidadeInstrucoes(); i++) {
+            sb.append(String.format("%4d: %-9s %d, %d, %d\n", i, CodigoOperacao.mnemonico(operacao(i)),
+                    operando(i, 0), operando(i, 1), operando(i, 2)));
+        }
+        return sb.toString();
+    }
+}
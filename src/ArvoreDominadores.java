@@ -0,0 +1,228 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Dominadores dos blocos de um GrafoFluxoControle: o bloco A domina B quando todo caminho da entrada
+ * até B passa por A. Calculados pelo algoritmo iterativo de Cooper, Harvey e Kennedy, que percorre
+ * os blocos em pós-ordem reversa e "sobe" pelos dominadores imediatos já conhecidos até os dois
+ * caminhos se encontrarem; em grafos de programas estruturados bastam duas ou três passadas.
+ *
+ * Também calcula as fronteiras de dominância (onde a dominância de um bloco termina), usadas para
+ * posicionar os PHI da FormaSSA. Blocos inalcançáveis não têm dominador nem aparecem na árvore.
+ */
+public class ArvoreDominadores {
+
+    private final GrafoFluxoControle grafo;
+    private final List<BlocoBasico> ordemReversa = new ArrayList<>(); // Pós-ordem reversa dos alcançáveis
+    private final int[] posOrdem;                                     // Número na pós-ordem (-1: inalcançável)
+    private final int[] dominadorImediato;                            // Índice do bloco (-1: inalcançável)
+    private final List<List<BlocoBasico>> filhos = new ArrayList<>();
+    private final List<Set<BlocoBasico>> fronteiras = new ArrayList<>();
+    private int passadas;
+
+    private ArvoreDominadores(GrafoFluxoControle grafo) {
+        this.grafo = grafo;
+        int quantidade = grafo.getBlocos().size();
+        posOrdem = new int[quantidade];
+        dominadorImediato = new int[quantidade];
+        Arrays.fill(posOrdem, -1);
+        Arrays.fill(dominadorImediato, -1);
+        for (int i = 0; i < quantidade; i++) {
+            filhos.add(new ArrayList<>());
+            fronteiras.add(new LinkedHashSet<>());
+        }
+    }
+
+    public static ArvoreDominadores calcular(GrafoFluxoControle grafo) {
+        ArvoreDominadores arvore = new ArvoreDominadores(grafo);
+        arvore.numerarPosOrdem();
+        arvore.calcularDominadores();
+        arvore.calcularFronteiras();
+        return arvore;
+    }
+
+    /**
+     * Busca em profundidade a partir da entrada, com pilha explícita (programas longos têm muitos blocos).
+     */
+    private void numerarPosOrdem() {
+        List<BlocoBasico> posOrdemLista = new ArrayList<>();
+        boolean[] visitado = new boolean[posOrdem.length];
+        List<BlocoBasico> pilha = new ArrayList<>();
+        List<Integer> proximoSucessor = new ArrayList<>();
+        pilha.add(grafo.getEntrada());
+        proximoSucessor.add(0);
+        visitado[0] = true;
+        while (!pilha.isEmpty()) {
+            int topo = pilha.size() - 1;
+            BlocoBasico bloco = pilha.get(topo);
+            int k = proximoSucessor.get(topo);
+            if (k < bloco.sucessores.size()) {
+                proximoSucessor.set(topo, k + 1);
+                BlocoBasico sucessor = bloco.sucessores.get(k);
+                if (!visitado[sucessor.indice]) {
+                    visitado[sucessor.indice] = true;
+                    pilha.add(sucessor);
+                    proximoSucessor.add(0);
+                }
+            } else {
+                posOrdem[bloco.indice] = posOrdemLista.size();
+                posOrdemLista.add(bloco);
+                pilha.remove(topo);
+                proximoSucessor.remove(topo);
+            }
+        }
+        for (int i = posOrdemLista.size() - 1; i >= 0; i--) {
+            ordemReversa.add(posOrdemLista.get(i));
+        }
+    }
+
+    private void calcularDominadores() {
+        int entrada = grafo.getEntrada().indice;
+        dominadorImediato[entrada] = entrada;
+        boolean mudou = true;
+        while (mudou) {
+            mudou = false;
+            passadas++;
+            for (BlocoBasico bloco : ordemReversa) {
+                if (bloco.indice == entrada) {
+                    continue;
+                }
+                int novo = -1;
+                for (BlocoBasico predecessor : bloco.predecessores) {
+                    if (dominadorImediato[predecessor.indice] < 0) {
+                        continue; // Ainda não processado (ou inalcançável)
+                    }
+                    novo = novo < 0 ? predecessor.indice : intersectar(predecessor.indice, novo);
+                }
+                if (dominadorImediato[bloco.indice] != novo) {
+                    dominadorImediato[bloco.indice] = novo;
+                    mudou = true;
+                }
+            }
+        }
+        for (BlocoBasico bloco : ordemReversa) {
+            if (bloco.indice != entrada) {
+                filhos.get(dominadorImediato[bloco.indice]).add(bloco);
+            }
+        }
+    }
+
+    // Sobe pelos dois caminhos de dominadores até o primeiro bloco comum (comparando a pós-ordem)
+    private int intersectar(int a, int b) {
+        while (a != b) {
+            while (posOrdem[a] < posOrdem[b]) {
+                a = dominadorImediato[a];
+            }
+            while (posOrdem[b] < posOrdem[a]) {
+                b = dominadorImediato[b];
+            }
+        }
+        return a;
+    }
+
+    /**
+     * Para cada junção (bloco com dois ou mais predecessores alcançáveis), sobe de cada predecessor
+     * até o dominador imediato da junção: todos os blocos do caminho têm a junção na fronteira.
+     */
+    private void calcularFronteiras() {
+        for (BlocoBasico bloco : ordemReversa) {
+            List<BlocoBasico> predecessores = predecessoresAlcancaveis(bloco);
+            if (predecessores.size() < 2) {
+                continue;
+            }
+            for (BlocoBasico predecessor : predecessores) {
+                int corredor = predecessor.indice;
+                while (corredor != dominadorImediato[bloco.indice]) {
+                    fronteiras.get(corredor).add(bloco);
+                    corredor = dominadorImediato[corredor];
+                }
+            }
+        }
+    }
+
+    public GrafoFluxoControle getGrafo() {
+        return grafo;
+    }
+
+    /**
+     * Blocos alcançáveis em pós-ordem reversa (a entrada primeiro; cada bloco antes dos que ele domina).
+     */
+    public List<BlocoBasico> getOrdemReversa() {
+        return ordemReversa;
+    }
+
+    public boolean alcancavel(BlocoBasico bloco) {
+        return posOrdem[bloco.indice] >= 0;
+    }
+
+    /**
+     * Dominador imediato do bloco (null para a entrada e para blocos inalcançáveis).
+     */
+    public BlocoBasico dominadorImediato(BlocoBasico bloco) {
+        int dominador = dominadorImediato[bloco.indice];
+        return dominador < 0 || dominador == bloco.indice ? null : grafo.getBlocos().get(dominador);
+    }
+
+    /**
+     * Verifica se 'a' domina 'b' (todo bloco alcançável domina a si mesmo).
+     */
+    public boolean domina(BlocoBasico a, BlocoBasico b) {
+        if (!alcancavel(a) || !alcancavel(b)) {
+            return false;
+        }
+        int atual = b.indice;
+        while (atual != a.indice) {
+            int dominador = dominadorImediato[atual];
+            if (dominador == atual) {
+                return false; // Chegou à entrada
+            }
+            atual = dominador;
+        }
+        return true;
+    }
+
+    /**
+     * Blocos dominados imediatamente pelo bloco (filhos na árvore de dominadores).
+     */
+    public List<BlocoBasico> filhos(BlocoBasico bloco) {
+        return filhos.get(bloco.indice);
+    }
+
+    public Set<BlocoBasico> fronteira(BlocoBasico bloco) {
+        return fronteiras.get(bloco.indice);
+    }
+
+    /**
+     * Predecessores que podem de fato ser executados; as arestas vindas de blocos mortos são ignoradas.
+     */
+    public List<BlocoBasico> predecessoresAlcancaveis(BlocoBasico bloco) {
+        List<BlocoBasico> predecessores = new ArrayList<>(bloco.predecessores.size());
+        for (BlocoBasico predecessor : bloco.predecessores) {
+            if (alcancavel(predecessor)) {
+                predecessores.add(predecessor);
+            }
+        }
+        return predecessores;
+    }
+
+    /**
+     * Profundidade da árvore de dominadores (a entrada tem profundidade 1).
+     */
+    public int profundidade() {
+        int[] nivel = new int[dominadorImediato.length];
+        int maior = 0;
+        for (BlocoBasico bloco : ordemReversa) {
+            BlocoBasico dominador = dominadorImediato(bloco);
+            nivel[bloco.indice] = dominador == null ? 1 : nivel[dominador.indice] + 1;
+            maior = Math.max(maior, nivel[bloco.indice]);
+        }
+        return maior;
+    }
+
+    public int getPassadas() {
+        return passadas;
+    }
+}
@@ -0,0 +1,208 @@
+import java.util.Arrays;
+
+/**
+ * Árvore sintática em representação plana: todos os nós de uma compilação vivem em uma única
+ * arena de arrays paralelos de inteiros, e cada nó é apenas um índice nesses arrays.
+ *
+ * Para cada nó: categoria (TipoNo), pai, primeiro filho, próximo irmão, índice do token no
+ * BufferDeTokens (folhas) e linha. Percorrer a árvore não aloca objetos e acessa memória contígua.
+ * As fases seguintes a consomem através de um VisitanteArvore.
+ */
+public class ArvorePlana {
+
+    public static final int NENHUM = -1; // Índice nulo (sem filho, sem irmão, sem token...)
+
+    private static final TipoNo[] TIPOS = TipoNo.values();
+
+    private final BufferDeTokens buffer; // Tokens referenciados pelas folhas
+
+    private byte[] tipos;
+    private int[] pais;
+    private int[] primeirosFilhos;
+    private int[] ultimosFilhos;      // Usado apenas na construção, para anexar filhos em O(1)
+    private int[] proximosIrmaos;
+    private int[] tokens;
+    private int[] linhas;
+    private int tamanho;
+    private int raiz = NENHUM;
+
+    public ArvorePlana(BufferDeTokens buffer) {
+        this.buffer = buffer;
+        // Estimativa inicial: aproximadamente um nó por token
+        int capacidade = Math.max(16, buffer.tamanho());
+        tipos = new byte[capacidade];
+        pais = new int[capacidade];
+        primeirosFilhos = new int[capacidade];
+        ultimosFilhos = new int[capacidade];
+        proximosIrmaos = new int[capacidade];
+        tokens = new int[capacidade];
+        linhas = new int[capacidade];
+    }
+
+    // ---------------------------------------------------------
+    // Construção
+    // ---------------------------------------------------------
+
+    /**
+     * Cria um nó sem filhos na arena e devolve seu índice.
+     * @param token Índice do token no buffer (NENHUM para nós de regra).
+     */
+    public int novoNo(TipoNo tipo, int token, int linha) {
+        if (tamanho == tipos.length) {
+            int novaCapacidade = tamanho + (tamanho >> 1) + 1;
+            tipos = Arrays.copyOf(tipos, novaCapacidade);
+            pais = Arrays.copyOf(pais, novaCapacidade);
+            primeirosFilhos = Arrays.copyOf(primeirosFilhos, novaCapacidade);
+            ultimosFilhos = Arrays.copyOf(ultimosFilhos, novaCapacidade);
+            proximosIrmaos = Arrays.copyOf(proximosIrmaos, novaCapacidade);
+            tokens = Arrays.copyOf(tokens, novaCapacidade);
+            linhas = Arrays.copyOf(linhas, novaCapacidade);
+        }
+        int no = tamanho++;
+        tipos[no] = (byte) tipo.ordinal();
+        pais[no] = NENHUM;
+        primeirosFilhos[no] = NENHUM;
+        ultimosFilhos[no] = NENHUM;
+        proximosIrmaos[no] = NENHUM;
+        tokens[no] = token;
+        linhas[no] = linha;
+        return no;
+    }
+
+    /**
+     * Anexa 'filho' como último filho de 'pai'.
+     */
+    public void adicionarFilho(int pai, int filho) {
+        pais[filho] = pai;
+        if (primeirosFilhos[pai] == NENHUM) {
+            primeirosFilhos[pai] = filho;
+        } else {
+            proximosIrmaos[ultimosFilhos[pai]] = filho;
+        }
+        ultimosFilhos[pai] = filho;
+    }
+
+    public void setRaiz(int raiz) {
+        this.raiz = raiz;
+    }
+
+    // ---------------------------------------------------------
+    // Consulta
+    // ---------------------------------------------------------
+
+    public int getRaiz() {
+        return raiz;
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    public BufferDeTokens getBuffer() {
+        return buffer;
+    }
+
+    public TipoNo tipo(int no) {
+        return TIPOS[tipos[no]];
+    }
+
+    public int pai(int no) {
+        return pais[no];
+    }
+
+    public int primeiroFilho(int no) {
+        return primeirosFilhos[no];
+    }
+
+    public int proximoIrmao(int no) {
+        return proximosIrmaos[no];
+    }
+
+    public int token(int no) {
+        return tokens[no];
+    }
+
+    public int linha(int no) {
+        return linhas[no];
+    }
+
+    /**
+     * Tipo do token de uma folha (null para nós de regra).
+     */
+    public TipoToken tipoToken(int no) {
+        return tokens[no] == NENHUM ? null : buffer.tipo(tokens[no]);
+    }
+
+    /**
+     * ID interno do identificador de uma folha (-1 se não for identificador).
+     */
+    public int id(int no) {
+        return tokens[no] == NENHUM ? -1 : buffer.id(tokens[no]);
+    }
+
+    /**
+     * Texto do nó: nome da regra ou lexema do token (equivale a NoArvore.valor).
+     */
+    public String rotulo(int no) {
+        TipoNo tipo = tipo(no);
+        return tipo == TipoNo.TERMINAL ? buffer.lexema(tokens[no]) : tipo.getRotulo();
+    }
+
+    /**
+     * Devolve o k-ésimo filho (a partir de 0) ou NENHUM se não existir.
+     */
+    public int filho(int no, int k) {
+        int filho = primeirosFilhos[no];
+        while (k-- > 0 && filho != NENHUM) {
+            filho = proximosIrmaos[filho];
+        }
+        return filho;
+    }
+
+    public int quantidadeFilhos(int no) {
+        int quantidade = 0;
+        for (int filho = primeirosFilhos[no]; filho != NENHUM; filho = proximosIrmaos[filho]) {
+            quantidade++;
+        }
+        return quantidade;
+    }
+
+    // ---------------------------------------------------------
+    // Percurso
+    // ---------------------------------------------------------
+
+    /**
+     * Percorre a subárvore de 'inicio' em pré-ordem, despachando cada nó ao método tipado do visitante.
+     * Se o método devolver false, os filhos daquele nó não são visitados.
+     * O percurso usa os ponteiros de pai/irmão: não há recursão nem pilha auxiliar.
+     */
+    public void percorrer(int inicio, VisitanteArvore visitante) {
+        int no = inicio;
+        while (no != NENHUM) {
+            if (despachar(no, visitante) && primeirosFilhos[no] != NENHUM) {
+                no = primeirosFilhos[no];
+                continue;
+            }
+            // Sobe até encontrar um ancestral (dentro da subárvore) com próximo irmão
+            while (no != inicio && proximosIrmaos[no] == NENHUM) {
+                no = pais[no];
+            }
+            no = (no == inicio) ? NENHUM : proximosIrmaos[no];
+        }
+    }
+
+    private boolean despachar(int no, VisitanteArvore v) {
+        switch (tipo(no)) {
+            case PROGRAMA:         return v.visitarPrograma(this, no);
+            case DECLARACAO_TIPO:  return v.visitarDeclaracaoTipo(this, no);
+            case ATRIBUICAO:       return v.visitarAtribuicao(this, no);
+            case EXPRESSAO:        return v.visitarExpressao(this, no);
+            case CONDICIONAL:      return v.visitarCondicional(this, no);
+            case ITERATIVO:        return v.visitarIterativo(this, no);
+            case CONDICAO:         return v.visitarCondicao(this, no);
+            case CONDICAO_SIMPLES: return v.visitarCondicaoSimples(this, no);
+            case COMANDO_VAZIO:    return v.visitarComandoVazio(this, no);
+            default:               return v.visitarTerminal(this, no);
+        }
+    }
+}
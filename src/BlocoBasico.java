@@ -0,0 +1,37 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sequência de instruções TAC sem desvios internos: só se entra pela primeira instrução
+ * (um LABEL ou a instrução após um salto) e só se sai pela última.
+ */
+public class BlocoBasico {
+
+    public final int indice;                                   // Posição do bloco na ordem do código
+    public final List<InstrucaoTAC> instrucoes = new ArrayList<>();
+    public final List<BlocoBasico> sucessores = new ArrayList<>();
+    public final List<BlocoBasico> predecessores = new ArrayList<>();
+
+    public BlocoBasico(int indice) {
+        this.indice = indice;
+    }
+
+    /**
+     * Label que inicia o bloco (null se o bloco começa após um salto ou no início do programa).
+     */
+    public String rotulo() {
+        return !instrucoes.isEmpty() && instrucoes.get(0).isLabel() ? instrucoes.get(0).operandos[0] : null;
+    }
+
+    /**
+     * Última instrução do bloco (null se o bloco estiver vazio).
+     */
+    public InstrucaoTAC ultima() {
+        return instrucoes.isEmpty() ? null : instrucoes.get(instrucoes.size() - 1);
+    }
+
+    @Override
+    public String toString() {
+        return "B" + indice + (rotulo() != null ? " (" + rotulo() + ")" : "");
+    }
+}
@@ -0,0 +1,182 @@
+import java.util.Arrays;
+
+/**
+ * Armazenamento compacto de tokens em arrays paralelos de tipos primitivos (Struct-of-Arrays).
+ * Cada token ocupa uma posição em: tipo (ordinal), início e comprimento do lexema no código fonte, e linha.
+ *
+ * Os lexemas não são copiados: são apenas intervalos do código fonte original e só viram String
+ * quando solicitados. Símbolos e palavras reservadas, que têm grafia fixa, usam constantes compartilhadas,
+ * e identificadores usam a String única registrada na TabelaDeNomes.
+ */
+public class BufferDeTokens {
+
+    private static final TipoToken[] TIPOS = TipoToken.values();
+
+    // Lexema constante de cada tipo com grafia fixa (null para tipos de grafia variável)
+    private static final String[] LEXEMAS_FIXOS = new String[TIPOS.length];
+
+    static {
+        LEXEMAS_FIXOS[TipoToken.INICIO_PROGRAMA.ordinal()] = "$";
+        LEXEMAS_FIXOS[TipoToken.FIM_PROGRAMA.ordinal()] = "$.";
+        LEXEMAS_FIXOS[TipoToken.TIPO_INTEIRO.ordinal()] = "inteiro";
+        LEXEMAS_FIXOS[TipoToken.TIPO_REAL.ordinal()] = "real";
+        LEXEMAS_FIXOS[TipoToken.TIPO_CARACTER.ordinal()] = "caracter";
+        LEXEMAS_FIXOS[TipoToken.SE.ordinal()] = "se";
+        LEXEMAS_FIXOS[TipoToken.ENTAO.ordinal()] = "entao";
+        LEXEMAS_FIXOS[TipoToken.SENAO.ordinal()] = "senao";
+        LEXEMAS_FIXOS[TipoToken.ENQUANTO.ordinal()] = "enquanto";
+        LEXEMAS_FIXOS[TipoToken.OP_SOMA.ordinal()] = "+";
+        LEXEMAS_FIXOS[TipoToken.OP_MULT.ordinal()] = "*";
+        LEXEMAS_FIXOS[TipoToken.OP_DIV.ordinal()] = "/";
+        LEXEMAS_FIXOS[TipoToken.OP_RESTO.ordinal()] = "RESTO";
+        LEXEMAS_FIXOS[TipoToken.OP_BOOLEANO_E.ordinal()] = "E";
+        LEXEMAS_FIXOS[TipoToken.OP_BOOLEANO_OR.ordinal()] = "OR";
+        LEXEMAS_FIXOS[TipoToken.OP_BOOLEANO_NOT.ordinal()] = "NOT";
+        LEXEMAS_FIXOS[TipoToken.OP_ATRIBUICAO.ordinal()] = "=";
+        LEXEMAS_FIXOS[TipoToken.PONTO_E_VIRGULA.ordinal()] = ";";
+        LEXEMAS_FIXOS[TipoToken.VIRGULA.ordinal()] = ",";
+        LEXEMAS_FIXOS[TipoToken.ABRE_PARENTESES.ordinal()] = "(";
+        LEXEMAS_FIXOS[TipoToken.FECHA_PARENTESES.ordinal()] = ")";
+        LEXEMAS_FIXOS[TipoToken.EOF.ordinal()] = "";
+    }
+
+    private final String codigoFonte; // Código fonte ao qual os intervalos se referem
+    private byte[] tipos;             // Ordinal do TipoToken
+    private int[] inicios;            // Posição do primeiro caractere do lexema
+    private int[] comprimentos;       // Quantidade de caracteres do lexema
+    private int[] linhas;             // Linha do token no código fonte
+    private int[] ids;                // ID interno do identificador (-1 para os demais tokens)
+    private int tamanho;
+
+    private final TabelaDeNomes nomes; // Nomes dos identificadores, indexados pelo ID
+
+    public BufferDeTokens(String codigoFonte, TabelaDeNomes nomes) {
+        this.codigoFonte = codigoFonte;
+        this.nomes = nomes;
+        // Estimativa inicial: um token a cada ~4 caracteres de código
+        int capacidade = Math.max(16, codigoFonte.length() / 4);
+        this.tipos = new byte[capacidade];
+        this.inicios = new int[capacidade];
+        this.comprimentos = new int[capacidade];
+        this.linhas = new int[capacidade];
+        this.ids = new int[capacidade];
+    }
+
+    /**
+     * Grava um novo token no final do buffer.
+     */
+    public void adicionar(TipoToken tipo, int inicio, int comprimento, int linha, int id) {
+        if (tamanho == tipos.length) {
+            int novaCapacidade = tamanho + (tamanho >> 1) + 1;
+            tipos = Arrays.copyOf(tipos, novaCapacidade);
+            inicios = Arrays.copyOf(inicios, novaCapacidade);
+            comprimentos = Arrays.copyOf(comprimentos, novaCapacidade);
+            linhas = Arrays.copyOf(linhas, novaCapacidade);
+            ids = Arrays.copyOf(ids, novaCapacidade);
+        }
+        tipos[tamanho] = (byte) tipo.ordinal();
+        inicios[tamanho] = inicio;
+        comprimentos[tamanho] = comprimento;
+        linhas[tamanho] = linha;
+        ids[tamanho] = id;
+        tamanho++;
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    public String getCodigoFonte() {
+        return codigoFonte;
+    }
+
+    public TipoToken tipo(int indice) {
+        return TIPOS[tipos[indice]];
+    }
+
+    public int inicio(int indice) {
+        return inicios[indice];
+    }
+
+    public int comprimento(int indice) {
+        return comprimentos[indice];
+    }
+
+    public int linha(int indice) {
+        return linhas[indice];
+    }
+
+    public int id(int indice) {
+        return ids[indice];
+    }
+
+    public TabelaDeNomes getTabelaDeNomes() {
+        return nomes;
+    }
+
+    /**
+     * Materializa o lexema como String (constante compartilhada quando a grafia é fixa).
+     */
+    public String lexema(int indice) {
+        if (ids[indice] >= 0) {
+            return nomes.nome(ids[indice]);
+        }
+        return lexema(codigoFonte, tipo(indice), inicios[indice], comprimentos[indice]);
+    }
+
+    /**
+     * Caractere na posição k do lexema, lido direto do código fonte.
+     */
+    public char caractere(int indice, int k) {
+        return codigoFonte.charAt(inicios[indice] + k);
+    }
+
+    /**
+     * Verifica se o lexema contém o caractere, sem materializá-lo.
+     */
+    public boolean contem(int indice, char c) {
+        int fim = inicios[indice] + comprimentos[indice];
+        for (int i = inicios[indice]; i < fim; i++) {
+            if (codigoFonte.charAt(i) == c) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Copia o lexema para o StringBuilder diretamente do código fonte, sem String intermediária.
+     */
+    public StringBuilder anexarLexema(StringBuilder sb, int indice) {
+        int inicio = inicios[indice];
+        return sb.append(codigoFonte, inicio, inicio + comprimentos[indice]);
+    }
+
+    /**
+     * Materializa o token da posição indicada como objeto Token (para APIs que ainda o exigem).
+     */
+    public Token token(int indice) {
+        return new Token(tipo(indice), lexema(indice), linhas[indice], ids[indice]);
+    }
+
+    /**
+     * Resolve o lexema de um intervalo do código fonte. Tipos de grafia fixa e operadores
+     * relacionais devolvem constantes; os demais (números) geram substring.
+     */
+    static String lexema(String codigoFonte, TipoToken tipo, int inicio, int comprimento) {
+        String fixo = LEXEMAS_FIXOS[tipo.ordinal()];
+        if (fixo != null) {
+            return fixo;
+        }
+        if (tipo == TipoToken.OP_LOGICO) {
+            boolean composto = comprimento == 2; // Segundo caractere é sempre '='
+            switch (codigoFonte.charAt(inicio)) {
+                case '>': return composto ? ">=" : ">";
+                case '<': return composto ? "<=" : "<";
+                case '=': return "==";
+                case '!': return "!=";
+            }
+        }
+        return codigoFonte.substring(inicio, inicio + comprimento);
+    }
+}
@@ -0,0 +1,319 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache em disco das fases 1-4, endereçado pelo conteúdo: a chave é o SHA-256 da versão do compilador
+ * com o texto fonte, então um arquivo que não mudou é reconhecido mesmo com outro nome ou em outro lugar.
+ *
+ * Cada entrada (um arquivo "<chave>.cache") guarda as listagens das fases (tokens, árvore, tabela de
+ * símbolos e TAC), o erro de compilação se houve, o TAC e as variáveis da Tabela de Símbolos. Um acerto
+ * preenche o ResultadoCompilacao sem executar nenhuma fase; otimização, montagem e execução continuam
+ * sendo feitas a partir do TAC recuperado.
+ *
+ * - Escrita atômica: a entrada é gravada em um arquivo temporário no mesmo diretório e movida para o
+ *   nome final, então compilações concorrentes (threads do lote ou outros processos) nunca leem uma
+ *   entrada pela metade; duas gravações da mesma chave produzem o mesmo conteúdo.
+ * - Despejo LRU: cada acerto atualiza a data de modificação da entrada; quando o diretório passa do
+ *   limite de tamanho, as entradas usadas há mais tempo são apagadas.
+ * - Falhas de I/O no cache nunca derrubam a compilação: a entrada é tratada como falta.
+ */
+public class CacheCompilacao {
+
+    public static final long LIMITE_PADRAO = 64L * 1024 * 1024;
+
+    private static final int MAGICO = 0x43414348; // "CACH"
+    private static final String EXTENSAO = ".cache";
+
+    private final Path diretorio;
+    private final long limiteBytes;
+    private final AtomicLong tamanhoEstimado = new AtomicLong(); // Soma das entradas (recalculada no despejo)
+
+    private final AtomicLong acertos = new AtomicLong();
+    private final AtomicLong faltas = new AtomicLong();
+    private final AtomicLong gravacoes = new AtomicLong();
+    private final AtomicLong despejos = new AtomicLong();
+    private final AtomicLong falhas = new AtomicLong();
+
+    public CacheCompilacao(Path diretorio, long limiteBytes) {
+        this.diretorio = diretorio;
+        this.limiteBytes = limiteBytes;
+        try {
+            Files.createDirectories(diretorio);
+            long total = 0;
+            for (Path entrada : listarEntradas()) {
+                total += tamanho(entrada);
+            }
+            tamanhoEstimado.set(total);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível abrir o cache em " + diretorio, e);
+        }
+    }
+
+    /**
+     * Chave do texto fonte: SHA-256, em hexadecimal, da versão do compilador seguida do texto.
+     */
+    public static String chave(String codigo) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update(Compilador.VERSAO.getBytes(StandardCharsets.UTF_8));
+            sha.update((byte) 0);
+            byte[] hash = sha.digest(codigo.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e); // Obrigatório em toda JVM
+        }
+    }
+
+    /**
+     * Preenche o resultado com as fases 1-4 guardadas para a chave.
+     * @return true em caso de acerto; false se não há entrada (ou ela não pôde ser lida).
+     */
+    public boolean recuperar(String chave, ResultadoCompilacao resultado) {
+        Path arquivo = diretorio.resolve(chave + EXTENSAO);
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(arquivo)))) {
+            if (entrada.readInt() != MAGICO || !chave.equals(lerTexto(entrada))) {
+                throw new IOException("entrada de cache inválida: " + arquivo);
+            }
+            resultado.saidaLexica = lerTexto(entrada);
+            resultado.saidaSintatica = lerTexto(entrada);
+            resultado.saidaSemantica = lerTexto(entrada);
+            resultado.saidaCodigo = lerTexto(entrada);
+            resultado.erro = lerTexto(entrada);
+
+            int linhas = entrada.readInt();
+            if (linhas >= 0) {
+                List<String> codigo = new ArrayList<>(linhas);
+                for (int i = 0; i < linhas; i++) {
+                    codigo.add(lerTexto(entrada));
+                }
+                resultado.codigoIntermediario = codigo;
+            }
+            int variaveis = entrada.readInt();
+            if (variaveis >= 0) {
+                TabelaDeSimbolos tabela = new TabelaDeSimbolos();
+                for (int i = 0; i < variaveis; i++) {
+                    String nome = lerTexto(entrada);
+                    tabela.declarar(i, nome, TipoDado.values()[entrada.readByte()], 0);
+                }
+                resultado.tabela = tabela;
+            }
+        } catch (NoSuchFileException e) {
+            faltas.incrementAndGet();
+            return false;
+        } catch (IOException | RuntimeException e) {
+            // Entrada corrompida ou de outro formato: descarta e compila de novo
+            falhas.incrementAndGet();
+            faltas.incrementAndGet();
+            limpar(resultado);
+            apagar(arquivo);
+            return false;
+        }
+        tocar(arquivo);
+        acertos.incrementAndGet();
+        return true;
+    }
+
+    private static void limpar(ResultadoCompilacao resultado) {
+        resultado.saidaLexica = null;
+        resultado.saidaSintatica = null;
+        resultado.saidaSemantica = null;
+        resultado.saidaCodigo = null;
+        resultado.erro = null;
+        resultado.codigoIntermediario = null;
+        resultado.tabela = null;
+    }
+
+    /**
+     * Guarda as fases 1-4 do resultado (inclusive o erro de compilação, se houve) sob a chave.
+     */
+    public void guardar(String chave, ResultadoCompilacao resultado) {
+        Path arquivo = diretorio.resolve(chave + EXTENSAO);
+        Path temporario = null;
+        try {
+            temporario = Files.createTempFile(diretorio, chave, ".tmp");
+            try (DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporario)))) {
+                saida.writeInt(MAGICO);
+                escreverTexto(saida, chave);
+                escreverTexto(saida, resultado.saidaLexica);
+                escreverTexto(saida, resultado.saidaSintatica);
+                escreverTexto(saida, resultado.saidaSemantica);
+                escreverTexto(saida, resultado.saidaCodigo);
+                escreverTexto(saida, resultado.erro);
+
+                List<String> codigo = resultado.codigoIntermediario;
+                saida.writeInt(codigo == null ? -1 : codigo.size());
+                if (codigo != null) {
+                    for (String linha : codigo) {
+                        escreverTexto(saida, linha);
+                    }
+                }
+                TabelaDeSimbolos tabela = resultado.tabela;
+                saida.writeInt(tabela == null ? -1 : tabela.tamanho());
+                if (tabela != null) {
+                    for (int i = 0; i < tabela.tamanho(); i++) {
+                        escreverTexto(saida, tabela.nomeNaOrdem(i));
+                        saida.writeByte(tabela.tipoNaOrdem(i).ordinal());
+                    }
+                }
+            }
+            long tamanho = Files.size(temporario);
+            try {
+                Files.move(temporario, arquivo, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING);
+            }
+            temporario = null;
+            gravacoes.incrementAndGet();
+            if (tamanhoEstimado.addAndGet(tamanho) > limiteBytes) {
+                despejar();
+            }
+        } catch (IOException e) {
+            falhas.incrementAndGet();
+        } finally {
+            if (temporario != null) {
+                apagar(temporario);
+            }
+        }
+    }
+
+    /**
+     * Apaga as entradas usadas há mais tempo até o diretório voltar ao limite.
+     * O tamanho é recontado a partir do disco, o que inclui as gravações de outros processos.
+     */
+    private synchronized void despejar() throws IOException {
+        List<Path> entradas = listarEntradas();
+        List<FileTime> usos = new ArrayList<>(entradas.size());
+        long total = 0;
+        for (Path entrada : entradas) {
+            total += tamanho(entrada);
+        }
+        List<Integer> ordem = new ArrayList<>();
+        for (int i = 0; i < entradas.size(); i++) {
+            usos.add(ultimoUso(entradas.get(i)));
+            ordem.add(i);
+        }
+        ordem.sort(Comparator.comparing(usos::get));
+        for (int i : ordem) {
+            if (total <= limiteBytes) {
+                break;
+            }
+            long tamanho = tamanho(entradas.get(i));
+            if (apagar(entradas.get(i))) {
+                total -= tamanho;
+                despejos.incrementAndGet();
+            }
+        }
+        tamanhoEstimado.set(total);
+    }
+
+    private List<Path> listarEntradas() throws IOException {
+        List<Path> entradas = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(diretorio, "*" + EXTENSAO)) {
+            for (Path entrada : stream) {
+                entradas.add(entrada);
+            }
+        }
+        return entradas;
+    }
+
+    // Tamanho e data da entrada; 0 / época se ela sumiu (apagada por outro processo)
+    private static long tamanho(Path entrada) {
+        try {
+            return Files.size(entrada);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static FileTime ultimoUso(Path entrada) {
+        try {
+            return Files.getLastModifiedTime(entrada);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static void tocar(Path entrada) {
+        try {
+            Files.setLastModifiedTime(entrada, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // Só afeta a ordem do despejo
+        }
+    }
+
+    private static boolean apagar(Path arquivo) {
+        try {
+            return Files.deleteIfExists(arquivo);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // Textos com tamanho em 4 bytes (-1 = null): as listagens passam do limite de 64 KB de writeUTF
+    private static void escreverTexto(DataOutputStream saida, String texto) throws IOException {
+        if (texto == null) {
+            saida.writeInt(-1);
+            return;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        saida.writeInt(bytes.length);
+        saida.write(bytes);
+    }
+
+    private static String lerTexto(DataInputStream entrada) throws IOException {
+        int tamanho = entrada.readInt();
+        if (tamanho < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[tamanho];
+        entrada.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public long getAcertos() {
+        return acertos.get();
+    }
+
+    public long getFaltas() {
+        return faltas.get();
+    }
+
+    /**
+     * Estatísticas de uso desde a abertura do cache.
+     */
+    public String relatorio() {
+        long consultas = acertos.get() + faltas.get();
+        StringBuilder sb = new StringBuilder();
+        sb.append("--- Cache de Compilação (").append(diretorio).append(") ---\n");
+        sb.append(String.format("Acertos:       %d\n", acertos.get()));
+        sb.append(String.format("Faltas:        %d\n", faltas.get()));
+        sb.append(String.format("Taxa:          %.1f%%\n", consultas > 0 ? 100.0 * acertos.get() / consultas : 0.0));
+        sb.append(String.format("Gravações:     %d\n", gravacoes.get()));
+        sb.append(String.format("Despejos:      %d\n", despejos.get()));
+        sb.append(String.format("Falhas de I/O: %d\n", falhas.get()));
+        sb.append(String.format("Tamanho:       %d de %d bytes\n", tamanhoEstimado.get(), limiteBytes));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,137 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cliente do ServidorCompilacao: envia um arquivo fonte ao servidor residente e grava as saídas de cada
+ * fase e o código final ('<arquivo>.tac') no diretório indicado, como a compilação direta faria, sem pagar
+ * a inicialização da JVM.
+ *
+ * Uso: java Main --cliente [--porta N | --socket CAMINHO] [--saida DIR] [opções de compilação] <arquivo>
+ *      java Main --cliente [--porta N | --socket CAMINHO] --estatisticas
+ *      java Main --cliente [--porta N | --socket CAMINHO] --parar
+ */
+public class ClienteCompilacao {
+
+    /**
+     * Executa o cliente com os argumentos da linha de comando.
+     * @return Situação de saída, como a do Main: 0 em caso de sucesso, 1 com erro de compilação e 2 com
+     *         uma requisição recusada pelo servidor (ex: opção inválida) ou sem o arquivo fonte.
+     */
+    public static int principal(String[] args) throws IOException {
+        List<String> argumentos = new ArrayList<>(Arrays.asList(args));
+        SocketAddress endereco;
+        try {
+            endereco = ServidorCompilacao.extrairEndereco(argumentos);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return 2;
+        }
+
+        Path saida = Path.of(".");
+        int tipo = ServidorCompilacao.COMPILAR;
+        List<String> opcoes = new ArrayList<>();
+        String arquivo = null;
+        for (int i = 0; i < argumentos.size(); i++) {
+            String argumento = argumentos.get(i);
+            if (argumento.equals("--saida") && i + 1 < argumentos.size()) {
+                saida = Path.of(argumentos.get(++i));
+            } else if (argumento.equals("--estatisticas")) {
+                tipo = ServidorCompilacao.ESTATISTICAS;
+            } else if (argumento.equals("--parar")) {
+                tipo = ServidorCompilacao.ENCERRAR;
+            } else if (argumento.startsWith("--")) {
+                opcoes.add(argumento); // Validada pelo servidor
+                if (exigeValor(argumento) && i + 1 < argumentos.size()) {
+                    opcoes.add(argumentos.get(++i));
+                }
+            } else {
+                arquivo = argumento;
+            }
+        }
+        if (tipo == ServidorCompilacao.COMPILAR && arquivo == null) {
+            System.err.println("Informe o arquivo fonte a compilar.");
+            return 2;
+        }
+
+        try (SocketChannel canal = conectar(endereco);
+             DataInputStream entrada = new DataInputStream(new BufferedInputStream(Channels.newInputStream(canal)));
+             DataOutputStream requisicao = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(canal)))) {
+            requisicao.writeInt(ServidorCompilacao.MAGICO);
+            requisicao.writeInt(tipo);
+            if (tipo == ServidorCompilacao.COMPILAR) {
+                requisicao.writeInt(opcoes.size());
+                for (String opcao : opcoes) {
+                    ServidorCompilacao.escreverTexto(requisicao, opcao);
+                }
+                ServidorCompilacao.escreverTexto(requisicao, Files.readString(Path.of(arquivo)));
+            }
+            requisicao.flush();
+
+            Map<String, String> resposta = ServidorCompilacao.lerResposta(entrada);
+            int situacao = Integer.parseInt(resposta.remove(null));
+            if (tipo == ServidorCompilacao.ESTATISTICAS) {
+                resposta.values().forEach(System.out::print);
+                return 0;
+            }
+            if (tipo == ServidorCompilacao.ENCERRAR) {
+                System.out.println("Servidor encerrado.");
+                return 0;
+            }
+            if (situacao == ServidorCompilacao.ERRO_REQUISICAO) {
+                System.err.print(resposta.getOrDefault("erro.txt", "Requisição recusada pelo servidor.\n"));
+                return 2;
+            }
+
+            Files.createDirectories(saida);
+            for (Map.Entry<String, String> arquivoSaida : resposta.entrySet()) {
+                String nome = arquivoSaida.getKey();
+                if (nome.equals(ServidorCompilacao.CODIGO_FINAL)) {
+                    // Gravado com o nome do fonte, como no modo de um arquivo
+                    String fonte = Path.of(arquivo).getFileName().toString();
+                    int ponto = fonte.lastIndexOf('.');
+                    nome = (ponto > 0 ? fonte.substring(0, ponto) : fonte) + ".tac";
+                }
+                Files.writeString(saida.resolve(nome), arquivoSaida.getValue());
+            }
+            if (situacao == ServidorCompilacao.OK) {
+                System.out.println("Compilação concluída: " + resposta.size() + " arquivo(s) em " + saida);
+                return 0;
+            }
+            System.err.print(resposta.get("erro.txt"));
+            return 1;
+        }
+    }
+
+    // Opções de compilação seguidas de um valor (o valor também vai para o servidor)
+    private static boolean exigeValor(String opcao) {
+        return opcao.equals("--registradores") || opcao.equals("--passos")
+                || opcao.equals("--parar-apos") || opcao.equals("--listagens");
+    }
+
+    private static SocketChannel conectar(SocketAddress endereco) throws IOException {
+        SocketChannel canal = endereco instanceof UnixDomainSocketAddress
+                ? SocketChannel.open(StandardProtocolFamily.UNIX) : SocketChannel.open();
+        try {
+            canal.connect(endereco);
+        } catch (IOException e) {
+            canal.close();
+            throw new IOException("Servidor de compilação indisponível em " + endereco
+                    + " (inicie com: java Main --servidor)", e);
+        }
+        return canal;
+    }
+}
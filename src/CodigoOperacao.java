@@ -0,0 +1,67 @@
+/**
+ * Códigos de operação da MaquinaVirtual.
+ *
+ * Cada instrução montada ocupa TAMANHO_INSTRUCAO inteiros consecutivos: [operação, a, b, c].
+ * As operações aritméticas e de comparação existem em duas versões, escolhidas na montagem
+ * conforme o tipo dos operandos: inteira (sufixo _I, valores long) e real (sufixo _R, valores double).
+ * São constantes inteiras (e não um enum) para que o laço de despacho faça um switch direto sobre o array.
+ */
+public final class CodigoOperacao {
+
+    public static final int TAMANHO_INSTRUCAO = 4;
+
+    public static final int MOV = 0;       // reg[a] = reg[b]
+    public static final int LOAD = 1;      // reg[a] = mem[b]
+    public static final int STORE = 2;     // mem[a] = reg[b]
+
+    public static final int ADD_I = 3;     // reg[a] = reg[b] op reg[c]
+    public static final int SUB_I = 4;
+    public static final int MUL_I = 5;
+    public static final int DIV_I = 6;
+    public static final int MOD_I = 7;
+    public static final int ADD_R = 8;
+    public static final int SUB_R = 9;
+    public static final int MUL_R = 10;
+    public static final int DIV_R = 11;
+    public static final int MOD_R = 12;
+
+    public static final int CMPEQ_I = 13;  // reg[a] = (reg[b] op reg[c]) ? 1 : 0
+    public static final int CMPNE_I = 14;
+    public static final int CMPLT_I = 15;
+    public static final int CMPLE_I = 16;
+    public static final int CMPGT_I = 17;
+    public static final int CMPGE_I = 18;
+    public static final int CMPEQ_R = 19;
+    public static final int CMPNE_R = 20;
+    public static final int CMPLT_R = 21;
+    public static final int CMPLE_R = 22;
+    public static final int CMPGT_R = 23;
+    public static final int CMPGE_R = 24;
+
+    public static final int JMP = 25;      // pc = a
+    public static final int JMPTRUE = 26;  // se reg[a] != 0: pc = b
+    public static final int JMPFALSE = 27; // se reg[a] == 0: pc = b
+    public static final int HALT = 28;     // Fim do programa
+
+    public static final int SPILL = 29;    // spill[a] = reg[b] (área de derramamento do alocador de registradores)
+    public static final int RELOAD = 30;   // reg[a] = spill[b]
+
+    public static final int QUANTIDADE = 31;
+
+    private static final String[] MNEMONICOS = {
+            "MOV", "LOAD", "STORE",
+            "ADD_I", "SUB_I", "MUL_I", "DIV_I", "MOD_I",
+            "ADD_R", "SUB_R", "MUL_R", "DIV_R", "MOD_R",
+            "CMPEQ_I", "CMPNE_I", "CMPLT_I", "CMPLE_I", "CMPGT_I", "CMPGE_I",
+            "CMPEQ_R", "CMPNE_R", "CMPLT_R", "CMPLE_R", "CMPGT_R", "CMPGE_R",
+            "JMP", "JMPTRUE", "JMPFALSE", "HALT",
+            "SPILL", "RELOAD"
+    };
+
+    private CodigoOperacao() {
+    }
+
+    public static String mnemonico(int operacao) {
+        return MNEMONICOS[operacao];
+    }
+}
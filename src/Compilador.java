@@ -0,0 +1,588 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.List;
+
+/**
+ * Executa o pipeline completo de compilação (Léxica → Sintática → Semântica → Código)
+ * sobre um único código fonte, sem pausas e sem escrita em disco: as listagens ficam no ResultadoCompilacao
+ * ou são entregues, etapa a etapa, a uma SaidaFases (modo de um arquivo).
+ * Também concentra a formatação das saídas de cada fase, compartilhada por Main e pelo modo em lote.
+ */
+public class Compilador {
+
+    // Versão das saídas das fases 1-4; faz parte da chave do CacheCompilacao, então deve mudar
+    // sempre que alguma listagem ou o TAC gerado mudar
+    public static final String VERSAO = "1.2";
+
+    /**
+     * Compila o código fonte e devolve as saídas de cada fase.
+     * Erros de compilação não são propagados: ficam registrados no resultado.
+     */
+    public static ResultadoCompilacao compilar(String codigo) {
+        return compilar(codigo, new OpcoesCompilacao());
+    }
+
+    /**
+     * Compila o código fonte conforme as opções: otimização do TAC, montagem e execução na máquina
+     * virtual acontecem apenas se a compilação terminou sem erros e não parou antes (--parar-apos).
+     */
+    public static ResultadoCompilacao compilar(String codigo, OpcoesCompilacao opcoes) {
+        return compilar(codigo, opcoes, null);
+    }
+
+    /**
+     * Como compilar(codigo, opcoes), identificando a origem do código (ex: o nome do arquivo) nas métricas.
+     */
+    public static ResultadoCompilacao compilar(String codigo, OpcoesCompilacao opcoes, String origem) {
+        return compilar(codigo, opcoes, origem, null);
+    }
+
+    /**
+     * Como compilar(codigo, opcoes, origem), entregando cada listagem a 'saidas' assim que a sua etapa
+     * termina (no resultado ficam só erro.txt e as listagens ainda não entregues quando houve erro).
+     * @throws UncheckedIOException se 'saidas' falhar; a compilação é interrompida.
+     */
+    public static ResultadoCompilacao compilar(String codigo, OpcoesCompilacao opcoes, String origem, SaidaFases saidas) {
+        ResultadoCompilacao resultado = new ResultadoCompilacao();
+        resultado.saidas = saidas;
+        resultado.metricas = MetricasCompilacao.criar(opcoes.metricas, origem);
+        compilarEtapas(codigo, opcoes, resultado);
+        if (resultado.metricas != null) {
+            resultado.metricas.concluir(resultado.erro);
+        }
+        return resultado;
+    }
+
+    private static void compilarEtapas(String codigo, OpcoesCompilacao opcoes, ResultadoCompilacao resultado) {
+        // O cache guarda as fases 1-4 com todas as listagens: numa falta elas são todas montadas e guardadas, e
+        // as não pedidas são descartadas depois. Compilações que param antes da Fase 4 não o consultam nem o alimentam
+        CacheCompilacao cache = opcoes.fasesCompletas() ? opcoes.cache() : null;
+        String chave = cache != null ? CacheCompilacao.chave(codigo) : null;
+        EventoFaseCompilacao evento = MetricasCompilacao.iniciarFase("cache");
+        if (cache != null) {
+            // As listagens vão inteiras para o cache: só são entregues depois, todas juntas
+            SaidaFases saidas = resultado.saidas;
+            resultado.saidas = null;
+            if (cache.recuperar(chave, resultado)) {
+                MetricasCompilacao.encerrarFase(resultado.metricas, evento,
+                        resultado.sucesso() ? resultado.codigoIntermediario.size() : 0, MetricasCompilacao.INSTRUCOES);
+                if (resultado.metricas != null) {
+                    resultado.metricas.cache = true;
+                }
+            } else {
+                compilarFases(codigo, opcoes.comTodasAsListagens(), resultado);
+                cache.guardar(chave, resultado);
+            }
+            descartarListagens(opcoes, resultado);
+            resultado.saidas = saidas;
+            if (saidas != null && resultado.sucesso()) {
+                entregar(resultado);
+            }
+        } else {
+            compilarFases(codigo, opcoes, resultado);
+        }
+        if (!resultado.sucesso() || !opcoes.executa(OpcoesCompilacao.Fase.CODIGO)) {
+            return;
+        }
+        try {
+            if (opcoes.otimizar) {
+                otimizar(resultado, opcoes.passos, opcoes.lista(OpcoesCompilacao.Fase.CODIGO));
+            }
+            if (opcoes.registradores > 0) {
+                alocarRegistradores(resultado, opcoes.registradores, opcoes.lista(OpcoesCompilacao.Fase.CODIGO));
+            }
+        } catch (UncheckedIOException e) {
+            throw e; // Falha de 'saidas', não do código
+        } catch (RuntimeException e) {
+            resultado.erro = formatarErro(e);
+        }
+        if (opcoes.objeto) {
+            montar(resultado);
+        }
+        if (opcoes.executar) {
+            executar(resultado, MaquinaVirtual.LIMITE_PADRAO);
+        }
+    }
+
+    // Remove do resultado (completo, vindo do cache ou para ele) as listagens que não foram pedidas
+    private static void descartarListagens(OpcoesCompilacao opcoes, ResultadoCompilacao resultado) {
+        if (!opcoes.lista(OpcoesCompilacao.Fase.LEXICO)) {
+            resultado.saidaLexica = null;
+        }
+        if (!opcoes.lista(OpcoesCompilacao.Fase.SINTATICO)) {
+            resultado.saidaSintatica = null;
+        }
+        if (!opcoes.lista(OpcoesCompilacao.Fase.SEMANTICO)) {
+            resultado.saidaSemantica = null;
+        }
+        if (!opcoes.lista(OpcoesCompilacao.Fase.CODIGO)) {
+            resultado.saidaCodigo = null;
+        }
+    }
+
+    /**
+     * Fases 1-4; um erro de compilação fica registrado no resultado, com as saídas das fases anteriores.
+     */
+    private static void compilarFases(String codigo, OpcoesCompilacao opcoes, ResultadoCompilacao resultado) {
+        try {
+            if (opcoes.pipeline) {
+                compilarEmPipeline(codigo, opcoes, resultado);
+            } else {
+                compilarComArvorePlana(codigo, opcoes, resultado);
+            }
+        } catch (UncheckedIOException e) {
+            throw e; // Falha de 'saidas', não do código
+        } catch (RuntimeException e) {
+            resultado.erro = formatarErro(e);
+        }
+    }
+
+    // Início de uma etapa: o evento das métricas e, com SaidaFases, o aviso
+    private static EventoFaseCompilacao iniciar(ResultadoCompilacao resultado, String etapa) {
+        if (resultado.saidas != null) {
+            try {
+                resultado.saidas.iniciar(etapa);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return MetricasCompilacao.iniciarFase(etapa);
+    }
+
+    // Fim de uma etapa: com SaidaFases, entrega as listagens montadas até aqui e avisa
+    private static void concluir(ResultadoCompilacao resultado, String etapa) {
+        if (resultado.saidas == null) {
+            return;
+        }
+        entregar(resultado);
+        try {
+            resultado.saidas.concluir(etapa);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void entregar(ResultadoCompilacao resultado) {
+        try {
+            resultado.entregarListagens();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Listagem da Fase 2: com SaidaFases, escrita em blocos no canal enquanto a árvore é percorrida
+    private static void listarArvore(ResultadoCompilacao resultado, OpcoesCompilacao opcoes, ArvorePlana plana, NoArvore raiz) {
+        if (resultado.saidas == null) {
+            resultado.saidaSintatica = plana != null
+                    ? EscritorArvore.formatar(plana, opcoes.formatoArvore())
+                    : EscritorArvore.formatar(raiz, opcoes.formatoArvore());
+            return;
+        }
+        try (WritableByteChannel canal = resultado.saidas.abrir("fase2_sintatico.txt")) {
+            if (plana != null) {
+                EscritorArvore.gravar(canal, opcoes.formatoArvore(), plana);
+            } else {
+                EscritorArvore.gravar(canal, opcoes.formatoArvore(), raiz);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Otimiza o código intermediário do resultado com os passos indicados (GerenciadorPassos).
+     * O TAC original continua em 'saidaCodigo'; o otimizado substitui 'codigoIntermediario'
+     * e, com 'listar', é listado em 'saidaOtimizacao'.
+     */
+    public static void otimizar(ResultadoCompilacao resultado, String passos, boolean listar) {
+        EventoFaseCompilacao evento = iniciar(resultado, "otimizacao");
+        StringBuilder relatorio = new StringBuilder();
+        List<String> otimizado = otimizar(resultado.codigoIntermediario, passos, relatorio);
+        resultado.codigoIntermediario = otimizado;
+        if (listar) {
+            resultado.saidaOtimizacao = formatarOtimizacao(otimizado, relatorio.toString());
+        }
+        MetricasCompilacao.encerrarFase(resultado.metricas, evento, otimizado.size(), MetricasCompilacao.INSTRUCOES);
+        concluir(resultado, "otimizacao");
+    }
+
+    /**
+     * Aloca os temporários do código intermediário em 'quantidade' registradores físicos.
+     * Como na otimização, o código alocado substitui 'codigoIntermediario' e, com 'listar',
+     * é listado em 'saidaAlocacao'.
+     */
+    public static void alocarRegistradores(ResultadoCompilacao resultado, int quantidade, boolean listar) {
+        EventoFaseCompilacao evento = iniciar(resultado, "registradores");
+        AlocadorRegistradores alocador = new AlocadorRegistradores(quantidade);
+        List<String> alocado = alocador.alocar(resultado.codigoIntermediario);
+        resultado.codigoIntermediario = alocado;
+        if (listar) {
+            resultado.saidaAlocacao = formatarAlocacao(alocado, alocador.relatorio());
+        }
+        MetricasCompilacao.encerrarFase(resultado.metricas, evento, alocado.size(), MetricasCompilacao.INSTRUCOES);
+        concluir(resultado, "registradores");
+    }
+
+    /**
+     * Aplica os passos ao TAC, na ordem da lista. O padrão é constantes (que decide desvios e deixa
+     * saltos e labels órfãos) e depois saltos e leiaute de blocos. Os relatórios de cada passo e a
+     * tabela de tempos são anexados a 'relatorio'.
+     */
+    public static List<String> otimizar(List<String> codigo, String passos, StringBuilder relatorio) {
+        GerenciadorPassos gerenciador = GerenciadorPassos.criar(passos);
+        List<String> otimizado = gerenciador.executar(codigo);
+        relatorio.append(gerenciador.relatorio());
+        return otimizado;
+    }
+
+    /**
+     * Caminho padrão: tokens em arrays paralelos (BufferDeTokens) e árvore plana (ArvorePlana),
+     * consumida pela semântica e pela geração de código através do VisitanteArvore (com --paralelo, em
+     * tarefas fork-join: FasesParalelas).
+     * Só são formatadas as listagens pedidas nas opções, e nenhuma fase depois de --parar-apos é executada.
+     */
+    private static void compilarComArvorePlana(String codigo, OpcoesCompilacao opcoes, ResultadoCompilacao resultado) {
+        MetricasCompilacao metricas = resultado.metricas;
+
+        // Fase 1: Léxica (tokens em arrays paralelos, sem objetos Token)
+        EventoFaseCompilacao evento = iniciar(resultado, "lexico");
+        BufferDeTokens buffer = new AnalisadorLexico(codigo).tokenizar();
+        if (opcoes.lista(OpcoesCompilacao.Fase.LEXICO)) {
+            resultado.saidaLexica = formatarTokens(buffer);
+        }
+        MetricasCompilacao.encerrarFase(metricas, evento, buffer.tamanho() - 1, MetricasCompilacao.TOKENS); // Sem o EOF
+        concluir(resultado, "lexico");
+        if (!opcoes.executa(OpcoesCompilacao.Fase.SINTATICO)) {
+            return;
+        }
+
+        // Fase 2: Sintática (percorre o mesmo buffer por índice e monta a árvore na arena)
+        evento = iniciar(resultado, "sintatico");
+        AnalisadorSintatico sintatico = new AnalisadorSintatico(buffer);
+        ArvorePlana arvore = sintatico.programaPlano();
+        if (opcoes.lista(OpcoesCompilacao.Fase.SINTATICO)) {
+            listarArvore(resultado, opcoes, arvore, null);
+        }
+        MetricasCompilacao.encerrarFase(metricas, evento, arvore.tamanho(), MetricasCompilacao.NOS);
+        concluir(resultado, "sintatico");
+        if (!opcoes.executa(OpcoesCompilacao.Fase.SEMANTICO)) {
+            return;
+        }
+
+        // Fase 3: Semântica
+        evento = iniciar(resultado, "semantico");
+        TabelaDeSimbolos tabela = sintatico.getTabelaDeSimbolos();
+        if (opcoes.paralelo) {
+            FasesParalelas.analisar(arvore, tabela);
+        } else {
+            new AnalisadorSemantico(tabela).analisar(arvore);
+        }
+        if (opcoes.lista(OpcoesCompilacao.Fase.SEMANTICO)) {
+            resultado.saidaSemantica = formatarTabela(tabela);
+        }
+        resultado.tabela = tabela;
+        MetricasCompilacao.encerrarFase(metricas, evento, tabela.tamanho(), MetricasCompilacao.SIMBOLOS);
+        concluir(resultado, "semantico");
+        if (!opcoes.executa(OpcoesCompilacao.Fase.CODIGO)) {
+            return;
+        }
+
+        // Fase 4: Geração de Código
+        evento = iniciar(resultado, "codigo");
+        List<String> codigoGerado;
+        if (opcoes.paralelo) {
+            codigoGerado = FasesParalelas.gerar(arvore);
+        } else {
+            GeradorCodigoIntermediario gerador = new GeradorCodigoIntermediario();
+            gerador.gerar(arvore);
+            codigoGerado = gerador.getCodigo();
+        }
+        if (opcoes.lista(OpcoesCompilacao.Fase.CODIGO)) {
+            resultado.saidaCodigo = formatarCodigo(codigoGerado);
+        }
+        resultado.codigoIntermediario = codigoGerado;
+        MetricasCompilacao.encerrarFase(metricas, evento, codigoGerado.size(), MetricasCompilacao.INSTRUCOES);
+        concluir(resultado, "codigo");
+    }
+
+    /**
+     * Caminho com o léxico em pipeline: os tokens chegam como objetos pela fita e a árvore usa NoArvore.
+     */
+    private static void compilarEmPipeline(String codigo, OpcoesCompilacao opcoes, ResultadoCompilacao resultado) {
+        MetricasCompilacao metricas = resultado.metricas;
+        NoArvore arvoreSintatica;
+        AnalisadorSintatico sintatico;
+        FonteDeTokens fonte = criarFonteDeTokens(codigo, true);
+        try {
+            // Fase 1: Léxica (os tokens ficam gravados na fita para o sintático). Em pipeline o léxico
+            // corre junto com o sintático, então a fase 'lexico' só termina junto com a 'sintatico'
+            EventoFaseCompilacao lexico = iniciar(resultado, "lexico");
+            FitaDeTokens fita = new FitaDeTokens(fonte);
+            if (!opcoes.executa(OpcoesCompilacao.Fase.SINTATICO)) {
+                if (opcoes.lista(OpcoesCompilacao.Fase.LEXICO)) {
+                    resultado.saidaLexica = formatarTokens(fita);
+                }
+                int tokens = fita.preencherTudo(); // Sem o sintático para puxar os tokens, a fita é lida até o fim aqui
+                MetricasCompilacao.encerrarFase(metricas, lexico, tokens - 1, MetricasCompilacao.TOKENS);
+                concluir(resultado, "lexico");
+                return;
+            }
+            // A listagem da Fase 1 só é entregue com a da Fase 2 (ver abaixo)
+            concluir(resultado, "lexico");
+
+            // Fase 2: Sintática (relê a mesma fita, sem analisar o texto novamente)
+            EventoFaseCompilacao evento = iniciar(resultado, "sintatico");
+            sintatico = new AnalisadorSintatico(fita.leitor());
+            try {
+                arvoreSintatica = sintatico.programa();
+            } finally {
+                // A listagem da Fase 1 relê a fita depois do sintático: montada antes, leria a fita inteira e o
+                // léxico não rodaria junto com o sintático. Também depois de um erro sintático: um erro léxico
+                // adiante prevalece, como no modo padrão
+                if (opcoes.lista(OpcoesCompilacao.Fase.LEXICO)) {
+                    resultado.saidaLexica = formatarTokens(fita);
+                }
+            }
+            if (opcoes.lista(OpcoesCompilacao.Fase.SINTATICO)) {
+                listarArvore(resultado, opcoes, null, arvoreSintatica);
+            }
+            MetricasCompilacao.encerrarFase(metricas, evento,
+                    MetricasCompilacao.ativa(metricas, evento) ? contarNos(arvoreSintatica) : 0, MetricasCompilacao.NOS);
+            // O sintático consumiu a fita até o EOF: preencherTudo() só informa o tamanho
+            MetricasCompilacao.encerrarFase(metricas, lexico, fita.preencherTudo() - 1, MetricasCompilacao.TOKENS);
+            concluir(resultado, "sintatico");
+        } finally {
+            encerrarFonteDeTokens(fonte);
+        }
+        if (!opcoes.executa(OpcoesCompilacao.Fase.SEMANTICO)) {
+            return;
+        }
+
+        // Fase 3: Semântica
+        EventoFaseCompilacao evento = iniciar(resultado, "semantico");
+        TabelaDeSimbolos tabela = sintatico.getTabelaDeSimbolos();
+        new AnalisadorSemantico(tabela).analisar(arvoreSintatica);
+        if (opcoes.lista(OpcoesCompilacao.Fase.SEMANTICO)) {
+            resultado.saidaSemantica = formatarTabela(tabela);
+        }
+        resultado.tabela = tabela;
+        MetricasCompilacao.encerrarFase(metricas, evento, tabela.tamanho(), MetricasCompilacao.SIMBOLOS);
+        concluir(resultado, "semantico");
+        if (!opcoes.executa(OpcoesCompilacao.Fase.CODIGO)) {
+            return;
+        }
+
+        // Fase 4: Geração de Código
+        evento = iniciar(resultado, "codigo");
+        GeradorCodigoIntermediario gerador = new GeradorCodigoIntermediario();
+        gerador.gerar(arvoreSintatica);
+        if (opcoes.lista(OpcoesCompilacao.Fase.CODIGO)) {
+            resultado.saidaCodigo = formatarCodigo(gerador.getCodigo());
+        }
+        resultado.codigoIntermediario = gerador.getCodigo();
+        MetricasCompilacao.encerrarFase(metricas, evento, gerador.getCodigo().size(), MetricasCompilacao.INSTRUCOES);
+        concluir(resultado, "codigo");
+    }
+
+    // Nós da árvore de objetos (a árvore plana sabe o próprio tamanho)
+    static int contarNos(NoArvore raiz) {
+        int total = 0;
+        ArrayDeque<NoArvore> pendentes = new ArrayDeque<>();
+        pendentes.push(raiz);
+        while (!pendentes.isEmpty()) {
+            NoArvore no = pendentes.pop();
+            total++;
+            for (NoArvore filho : no.filhos) {
+                pendentes.push(filho);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Monta o código de uma compilação bem-sucedida em 'programa' (feito uma vez, antes de gravar o objeto ou executar).
+     * Erros de montagem ficam registrados no resultado, como os de compilação.
+     */
+    public static void montar(ResultadoCompilacao resultado) {
+        if (!resultado.sucesso() || resultado.programa != null) {
+            return;
+        }
+        try {
+            resultado.programa = MontadorTAC.montar(resultado.codigoIntermediario, resultado.tabela);
+        } catch (RuntimeException e) {
+            resultado.erro = formatarErro(e);
+        }
+    }
+
+    /**
+     * Executa na máquina virtual o código de uma compilação bem-sucedida (Fase 5).
+     * Erros de montagem ou de execução ficam registrados no resultado, como os de compilação.
+     */
+    public static void executar(ResultadoCompilacao resultado, long limiteInstrucoes) {
+        montar(resultado);
+        if (!resultado.sucesso()) {
+            return;
+        }
+        EventoFaseCompilacao evento = iniciar(resultado, "execucao");
+        try {
+            ResultadoExecucao execucao = new MaquinaVirtual(resultado.programa).executar(limiteInstrucoes);
+            resultado.saidaExecucao = formatarExecucao(execucao);
+            MetricasCompilacao.encerrarFase(resultado.metricas, evento, execucao.instrucoesExecutadas(), "instruções executadas");
+        } catch (RuntimeException e) {
+            resultado.erro = formatarErro(e);
+            return;
+        }
+        concluir(resultado, "execucao");
+    }
+
+    /**
+     * Cria a fonte de tokens do analisador sintático: o léxico direto ou o léxico em pipeline.
+     */
+    public static FonteDeTokens criarFonteDeTokens(String codigo, boolean pipeline) {
+        AnalisadorLexico lexico = new AnalisadorLexico(codigo);
+        return pipeline ? new LexicoEmPipeline(lexico) : lexico;
+    }
+
+    /**
+     * Libera a thread do léxico em pipeline, se houver (ex: após um erro sintático).
+     */
+    public static void encerrarFonteDeTokens(FonteDeTokens fonte) {
+        if (fonte instanceof LexicoEmPipeline) {
+            ((LexicoEmPipeline) fonte).close();
+        }
+    }
+
+    /**
+     * Grava todos os tokens na fita e monta a listagem da Fase 1.
+     */
+    public static String formatarTokens(FitaDeTokens fita) {
+        StringBuilder saidaLexica = new StringBuilder();
+        saidaLexica.append("--- Fase 1: Análise Léxica (Lista de Tokens) ---\n");
+        Token t;
+        // Itera sobre todos os tokens até encontrar o fim do arquivo (EOF)
+        for (int i = 0; (t = fita.obter(i)).tipo != TipoToken.EOF; i++) {
+            saidaLexica.append(t.toString()).append("\n");
+        }
+        saidaLexica.append("-------------------------------------------------\n");
+        return saidaLexica.toString();
+    }
+
+    /**
+     * Monta a listagem da Fase 1 diretamente do BufferDeTokens, copiando os lexemas do código fonte.
+     */
+    public static String formatarTokens(BufferDeTokens buffer) {
+        StringBuilder saidaLexica = new StringBuilder();
+        saidaLexica.append("--- Fase 1: Análise Léxica (Lista de Tokens) ---\n");
+        // O último token do buffer é o EOF, que não é listado
+        for (int i = 0; i < buffer.tamanho() - 1; i++) {
+            saidaLexica.append("Token{tipo=").append(buffer.tipo(i)).append(", lexema='");
+            buffer.anexarLexema(saidaLexica, i).append("', linha=").append(buffer.linha(i)).append("}\n");
+        }
+        saidaLexica.append("-------------------------------------------------\n");
+        return saidaLexica.toString();
+    }
+
+    /**
+     * Monta a representação visual da árvore plana (Fase 2).
+     */
+    public static String formatarArvore(ArvorePlana arvore) {
+        return EscritorArvore.formatar(arvore, EscritorArvore.Formato.DESENHO);
+    }
+
+    /**
+     * Monta a listagem da Tabela de Símbolos validada (Fase 3).
+     */
+    public static String formatarTabela(TabelaDeSimbolos tabela) {
+        StringBuilder saidaSemantica = new StringBuilder();
+        saidaSemantica.append("--- Fase 3: Análise Semântica (Tabela Símbolos) ---\n");
+        saidaSemantica.append(tabela.toString());
+        saidaSemantica.append("Análise semântica concluída com sucesso!\n");
+        saidaSemantica.append("-------------------------------------------------\n");
+        return saidaSemantica.toString();
+    }
+
+    /**
+     * Monta a listagem do código intermediário (Fase 4).
+     */
+    public static String formatarCodigo(List<String> codigo) {
+        StringBuilder saidaCodigo = new StringBuilder();
+        saidaCodigo.append("--- Fase 4: Código Intermediário (TAC) ---\n");
+        for (String instrucao : codigo) {
+            saidaCodigo.append(instrucao).append("\n");
+        }
+        saidaCodigo.append("Geração de código concluída com sucesso!\n");
+        saidaCodigo.append("-------------------------------------------------\n");
+        return saidaCodigo.toString();
+    }
+
+    /**
+     * Monta a listagem do código intermediário otimizado, seguida do relatório da otimização.
+     */
+    public static String formatarOtimizacao(List<String> codigo, String relatorio) {
+        StringBuilder saidaOtimizacao = new StringBuilder();
+        saidaOtimizacao.append("--- Fase 4: Código Intermediário Otimizado (TAC) ---\n");
+        for (String instrucao : codigo) {
+            saidaOtimizacao.append(instrucao).append("\n");
+        }
+        saidaOtimizacao.append("--- Relatório da Otimização ---\n");
+        saidaOtimizacao.append(relatorio);
+        saidaOtimizacao.append("-------------------------------------------------\n");
+        return saidaOtimizacao.toString();
+    }
+
+    /**
+     * Monta a listagem do código com registradores físicos, seguida do relatório da alocação.
+     */
+    public static String formatarAlocacao(List<String> codigo, String relatorio) {
+        StringBuilder saidaAlocacao = new StringBuilder();
+        saidaAlocacao.append("--- Fase 4: Código Intermediário com Registradores Alocados (TAC) ---\n");
+        for (String instrucao : codigo) {
+            saidaAlocacao.append(instrucao).append("\n");
+        }
+        saidaAlocacao.append("--- Relatório da Alocação ---\n");
+        saidaAlocacao.append(relatorio);
+        saidaAlocacao.append("-------------------------------------------------\n");
+        return saidaAlocacao.toString();
+    }
+
+    /**
+     * Monta o relatório da execução na máquina virtual (Fase 5).
+     */
+    public static String formatarExecucao(ResultadoExecucao execucao) {
+        StringBuilder saidaExecucao = new StringBuilder();
+        saidaExecucao.append("--- Fase 5: Execução (Máquina Virtual) ---\n");
+        saidaExecucao.append(execucao.toString());
+        saidaExecucao.append("-------------------------------------------------\n");
+        return saidaExecucao.toString();
+    }
+
+    /**
+     * Monta o relatório de erro gravado em erro.txt: todos os diagnósticos de um ErroCompilacao, só a
+     * mensagem de um ErroExecucao, ou a mensagem e o stack trace de qualquer outra exceção (falhas internas).
+     */
+    public static String formatarErro(RuntimeException e) {
+        StringBuilder erroBuilder = new StringBuilder();
+        if (e instanceof ErroExecucao) {
+            // Erro do programa executado, não do compilador: só a mensagem
+            return erroBuilder.append("--- ERRO DE EXECUÇÃO ---\n").append(e.getMessage()).append('\n').toString();
+        }
+        erroBuilder.append("--- ERRO DE COMPILAÇÃO ---\n");
+        erroBuilder.append(e.getMessage()).append("\n\n");
+        if (e instanceof ErroCompilacao) {
+            // Erros de compilação não têm stack trace: um por linha, seguidos do total
+            int quantidade = ((ErroCompilacao) e).getDiagnosticos().size();
+            erroBuilder.append("Total: ").append(quantidade).append(" erro(s)")
+                    .append(quantidade >= Diagnosticos.LIMITE ? " (limite atingido; a análise foi interrompida).\n" : ".\n");
+            return erroBuilder.toString();
+        }
+        erroBuilder.append("--- Stack Trace ---\n");
+        StringWriter sw = new StringWriter();
+        e.printStackTrace(new PrintWriter(sw));
+        erroBuilder.append(sw.toString());
+        return erroBuilder.toString();
+    }
+}
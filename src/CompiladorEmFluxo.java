@@ -0,0 +1,105 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Compilação em fluxo, em uma única passada: cada comando externo do programa é analisado,
+ * verificado contra a TabelaDeSimbolos, convertido em TAC, escrito e descartado antes que o
+ * próximo seja lido. Nunca existem a árvore do programa inteiro, a lista de todos os tokens nem
+ * a lista de todas as instruções, e o texto fonte é lido em trechos (FonteEmTrechos): a memória
+ * usada depende do maior comando e da quantidade de variáveis, não do tamanho do programa.
+ *
+ * O TAC produzido é idêntico ao do Compilador (os labels continuam numerados no programa inteiro).
+ * Os erros relatados também são os mesmos: os semânticos ficam retidos até o fim da entrada e são
+ * descartados se houver erro sintático, pois nos demais modos a semântica nem chega a rodar. Após o
+ * primeiro erro nada mais é escrito, mas a análise segue até o fim para relatar todos. As listagens
+ * das fases 1 e 2 não existem neste modo.
+ */
+public class CompiladorEmFluxo {
+
+    private TabelaDeSimbolos tabela;
+    private long comandos;
+    private long instrucoes;
+    private long caracteres;
+
+    /**
+     * Compila o programa lido de 'entrada', escrevendo o TAC em 'tac' (uma instrução por linha).
+     * Com erro, o que foi escrito até ele não é um programa completo e deve ser descartado.
+     * @throws ErroCompilacao com todos os erros encontrados.
+     */
+    public void compilar(Reader entrada, Writer tac) {
+        FonteEmTrechos fonte = new FonteEmTrechos(entrada);
+        AnalisadorSintatico sintatico = new AnalisadorSintatico(fonte);
+        tabela = sintatico.getTabelaDeSimbolos();
+        Diagnosticos diagnosticos = tabela.getDiagnosticos();
+        Diagnosticos semanticos = new Diagnosticos(); // Retidos até o fim da entrada
+        AnalisadorSemantico semantico = new AnalisadorSemantico(tabela, semanticos);
+        ErroCompilacao limiteSemantico = null;
+        GeradorCodigoIntermediario gerador = new GeradorCodigoIntermediario();
+
+        try {
+            sintatico.iniciarFluxo();
+            boolean sintaxeValida = !diagnosticos.possui(OpcoesCompilacao.Fase.SINTATICO);
+            while (sintatico.haComando()) {
+                NoArvore comando = sintatico.proximoComando();
+                comandos++;
+                if (sintaxeValida && !diagnosticos.vazio()) {
+                    sintaxeValida = !diagnosticos.possui(OpcoesCompilacao.Fase.SINTATICO);
+                }
+                if (!sintaxeValida) {
+                    continue; // Com erro sintático, a árvore pode estar incompleta: só se procura mais erros
+                }
+                if (limiteSemantico == null) {
+                    try {
+                        semantico.verificar(comando);
+                    } catch (ErroCompilacao e) {
+                        limiteSemantico = e; // Limite atingido: só é relatado se a sintaxe terminar válida
+                    }
+                }
+                if (diagnosticos.vazio() && semanticos.vazio()) {
+                    gerador.gerar(comando);
+                    escrever(gerador.retirarCodigo(), tac);
+                }
+            }
+            sintatico.encerrarFluxo(); // Lança os erros sintáticos e as declarações duplicadas
+            if (limiteSemantico != null) {
+                throw limiteSemantico;
+            }
+            semanticos.lancarSeHouver();
+            tac.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao escrever o código intermediário.", e);
+        } finally {
+            caracteres = fonte.getCaracteresLidos();
+        }
+    }
+
+    private void escrever(List<String> codigo, Writer tac) throws IOException {
+        for (String instrucao : codigo) {
+            tac.write(instrucao);
+            tac.write('\n');
+        }
+        instrucoes += codigo.size();
+    }
+
+    /**
+     * Tabela de símbolos da última compilação (a única estrutura que cresce com o programa).
+     */
+    public TabelaDeSimbolos getTabela() {
+        return tabela;
+    }
+
+    /**
+     * Resumo da última compilação: comandos externos, instruções escritas e caracteres lidos.
+     */
+    public String resumo() {
+        return String.format("%d comando(s) externo(s), %d instrução(ões) TAC, %d caractere(s) lido(s)",
+                comandos, instrucoes, caracteres);
+    }
+
+    public long getInstrucoes() {
+        return instrucoes;
+    }
+}
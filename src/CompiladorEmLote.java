@@ -0,0 +1,167 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Modo de compilação em lote: compila vários arquivos fonte na mesma JVM.
+ * Cada arquivo é uma tarefa independente executada em um pool work-stealing (ForkJoinPool),
+ * aproveitando todos os núcleos e pagando o custo de inicialização/JIT uma única vez.
+ * As saídas de cada arquivo vão para um subdiretório próprio dentro do diretório de saída.
+ */
+public class CompiladorEmLote {
+
+    private final Path diretorioSaida; // Raiz onde são criados os subdiretórios de cada arquivo
+    private final int paralelismo;     // Número de threads do pool
+    private final OpcoesCompilacao opcoes; // Opções aplicadas a todos os arquivos
+    private int falhas;                    // Arquivos com erro na última compilação
+
+    public CompiladorEmLote(Path diretorioSaida, int paralelismo, OpcoesCompilacao opcoes) {
+        this.diretorioSaida = diretorioSaida;
+        this.paralelismo = paralelismo;
+        this.opcoes = opcoes;
+    }
+
+    /**
+     * Expande a lista de argumentos em arquivos fonte.
+     * Diretórios contribuem com todos os seus arquivos '.txt' (em ordem alfabética).
+     */
+    public static List<Path> coletarFontes(List<String> argumentos) throws IOException {
+        List<Path> fontes = new ArrayList<>();
+        for (String argumento : argumentos) {
+            Path caminho = Path.of(argumento);
+            if (Files.isDirectory(caminho)) {
+                try (Stream<Path> arquivos = Files.list(caminho)) {
+                    fontes.addAll(arquivos
+                            .filter(p -> Files.isRegularFile(p) && p.getFileName().toString().endsWith(".txt"))
+                            .sorted()
+                            .collect(Collectors.toList()));
+                }
+            } else {
+                fontes.add(caminho);
+            }
+        }
+        return fontes;
+    }
+
+    /**
+     * Compila todos os arquivos em paralelo, uma tarefa por arquivo, e devolve o resumo do lote.
+     */
+    public String compilar(List<Path> fontes) throws IOException {
+        Files.createDirectories(diretorioSaida);
+        List<Callable<Boolean>> tarefas = new ArrayList<>();
+        Set<String> nomesUsados = new HashSet<>();
+        for (Path fonte : fontes) {
+            Path destino = diretorioSaida.resolve(nomeUnico(fonte, nomesUsados));
+            tarefas.add(() -> compilarArquivo(fonte, destino));
+        }
+
+        long inicio = System.nanoTime();
+        int sucessos = 0;
+        ForkJoinPool pool = new ForkJoinPool(paralelismo);
+        try {
+            for (Future<Boolean> futuro : pool.invokeAll(tarefas)) {
+                if (futuro.get()) {
+                    sucessos++;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Compilação em lote interrompida.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        falhas = fontes.size() - sucessos;
+
+        StringBuilder resumo = new StringBuilder();
+        resumo.append("--- Resumo da Compilação em Lote ---\n");
+        resumo.append(String.format("Arquivos:      %d\n", fontes.size()));
+        resumo.append(String.format("Sucessos:      %d\n", sucessos));
+        resumo.append(String.format("Com erro:      %d\n", falhas));
+        resumo.append(String.format("Threads:       %d\n", paralelismo));
+        resumo.append(String.format("Tempo total:   %.3f s\n", segundos));
+        resumo.append(String.format("Vazão:         %.1f arquivos/s\n", segundos > 0 ? fontes.size() / segundos : 0.0));
+        resumo.append("------------------------------------\n");
+        if (opcoes.cache() != null) {
+            resumo.append(opcoes.cache().relatorio());
+        }
+        Files.writeString(diretorioSaida.resolve("resumo.txt"), resumo.toString());
+        return resumo.toString();
+    }
+
+    /**
+     * Quantidade de arquivos com erro (de compilação ou de I/O) na última chamada a compilar.
+     */
+    public int getFalhas() {
+        return falhas;
+    }
+
+    /**
+     * Executa o pipeline completo para um arquivo e grava suas saídas.
+     * Uma falha de I/O (ex: fonte ilegível ou com codificação inválida) vai para o erro.txt do arquivo,
+     * que conta como compilado com erro: os demais arquivos do lote seguem normalmente.
+     * @return true se a compilação terminou sem erros.
+     */
+    private boolean compilarArquivo(Path fonte, Path destino) {
+        try {
+            ResultadoCompilacao resultado = Compilador.compilar(Files.readString(fonte), opcoes, fonte.toString());
+            EventoFaseCompilacao escrita = MetricasCompilacao.iniciarFase("escrita");
+            long bytes = resultado.gravar(destino, opcoes.objeto, null);
+            MetricasCompilacao.encerrarFase(resultado.metricas, escrita, bytes, MetricasCompilacao.BYTES);
+            if (opcoes.metricas) {
+                Files.writeString(destino.resolve(MetricasCompilacao.ARQUIVO), resultado.metricas.paraJson());
+            }
+            return resultado.sucesso();
+        } catch (IOException | UncheckedIOException e) {
+            registrarFalha(fonte, destino, e);
+            return false;
+        }
+    }
+
+    // Grava no erro.txt do arquivo a falha de I/O que interrompeu a sua compilação
+    private static void registrarFalha(Path fonte, Path destino, Exception e) {
+        Throwable causa = e instanceof UncheckedIOException ? e.getCause() : e;
+        String erro = "--- ERRO DE COMPILAÇÃO ---\n"
+                + "Erro de I/O: falha ao compilar " + fonte + ": " + causa + "\n";
+        try {
+            Files.createDirectories(destino);
+            Files.writeString(destino.resolve("erro.txt"), erro);
+        } catch (IOException ignorada) {
+            // Sem erro.txt, o arquivo ainda aparece como compilado com erro no resumo
+        }
+    }
+
+
+    /**
+     * Deriva o nome do subdiretório de saída a partir do nome do arquivo (sem extensão),
+     * acrescentando um sufixo numérico quando dois arquivos têm o mesmo nome.
+     */
+    private static String nomeUnico(Path fonte, Set<String> nomesUsados) {
+        String nome = fonte.getFileName().toString();
+        int ponto = nome.lastIndexOf('.');
+        if (ponto > 0) {
+            nome = nome.substring(0, ponto);
+        }
+        String candidato = nome;
+        for (int i = 2; !nomesUsados.add(candidato); i++) {
+            candidato = nome + "_" + i;
+        }
+        return candidato;
+    }
+}
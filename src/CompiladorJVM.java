@@ -0,0 +1,365 @@
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayDeque;
+
+/**
+ * Backend que compila a árvore sintática (ArvorePlana) para bytecode da JVM e carrega o resultado
+ * como classe oculta (Lookup.defineHiddenClass). Assim o programa roda no interpretador da JVM e,
+ * quando quente, é compilado pelo JIT do HotSpot como qualquer método Java.
+ *
+ * Tradução:
+ * - Cada variável declarada vira uma variável local do método: long para inteiro/caracter, double para real.
+ *   Os valores iniciais são lidos da memória (long[]) na entrada e gravados de volta na saída.
+ * - 'se' e 'enquanto' viram desvios nativos (IFxx/GOTO); E, OR e NOT são resolvidos com saltos (curto-circuito).
+ * - Cada volta de 'enquanto' consome uma unidade de combustível; ao esgotar, o método salta para a saída.
+ *
+ * A semântica é a mesma do InterpretadorArvore.
+ */
+public class CompiladorJVM {
+
+    public static final long LIMITE_PADRAO = 10_000_000L; // Voltas de laço antes de interromper
+
+    private static final String NOME_CLASSE = "ProgramaCompilado";
+    private static final String NOME_METODO = "executar";
+    private static final String DESCRITOR = "([JJ)J";
+
+    // Variáveis locais do método gerado
+    private static final int LOCAL_MEMORIA = 0;     // long[] memoria
+    private static final int LOCAL_COMBUSTIVEL = 1; // long combustivel (ocupa 1 e 2)
+    private static final int PRIMEIRA_VARIAVEL = 3; // Cada variável ocupa 2 posições
+
+    private final ArvorePlana arvore;
+    private final TabelaDeSimbolos tabela;
+    private final BufferDeTokens buffer;
+    private final EscritorClasseJVM escritor = new EscritorClasseJVM();
+    private final boolean[] reais; // Tipo de cada variável, por slot
+    private EscritorClasseJVM.Rotulo rotuloSaida;
+
+    private CompiladorJVM(ArvorePlana arvore, TabelaDeSimbolos tabela) {
+        this.arvore = arvore;
+        this.tabela = tabela;
+        this.buffer = arvore.getBuffer();
+        this.reais = new boolean[tabela.tamanho()];
+        for (int i = 0; i < reais.length; i++) {
+            reais[i] = tabela.tipoNaOrdem(i) == TipoDado.REAL;
+        }
+    }
+
+    /**
+     * Compila um programa já validado pela análise semântica e o carrega na JVM.
+     */
+    public static ProgramaJVM compilar(ArvorePlana arvore, TabelaDeSimbolos tabela) {
+        CompiladorJVM compilador = new CompiladorJVM(arvore, tabela);
+        byte[] classe = compilador.gerarClasse();
+
+        MethodHandle metodo;
+        try {
+            MethodHandles.Lookup oculta = MethodHandles.lookup().defineHiddenClass(classe, true);
+            metodo = oculta.findStatic(oculta.lookupClass(), NOME_METODO,
+                    MethodType.methodType(long.class, long[].class, long.class));
+        } catch (IllegalAccessException | NoSuchMethodException e) {
+            throw new RuntimeException("Erro do Backend JVM: falha ao carregar a classe gerada: " + e.getMessage(), e);
+        }
+
+        String[] nomes = new String[tabela.tamanho()];
+        TipoDado[] tipos = new TipoDado[tabela.tamanho()];
+        for (int i = 0; i < nomes.length; i++) {
+            nomes[i] = tabela.nomeNaOrdem(i);
+            tipos[i] = tabela.tipoNaOrdem(i);
+        }
+        return new ProgramaJVM(metodo, nomes, tipos, compilador.escritor.tamanhoCodigo(), classe);
+    }
+
+    private byte[] gerarClasse() {
+        EscritorClasseJVM e = escritor;
+        rotuloSaida = e.novoRotulo();
+
+        // Entrada: copia a memória para as variáveis locais
+        for (int slot = 0; slot < reais.length; slot++) {
+            e.local(EscritorClasseJVM.ALOAD, LOCAL_MEMORIA, 1);
+            e.empilharInt(slot);
+            e.op(EscritorClasseJVM.LALOAD, 0);
+            if (reais[slot]) {
+                e.invocarEstatico("java/lang/Double", "longBitsToDouble", "(J)D", 0);
+                e.local(EscritorClasseJVM.DSTORE, local(slot), -2);
+            } else {
+                e.local(EscritorClasseJVM.LSTORE, local(slot), -2);
+            }
+        }
+
+        for (int filho = arvore.primeiroFilho(arvore.getRaiz()); filho != ArvorePlana.NENHUM; filho = arvore.proximoIrmao(filho)) {
+            gerarComando(filho);
+        }
+
+        // Saída: grava as variáveis locais de volta na memória e devolve o combustível restante
+        e.marcar(rotuloSaida);
+        for (int slot = 0; slot < reais.length; slot++) {
+            e.local(EscritorClasseJVM.ALOAD, LOCAL_MEMORIA, 1);
+            e.empilharInt(slot);
+            if (reais[slot]) {
+                e.local(EscritorClasseJVM.DLOAD, local(slot), 2);
+                e.invocarEstatico("java/lang/Double", "doubleToRawLongBits", "(D)J", 0);
+            } else {
+                e.local(EscritorClasseJVM.LLOAD, local(slot), 2);
+            }
+            e.op(EscritorClasseJVM.LASTORE, -4);
+        }
+        e.local(EscritorClasseJVM.LLOAD, LOCAL_COMBUSTIVEL, 2);
+        e.op(EscritorClasseJVM.LRETURN, -2);
+
+        return e.gerarClasse(NOME_CLASSE, NOME_METODO, DESCRITOR, PRIMEIRA_VARIAVEL + 2 * reais.length);
+    }
+
+    private static int local(int slot) {
+        return PRIMEIRA_VARIAVEL + 2 * slot;
+    }
+
+    private void gerarComando(int no) {
+        EscritorClasseJVM e = escritor;
+        switch (arvore.tipo(no)) {
+            case ATRIBUICAO:
+                gerarAtribuicao(no);
+                break;
+            case CONDICIONAL: {
+                // Filhos: 'se', Condicao, 'entao', Comando ['senao', Comando]
+                int condicao = arvore.filho(no, 1);
+                int entao = arvore.proximoIrmao(arvore.proximoIrmao(condicao));
+                int senao = arvore.proximoIrmao(entao);
+                EscritorClasseJVM.Rotulo rotuloSenao = e.novoRotulo();
+                gerarSalto(condicao, false, rotuloSenao);
+                gerarComando(entao);
+                if (senao != ArvorePlana.NENHUM) {
+                    EscritorClasseJVM.Rotulo rotuloFim = e.novoRotulo();
+                    e.saltar(EscritorClasseJVM.GOTO, rotuloFim, 0);
+                    e.marcar(rotuloSenao);
+                    gerarComando(arvore.proximoIrmao(senao));
+                    e.marcar(rotuloFim);
+                } else {
+                    e.marcar(rotuloSenao);
+                }
+                break;
+            }
+            case ITERATIVO: {
+                // Filhos: 'enquanto', Condicao, Comando
+                int condicao = arvore.filho(no, 1);
+                EscritorClasseJVM.Rotulo rotuloInicio = e.novoRotulo();
+                EscritorClasseJVM.Rotulo rotuloFim = e.novoRotulo();
+                e.marcar(rotuloInicio);
+                gerarSalto(condicao, false, rotuloFim);
+                gerarComando(arvore.proximoIrmao(condicao));
+
+                // combustivel--; if (combustivel < 0) vai para a saída
+                e.local(EscritorClasseJVM.LLOAD, LOCAL_COMBUSTIVEL, 2);
+                e.empilharLong(1);
+                e.op(EscritorClasseJVM.LSUB, -2);
+                e.op(EscritorClasseJVM.DUP2, 2);
+                e.local(EscritorClasseJVM.LSTORE, LOCAL_COMBUSTIVEL, -2);
+                e.empilharLong(0);
+                e.op(EscritorClasseJVM.LCMP, -3);
+                e.saltar(EscritorClasseJVM.IFLT, rotuloSaida, -1);
+
+                e.saltar(EscritorClasseJVM.GOTO, rotuloInicio, 0);
+                e.marcar(rotuloFim);
+                break;
+            }
+            default:
+                // Declarações, '$', '$.' e comandos vazios não geram código
+        }
+    }
+
+    // Filhos: ID, '=', Expressao, (Operador, Expressao)*
+    private void gerarAtribuicao(int no) {
+        EscritorClasseJVM e = escritor;
+        int slot = tabela.posicao(arvore.id(arvore.primeiroFilho(no)));
+        boolean real = reais[slot];
+
+        int expressao = arvore.filho(no, 2);
+        empilharTermo(arvore.primeiroFilho(expressao), real);
+        for (int op = arvore.proximoIrmao(expressao); op != ArvorePlana.NENHUM; ) {
+            int proxima = arvore.proximoIrmao(op);
+            empilharTermo(arvore.primeiroFilho(proxima), real);
+            switch (arvore.tipoToken(op)) {
+                case OP_SOMA: e.op(real ? EscritorClasseJVM.DADD : EscritorClasseJVM.LADD, -2); break;
+                case OP_MULT: e.op(real ? EscritorClasseJVM.DMUL : EscritorClasseJVM.LMUL, -2); break;
+                case OP_DIV:  e.op(real ? EscritorClasseJVM.DDIV : EscritorClasseJVM.LDIV, -2); break;
+                default:      e.op(real ? EscritorClasseJVM.DREM : EscritorClasseJVM.LREM, -2); break; // OP_RESTO
+            }
+            op = arvore.proximoIrmao(proxima);
+        }
+        e.local(real ? EscritorClasseJVM.DSTORE : EscritorClasseJVM.LSTORE, local(slot), -2);
+    }
+
+    // Empilha uma folha (ID ou número) como long ou double
+    private void empilharTermo(int folha, boolean real) {
+        if (arvore.tipoToken(folha) == TipoToken.NUMERO) {
+            String texto = arvore.rotulo(folha);
+            if (real) {
+                escritor.empilharDouble(Double.parseDouble(texto));
+            } else {
+                escritor.empilharLong(Long.parseLong(texto));
+            }
+        } else {
+            int slot = tabela.posicao(arvore.id(folha));
+            escritor.local(real ? EscritorClasseJVM.DLOAD : EscritorClasseJVM.LLOAD, local(slot), 2);
+        }
+    }
+
+    // Trabalho pendente de gerarSalto: uma Condicao, a parte entre parênteses de uma, ou a marcação de um rótulo
+    private static final class SaltoPendente {
+        final int no;          // Nó a gerar (NENHUM: só marca 'destino')
+        final boolean base;    // 'no' é a parte entre parênteses (comparação, condição aninhada ou NOT)
+        final boolean quando;
+        final EscritorClasseJVM.Rotulo destino;
+
+        SaltoPendente(int no, boolean base, boolean quando, EscritorClasseJVM.Rotulo destino) {
+            this.no = no;
+            this.base = base;
+            this.quando = quando;
+            this.destino = destino;
+        }
+    }
+
+    /**
+     * Gera o teste de uma Condicao: salta para 'destino' quando a condição vale 'quando';
+     * caso contrário, segue para a próxima instrução.
+     * Filhos: '(', (CondicaoSimples | Condicao | NOT Condicao), ')', [(E | OR), Condicao]
+     * Sem recursão: as partes ainda não geradas ficam em uma pilha explícita (empilhadas da última para a
+     * primeira), então cadeias longas de E/OR e aninhamentos profundos não esgotam a pilha da thread.
+     */
+    private void gerarSalto(int condicao, boolean quandoCondicao, EscritorClasseJVM.Rotulo destinoCondicao) {
+        ArrayDeque<SaltoPendente> pendentes = new ArrayDeque<>();
+        pendentes.push(new SaltoPendente(condicao, false, quandoCondicao, destinoCondicao));
+        while (!pendentes.isEmpty()) {
+            SaltoPendente atual = pendentes.pop();
+            int no = atual.no;
+            boolean quando = atual.quando;
+            EscritorClasseJVM.Rotulo destino = atual.destino;
+
+            if (no == ArvorePlana.NENHUM) {
+                escritor.marcar(destino);
+            } else if (atual.base) {
+                // Parte da condição entre parênteses: comparação, condição aninhada ou NOT
+                if (arvore.tipoToken(no) == TipoToken.OP_BOOLEANO_NOT) {
+                    pendentes.push(new SaltoPendente(arvore.proximoIrmao(no), false, !quando, destino));
+                } else if (arvore.tipo(no) == TipoNo.CONDICAO) {
+                    pendentes.push(new SaltoPendente(no, false, quando, destino));
+                } else {
+                    gerarSaltoComparacao(no, quando, destino);
+                }
+            } else {
+                int interno = arvore.proximoIrmao(arvore.primeiroFilho(no));
+                int fecha = arvore.tipoToken(interno) == TipoToken.OP_BOOLEANO_NOT
+                        ? arvore.proximoIrmao(arvore.proximoIrmao(interno))
+                        : arvore.proximoIrmao(interno);
+                int logico = arvore.proximoIrmao(fecha);
+
+                if (logico == ArvorePlana.NENHUM) {
+                    pendentes.push(new SaltoPendente(interno, true, quando, destino));
+                    continue;
+                }
+
+                int direita = arvore.proximoIrmao(logico);
+                boolean conjuncao = arvore.tipoToken(logico) == TipoToken.OP_BOOLEANO_E;
+                if (conjuncao == quando) {
+                    // (A E B) verdadeira ou (A OR B) falsa: o lado esquerdo decide sozinho no caso oposto
+                    EscritorClasseJVM.Rotulo pular = escritor.novoRotulo();
+                    pendentes.push(new SaltoPendente(ArvorePlana.NENHUM, false, quando, pular));
+                    pendentes.push(new SaltoPendente(direita, false, quando, destino));
+                    pendentes.push(new SaltoPendente(interno, true, !quando, pular));
+                } else {
+                    // (A E B) falsa ou (A OR B) verdadeira: qualquer um dos lados basta
+                    pendentes.push(new SaltoPendente(direita, false, quando, destino));
+                    pendentes.push(new SaltoPendente(interno, true, quando, destino));
+                }
+            }
+        }
+    }
+
+    // Filhos: ID, operador relacional, (ID | número)
+    private void gerarSaltoComparacao(int no, boolean quando, EscritorClasseJVM.Rotulo destino) {
+        int termo1 = arvore.primeiroFilho(no);
+        int op = arvore.proximoIrmao(termo1);
+        int termo2 = arvore.proximoIrmao(op);
+        boolean real = reais[tabela.posicao(arvore.id(termo1))];
+
+        int token = arvore.token(op);
+        char c = buffer.caractere(token, 0);
+        boolean composto = buffer.comprimento(token) == 2;
+
+        empilharTermo(termo1, real);
+        empilharTermo(termo2, real);
+        if (real) {
+            // Com NaN, DCMPG dá 1 e DCMPL dá -1: escolhido para que '<'/'<=' e '>'/'>=' resultem falsos
+            escritor.op(c == '<' ? EscritorClasseJVM.DCMPG : EscritorClasseJVM.DCMPL, -3);
+        } else {
+            escritor.op(EscritorClasseJVM.LCMP, -3);
+        }
+
+        int salto;
+        switch (c) {
+            case '=': salto = quando ? EscritorClasseJVM.IFEQ : EscritorClasseJVM.IFNE; break;
+            case '!': salto = quando ? EscritorClasseJVM.IFNE : EscritorClasseJVM.IFEQ; break;
+            case '<':
+                salto = composto
+                        ? (quando ? EscritorClasseJVM.IFLE : EscritorClasseJVM.IFGT)
+                        : (quando ? EscritorClasseJVM.IFLT : EscritorClasseJVM.IFGE);
+                break;
+            default: // '>'
+                salto = composto
+                        ? (quando ? EscritorClasseJVM.IFGE : EscritorClasseJVM.IFLT)
+                        : (quando ? EscritorClasseJVM.IFGT : EscritorClasseJVM.IFLE);
+        }
+        escritor.saltar(salto, destino, -1);
+    }
+
+    /**
+     * Modo de comparação: executa o mesmo programa no InterpretadorArvore e como bytecode,
+     * 'repeticoes' vezes cada um (após o mesmo número de execuções de aquecimento), e compara
+     * tempo médio e resultados. O relatório é anexado a 'relatorio'.
+     * @return Verdadeiro se os dois backends terminaram com os mesmos valores.
+     */
+    public static boolean compararComArvore(ArvorePlana arvore, TabelaDeSimbolos tabela, int repeticoes, long limite,
+                                            StringBuilder relatorio) {
+        long inicioCompilacao = System.nanoTime();
+        ProgramaJVM programa = compilar(arvore, tabela);
+        double msCompilacao = (System.nanoTime() - inicioCompilacao) / 1e6;
+        InterpretadorArvore interpretador = new InterpretadorArvore(arvore, tabela);
+
+        // Aquecimento: dá ao JIT a chance de compilar tanto o interpretador quanto a classe gerada
+        for (int i = 0; i < repeticoes; i++) {
+            interpretador.executar(limite);
+            programa.executar(limite);
+        }
+
+        ResultadoExecucao resultadoArvore = null;
+        long nanosArvore = 0;
+        for (int i = 0; i < repeticoes; i++) {
+            resultadoArvore = interpretador.executar(limite);
+            nanosArvore += resultadoArvore.getNanos();
+        }
+        ResultadoExecucao resultadoJVM = null;
+        long nanosJVM = 0;
+        for (int i = 0; i < repeticoes; i++) {
+            resultadoJVM = programa.executar(limite);
+            nanosJVM += resultadoJVM.getNanos();
+        }
+
+        double mediaArvore = nanosArvore / 1e6 / repeticoes;
+        double mediaJVM = nanosJVM / 1e6 / repeticoes;
+        boolean identicos = resultadoArvore != null && resultadoArvore.mesmosValores(resultadoJVM);
+        StringBuilder sb = relatorio;
+        sb.append("--- Comparação: Interpretador de Árvore x Bytecode JVM ---\n");
+        sb.append(String.format("Bytecode gerado:      %d bytes (compilação + carga: %.3f ms)\n", programa.getTamanhoBytecode(), msCompilacao));
+        sb.append(String.format("Repetições:           %d (+ %d de aquecimento)\n", repeticoes, repeticoes));
+        sb.append(String.format("Árvore:               %.4f ms/execução (%.1f execuções/s)\n", mediaArvore, mediaArvore > 0 ? 1000 / mediaArvore : 0.0));
+        sb.append(String.format("Bytecode JVM:         %.4f ms/execução (%.1f execuções/s)\n", mediaJVM, mediaJVM > 0 ? 1000 / mediaJVM : 0.0));
+        sb.append(String.format("Aceleração:           %.2fx\n", mediaJVM > 0 ? mediaArvore / mediaJVM : 0.0));
+        sb.append("Resultados idênticos: ").append(identicos ? "sim" : "NÃO").append("\n");
+        if (resultadoJVM != null) {
+            sb.append(resultadoJVM);
+        }
+        sb.append("----------------------------------------------------------\n");
+        return identicos;
+    }
+}
@@ -0,0 +1,21 @@
+/**
+ * Um erro de compilação encontrado por uma das fases: a fase, a linha e a mensagem já formatada
+ * (ex: "Erro Sintático: Esperado PONTO_E_VIRGULA mas encontrado SENAO na linha 7").
+ * É só um registro: não carrega stack trace, então acumular muitos deles é barato.
+ */
+public class Diagnostico {
+    public final OpcoesCompilacao.Fase fase;
+    public final int linha;       // 0 quando a fase não sabe a linha
+    public final String mensagem;
+
+    public Diagnostico(OpcoesCompilacao.Fase fase, int linha, String mensagem) {
+        this.fase = fase;
+        this.linha = linha;
+        this.mensagem = mensagem;
+    }
+
+    @Override
+    public String toString() {
+        return mensagem;
+    }
+}
@@ -0,0 +1,75 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Acumula os diagnósticos de uma compilação, para que uma única execução relate todos os erros
+ * em vez de parar no primeiro. Compartilhado pelo AnalisadorSintatico, pela TabelaDeSimbolos e
+ * pelo AnalisadorSemantico; cada fase chama lancarSeHouver() ao terminar.
+ *
+ * Ao atingir LIMITE diagnósticos a análise é interrompida: depois de tantos erros, os seguintes
+ * costumam ser consequência dos primeiros.
+ */
+public class Diagnosticos {
+
+    public static final int LIMITE = 100;
+
+    private final List<Diagnostico> lista = new ArrayList<>();
+
+    /**
+     * Registra um erro e segue a análise (lança todos os acumulados se o limite for atingido,
+     * em um ErroCompilacao marcado com isLimiteAtingido).
+     */
+    public void registrar(OpcoesCompilacao.Fase fase, int linha, String mensagem) {
+        lista.add(new Diagnostico(fase, linha, mensagem));
+        if (lista.size() >= LIMITE) {
+            throw new ErroCompilacao(new ArrayList<>(lista), true);
+        }
+    }
+
+    /**
+     * Registra os diagnósticos de um erro já lançado (ex: por consumir, no sintático).
+     */
+    public void registrar(ErroCompilacao erro) {
+        for (Diagnostico diagnostico : erro.getDiagnosticos()) {
+            registrar(diagnostico.fase, diagnostico.linha, diagnostico.mensagem);
+        }
+    }
+
+    /**
+     * Registra, na ordem, os diagnósticos acumulados em 'outros' (ex: os de uma tarefa da semântica paralela).
+     */
+    public void registrar(Diagnosticos outros) {
+        for (Diagnostico diagnostico : outros.lista) {
+            registrar(diagnostico.fase, diagnostico.linha, diagnostico.mensagem);
+        }
+    }
+
+    public boolean vazio() {
+        return lista.isEmpty();
+    }
+
+    public int quantidade() {
+        return lista.size();
+    }
+
+    /**
+     * Verdadeiro se algum diagnóstico é da fase indicada.
+     */
+    public boolean possui(OpcoesCompilacao.Fase fase) {
+        for (Diagnostico diagnostico : lista) {
+            if (diagnostico.fase == fase) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Lança um ErroCompilacao com todos os diagnósticos acumulados, se houver algum.
+     */
+    public void lancarSeHouver() {
+        if (!lista.isEmpty()) {
+            throw new ErroCompilacao(new ArrayList<>(lista));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+import java.util.List;
+
+/**
+ * Erro de compilação (léxico, sintático ou semântico) com um ou mais diagnósticos.
+ *
+ * Ao contrário de uma RuntimeException comum, não preenche o stack trace: os erros de compilação são
+ * esperados, o stack trace não diz nada ao usuário e montá-lo é o custo dominante de lançar a exceção
+ * (pesa no modo em lote com muitos arquivos com erro). A mensagem traz os diagnósticos, um por linha.
+ */
+public class ErroCompilacao extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final List<Diagnostico> diagnosticos;
+    private final boolean limiteAtingido; // Lançado por Diagnosticos ao atingir o LIMITE: encerra a análise
+
+    /**
+     * Erro com um único diagnóstico.
+     */
+    public ErroCompilacao(OpcoesCompilacao.Fase fase, int linha, String mensagem) {
+        this(List.of(new Diagnostico(fase, linha, mensagem)));
+    }
+
+    /**
+     * Erro com todos os diagnósticos acumulados, na ordem em que foram encontrados.
+     */
+    public ErroCompilacao(List<Diagnostico> diagnosticos) {
+        this(diagnosticos, false);
+    }
+
+    /**
+     * Erro com os diagnósticos acumulados; 'limiteAtingido' indica que a análise não deve seguir,
+     * nem registrar de novo estes diagnósticos (ver AnalisadorSintatico.registrarErro).
+     */
+    public ErroCompilacao(List<Diagnostico> diagnosticos, boolean limiteAtingido) {
+        super(juntar(diagnosticos), null, false, false); // Sem supressão nem stack trace
+        this.diagnosticos = List.copyOf(diagnosticos);
+        this.limiteAtingido = limiteAtingido;
+    }
+
+    public List<Diagnostico> getDiagnosticos() {
+        return diagnosticos;
+    }
+
+    public boolean isLimiteAtingido() {
+        return limiteAtingido;
+    }
+
+    /**
+     * Fase do primeiro diagnóstico.
+     */
+    public OpcoesCompilacao.Fase getFase() {
+        return diagnosticos.get(0).fase;
+    }
+
+    private static String juntar(List<Diagnostico> diagnosticos) {
+        StringBuilder sb = new StringBuilder();
+        for (Diagnostico diagnostico : diagnosticos) {
+            if (sb.length() > 0) {
+                sb.append('\n');
+            }
+            sb.append(diagnostico.mensagem);
+        }
+        return sb.toString();
+    }
+}
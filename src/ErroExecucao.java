@@ -0,0 +1,15 @@
+/**
+ * Erro ao executar o programa compilado (ex: divisão inteira por zero), na MaquinaVirtual, no
+ * InterpretadorArvore ou no ProgramaJVM.
+ *
+ * Como o ErroCompilacao, não preenche o stack trace: o erro é do programa do usuário, não do compilador,
+ * e a mensagem (com a instrução e a linha do TAC, quando conhecidas) é tudo o que interessa. Em erro.txt
+ * aparece sob o cabeçalho de erro de execução.
+ */
+public class ErroExecucao extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public ErroExecucao(String mensagem) {
+        super(mensagem, null, false, false); // Sem supressão nem stack trace
+    }
+}
@@ -0,0 +1,292 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Listagem da árvore sintática (Fase 2), montada em uma String ou gravada direto em um canal.
+ * A árvore é percorrida sem recursão e a indentação do desenho é um único StringBuilder, que cresce
+ * e encolhe 4 caracteres por nível: nenhum prefixo é copiado por nó. Gravando em um canal, as linhas
+ * são acumuladas em um bloco de TAMANHO_BLOCO caracteres, codificado e escrito a cada vez que enche;
+ * a memória usada depende da profundidade da árvore, não do tamanho da listagem.
+ *
+ * Formatos:
+ * - DESENHO: o de fase2_sintatico.txt, com cabeçalho, ramos (├── └──) e a linha de cada nó;
+ * - COMPACTO: para ferramentas, sem cabeçalho nem desenho: uma linha por nó, em pré-ordem, com o nível
+ *   (0 na raiz), o rótulo e a linha do código fonte separados por tabulação. O tamanho é linear no
+ *   número de nós, mesmo em árvores profundas (o desenho repete a indentação em cada linha).
+ */
+public class EscritorArvore {
+
+    public enum Formato { DESENHO, COMPACTO }
+
+    public static final int TAMANHO_BLOCO = 64 * 1024; // Caracteres acumulados antes de cada escrita no canal
+
+    private final Formato formato;
+    private final StringBuilder texto;      // Destino da listagem, ou o bloco ainda não escrito no canal
+    private final StringBuilder prefixo = new StringBuilder(); // Indentação do desenho até o nível atual
+    private final WritableByteChannel canal; // null: a listagem fica em 'texto'
+    private final CharsetEncoder codificador;
+    private final ByteBuffer bytes;
+    private char[] caracteres = new char[0];
+    private long bytesEscritos;
+
+    /**
+     * Escritor que anexa a listagem a 'destino'.
+     */
+    public EscritorArvore(Formato formato, StringBuilder destino) {
+        this.formato = formato;
+        this.texto = destino;
+        this.canal = null;
+        this.codificador = null;
+        this.bytes = null;
+    }
+
+    /**
+     * Escritor que grava a listagem em 'canal', em blocos codificados com 'charset'.
+     * O canal não é fechado; concluir() escreve o que restou no último bloco.
+     */
+    public EscritorArvore(Formato formato, WritableByteChannel canal, Charset charset) {
+        this.formato = formato;
+        this.texto = new StringBuilder(TAMANHO_BLOCO + 256);
+        this.canal = canal;
+        this.codificador = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.bytes = ByteBuffer.allocate(TAMANHO_BLOCO);
+    }
+
+    /**
+     * Monta a listagem da árvore de objetos no formato indicado.
+     */
+    public static String formatar(NoArvore raiz, Formato formato) {
+        StringBuilder sb = new StringBuilder();
+        new EscritorArvore(formato, sb).listar(raiz);
+        return sb.toString();
+    }
+
+    /**
+     * Monta a listagem da árvore plana no formato indicado (o mesmo texto da versão NoArvore).
+     */
+    public static String formatar(ArvorePlana arvore, Formato formato) {
+        StringBuilder sb = new StringBuilder();
+        new EscritorArvore(formato, sb).listar(arvore);
+        return sb.toString();
+    }
+
+    /**
+     * Grava a listagem da árvore de objetos em 'canal', no charset padrão (o dos demais fase*.txt).
+     * O canal não é fechado.
+     */
+    public static void gravar(WritableByteChannel canal, Formato formato, NoArvore raiz) throws IOException {
+        gravar(canal, formato, escritor -> escritor.listar(raiz));
+    }
+
+    /**
+     * Grava a listagem da árvore plana em 'canal', no charset padrão (o dos demais fase*.txt).
+     * O canal não é fechado.
+     */
+    public static void gravar(WritableByteChannel canal, Formato formato, ArvorePlana arvore) throws IOException {
+        gravar(canal, formato, escritor -> escritor.listar(arvore));
+    }
+
+    private static void gravar(WritableByteChannel canal, Formato formato, Consumer<EscritorArvore> listar) throws IOException {
+        try {
+            EscritorArvore escritor = new EscritorArvore(formato, canal, Charset.defaultCharset());
+            listar.accept(escritor);
+            escritor.concluir();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Escreve a listagem completa da árvore de objetos (com cabeçalho e rodapé no DESENHO).
+     * @throws UncheckedIOException se a escrita no canal falhar.
+     */
+    public void listar(NoArvore raiz) {
+        abrir();
+        escrever(raiz);
+        fechar();
+    }
+
+    /**
+     * Escreve a listagem completa da árvore plana (com cabeçalho e rodapé no DESENHO).
+     * @throws UncheckedIOException se a escrita no canal falhar.
+     */
+    public void listar(ArvorePlana arvore) {
+        abrir();
+        escrever(arvore, arvore.getRaiz());
+        fechar();
+    }
+
+    /**
+     * Escreve a subárvore de 'no', sem cabeçalho nem rodapé.
+     * Percorre a árvore com uma pilha explícita: o caminho da raiz até o nó atual e o próximo filho
+     * de cada nó do caminho. Filhos nulos não são listados.
+     */
+    public void escrever(NoArvore no) {
+        if (no == null) return;
+
+        int base = prefixo.length();
+        List<NoArvore> caminho = new ArrayList<>();
+        int[] proximos = new int[16]; // Índice do próximo filho de cada nó do caminho
+        linha(0, true, no.valor, no.linha);
+        descer(true);
+        caminho.add(no);
+
+        while (!caminho.isEmpty()) {
+            int topo = caminho.size() - 1;
+            NoArvore pai = caminho.get(topo);
+            if (proximos[topo] == pai.filhos.size()) {
+                caminho.remove(topo);
+                subir();
+                continue;
+            }
+            int i = proximos[topo]++;
+            NoArvore filho = pai.filhos.get(i);
+            if (filho == null) continue;
+            boolean ultimoFilho = (i == pai.filhos.size() - 1);
+            linha(caminho.size(), ultimoFilho, filho.valor, filho.linha);
+
+            descer(ultimoFilho);
+            if (caminho.size() == proximos.length) {
+                proximos = Arrays.copyOf(proximos, proximos.length * 2);
+            }
+            proximos[caminho.size()] = 0;
+            caminho.add(filho);
+        }
+        prefixo.setLength(base);
+    }
+
+    /**
+     * Versão de escrever para a árvore plana: os ponteiros de pai e irmão substituem a pilha.
+     */
+    public void escrever(ArvorePlana arvore, int no) {
+        if (no == ArvorePlana.NENHUM) return;
+
+        int base = prefixo.length();
+        int nivel = 0;
+        int atual = no;
+        while (true) {
+            boolean ultimo = atual == no || arvore.proximoIrmao(atual) == ArvorePlana.NENHUM;
+            linha(nivel, ultimo, arvore.rotulo(atual), arvore.linha(atual));
+
+            int filho = arvore.primeiroFilho(atual);
+            if (filho != ArvorePlana.NENHUM) {
+                descer(ultimo);
+                nivel++;
+                atual = filho;
+                continue;
+            }
+            // Sobe até encontrar um ancestral (dentro da subárvore) com próximo irmão
+            while (atual != no && arvore.proximoIrmao(atual) == ArvorePlana.NENHUM) {
+                atual = arvore.pai(atual);
+                subir();
+                nivel--;
+            }
+            if (atual == no) break;
+            atual = arvore.proximoIrmao(atual);
+        }
+        prefixo.setLength(base);
+    }
+
+    /**
+     * Escreve no canal o que restou no bloco (sem canal, não faz nada).
+     * @throws UncheckedIOException se a escrita falhar.
+     */
+    public void concluir() {
+        if (canal != null) {
+            descarregar(true);
+        }
+    }
+
+    /**
+     * Bytes já escritos no canal.
+     */
+    public long getBytesEscritos() {
+        return bytesEscritos;
+    }
+
+    private void abrir() {
+        if (formato == Formato.DESENHO) {
+            texto.append("--- Fase 2: Análise Sintática (Arvore) ---\n");
+        }
+    }
+
+    private void fechar() {
+        if (formato == Formato.DESENHO) {
+            texto.append("Análise sintática concluída com sucesso!\n");
+            texto.append("-------------------------------------------------\n");
+        }
+    }
+
+    // Uma linha da listagem: no desenho, prefixo, ramo, rótulo e linha do código fonte
+    private void linha(int nivel, boolean ultimo, String rotulo, int linha) {
+        if (formato == Formato.DESENHO) {
+            texto.append(prefixo)
+                    .append(ultimo ? "└── " : "├── ")
+                    .append(rotulo)
+                    .append(" (L")
+                    .append(linha)
+                    .append(")\n");
+        } else {
+            texto.append(nivel).append('\t').append(rotulo).append('\t').append(linha).append('\n');
+        }
+        if (canal != null && texto.length() >= TAMANHO_BLOCO) {
+            descarregar(false);
+        }
+    }
+
+    private void descer(boolean ultimo) {
+        if (formato == Formato.DESENHO) {
+            prefixo.append(ultimo ? "    " : "│   ");
+        }
+    }
+
+    private void subir() {
+        if (formato == Formato.DESENHO) {
+            prefixo.setLength(prefixo.length() - 4);
+        }
+    }
+
+    // Codifica o bloco e o escreve no canal; os blocos terminam em fim de linha, nunca no meio de um caractere
+    private void descarregar(boolean fim) {
+        int tamanho = texto.length();
+        if (caracteres.length < tamanho) {
+            caracteres = new char[Math.max(tamanho, TAMANHO_BLOCO + 256)];
+        }
+        texto.getChars(0, tamanho, caracteres, 0);
+        texto.setLength(0);
+        CharBuffer entrada = CharBuffer.wrap(caracteres, 0, tamanho);
+        try {
+            while (codificador.encode(entrada, bytes, fim).isOverflow()) {
+                escreverBytes();
+            }
+            if (fim) {
+                while (codificador.flush(bytes).isOverflow()) {
+                    escreverBytes();
+                }
+            }
+            escreverBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar a listagem da árvore sintática.", e);
+        }
+    }
+
+    private void escreverBytes() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            bytesEscritos += canal.write(bytes);
+        }
+        bytes.clear();
+    }
+}
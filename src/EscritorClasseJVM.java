@@ -0,0 +1,356 @@
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Escritor mínimo de arquivos .class, suficiente para o CompiladorJVM: uma classe final com um único
+ * método estático. Mantém o pool de constantes, o bytecode do método com rótulos de salto resolvidos
+ * ao final e a profundidade máxima da pilha de operandos.
+ *
+ * Gera a versão 49 do formato (Java 5), que não exige a tabela StackMapTable: o verificador da JVM
+ * infere os tipos sozinho, e o escritor não precisa calcular quadros de pilha.
+ */
+public class EscritorClasseJVM {
+
+    // Opcodes utilizados pelo CompiladorJVM
+    public static final int ICONST_0 = 0x03;
+    public static final int LCONST_0 = 0x09;
+    public static final int LCONST_1 = 0x0a;
+    public static final int DCONST_0 = 0x0e;
+    public static final int DCONST_1 = 0x0f;
+    public static final int BIPUSH = 0x10;
+    public static final int SIPUSH = 0x11;
+    public static final int LDC_W = 0x13;
+    public static final int LDC2_W = 0x14;
+    public static final int LLOAD = 0x16;
+    public static final int DLOAD = 0x18;
+    public static final int ALOAD = 0x19;
+    public static final int LALOAD = 0x2f;
+    public static final int LSTORE = 0x37;
+    public static final int DSTORE = 0x39;
+    public static final int LASTORE = 0x50;
+    public static final int DUP2 = 0x5c;
+    public static final int LADD = 0x61;
+    public static final int DADD = 0x63;
+    public static final int LSUB = 0x65;
+    public static final int DSUB = 0x67;
+    public static final int LMUL = 0x69;
+    public static final int DMUL = 0x6b;
+    public static final int LDIV = 0x6d;
+    public static final int DDIV = 0x6f;
+    public static final int LREM = 0x71;
+    public static final int DREM = 0x73;
+    public static final int LCMP = 0x94;
+    public static final int DCMPL = 0x97;
+    public static final int DCMPG = 0x98;
+    public static final int IFEQ = 0x99;
+    public static final int IFNE = 0x9a;
+    public static final int IFLT = 0x9b;
+    public static final int IFGE = 0x9c;
+    public static final int IFGT = 0x9d;
+    public static final int IFLE = 0x9e;
+    public static final int GOTO = 0xa7;
+    public static final int LRETURN = 0xad;
+    public static final int INVOKESTATIC = 0xb8;
+    public static final int WIDE = 0xc4;
+
+    private static final int VERSAO_CLASSE = 49;
+
+    /**
+     * Destino de salto. A posição é conhecida ao marcar o rótulo; saltos anteriores são corrigidos nesse momento.
+     */
+    public static final class Rotulo {
+        private int posicao = -1;
+        private final List<int[]> pendentes = new ArrayList<>(); // {início da instrução, posição do deslocamento}
+    }
+
+    // Pool de constantes
+    private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+    private final DataOutputStream pool = new DataOutputStream(poolBytes);
+    private final Map<String, Integer> indicesPool = new HashMap<>();
+    private int proximoIndicePool = 1;
+
+    // Bytecode do método
+    private byte[] codigo = new byte[256];
+    private int tamanhoCodigo;
+    private int pilha;
+    private int pilhaMaxima;
+    private final List<Rotulo> rotulos = new ArrayList<>();
+
+    public int tamanhoCodigo() {
+        return tamanhoCodigo;
+    }
+
+    // ---------------------------------------------------------
+    // Instruções
+    // ---------------------------------------------------------
+
+    /**
+     * Emite uma instrução sem operandos.
+     * @param deltaPilha Variação da pilha de operandos (em slots; long e double ocupam 2).
+     */
+    public void op(int opcode, int deltaPilha) {
+        u1(opcode);
+        ajustarPilha(deltaPilha);
+    }
+
+    /**
+     * Carrega/armazena uma variável local, usando o prefixo WIDE quando o índice passa de 255.
+     */
+    public void local(int opcode, int indice, int deltaPilha) {
+        if (indice > 255) {
+            u1(WIDE);
+            u1(opcode);
+            u2(indice);
+        } else {
+            u1(opcode);
+            u1(indice);
+        }
+        ajustarPilha(deltaPilha);
+    }
+
+    public void empilharInt(int valor) {
+        if (valor >= -1 && valor <= 5) {
+            u1(ICONST_0 + valor);
+        } else if (valor >= Byte.MIN_VALUE && valor <= Byte.MAX_VALUE) {
+            u1(BIPUSH);
+            u1(valor);
+        } else if (valor >= Short.MIN_VALUE && valor <= Short.MAX_VALUE) {
+            u1(SIPUSH);
+            u2(valor);
+        } else {
+            u1(LDC_W);
+            u2(constanteInt(valor));
+        }
+        ajustarPilha(1);
+    }
+
+    public void empilharLong(long valor) {
+        if (valor == 0 || valor == 1) {
+            u1(LCONST_0 + (int) valor);
+        } else {
+            u1(LDC2_W);
+            u2(constanteLong(valor));
+        }
+        ajustarPilha(2);
+    }
+
+    public void empilharDouble(double valor) {
+        if (Double.doubleToRawLongBits(valor) == 0L || valor == 1.0) {
+            u1(valor == 0.0 ? DCONST_0 : DCONST_1);
+        } else {
+            u1(LDC2_W);
+            u2(constanteDouble(valor));
+        }
+        ajustarPilha(2);
+    }
+
+    public void invocarEstatico(String classe, String nome, String descritor, int deltaPilha) {
+        u1(INVOKESTATIC);
+        u2(constanteMetodo(classe, nome, descritor));
+        ajustarPilha(deltaPilha);
+    }
+
+    public Rotulo novoRotulo() {
+        Rotulo rotulo = new Rotulo();
+        rotulos.add(rotulo);
+        return rotulo;
+    }
+
+    /**
+     * Emite um salto (GOTO ou IFxx) para o rótulo, que pode ainda não ter posição.
+     */
+    public void saltar(int opcode, Rotulo destino, int deltaPilha) {
+        int inicio = tamanhoCodigo;
+        u1(opcode);
+        if (destino.posicao >= 0) {
+            u2(deslocamento(inicio, destino.posicao));
+        } else {
+            destino.pendentes.add(new int[]{inicio, tamanhoCodigo});
+            u2(0);
+        }
+        ajustarPilha(deltaPilha);
+    }
+
+    /**
+     * Fixa o rótulo na posição atual e corrige os saltos já emitidos para ele.
+     */
+    public void marcar(Rotulo rotulo) {
+        rotulo.posicao = tamanhoCodigo;
+        for (int[] pendente : rotulo.pendentes) {
+            int d = deslocamento(pendente[0], rotulo.posicao);
+            codigo[pendente[1]] = (byte) (d >> 8);
+            codigo[pendente[1] + 1] = (byte) d;
+        }
+        rotulo.pendentes.clear();
+    }
+
+    // ---------------------------------------------------------
+    // Classe
+    // ---------------------------------------------------------
+
+    /**
+     * Monta o arquivo .class: classe pública final 'nomeClasse' com o método estático público 'nomeMetodo'.
+     */
+    public byte[] gerarClasse(String nomeClasse, String nomeMetodo, String descritor, int maximoLocais) {
+        for (Rotulo rotulo : rotulos) {
+            if (!rotulo.pendentes.isEmpty()) {
+                throw new IllegalStateException("Rótulo de salto não marcado no bytecode gerado.");
+            }
+        }
+        if (tamanhoCodigo > 65535) {
+            throw new RuntimeException("Erro do Backend JVM: programa grande demais para um único método ("
+                    + tamanhoCodigo + " bytes de bytecode; o limite da JVM é 65535).");
+        }
+        int indiceClasse = constanteClasse(nomeClasse);
+        int indiceSuper = constanteClasse("java/lang/Object");
+        int indiceNome = constanteUtf8(nomeMetodo);
+        int indiceDescritor = constanteUtf8(descritor);
+        int indiceCode = constanteUtf8("Code");
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(tamanhoCodigo + poolBytes.size() + 64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);              // minor_version
+            out.writeShort(VERSAO_CLASSE);  // major_version
+            out.writeShort(proximoIndicePool);
+            poolBytes.writeTo(out);
+            out.writeShort(0x0001 | 0x0010 | 0x0020); // ACC_PUBLIC | ACC_FINAL | ACC_SUPER
+            out.writeShort(indiceClasse);
+            out.writeShort(indiceSuper);
+            out.writeShort(0); // interfaces
+            out.writeShort(0); // campos
+
+            out.writeShort(1); // métodos
+            out.writeShort(0x0001 | 0x0008); // ACC_PUBLIC | ACC_STATIC
+            out.writeShort(indiceNome);
+            out.writeShort(indiceDescritor);
+            out.writeShort(1); // atributos do método: Code
+            out.writeShort(indiceCode);
+            out.writeInt(12 + tamanhoCodigo);
+            out.writeShort(pilhaMaxima);
+            out.writeShort(maximoLocais);
+            out.writeInt(tamanhoCodigo);
+            out.write(codigo, 0, tamanhoCodigo);
+            out.writeShort(0); // tabela de exceções
+            out.writeShort(0); // atributos do Code
+
+            out.writeShort(0); // atributos da classe
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // ---------------------------------------------------------
+    // Auxiliares
+    // ---------------------------------------------------------
+
+    private int deslocamento(int origem, int destino) {
+        int d = destino - origem;
+        if (d < Short.MIN_VALUE || d > Short.MAX_VALUE) {
+            throw new RuntimeException("Erro do Backend JVM: salto de " + d + " bytes excede o alcance de um desvio da JVM.");
+        }
+        return d;
+    }
+
+    private void ajustarPilha(int delta) {
+        pilha += delta;
+        pilhaMaxima = Math.max(pilhaMaxima, pilha);
+    }
+
+    private void u1(int valor) {
+        if (tamanhoCodigo + 4 > codigo.length) {
+            codigo = Arrays.copyOf(codigo, codigo.length * 2);
+        }
+        codigo[tamanhoCodigo++] = (byte) valor;
+    }
+
+    private void u2(int valor) {
+        u1(valor >> 8);
+        u1(valor);
+    }
+
+    private int constanteUtf8(String texto) {
+        return constante("U" + texto, () -> {
+            pool.writeByte(1);
+            pool.writeUTF(texto);
+        }, 1);
+    }
+
+    private int constanteInt(int valor) {
+        return constante("I" + valor, () -> {
+            pool.writeByte(3);
+            pool.writeInt(valor);
+        }, 1);
+    }
+
+    private int constanteLong(long valor) {
+        return constante("J" + valor, () -> {
+            pool.writeByte(5);
+            pool.writeLong(valor);
+        }, 2);
+    }
+
+    private int constanteDouble(double valor) {
+        return constante("D" + Double.doubleToRawLongBits(valor), () -> {
+            pool.writeByte(6);
+            pool.writeDouble(valor);
+        }, 2);
+    }
+
+    private int constanteClasse(String nome) {
+        int indiceNome = constanteUtf8(nome);
+        return constante("C" + nome, () -> {
+            pool.writeByte(7);
+            pool.writeShort(indiceNome);
+        }, 1);
+    }
+
+    private int constanteMetodo(String classe, String nome, String descritor) {
+        int indiceClasse = constanteClasse(classe);
+        int indiceNome = constanteUtf8(nome);
+        int indiceDescritor = constanteUtf8(descritor);
+        int indiceNomeTipo = constante("N" + nome + descritor, () -> {
+            pool.writeByte(12);
+            pool.writeShort(indiceNome);
+            pool.writeShort(indiceDescritor);
+        }, 1);
+        return constante("M" + classe + "." + nome + descritor, () -> {
+            pool.writeByte(10);
+            pool.writeShort(indiceClasse);
+            pool.writeShort(indiceNomeTipo);
+        }, 1);
+    }
+
+    private interface EscritaPool {
+        void escrever() throws IOException;
+    }
+
+    // Reaproveita entradas iguais do pool; long e double ocupam duas posições
+    private int constante(String chave, EscritaPool escrita, int posicoes) {
+        Integer indice = indicesPool.get(chave);
+        if (indice != null) {
+            return indice;
+        }
+        try {
+            escrita.escrever();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        indice = proximoIndicePool;
+        proximoIndicePool += posicoes;
+        if (proximoIndicePool > 65535) {
+            throw new RuntimeException("Erro do Backend JVM: pool de constantes excedeu o limite da JVM.");
+        }
+        indicesPool.put(chave, indice);
+        return indice;
+    }
+}
@@ -0,0 +1,37 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento JFR de uma compilação inteira, com os totais das fases (ver EventoFaseCompilacao).
+ * Publicado ao fim da compilação, antes da escrita das saídas: os bytes escritos vêm na fase 'escrita'.
+ */
+@Name("compilador.Compilacao")
+@Label("Compilação")
+@Category("Compilador")
+@Description("Resumo de uma compilação: sucesso e totais de cada fase")
+public class EventoCompilacao extends jdk.jfr.Event {
+
+    @Label("Origem")
+    String origem;
+
+    @Label("Sucesso")
+    boolean sucesso;
+
+    @Label("Cache")
+    @Description("Fases 1-4 recuperadas do CacheCompilacao")
+    boolean cache;
+
+    @Label("Tokens")
+    long tokens;
+
+    @Label("Nós da Árvore")
+    long nos;
+
+    @Label("Símbolos")
+    long simbolos;
+
+    @Label("Instruções TAC")
+    long instrucoes;
+}
@@ -0,0 +1,30 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento JFR de uma fase da compilação (léxico, sintático, ..., escrita das saídas), com a duração e a
+ * quantidade de itens que a fase produziu. Sem uma gravação JFR ativa, begin/end/commit não custam nada.
+ *
+ * Gravação: java -XX:StartFlightRecording=filename=compilador.jfr Main ...
+ * Leitura:  jfr print --events compilador.Fase compilador.jfr
+ */
+@Name("compilador.Fase")
+@Label("Fase de Compilação")
+@Category("Compilador")
+@Description("Duração e produção de uma fase do compilador")
+public class EventoFaseCompilacao extends jdk.jfr.Event {
+
+    @Label("Fase")
+    String fase;
+
+    @Label("Itens")
+    @Description("Quantidade produzida pela fase (ver 'unidade')")
+    long itens;
+
+    @Label("Unidade")
+    String unidade;
+
+    transient long inicio; // System.nanoTime() do início, para as métricas (não vai para a gravação)
+}
@@ -0,0 +1,157 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Semântica e geração de código em paralelo (--paralelo). Depois da análise sintática os filhos do nó
+ * Programa (declarações e comandos externos) são independentes: são divididos em trechos consecutivos,
+ * processados por tarefas fork-join.
+ *
+ * - Semântica: a TabelaDeSimbolos já está completa e só é lida; cada trecho acumula os erros em
+ *   Diagnosticos próprios, reunidos depois na ordem do código fonte.
+ * - Código: cada trecho recebe a faixa de labels que a geração sequencial lhe daria (a soma dos labels
+ *   dos trechos anteriores, ver GeradorCodigoIntermediario.contarLabels) e um gerador próprio; o código
+ *   dos trechos é concatenado na ordem.
+ *
+ * O TAC, as listagens e os erros são idênticos aos da execução sequencial. Programas com até
+ * COMANDOS_POR_TRECHO filhos no nível externo são processados sequencialmente.
+ */
+public class FasesParalelas {
+
+    public static final int COMANDOS_POR_TRECHO = 512; // Filhos do Programa processados por tarefa
+
+    /**
+     * Análise semântica da árvore inteira, com um trecho do programa por tarefa.
+     * @throws ErroCompilacao com todos os erros semânticos, na mesma ordem da análise sequencial.
+     */
+    public static void analisar(ArvorePlana arvore, TabelaDeSimbolos tabela) {
+        int[] filhos = filhosDoPrograma(arvore);
+        int trechos = quantidadeTrechos(filhos);
+        if (trechos <= 1) {
+            new AnalisadorSemantico(tabela).analisar(arvore);
+            return;
+        }
+
+        Diagnosticos[] erros = new Diagnosticos[trechos];
+        new Trechos(0, trechos, t -> {
+            Diagnosticos diagnosticos = new Diagnosticos();
+            erros[t] = diagnosticos;
+            AnalisadorSemantico semantico = new AnalisadorSemantico(tabela, diagnosticos);
+            try {
+                for (int i = inicio(t); i < fim(t, filhos); i++) {
+                    semantico.verificar(arvore, filhos[i]);
+                }
+            } catch (ErroCompilacao e) {
+                // Limite de diagnósticos atingido no trecho: os seguintes não seriam relatados de qualquer forma
+            }
+        }).invoke();
+
+        Diagnosticos destino = tabela.getDiagnosticos();
+        for (Diagnosticos diagnosticos : erros) {
+            destino.registrar(diagnosticos); // Lança ao atingir o limite, como a análise sequencial
+        }
+        destino.lancarSeHouver();
+    }
+
+    /**
+     * Gera o código da árvore inteira, com um trecho do programa por tarefa.
+     */
+    public static List<String> gerar(ArvorePlana arvore) {
+        int[] filhos = filhosDoPrograma(arvore);
+        int trechos = quantidadeTrechos(filhos);
+        if (trechos <= 1) {
+            GeradorCodigoIntermediario gerador = new GeradorCodigoIntermediario();
+            gerador.gerar(arvore);
+            return gerador.getCodigo();
+        }
+
+        // Primeira passada: labels de cada trecho; a soma dos anteriores dá o primeiro label do trecho
+        int[] primeiroLabel = new int[trechos + 1];
+        new Trechos(0, trechos, t -> {
+            int labels = 0;
+            for (int i = inicio(t); i < fim(t, filhos); i++) {
+                labels += GeradorCodigoIntermediario.contarLabels(arvore, filhos[i]);
+            }
+            primeiroLabel[t + 1] = labels;
+        }).invoke();
+        primeiroLabel[0] = 1;
+        for (int t = 1; t <= trechos; t++) {
+            primeiroLabel[t] += primeiroLabel[t - 1];
+        }
+
+        // Segunda passada: o código de cada trecho, com a sua faixa de labels
+        List<List<String>> partes = new ArrayList<>(trechos);
+        for (int t = 0; t < trechos; t++) {
+            partes.add(null);
+        }
+        new Trechos(0, trechos, t -> {
+            GeradorCodigoIntermediario gerador = new GeradorCodigoIntermediario(primeiroLabel[t]);
+            for (int i = inicio(t); i < fim(t, filhos); i++) {
+                gerador.gerar(arvore, filhos[i]);
+            }
+            partes.set(t, gerador.getCodigo());
+        }).invoke();
+
+        int total = 0;
+        for (List<String> parte : partes) {
+            total += parte.size();
+        }
+        List<String> codigo = new ArrayList<>(total);
+        for (List<String> parte : partes) {
+            codigo.addAll(parte);
+        }
+        return codigo;
+    }
+
+    // Filhos do nó Programa, na ordem do código fonte
+    private static int[] filhosDoPrograma(ArvorePlana arvore) {
+        int raiz = arvore.getRaiz();
+        int[] filhos = new int[arvore.quantidadeFilhos(raiz)];
+        int i = 0;
+        for (int filho = arvore.primeiroFilho(raiz); filho != ArvorePlana.NENHUM; filho = arvore.proximoIrmao(filho)) {
+            filhos[i++] = filho;
+        }
+        return filhos;
+    }
+
+    private static int quantidadeTrechos(int[] filhos) {
+        return (filhos.length + COMANDOS_POR_TRECHO - 1) / COMANDOS_POR_TRECHO;
+    }
+
+    private static int inicio(int trecho) {
+        return trecho * COMANDOS_POR_TRECHO;
+    }
+
+    private static int fim(int trecho, int[] filhos) {
+        return Math.min(filhos.length, (trecho + 1) * COMANDOS_POR_TRECHO);
+    }
+
+    /**
+     * Divide os trechos [inicio, fim) ao meio até restar um por tarefa. Chamada fora de um pool,
+     * usa o pool comum; dentro de uma tarefa (ex: no modo em lote), o pool da própria tarefa.
+     */
+    private static class Trechos extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int inicio;
+        private final int fim;
+        private final IntConsumer processar; // Processa o trecho de índice indicado
+
+        Trechos(int inicio, int fim, IntConsumer processar) {
+            this.inicio = inicio;
+            this.fim = fim;
+            this.processar = processar;
+        }
+
+        @Override
+        protected void compute() {
+            if (fim - inicio == 1) {
+                processar.accept(inicio);
+                return;
+            }
+            int meio = (inicio + fim) >>> 1;
+            invokeAll(new Trechos(inicio, meio, processar), new Trechos(meio, fim, processar));
+        }
+    }
+}
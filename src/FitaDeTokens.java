@@ -0,0 +1,109 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fita de tokens gravada: cada token é produzido uma única vez pela fonte (léxico direto ou em pipeline)
+ * e fica disponível para leitura aleatória. Permite que a listagem da Fase 1 e o analisador sintático
+ * compartilhem a mesma análise léxica, além de oferecer releitura e lookahead a partir de qualquer posição.
+ *
+ * O preenchimento é preguiçoso: a fita só avança a fonte até o índice solicitado.
+ */
+public class FitaDeTokens {
+
+    private final FonteDeTokens origem;
+    private final List<Token> tokens = new ArrayList<>();
+    private boolean completa;         // Verdadeiro após gravar o token EOF
+    private RuntimeException erro;    // Erro léxico que interrompeu a gravação (relançado a cada acesso além dele)
+
+    public FitaDeTokens(FonteDeTokens origem) {
+        this.origem = origem;
+    }
+
+    /**
+     * Retorna o token na posição indicada, gravando tokens da fonte se necessário.
+     * Posições após o fim do arquivo devolvem o token EOF.
+     * @throws RuntimeException se houver erro léxico antes da posição solicitada.
+     */
+    public Token obter(int indice) {
+        while (indice >= tokens.size()) {
+            if (completa) {
+                return tokens.get(tokens.size() - 1);
+            }
+            if (erro != null) {
+                throw erro;
+            }
+            try {
+                Token t = origem.proximoToken();
+                tokens.add(t);
+                if (t.tipo == TipoToken.EOF) {
+                    completa = true;
+                }
+            } catch (RuntimeException e) {
+                erro = e;
+                throw e;
+            }
+        }
+        return tokens.get(indice);
+    }
+
+    /**
+     * Grava todos os tokens restantes até o EOF.
+     * @return Quantidade de tokens da fita, incluindo o EOF.
+     */
+    public int preencherTudo() {
+        while (!completa) {
+            obter(tokens.size());
+        }
+        return tokens.size();
+    }
+
+    /**
+     * Cria um leitor posicionado no início da fita.
+     */
+    public Leitor leitor() {
+        return new Leitor(0);
+    }
+
+    /**
+     * Cria um leitor posicionado em um índice arbitrário (releitura).
+     */
+    public Leitor leitor(int posicao) {
+        return new Leitor(posicao);
+    }
+
+    /**
+     * Cursor independente sobre a fita. Vários leitores podem percorrer a mesma fita
+     * sem que a fonte original seja consultada novamente.
+     */
+    public class Leitor implements FonteDeTokens {
+        private int posicao;
+
+        private Leitor(int posicao) {
+            this.posicao = posicao;
+        }
+
+        @Override
+        public Token proximoToken() {
+            Token t = obter(posicao);
+            if (t.tipo != TipoToken.EOF) {
+                posicao++;
+            }
+            return t;
+        }
+
+        /**
+         * Lookahead: devolve o token k posições à frente sem consumi-lo (k = 0 é o próximo token).
+         */
+        public Token espiar(int k) {
+            return obter(posicao + k);
+        }
+
+        public int getPosicao() {
+            return posicao;
+        }
+
+        public void reposicionar(int posicao) {
+            this.posicao = posicao;
+        }
+    }
+}
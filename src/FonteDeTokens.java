@@ -0,0 +1,12 @@
+/**
+ * Abstração de qualquer componente capaz de fornecer tokens, um por vez, ao analisador sintático.
+ * Implementada pelo próprio AnalisadorLexico (modo sequencial) e pelo LexicoEmPipeline (modo em pipeline).
+ */
+public interface FonteDeTokens {
+
+    /**
+     * Obtém o próximo token. Após o fim do arquivo, continua devolvendo tokens EOF.
+     * @throws RuntimeException em caso de erro léxico.
+     */
+    Token proximoToken();
+}
@@ -0,0 +1,105 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+
+/**
+ * Fonte de tokens que lê o código fonte de um Reader em trechos de tamanho limitado, sem nunca
+ * manter o arquivo inteiro em memória. Cada trecho é analisado por um AnalisadorLexico próprio,
+ * que compartilha a TabelaDeNomes (os IDs dos identificadores não mudam de um trecho para outro)
+ * e continua a contagem de linhas do anterior.
+ *
+ * Os trechos terminam logo depois de um caractere em branco: como nenhum token contém espaços ou
+ * quebras de linha, o corte nunca separa um token e a sequência de tokens (inclusive os erros
+ * léxicos) é a mesma da análise do texto inteiro. Uma linha sem nenhum branco maior que o trecho
+ * faz o trecho crescer até o próximo branco.
+ */
+public class FonteEmTrechos implements FonteDeTokens, AutoCloseable {
+
+    public static final int TAMANHO_PADRAO = 64 * 1024; // Caracteres lidos por trecho
+
+    private final Reader leitor;
+    private final char[] bloco;
+    private final TabelaDeNomes nomes = new TabelaDeNomes();
+    private StringBuilder resto = new StringBuilder(); // Lido além do último branco do trecho anterior
+    private AnalisadorLexico lexico;
+    private boolean fimDaEntrada;
+    private long caracteresLidos;
+
+    public FonteEmTrechos(Reader leitor) {
+        this(leitor, TAMANHO_PADRAO);
+    }
+
+    public FonteEmTrechos(Reader leitor, int tamanhoTrecho) {
+        this.leitor = leitor;
+        this.bloco = new char[tamanhoTrecho];
+        carregarTrecho(1);
+    }
+
+    /**
+     * Próximo token; o EOF de um trecho só é repassado quando a entrada acabou.
+     */
+    @Override
+    public Token proximoToken() {
+        while (true) {
+            Token token = lexico.proximoToken();
+            if (token.tipo != TipoToken.EOF || fimDaEntrada) {
+                return token;
+            }
+            carregarTrecho(token.linha); // O EOF do trecho já contou as quebras de linha finais
+        }
+    }
+
+    public TabelaDeNomes getTabelaDeNomes() {
+        return nomes;
+    }
+
+    /**
+     * Caracteres lidos da entrada até aqui.
+     */
+    public long getCaracteresLidos() {
+        return caracteresLidos;
+    }
+
+    // Lê até completar um trecho e o corta depois do último branco; o que sobra abre o trecho seguinte
+    private void carregarTrecho(int primeiraLinha) {
+        StringBuilder texto = resto;
+        resto = new StringBuilder();
+        int corte = -1;
+        int examinado = 0; // Posições já procuradas sem achar branco
+        try {
+            while (!fimDaEntrada) {
+                int lidos = leitor.read(bloco);
+                if (lidos < 0) {
+                    fimDaEntrada = true;
+                    break;
+                }
+                caracteresLidos += lidos;
+                texto.append(bloco, 0, lidos);
+                if (texto.length() >= bloco.length) {
+                    for (int i = texto.length() - 1; i >= examinado; i--) {
+                        if (Character.isWhitespace(texto.charAt(i))) {
+                            corte = i + 1;
+                            break;
+                        }
+                    }
+                    if (corte >= 0) {
+                        break;
+                    }
+                    examinado = texto.length();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler o código fonte.", e);
+        }
+        if (!fimDaEntrada) {
+            resto.append(texto, corte, texto.length());
+            texto.setLength(corte);
+        }
+        lexico = new AnalisadorLexico(texto.toString(), nomes, primeiraLinha);
+    }
+
+    @Override
+    public void close() throws IOException {
+        leitor.close();
+    }
+}
@@ -0,0 +1,478 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Conversão do TAC para a forma SSA (static single assignment) e de volta.
+ *
+ * Na forma SSA cada nome é definido uma única vez: registradores e variáveis ganham versões
+ * ("R1.3", "x.2"; a versão 0 é o valor na entrada do programa) e, nas junções do grafo de fluxo
+ * onde versões diferentes se encontram, um PHI escolhe a versão conforme o predecessor:
+ *
+ *     PHI x.4, x.2, x.3      (um argumento por predecessor do bloco, na ordem do código)
+ *
+ * Os PHI são posicionados nas fronteiras de dominância iteradas das definições (Cytron et al.),
+ * apenas onde o nome está vivo (SSA podado), e os nomes são renomeados percorrendo a árvore de
+ * dominadores. Como toda instrução precisa definir um nome novo, as formas de dois endereços
+ * ("ADDI R1, 5", "CMPLT R1, R2") aparecem com três operandos ("ADDI R1.2, R1.1, 5").
+ *
+ * A volta retira as versões e os PHI e restaura as formas de dois endereços. Isso só é correto enquanto
+ * o SSA continua convencional (as versões ligadas por um PHI nunca estão vivas ao mesmo tempo), que é o
+ * caso do código produzido por construir; um SSA que deixou de ser convencional é rejeitado.
+ * Blocos inalcançáveis são descartados na ida.
+ */
+public class FormaSSA implements PassoOtimizacao {
+
+    // Nome de uma variável, slot de derramamento ou registrador antes da renomeação, por categoria
+    private static final String REGISTRADOR = "r:";
+    private static final String VARIAVEL = "v:";
+    private static final String SLOT = "s:";
+
+    // PHI em construção: o nome original e os operandos (destino e um argumento por predecessor)
+    private static final class Phi {
+        final String chave;
+        final String[] operandos;
+
+        Phi(String chave, int predecessores) {
+            this.chave = chave;
+            this.operandos = new String[predecessores + 1];
+        }
+    }
+
+    // Estatísticas da última conversão
+    private int blocos;
+    private int blocosDescartados;
+    private int phis;
+    private int versoes;
+    private int passadasDominadores;
+    private int profundidadeDominadores;
+    private int instrucoesAntes;
+    private int instrucoesDepois;
+
+    @Override
+    public String getNome() {
+        return "ssa";
+    }
+
+    /**
+     * Como passo: converte para SSA, verifica a definição única de cada nome e converte de volta.
+     * Serve para validar a conversão e medir o custo dela em programas grandes.
+     */
+    @Override
+    public List<InstrucaoTAC> executar(List<InstrucaoTAC> codigo) {
+        instrucoesAntes = InstrucaoTAC.contarExecutaveis(codigo);
+        List<InstrucaoTAC> ssa = construirInstrucoes(codigo);
+        verificar(ssa);
+        List<InstrucaoTAC> resultado = destruirInstrucoes(ssa);
+        instrucoesDepois = InstrucaoTAC.contarExecutaveis(resultado);
+        return resultado;
+    }
+
+    @Override
+    public String relatorio() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Forma SSA (ida e volta)\n");
+        sb.append(String.format("  %-35s %d\n", "Instruções antes:", instrucoesAntes));
+        sb.append(String.format("  %-35s %d\n", "Instruções depois:", instrucoesDepois));
+        sb.append(String.format("  %-35s %d\n", "Blocos básicos:", blocos));
+        sb.append(String.format("  %-35s %d\n", "Blocos inalcançáveis descartados:", blocosDescartados));
+        sb.append(String.format("  %-35s %d (%d passadas)\n", "Profundidade dos dominadores:", profundidadeDominadores, passadasDominadores));
+        sb.append(String.format("  %-35s %d\n", "Versões definidas:", versoes));
+        sb.append(String.format("  %-35s %d\n", "PHI inseridos:", phis));
+        return sb.toString();
+    }
+
+    // ---------------------------------------------------------
+    // Ida: TAC -> SSA
+    // ---------------------------------------------------------
+
+    /**
+     * Converte o TAC para a forma SSA.
+     */
+    public List<String> construir(List<String> codigo) {
+        return InstrucaoTAC.escreverTodas(construirInstrucoes(InstrucaoTAC.lerTodas(codigo)));
+    }
+
+    public List<InstrucaoTAC> construirInstrucoes(List<InstrucaoTAC> codigo) {
+        List<InstrucaoTAC> expandido = new ArrayList<>(codigo.size());
+        for (InstrucaoTAC instrucao : codigo) {
+            expandido.add(expandirFormaCurta(instrucao));
+        }
+
+        // Só os blocos alcançáveis entram no SSA; o grafo é refeito sem os demais
+        GrafoFluxoControle grafo = GrafoFluxoControle.construir(expandido);
+        boolean[] alcancado = grafo.alcancaveis();
+        List<InstrucaoTAC> vivo = new ArrayList<>(expandido.size());
+        blocosDescartados = 0;
+        for (BlocoBasico bloco : grafo.getBlocos()) {
+            if (alcancado[bloco.indice]) {
+                vivo.addAll(bloco.instrucoes);
+            } else {
+                blocosDescartados++;
+            }
+        }
+        grafo = GrafoFluxoControle.construir(vivo);
+        ArvoreDominadores dominadores = ArvoreDominadores.calcular(grafo);
+        blocos = grafo.getBlocos().size();
+        passadasDominadores = dominadores.getPassadas();
+        profundidadeDominadores = dominadores.profundidade();
+
+        List<List<Phi>> phisPorBloco = posicionarPhis(grafo, dominadores);
+        return renomear(grafo, dominadores, phisPorBloco);
+    }
+
+    private static InstrucaoTAC expandirFormaCurta(InstrucaoTAC instrucao) {
+        if (!instrucao.isFormaCurta()) {
+            return instrucao;
+        }
+        String[] o = instrucao.operandos;
+        return new InstrucaoTAC(instrucao.op, o[0], o[0], o[1]);
+    }
+
+    /**
+     * Posiciona os PHI nas fronteiras de dominância iteradas dos blocos que definem cada nome,
+     * só onde o nome está vivo na entrada do bloco.
+     */
+    private List<List<Phi>> posicionarPhis(GrafoFluxoControle grafo, ArvoreDominadores dominadores) {
+        List<BlocoBasico> todos = grafo.getBlocos();
+        Map<String, Set<BlocoBasico>> blocosQueDefinem = new LinkedHashMap<>();
+        for (BlocoBasico bloco : todos) {
+            for (InstrucaoTAC instrucao : bloco.instrucoes) {
+                String definido = chaveDefinida(instrucao);
+                if (definido != null) {
+                    blocosQueDefinem.computeIfAbsent(definido, c -> new LinkedHashSet<>()).add(bloco);
+                }
+            }
+        }
+        List<Set<String>> vivosNaEntrada = calcularVivos(grafo);
+
+        List<List<Phi>> phisPorBloco = new ArrayList<>();
+        for (int i = 0; i < todos.size(); i++) {
+            phisPorBloco.add(new ArrayList<>());
+        }
+        phis = 0;
+        for (Map.Entry<String, Set<BlocoBasico>> entrada : blocosQueDefinem.entrySet()) {
+            String chave = entrada.getKey();
+            Set<BlocoBasico> comPhi = new HashSet<>();
+            List<BlocoBasico> pendentes = new ArrayList<>(entrada.getValue());
+            Set<BlocoBasico> jaVisitados = new HashSet<>(entrada.getValue());
+            while (!pendentes.isEmpty()) {
+                BlocoBasico bloco = pendentes.remove(pendentes.size() - 1);
+                for (BlocoBasico juncao : dominadores.fronteira(bloco)) {
+                    if (comPhi.contains(juncao) || !vivosNaEntrada.get(juncao.indice).contains(chave)) {
+                        continue;
+                    }
+                    comPhi.add(juncao);
+                    phisPorBloco.get(juncao.indice).add(new Phi(chave, juncao.predecessores.size()));
+                    phis++;
+                    if (jaVisitados.add(juncao)) {
+                        pendentes.add(juncao); // O PHI também é uma definição do nome
+                    }
+                }
+            }
+        }
+        return phisPorBloco;
+    }
+
+    /**
+     * Vivacidade de todos os nomes (registradores, variáveis e slots). As variáveis estão vivas no fim
+     * do programa, pois seus valores finais são o resultado da execução.
+     */
+    private static List<Set<String>> calcularVivos(GrafoFluxoControle grafo) {
+        List<BlocoBasico> todos = grafo.getBlocos();
+        Set<String> variaveis = new HashSet<>();
+        for (BlocoBasico bloco : todos) {
+            for (InstrucaoTAC instrucao : bloco.instrucoes) {
+                String definido = chaveDefinida(instrucao);
+                if (definido != null && definido.startsWith(VARIAVEL)) {
+                    variaveis.add(definido);
+                }
+                for (String usado : chavesUsadas(instrucao)) {
+                    if (usado.startsWith(VARIAVEL)) {
+                        variaveis.add(usado);
+                    }
+                }
+            }
+        }
+
+        List<Set<String>> vivosNaEntrada = new ArrayList<>();
+        for (int i = 0; i < todos.size(); i++) {
+            vivosNaEntrada.add(new HashSet<>());
+        }
+        boolean mudou = true;
+        while (mudou) {
+            mudou = false;
+            for (int i = todos.size() - 1; i >= 0; i--) {
+                BlocoBasico bloco = todos.get(i);
+                Set<String> vivos = new HashSet<>();
+                if (bloco.sucessores.isEmpty()) {
+                    vivos.addAll(variaveis);
+                }
+                for (BlocoBasico sucessor : bloco.sucessores) {
+                    vivos.addAll(vivosNaEntrada.get(sucessor.indice));
+                }
+                for (int k = bloco.instrucoes.size() - 1; k >= 0; k--) {
+                    InstrucaoTAC instrucao = bloco.instrucoes.get(k);
+                    String definido = chaveDefinida(instrucao);
+                    if (definido != null) {
+                        vivos.remove(definido);
+                    }
+                    vivos.addAll(chavesUsadas(instrucao));
+                }
+                if (!vivos.equals(vivosNaEntrada.get(i))) {
+                    vivosNaEntrada.set(i, vivos);
+                    mudou = true;
+                }
+            }
+        }
+        return vivosNaEntrada;
+    }
+
+    /**
+     * Renomeia os nomes percorrendo a árvore de dominadores em profundidade (pilha explícita): cada
+     * definição empilha uma versão nova, cada uso lê a versão do topo, e na saída do bloco as versões
+     * atuais são passadas aos PHI dos sucessores.
+     */
+    private List<InstrucaoTAC> renomear(GrafoFluxoControle grafo, ArvoreDominadores dominadores, List<List<Phi>> phisPorBloco) {
+        List<BlocoBasico> todos = grafo.getBlocos();
+        Map<String, Integer> contadores = new HashMap<>();
+        Map<String, List<String>> pilhas = new HashMap<>();
+        List<List<InstrucaoTAC>> renomeados = new ArrayList<>();
+        for (int i = 0; i < todos.size(); i++) {
+            renomeados.add(null);
+        }
+
+        List<BlocoBasico> pilhaBlocos = new ArrayList<>();
+        List<List<String>> empilhadosPorBloco = new ArrayList<>();
+        pilhaBlocos.add(grafo.getEntrada());
+        empilhadosPorBloco.add(null);
+        versoes = 0;
+        while (!pilhaBlocos.isEmpty()) {
+            int topo = pilhaBlocos.size() - 1;
+            BlocoBasico bloco = pilhaBlocos.get(topo);
+            if (empilhadosPorBloco.get(topo) != null) {
+                // Saída do bloco: desempilha as versões que ele definiu
+                for (String chave : empilhadosPorBloco.get(topo)) {
+                    List<String> pilha = pilhas.get(chave);
+                    pilha.remove(pilha.size() - 1);
+                }
+                pilhaBlocos.remove(topo);
+                empilhadosPorBloco.remove(topo);
+                continue;
+            }
+            List<String> empilhados = new ArrayList<>();
+            empilhadosPorBloco.set(topo, empilhados);
+
+            List<InstrucaoTAC> novas = new ArrayList<>(bloco.instrucoes.size() + phisPorBloco.get(bloco.indice).size());
+            int inicio = 0;
+            if (!bloco.instrucoes.isEmpty() && bloco.instrucoes.get(0).isLabel()) {
+                novas.add(bloco.instrucoes.get(0));
+                inicio = 1;
+            }
+            List<Phi> phisDoBloco = phisPorBloco.get(bloco.indice);
+            for (Phi phi : phisDoBloco) {
+                phi.operandos[0] = novaVersao(phi.chave, contadores, pilhas, empilhados);
+            }
+            for (Phi phi : phisDoBloco) {
+                novas.add(new InstrucaoTAC("PHI", phi.operandos));
+            }
+            for (int k = inicio; k < bloco.instrucoes.size(); k++) {
+                novas.add(renomearInstrucao(bloco.instrucoes.get(k), contadores, pilhas, empilhados));
+            }
+            renomeados.set(bloco.indice, novas);
+
+            for (BlocoBasico sucessor : bloco.sucessores) {
+                int posicao = sucessor.predecessores.indexOf(bloco) + 1;
+                for (Phi phi : phisPorBloco.get(sucessor.indice)) {
+                    phi.operandos[posicao] = versaoAtual(phi.chave, pilhas);
+                }
+            }
+            List<BlocoBasico> filhos = dominadores.filhos(bloco);
+            for (int i = filhos.size() - 1; i >= 0; i--) {
+                pilhaBlocos.add(filhos.get(i));
+                empilhadosPorBloco.add(null);
+            }
+        }
+
+        List<InstrucaoTAC> resultado = new ArrayList<>();
+        for (List<InstrucaoTAC> instrucoes : renomeados) {
+            resultado.addAll(instrucoes);
+        }
+        return resultado;
+    }
+
+    private InstrucaoTAC renomearInstrucao(InstrucaoTAC instrucao, Map<String, Integer> contadores,
+                                           Map<String, List<String>> pilhas, List<String> empilhados) {
+        String[] novos = instrucao.operandos.clone();
+        for (int posicao : posicoesUsadas(instrucao)) {
+            novos[posicao] = versaoAtual(chave(instrucao, posicao), pilhas);
+        }
+        int definida = posicaoDefinida(instrucao);
+        if (definida >= 0) {
+            novos[definida] = novaVersao(chave(instrucao, definida), contadores, pilhas, empilhados);
+        }
+        return new InstrucaoTAC(instrucao.op, novos);
+    }
+
+    private String novaVersao(String chave, Map<String, Integer> contadores, Map<String, List<String>> pilhas, List<String> empilhados) {
+        int versao = contadores.merge(chave, 1, Integer::sum);
+        String nome = chave.substring(2) + "." + versao;
+        pilhas.computeIfAbsent(chave, c -> new ArrayList<>()).add(nome);
+        empilhados.add(chave);
+        versoes++;
+        return nome;
+    }
+
+    // Versão no topo da pilha; sem definição anterior, a versão 0 (valor na entrada do programa)
+    private static String versaoAtual(String chave, Map<String, List<String>> pilhas) {
+        List<String> pilha = pilhas.get(chave);
+        return pilha == null || pilha.isEmpty() ? chave.substring(2) + ".0" : pilha.get(pilha.size() - 1);
+    }
+
+    // ---------------------------------------------------------
+    // Volta: SSA -> TAC
+    // ---------------------------------------------------------
+
+    /**
+     * Retira os PHI e as versões e devolve as formas de dois endereços ao formato do gerador.
+     */
+    public static List<String> destruir(List<String> ssa) {
+        return InstrucaoTAC.escreverTodas(destruirInstrucoes(InstrucaoTAC.lerTodas(ssa)));
+    }
+
+    public static List<InstrucaoTAC> destruirInstrucoes(List<InstrucaoTAC> ssa) {
+        List<InstrucaoTAC> resultado = new ArrayList<>(ssa.size());
+        for (InstrucaoTAC instrucao : ssa) {
+            if (instrucao.op.equals("PHI")) {
+                String base = semVersao(instrucao.operandos[0]);
+                for (int k = 1; k < instrucao.operandos.length; k++) {
+                    if (!semVersao(instrucao.operandos[k]).equals(base)) {
+                        throw new RuntimeException("Erro de Otimização: SSA não convencional em '" + instrucao + "'.");
+                    }
+                }
+                continue;
+            }
+            String[] novos = instrucao.operandos.clone();
+            for (int k = 0; k < novos.length; k++) {
+                novos[k] = semVersao(novos[k]);
+            }
+            resultado.add(restaurarFormaCurta(new InstrucaoTAC(instrucao.op, novos), instrucao));
+        }
+        return resultado;
+    }
+
+    private static InstrucaoTAC restaurarFormaCurta(InstrucaoTAC instrucao, InstrucaoTAC original) {
+        String[] o = instrucao.operandos;
+        boolean tresOperandos = o.length == 3 && (instrucao.isComparacao() || instrucao.isAritmetica());
+        if (!tresOperandos || !o[0].equals(o[1])) {
+            if (tresOperandos && instrucao.isComparacao()) {
+                throw new RuntimeException("Erro de Otimização: SSA não convencional em '" + original + "'.");
+            }
+            return instrucao;
+        }
+        if (instrucao.isComparacao() || InstrucaoTAC.isNumero(o[2])) {
+            return new InstrucaoTAC(instrucao.op, o[0], o[2]);
+        }
+        return instrucao;
+    }
+
+    private static String semVersao(String operando) {
+        int ponto = operando.lastIndexOf('.');
+        if (ponto <= 0 || InstrucaoTAC.isNumero(operando)) {
+            return operando;
+        }
+        for (int k = ponto + 1; k < operando.length(); k++) {
+            if (!Character.isDigit(operando.charAt(k))) {
+                return operando;
+            }
+        }
+        return operando.substring(0, ponto);
+    }
+
+    /**
+     * Verifica a propriedade do SSA: nenhum nome é definido mais de uma vez.
+     * O PHI não indica a categoria do nome, então é comparado só com outros PHI.
+     */
+    public static void verificar(List<InstrucaoTAC> ssa) {
+        Set<String> definidos = new HashSet<>();
+        for (InstrucaoTAC instrucao : ssa) {
+            int posicao = posicaoDefinida(instrucao);
+            String definido = instrucao.op.equals("PHI") ? "p:" + instrucao.operandos[0] : chaveDefinida(instrucao);
+            if (posicao >= 0 && !definidos.add(definido)) {
+                throw new RuntimeException("Erro de Otimização: '" + instrucao.operandos[posicao]
+                        + "' definido mais de uma vez na forma SSA.");
+            }
+        }
+    }
+
+    // ---------------------------------------------------------
+    // Operandos lidos e escritos, incluindo variáveis e slots
+    // ---------------------------------------------------------
+
+    // Posição do operando escrito pela instrução (-1 se não escreve nada)
+    private static int posicaoDefinida(InstrucaoTAC instrucao) {
+        if (instrucao.op.equals("PHI") || instrucao.op.equals("STORE") || instrucao.op.equals("SPILL")
+                || instrucao.registradorDefinido() != null) {
+            return 0;
+        }
+        return -1;
+    }
+
+    // Posições dos operandos lidos (formas de três endereços: a forma curta já foi expandida)
+    private static List<Integer> posicoesUsadas(InstrucaoTAC instrucao) {
+        List<Integer> posicoes = new ArrayList<>(2);
+        String[] o = instrucao.operandos;
+        switch (instrucao.op) {
+            case "LOAD": case "RELOAD": case "STORE": case "SPILL":
+                posicoes.add(1);
+                break;
+            case "JMPTRUE": case "JMPFALSE":
+                posicoes.add(0);
+                break;
+            case "PHI":
+                for (int k = 1; k < o.length; k++) {
+                    posicoes.add(k);
+                }
+                break;
+            default:
+                if (instrucao.isAritmetica() || instrucao.isComparacao()) {
+                    for (int k = o.length == 2 ? 0 : 1; k < o.length; k++) {
+                        if (!InstrucaoTAC.isNumero(o[k])) {
+                            posicoes.add(k);
+                        }
+                    }
+                }
+        }
+        return posicoes;
+    }
+
+    // Nome original do operando, com a categoria (registrador, variável ou slot) como prefixo
+    private static String chave(InstrucaoTAC instrucao, int posicao) {
+        String nome = instrucao.operandos[posicao];
+        switch (instrucao.op) {
+            case "LOAD": return (posicao == 1 ? VARIAVEL : REGISTRADOR) + nome;
+            case "STORE": return (posicao == 0 ? VARIAVEL : REGISTRADOR) + nome;
+            case "RELOAD": return (posicao == 1 ? SLOT : REGISTRADOR) + nome;
+            case "SPILL": return (posicao == 0 ? SLOT : REGISTRADOR) + nome;
+            default: return REGISTRADOR + nome;
+        }
+    }
+
+    private static String chaveDefinida(InstrucaoTAC instrucao) {
+        int posicao = posicaoDefinida(instrucao);
+        return posicao < 0 ? null : chave(instrucao, posicao);
+    }
+
+    private static List<String> chavesUsadas(InstrucaoTAC instrucao) {
+        List<String> chaves = new ArrayList<>(2);
+        for (int posicao : posicoesUsadas(instrucao)) {
+            chaves.add(chave(instrucao, posicao));
+        }
+        return chaves;
+    }
+}
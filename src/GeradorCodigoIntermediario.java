@@ -1,3 +1,4 @@
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -14,20 +15,132 @@ public class GeradorCodigoIntermediario {
     private int contadorRegistrador;    // Contador para gerar nomes únicos de registradores (R1, R2...)
     private int contadorLabel;          // Contador para gerar labels únicos para saltos (L1, L2...)
 
+    private ArvorePlana arvore;         // Árvore plana em geração (apenas no modo ArvorePlana)
+
+    // Pilhas explícitas da geração (nenhum percurso é recursivo): o fechamento dos comandos compostos
+    // cujo corpo está sendo gerado e os operandos direitos de E / OR ainda por gerar
+    private final ArrayDeque<Continuacao> continuacoes = new ArrayDeque<>();
+    private final ArrayDeque<Salto> saltos = new ArrayDeque<>();
+
+    /**
+     * O que um comando composto emite depois do corpo (ou do bloco 'entao', se houver 'senao').
+     */
+    private static final class Continuacao {
+        final String labelFim;    // Emitido como LABEL ao final
+        final String labelInicio; // Enquanto: destino do JMP que volta à condição (null para 'se')
+        final NoArvore senao;     // Bloco 'senao' ainda por gerar (árvore de objetos)
+        final int senaoPlano;     // Idem, na árvore plana (NENHUM se não houver)
+
+        Continuacao(String labelFim, String labelInicio, NoArvore senao, int senaoPlano) {
+            this.labelFim = labelFim;
+            this.labelInicio = labelInicio;
+            this.senao = senao;
+            this.senaoPlano = senaoPlano;
+        }
+    }
+
+    /**
+     * Subcondição (operando direito de E / OR) a gerar depois da esquerda, com os seus labels.
+     */
+    private static final class Salto {
+        final NoArvore no;
+        final int noPlano;
+        final String labelTrue;
+        final String labelFalse;
+
+        Salto(NoArvore no, int noPlano, String labelTrue, String labelFalse) {
+            this.no = no;
+            this.noPlano = noPlano;
+            this.labelTrue = labelTrue;
+            this.labelFalse = labelFalse;
+        }
+    }
+
+    // Visitante da árvore plana: comandos geram código próprio; os demais nós apenas são atravessados
+    private final VisitanteArvore visitante = new VisitanteArvore() {
+        @Override
+        public boolean visitarIterativo(ArvorePlana arvore, int no) {
+            gerarComando(no);
+            return false;
+        }
+
+        @Override
+        public boolean visitarAtribuicao(ArvorePlana arvore, int no) {
+            gerarComando(no);
+            return false;
+        }
+
+        @Override
+        public boolean visitarCondicional(ArvorePlana arvore, int no) {
+            gerarComando(no);
+            return false;
+        }
+    };
+
     public GeradorCodigoIntermediario() {
+        this(1);
+    }
+
+    /**
+     * Gerador cujo primeiro label é L'primeiroLabel' (geração paralela: cada trecho do programa
+     * recebe a faixa de labels que a geração sequencial usaria, ver contarLabels).
+     */
+    public GeradorCodigoIntermediario(int primeiroLabel) {
         this.codigo = new ArrayList<>();
         this.contadorRegistrador = 1;
-        this.contadorLabel = 1;
+        this.contadorLabel = primeiroLabel;
+    }
+
+    /**
+     * Quantidade de labels que a geração da subárvore 'no' aloca, sem gerar código:
+     * um por 'se' (dois com 'senao') e dois por 'enquanto'; condições e expressões não usam labels.
+     */
+    public static int contarLabels(ArvorePlana arvore, int no) {
+        int[] labels = {0};
+        arvore.percorrer(no, new VisitanteArvore() {
+            @Override
+            public boolean visitarCondicional(ArvorePlana arvore, int no) {
+                labels[0] += senao(arvore, no) != ArvorePlana.NENHUM ? 2 : 1;
+                return true;
+            }
+
+            @Override
+            public boolean visitarIterativo(ArvorePlana arvore, int no) {
+                labels[0] += 2;
+                return true;
+            }
+
+            @Override
+            public boolean visitarCondicao(ArvorePlana arvore, int no) {
+                return false;
+            }
+
+            @Override
+            public boolean visitarAtribuicao(ArvorePlana arvore, int no) {
+                return false;
+            }
+        });
+        return labels[0];
     }
 
     public List<String> getCodigo() {
         return codigo;
     }
 
+    /**
+     * Devolve as instruções geradas até aqui e recomeça com uma lista vazia (modo em fluxo).
+     * Os contadores de labels continuam, então os labels seguem únicos no programa inteiro.
+     */
+    public List<String> retirarCodigo() {
+        List<String> gerado = codigo;
+        codigo = new ArrayList<>();
+        return gerado;
+    }
+
     /**
      * Reinicia o contador de registradores.
      * Estratégia simplificada: assume que registradores podem ser reutilizados
-     * entre comandos distintos (não há análise de vida útil complexa).
+     * entre comandos distintos (a análise de vida útil fica com o AlocadorRegistradores).
      */
     private void resetContadorRegistrador() {
         this.contadorRegistrador = 1;
@@ -57,28 +170,87 @@ public class GeradorCodigoIntermediario {
     /**
      * Método principal de varredura da árvore.
      * Despacha a geração para métodos específicos dependendo do tipo do nó.
+     * O percurso usa uma pilha explícita: a profundidade da árvore não depende da pilha da thread.
      * @param no O nó atual da Árvore Sintática.
      */
     public void gerar(NoArvore no) {
         if (no == null) return;
 
-        switch (no.valor) {
-            case "Iterativo":
-                gerarIterativo(no);
-                break;
-            case "Atribuicao":
-                gerarAtribuicao(no);
-                break;
-            case "Condicional":
-                gerarCondicional(no);
-                break;
-            default:
-                // Para nós que não geram código direto (ex: blocos), visita os filhos
-                for (NoArvore filho : no.filhos) {
-                    gerar(filho);
+        ArrayDeque<NoArvore> pendentes = new ArrayDeque<>();
+        pendentes.push(no);
+        while (!pendentes.isEmpty()) {
+            NoArvore atual = pendentes.pop();
+            switch (atual.valor) {
+                case "Iterativo":
+                case "Atribuicao":
+                case "Condicional":
+                    gerarComando(atual);
+                    break;
+                default:
+                    // Para nós que não geram código direto (ex: blocos), visita os filhos (empilhados do último ao primeiro)
+                    for (int i = atual.filhos.size() - 1; i >= 0; i--) {
+                        if (atual.filhos.get(i) != null) {
+                            pendentes.push(atual.filhos.get(i));
+                        }
+                    }
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Gera um comando e os comandos aninhados nele. Um comando composto gera a condição, guarda em
+     * 'continuacoes' o que falta emitir depois do corpo e devolve o corpo, gerado na próxima volta.
+     */
+    private void gerarComando(NoArvore comando) {
+        int base = continuacoes.size();
+        NoArvore no = comando;
+        while (no != null) {
+            switch (no.valor) {
+                case "Iterativo":
+                    no = gerarIterativo(no);
+                    break;
+                case "Atribuicao":
+                    gerarAtribuicao(no);
+                    no = null;
+                    break;
+                case "Condicional":
+                    no = gerarCondicional(no);
+                    break;
+                default:
+                    no = null; // ComandoVazio
+                    break;
+            }
+            while (no == null && continuacoes.size() > base) {
+                Continuacao continuacao = continuacoes.pop();
+                if (concluir(continuacao)) {
+                    no = continuacao.senao;
                 }
-                break;
+            }
+        }
+    }
+
+    /**
+     * Emite o fechamento de um comando composto cujo corpo já foi gerado.
+     * @return Verdadeiro se ainda falta gerar o bloco 'senao' da continuação.
+     */
+    private boolean concluir(Continuacao continuacao) {
+        if (continuacao.senao != null || continuacao.senaoPlano != ArvorePlana.NENHUM) {
+            String labelFinalReal = alocarLabel(); // Label para o fim absoluto da estrutura
+            emitir("JMP " + labelFinalReal); // Terminou o 'entao', pula o 'senao'
+
+            emitir("LABEL " + continuacao.labelFim); // Aqui começa o bloco 'senao' (ponto de salto se condição falhou)
+
+            // Depois do bloco SENAO: ponto de encontro após o IF/ELSE completo
+            continuacoes.push(new Continuacao(labelFinalReal, null, null, ArvorePlana.NENHUM));
+            return true;
+        }
+        if (continuacao.labelInicio != null) {
+            // Salto incondicional para reavaliar a condição
+            emitir("JMP " + continuacao.labelInicio);
         }
+        emitir("LABEL " + continuacao.labelFim);
+        return false;
     }
 
     /**
@@ -105,8 +277,9 @@ public class GeradorCodigoIntermediario {
      * Gera código para estruturas condicionais (SE / ENTAO / SENAO).
      * Utiliza Labels para pular o bloco 'então' se a condição for falsa,
      * ou pular o bloco 'senão' ao final do 'então'.
+     * @return O comando do bloco 'entao', a gerar em seguida (o resto fica na continuação).
      */
-    private void gerarCondicional(NoArvore noCondicional) {
+    private NoArvore gerarCondicional(NoArvore noCondicional) {
         resetContadorRegistrador();
 
         // Estrutura esperada da árvore: [se, Condicao, entao, Comando, (senao, Comando)?]
@@ -119,32 +292,24 @@ public class GeradorCodigoIntermediario {
         // Contrato: Se FALSO, pula para labelFim. Se VERDADEIRO, continua (fallthrough).
         gerarCodigoCondicao(noCondicao, null, labelFim);
 
-        // --- Bloco ENTAO ---
-        gerar(noComandoEntao);
-
-        // Verifica se existe a parte SENAO
+        // Verifica se existe a parte SENAO: depois do 'entao' vêm JMP, o bloco 'senao' e o label final;
+        // sem ela, o labelFim marca apenas o fim do bloco 'entao'
+        NoArvore noComandoSenao = null;
         if (noCondicional.filhos.size() > 5 && noCondicional.filhos.get(4).valor.equals("senao")) {
-            String labelFinalReal = alocarLabel(); // Label para o fim absoluto da estrutura
-            emitir("JMP " + labelFinalReal); // Terminou o 'entao', pula o 'senao'
-
-            emitir("LABEL " + labelFim); // Aqui começa o bloco 'senao' (ponto de salto se condição falhou)
-
-            // --- Bloco SENAO ---
-            NoArvore noComandoSenao = noCondicional.filhos.get(5);
-            gerar(noComandoSenao);
-
-            emitir("LABEL " + labelFinalReal); // Ponto de encontro após o IF/ELSE completo
-        } else {
-            // Se não tem senao, o labelFim marca apenas o fim do bloco 'entao'
-            emitir("LABEL " + labelFim);
+            noComandoSenao = noCondicional.filhos.get(5);
         }
+        continuacoes.push(new Continuacao(labelFim, null, noComandoSenao, ArvorePlana.NENHUM));
+
+        // --- Bloco ENTAO ---
+        return noComandoEntao;
     }
 
     /**
      * Gera código para laços (ENQUANTO).
      * Cria um Label de início para o loop e um Label de fim para saída.
+     * @return O corpo do laço, a gerar em seguida (o salto de volta fica na continuação).
      */
-    private void gerarIterativo(NoArvore noIterativo) {
+    private NoArvore gerarIterativo(NoArvore noIterativo) {
         resetContadorRegistrador();
         String labelInicio = alocarLabel();
         String labelFim = alocarLabel();
@@ -158,110 +323,134 @@ public class GeradorCodigoIntermediario {
         // Se FALSO, pula para labelFim (sai do loop).
         gerarCodigoCondicao(noCondicao, null, labelFim);
 
-        // Corpo do loop
-        gerar(noComando);
-
-        // Salto incondicional para reavaliar a condição
-        emitir("JMP " + labelInicio);
+        // Depois do corpo: salto para reavaliar a condição e o ponto de saída
+        continuacoes.push(new Continuacao(labelFim, labelInicio, null, ArvorePlana.NENHUM));
 
-        emitir("LABEL " + labelFim); // Ponto de saída
+        // Corpo do loop
+        return noComando;
     }
 
     /**
-     * Método recursivo complexo para gerar código de condições booleanas.
+     * Gera código para condições booleanas.
      * Lida com Curto-Circuito e lógica aninhada (AND, OR, NOT).
+     * Sem recursão: o operando esquerdo de E / OR e o de NOT são seguidos no próprio laço, e o direito
+     * fica na pilha 'saltos' até a esquerda terminar, então cadeias longas não esgotam a pilha da thread.
      * * @param no Nó atual da condição (pode ser E, OR, NOT ou CondicaoSimples).
      * @param labelTrue Label para pular se o resultado for VERDADEIRO (se null, segue fluxo).
      * @param labelFalse Label para pular se o resultado for FALSO (se null, segue fluxo).
      */
     private void gerarCodigoCondicao(NoArvore no, String labelTrue, String labelFalse) {
-
-        // Verifica se há operadores lógicos (E / OR) nos filhos diretos
-        int indexOp = -1;
-        for (int i = 0; i < no.filhos.size(); i++) {
-            String val = no.filhos.get(i).valor;
-            if (val.equals("E") || val.equals("OR")) {
-                indexOp = i;
-                break;
+        int base = saltos.size();
+        while (true) {
+            // Verifica se há operadores lógicos (E / OR) nos filhos diretos
+            int indexOp = -1;
+            for (int i = 0; i < no.filhos.size(); i++) {
+                String val = no.filhos.get(i).valor;
+                if (val.equals("E") || val.equals("OR")) {
+                    indexOp = i;
+                    break;
+                }
             }
-        }
 
-        if (indexOp != -1) {
-            // --- CASO COMPOSTO (AND / OR) ---
-            String op = no.filhos.get(indexOp).valor;
-            NoArvore direita = no.filhos.get(indexOp + 1);
-            // Simplificação: Assume que a esquerda é o primeiro filho lógico
-            NoArvore esquerda = no.filhos.get(0);
-
-            if (op.equals("E")) {
-                // Lógica E (AND):
-                // Se Esquerda falhar, já é Falso (vai para labelFalse).
-                // Se Esquerda for True, precisa avaliar a Direita.
-                gerarCodigoCondicao(esquerda, null, labelFalse);
-                gerarCodigoCondicao(direita, labelTrue, labelFalse);
-
-            } else if (op.equals("OR")) {
-                // Lógica OR:
-                // Se Esquerda for True, já é Verdadeiro (vai para labelTrue).
-                // Se Esquerda for False, precisa avaliar a Direita.
-                gerarCodigoCondicao(esquerda, labelTrue, null);
-                gerarCodigoCondicao(direita, labelTrue, labelFalse);
+            if (indexOp != -1) {
+                // --- CASO COMPOSTO (AND / OR) ---
+                String op = no.filhos.get(indexOp).valor;
+                NoArvore direita = no.filhos.get(indexOp + 1);
+                // Simplificação: Assume que a esquerda é o primeiro filho lógico
+                NoArvore esquerda = no.filhos.get(0);
+
+                // A direita é avaliada depois da esquerda, com os labels do próprio nó
+                saltos.push(new Salto(direita, ArvorePlana.NENHUM, labelTrue, labelFalse));
+                if (op.equals("E")) {
+                    // Lógica E (AND):
+                    // Se Esquerda falhar, já é Falso (vai para labelFalse).
+                    // Se Esquerda for True, precisa avaliar a Direita.
+                    labelTrue = null;
+                } else {
+                    // Lógica OR:
+                    // Se Esquerda for True, já é Verdadeiro (vai para labelTrue).
+                    // Se Esquerda for False, precisa avaliar a Direita.
+                    labelFalse = null;
+                }
+                no = esquerda;
+                continue;
             }
-            return;
-        }
-
-        // --- CASO NOT ---
-        for (NoArvore filho : no.filhos) {
-            if (filho.valor.equals("NOT")) {
-                // Estrutura: [ (, NOT, CondicaoInterna, ) ]
-                NoArvore operando = no.filhos.get(2); // Pega a condição interna
 
+            // --- CASO NOT ---
+            NoArvore negado = null;
+            for (NoArvore filho : no.filhos) {
+                if (filho.valor.equals("NOT")) {
+                    // Estrutura: [ (, NOT, CondicaoInterna, ) ]
+                    negado = no.filhos.get(2); // Pega a condição interna
+                    break;
+                }
+            }
+            if (negado != null) {
                 // INVERSÃO DE LÓGICA:
                 // O label de sucesso do filho vira o label de falha do pai, e vice-versa.
-                gerarCodigoCondicao(operando, labelFalse, labelTrue);
-                return;
+                String label = labelTrue;
+                labelTrue = labelFalse;
+                labelFalse = label;
+                no = negado;
+                continue;
             }
-        }
 
-        // --- CASO CONDICAO SIMPLES (Base da recursão) ---
-        NoArvore noSimples = null;
+            // --- CASO CONDICAO SIMPLES (Base) ---
+            NoArvore noSimples = null;
 
-        // Localiza o nó 'CondicaoSimples' (pode ser o próprio nó ou um filho devido a parênteses)
-        if (no.valor.equals("CondicaoSimples")) {
-            noSimples = no;
-        } else {
-            for (NoArvore filho : no.filhos) {
-                if (filho.valor.equals("CondicaoSimples")) {
-                    noSimples = filho;
-                    break;
+            // Localiza o nó 'CondicaoSimples' (pode ser o próprio nó ou um filho devido a parênteses)
+            if (no.valor.equals("CondicaoSimples")) {
+                noSimples = no;
+            } else {
+                for (NoArvore filho : no.filhos) {
+                    if (filho.valor.equals("CondicaoSimples")) {
+                        noSimples = filho;
+                        break;
+                    }
                 }
             }
-        }
 
-        if (noSimples != null) {
-            // Estrutura: Termo1 OP Termo2
-            NoArvore termo1 = noSimples.filhos.get(0);
-            NoArvore op = noSimples.filhos.get(1);
-            NoArvore termo2 = noSimples.filhos.get(2);
-
-            // Carrega os valores em registradores
-            String reg1 = carregarTermo(termo1);
-            String reg2 = carregarTermo(termo2);
-            String opMnem = traduzirOperadorLogico(op.valor);
-
-            // Emite a instrução de comparação (ex: CMPGT R1, R2)
-            // O resultado booleano fica armazenado no próprio R1 (convenção simplificada) ou flag
-            emitir(opMnem + " " + reg1 + ", " + reg2);
-
-            // Gera os saltos condicionais baseados nos labels solicitados
-            if (labelTrue != null && labelFalse == null) {
-                emitir("JMPTRUE " + reg1 + ", " + labelTrue);
-            } else if (labelTrue == null && labelFalse != null) {
-                emitir("JMPFALSE " + reg1 + ", " + labelFalse);
-            } else if (labelTrue != null && labelFalse != null) {
-                emitir("JMPTRUE " + reg1 + ", " + labelTrue);
-                emitir("JMP " + labelFalse);
+            if (noSimples != null) {
+                // Estrutura: Termo1 OP Termo2
+                NoArvore termo1 = noSimples.filhos.get(0);
+                NoArvore op = noSimples.filhos.get(1);
+                NoArvore termo2 = noSimples.filhos.get(2);
+
+                // Carrega os valores em registradores
+                String reg1 = carregarTermo(termo1);
+                String reg2 = carregarTermo(termo2);
+                String opMnem = traduzirOperadorLogico(op.valor);
+
+                // Emite a instrução de comparação (ex: CMPGT R1, R2)
+                // O resultado booleano fica armazenado no próprio R1 (convenção simplificada) ou flag
+                emitir(opMnem + " " + reg1 + ", " + reg2);
+
+                // Gera os saltos condicionais baseados nos labels solicitados
+                emitirSaltos(reg1, labelTrue, labelFalse);
             }
+
+            // Próximo operando direito pendente
+            if (saltos.size() == base) {
+                return;
+            }
+            Salto salto = saltos.pop();
+            no = salto.no;
+            labelTrue = salto.labelTrue;
+            labelFalse = salto.labelFalse;
+        }
+    }
+
+    /**
+     * Emite os saltos de uma comparação cujo resultado está em 'reg', conforme os labels solicitados.
+     */
+    private void emitirSaltos(String reg, String labelTrue, String labelFalse) {
+        if (labelTrue != null && labelFalse == null) {
+            emitir("JMPTRUE " + reg + ", " + labelTrue);
+        } else if (labelTrue == null && labelFalse != null) {
+            emitir("JMPFALSE " + reg + ", " + labelFalse);
+        } else if (labelTrue != null && labelFalse != null) {
+            emitir("JMPTRUE " + reg + ", " + labelTrue);
+            emitir("JMP " + labelFalse);
         }
     }
 
@@ -312,6 +501,219 @@ public class GeradorCodigoIntermediario {
         return reg;
     }
 
+    // ---------------------------------------------------------
+    // Versão sobre a árvore plana (ArvorePlana)
+    // Mesmas estratégias de geração; a navegação usa índices de nó e o visitante tipado.
+    // ---------------------------------------------------------
+
+    /**
+     * Gera o código de toda a árvore plana.
+     */
+    public void gerar(ArvorePlana arvore) {
+        gerar(arvore, arvore.getRaiz());
+    }
+
+    /**
+     * Gera o código da subárvore iniciada em 'no'.
+     */
+    public void gerar(ArvorePlana arvore, int no) {
+        this.arvore = arvore;
+        arvore.percorrer(no, visitante);
+    }
+
+    private void gerarAtribuicao(int noAtribuicao) {
+        resetContadorRegistrador();
+
+        String nomeVar = arvore.rotulo(arvore.primeiroFilho(noAtribuicao));
+        String regResultado = gerarExpressao(arvore.filho(noAtribuicao, 2));
+
+        emitir("STORE " + nomeVar + ", " + regResultado);
+    }
+
+    /**
+     * Versão de gerarComando(NoArvore) para a árvore plana: o mesmo laço, com a mesma pilha de continuações.
+     */
+    private void gerarComando(int comando) {
+        int base = continuacoes.size();
+        int no = comando;
+        while (no != ArvorePlana.NENHUM) {
+            switch (arvore.tipo(no)) {
+                case ITERATIVO:
+                    no = gerarIterativo(no);
+                    break;
+                case ATRIBUICAO:
+                    gerarAtribuicao(no);
+                    no = ArvorePlana.NENHUM;
+                    break;
+                case CONDICIONAL:
+                    no = gerarCondicional(no);
+                    break;
+                default:
+                    no = ArvorePlana.NENHUM; // ComandoVazio
+                    break;
+            }
+            while (no == ArvorePlana.NENHUM && continuacoes.size() > base) {
+                Continuacao continuacao = continuacoes.pop();
+                if (concluir(continuacao)) {
+                    no = continuacao.senaoPlano;
+                }
+            }
+        }
+    }
+
+    private int gerarCondicional(int noCondicional) {
+        resetContadorRegistrador();
+
+        int noCondicao = arvore.filho(noCondicional, 1);
+        int noComandoEntao = arvore.filho(noCondicional, 3);
+
+        String labelFim = alocarLabel();
+        gerarCodigoCondicao(noCondicao, null, labelFim);
+
+        int noSenao = senao(arvore, noCondicional);
+        int noComandoSenao = noSenao != ArvorePlana.NENHUM ? arvore.proximoIrmao(noSenao) : ArvorePlana.NENHUM;
+        continuacoes.push(new Continuacao(labelFim, null, null, noComandoSenao));
+
+        // --- Bloco ENTAO ---
+        return noComandoEntao;
+    }
+
+    // Nó 'senao' de um Condicional seguido do comando do bloco (NENHUM se não houver)
+    private static int senao(ArvorePlana arvore, int noCondicional) {
+        int noSenao = arvore.proximoIrmao(arvore.filho(noCondicional, 3));
+        if (noSenao != ArvorePlana.NENHUM && arvore.proximoIrmao(noSenao) != ArvorePlana.NENHUM
+                && arvore.tipoToken(noSenao) == TipoToken.SENAO) {
+            return noSenao;
+        }
+        return ArvorePlana.NENHUM;
+    }
+
+    private int gerarIterativo(int noIterativo) {
+        resetContadorRegistrador();
+        String labelInicio = alocarLabel();
+        String labelFim = alocarLabel();
+
+        int noCondicao = arvore.filho(noIterativo, 1);
+        int noComando = arvore.proximoIrmao(noCondicao);
+
+        emitir("LABEL " + labelInicio);
+        gerarCodigoCondicao(noCondicao, null, labelFim);
+
+        continuacoes.push(new Continuacao(labelFim, labelInicio, null, ArvorePlana.NENHUM));
+        return noComando;
+    }
+
+    private void gerarCodigoCondicao(int no, String labelTrue, String labelFalse) {
+        int base = saltos.size();
+        while (true) {
+            // Verifica se há operadores lógicos (E / OR) nos filhos diretos
+            int noOp = ArvorePlana.NENHUM;
+            for (int filho = arvore.primeiroFilho(no); filho != ArvorePlana.NENHUM; filho = arvore.proximoIrmao(filho)) {
+                TipoToken tipo = arvore.tipoToken(filho);
+                if (tipo == TipoToken.OP_BOOLEANO_E || tipo == TipoToken.OP_BOOLEANO_OR) {
+                    noOp = filho;
+                    break;
+                }
+            }
+
+            if (noOp != ArvorePlana.NENHUM) {
+                // --- CASO COMPOSTO (AND / OR) --- a direita fica pendente, a esquerda segue no laço
+                saltos.push(new Salto(null, arvore.proximoIrmao(noOp), labelTrue, labelFalse));
+                if (arvore.tipoToken(noOp) == TipoToken.OP_BOOLEANO_E) {
+                    labelTrue = null;
+                } else {
+                    labelFalse = null;
+                }
+                no = arvore.primeiroFilho(no);
+                continue;
+            }
+
+            // --- CASO NOT ---
+            int negado = ArvorePlana.NENHUM;
+            for (int filho = arvore.primeiroFilho(no); filho != ArvorePlana.NENHUM; filho = arvore.proximoIrmao(filho)) {
+                if (arvore.tipoToken(filho) == TipoToken.OP_BOOLEANO_NOT) {
+                    // Estrutura: [ (, NOT, CondicaoInterna, ) ] - inverte os labels
+                    negado = arvore.filho(no, 2);
+                    break;
+                }
+            }
+            if (negado != ArvorePlana.NENHUM) {
+                String label = labelTrue;
+                labelTrue = labelFalse;
+                labelFalse = label;
+                no = negado;
+                continue;
+            }
+
+            // --- CASO CONDICAO SIMPLES ---
+            int noSimples = ArvorePlana.NENHUM;
+            if (arvore.tipo(no) == TipoNo.CONDICAO_SIMPLES) {
+                noSimples = no;
+            } else {
+                for (int filho = arvore.primeiroFilho(no); filho != ArvorePlana.NENHUM; filho = arvore.proximoIrmao(filho)) {
+                    if (arvore.tipo(filho) == TipoNo.CONDICAO_SIMPLES) {
+                        noSimples = filho;
+                        break;
+                    }
+                }
+            }
+
+            if (noSimples != ArvorePlana.NENHUM) {
+                int termo1 = arvore.primeiroFilho(noSimples);
+                int op = arvore.proximoIrmao(termo1);
+                int termo2 = arvore.proximoIrmao(op);
+
+                String reg1 = carregarTermo(termo1);
+                String reg2 = carregarTermo(termo2);
+                String opMnem = traduzirOperadorLogico(arvore.rotulo(op));
+
+                emitir(opMnem + " " + reg1 + ", " + reg2);
+                emitirSaltos(reg1, labelTrue, labelFalse);
+            }
+
+            if (saltos.size() == base) {
+                return;
+            }
+            Salto salto = saltos.pop();
+            no = salto.noPlano;
+            labelTrue = salto.labelTrue;
+            labelFalse = salto.labelFalse;
+        }
+    }
+
+    /**
+     * Gera a expressão que começa no nó Expressao 'primeiraExpressao' e segue pelos irmãos (Operador, Expressao)*.
+     */
+    private String gerarExpressao(int primeiraExpressao) {
+        String regAtual = carregarTermo(arvore.primeiroFilho(primeiraExpressao));
+
+        for (int noOp = arvore.proximoIrmao(primeiraExpressao); noOp != ArvorePlana.NENHUM; ) {
+            String op = arvore.rotulo(noOp);
+            int proximaExpressao = arvore.proximoIrmao(noOp);
+            String proximoTermo = arvore.rotulo(arvore.primeiroFilho(proximaExpressao));
+
+            if (isNumero(proximoTermo)) {
+                emitir(traduzirOperadorAritmeticoImediato(op) + " " + regAtual + ", " + proximoTermo);
+            } else {
+                String regProximo = carregarTermo(arvore.primeiroFilho(proximaExpressao));
+                emitir(traduzirOperadorAritmetico(op) + " " + regAtual + ", " + regAtual + ", " + regProximo);
+            }
+            noOp = arvore.proximoIrmao(proximaExpressao);
+        }
+        return regAtual;
+    }
+
+    private String carregarTermo(int noTermo) {
+        String reg = alocarRegistrador();
+        String valor = arvore.rotulo(noTermo);
+        if (isNumero(valor)) {
+            emitir("LOADI " + reg + ", " + valor);
+        } else {
+            emitir("LOAD " + reg + ", " + valor);
+        }
+        return reg;
+    }
+
     private boolean isNumero(String s) {
         return Character.isDigit(s.charAt(0));
     }
@@ -0,0 +1,182 @@
+import java.util.SplittableRandom;
+
+/**
+ * Gera programas sintética e semanticamente válidos para a gramática do AnalisadorSintatico, para medir
+ * o compilador em entradas de qualquer tamanho (MedidorDesempenho, MedidorEscala).
+ *
+ * A geração é determinística: a mesma semente e os mesmos parâmetros produzem sempre o mesmo texto.
+ * Os parâmetros são campos públicos, com padrões que produzem um programa misto:
+ * - declaracoes / proporcaoReais: quantas variáveis são declaradas e quantas delas são 'real';
+ * - comandos: comandos no nível externo do programa (ou tamanho em bytes, com gerarComTamanho);
+ * - termos: quantidade máxima de termos em cada expressão aritmética (a = t op t op ...);
+ * - profundidade / probabilidadeAninhamento: aninhamento máximo de se/enquanto (até 10, limite da
+ *   gramática) e a chance de cada nível abrir mais um; proporcaoEnquanto e proporcaoSenao escolhem
+ *   entre se, se-senao e enquanto;
+ * - probabilidadeNot / probabilidadeE / probabilidadeOr: mistura dos operadores booleanos nas condições.
+ *
+ * Os tipos são respeitados como o AnalisadorSemantico exige: cada atribuição e cada comparação usa
+ * apenas termos do tipo da variável envolvida, e RESTO só aparece entre inteiros.
+ */
+public class GeradorProgramas {
+
+    public static final int PROFUNDIDADE_MAXIMA = 10; // Premissa 2 do AnalisadorSintatico
+
+    private static final int VARIAVEIS_POR_DECLARACAO = 10;
+    private static final int NIVEIS_BOOLEANOS = 2;    // Aninhamento máximo de NOT / E / OR em uma condição
+    private static final String[] RELACIONAIS = {"<", "<=", ">", ">=", "==", "!="};
+
+    public long semente = 1;
+    public int declaracoes = 16;
+    public double proporcaoReais = 0.25;
+    public int comandos = 100;
+    public int termos = 4;
+    public int profundidade = 3;
+    public double probabilidadeAninhamento = 0.3;
+    public double proporcaoEnquanto = 0.3;
+    public double proporcaoSenao = 0.3;
+    public double probabilidadeNot = 0.1;
+    public double probabilidadeE = 0.15;
+    public double probabilidadeOr = 0.15;
+
+    private SplittableRandom aleatorio;
+    private int inteiros; // Variáveis v0 .. v(inteiros-1) são 'inteiro'; as demais, 'real'
+
+    /**
+     * Gera o programa com 'comandos' comandos no nível externo.
+     */
+    public String gerar() {
+        StringBuilder sb = new StringBuilder();
+        iniciar(sb);
+        for (int c = 0; c < comandos; c++) {
+            comando(sb, 1);
+        }
+        sb.append("$.\n");
+        return sb.toString();
+    }
+
+    /**
+     * Gera comandos até o programa atingir aproximadamente 'bytes' bytes (ignora 'comandos').
+     */
+    public String gerarComTamanho(long bytes) {
+        if (bytes > Integer.MAX_VALUE - 1024) {
+            throw new IllegalArgumentException("Tamanho acima do limite de uma String: " + bytes + " bytes.");
+        }
+        StringBuilder sb = new StringBuilder((int) bytes + 1024);
+        iniciar(sb);
+        while (sb.length() < bytes) {
+            comando(sb, 1);
+        }
+        sb.append("$.\n");
+        return sb.toString();
+    }
+
+    private void iniciar(StringBuilder sb) {
+        if (profundidade < 1 || profundidade > PROFUNDIDADE_MAXIMA) {
+            throw new IllegalArgumentException("A profundidade deve estar entre 1 e " + PROFUNDIDADE_MAXIMA + ".");
+        }
+        if (declaracoes < 1 || termos < 1) {
+            throw new IllegalArgumentException("O programa precisa de ao menos uma variável e um termo por expressão.");
+        }
+        aleatorio = new SplittableRandom(semente);
+        inteiros = Math.max(1, declaracoes - (int) Math.round(declaracoes * proporcaoReais));
+
+        sb.append("$\n");
+        declarar(sb, "inteiro", 0, inteiros);
+        declarar(sb, "real", inteiros, declaracoes);
+    }
+
+    private static void declarar(StringBuilder sb, String tipo, int primeira, int fim) {
+        for (int inicio = primeira; inicio < fim; inicio += VARIAVEIS_POR_DECLARACAO) {
+            sb.append(tipo).append(' ');
+            for (int v = inicio; v < Math.min(fim, inicio + VARIAVEIS_POR_DECLARACAO); v++) {
+                sb.append(v > inicio ? ", v" : "v").append(v);
+            }
+            sb.append(";\n");
+        }
+    }
+
+    // Comando -> Condicional | Iterativo | Atribuicao, com 'nivel' comandos abertos até aqui (contando este).
+    // Retorna verdadeiro se o comando termina em um 'se' sem 'senao': um 'senao' logo depois seria
+    // associado a esse 'se' interno (dangling else), então o comando externo não o emite.
+    private boolean comando(StringBuilder sb, int nivel) {
+        if (nivel >= profundidade || aleatorio.nextDouble() >= probabilidadeAninhamento) {
+            atribuicao(sb);
+            return false;
+        }
+        if (aleatorio.nextDouble() < proporcaoEnquanto) {
+            sb.append("enquanto ");
+            condicao(sb, 0);
+            sb.append('\n');
+            return comando(sb, nivel + 1);
+        }
+        sb.append("se ");
+        condicao(sb, 0);
+        sb.append(" entao\n");
+        boolean aberto = comando(sb, nivel + 1);
+        if (!aberto && aleatorio.nextDouble() < proporcaoSenao) {
+            sb.append("senao\n");
+            return comando(sb, nivel + 1);
+        }
+        return true;
+    }
+
+    // Atribuicao -> ID '=' Termo (OP Termo)* ';'
+    private void atribuicao(StringBuilder sb) {
+        int alvo = aleatorio.nextInt(declaracoes);
+        boolean real = alvo >= inteiros;
+        sb.append('v').append(alvo).append(" = ");
+        termo(sb, real);
+        int quantidade = aleatorio.nextInt(termos);
+        for (int t = 0; t < quantidade; t++) {
+            int operador = aleatorio.nextInt(real ? 3 : 4);
+            sb.append(operador == 0 ? " + " : operador == 1 ? " * " : operador == 2 ? " / " : " RESTO ");
+            termo(sb, real);
+        }
+        sb.append(";\n");
+    }
+
+    // Termo: variável do tipo pedido (ou literal, na ausência de variáveis desse tipo)
+    private void termo(StringBuilder sb, boolean real) {
+        int quantidade = real ? declaracoes - inteiros : inteiros;
+        if (quantidade == 0 || aleatorio.nextInt(3) == 0) {
+            sb.append(aleatorio.nextInt(1000));
+            if (real) {
+                sb.append('.').append(aleatorio.nextInt(10));
+            }
+        } else {
+            sb.append('v').append((real ? inteiros : 0) + aleatorio.nextInt(quantidade));
+        }
+    }
+
+    // Condicao -> '(' CondicaoSimples ')' | '(' NOT Condicao ')', seguida opcionalmente de (E|OR) Condicao
+    private void condicao(StringBuilder sb, int nivel) {
+        double sorteio = aleatorio.nextDouble();
+        if (nivel < NIVEIS_BOOLEANOS && sorteio < probabilidadeNot) {
+            sb.append("(NOT ");
+            condicao(sb, nivel + 1);
+            sb.append(')');
+        } else {
+            simples(sb);
+        }
+        if (nivel < NIVEIS_BOOLEANOS) {
+            sorteio = aleatorio.nextDouble();
+            if (sorteio < probabilidadeE) {
+                sb.append(" E ");
+                condicao(sb, nivel + 1);
+            } else if (sorteio < probabilidadeE + probabilidadeOr) {
+                sb.append(" OR ");
+                condicao(sb, nivel + 1);
+            }
+        }
+    }
+
+    // '(' ID OP_LOGICO (ID | NUMERO) ')', com os dois lados do mesmo tipo
+    private void simples(StringBuilder sb) {
+        int variavel = aleatorio.nextInt(declaracoes);
+        boolean real = variavel >= inteiros;
+        sb.append("(v").append(variavel).append(' ')
+                .append(RELACIONAIS[aleatorio.nextInt(RELACIONAIS.length)]).append(' ');
+        termo(sb, real);
+        sb.append(')');
+    }
+}
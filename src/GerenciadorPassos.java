@@ -0,0 +1,114 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encadeia passos de otimização sobre o TAC: cada passo recebe o código deixado pelo anterior.
+ * O tempo e o tamanho do código são medidos por passo, para localizar o passo que domina a
+ * compilação de programas grandes.
+ *
+ * Passos disponíveis pelo nome (opção --passos): constantes, saltos, ssa e registradores=K.
+ */
+public class GerenciadorPassos {
+
+    public static final String PASSOS_PADRAO = "constantes,saltos";
+
+    // Medição de uma execução de passo
+    private static final class Medicao {
+        final String nome;
+        final long nanos;
+        final int instrucoesAntes;
+        final int instrucoesDepois;
+
+        Medicao(String nome, long nanos, int instrucoesAntes, int instrucoesDepois) {
+            this.nome = nome;
+            this.nanos = nanos;
+            this.instrucoesAntes = instrucoesAntes;
+            this.instrucoesDepois = instrucoesDepois;
+        }
+    }
+
+    private final List<PassoOtimizacao> passos = new ArrayList<>();
+    private final List<Medicao> medicoes = new ArrayList<>();
+
+    public GerenciadorPassos adicionar(PassoOtimizacao passo) {
+        passos.add(passo);
+        return this;
+    }
+
+    /**
+     * Cria o gerenciador a partir de uma lista de nomes separados por vírgula ("constantes,ssa,saltos").
+     */
+    public static GerenciadorPassos criar(String lista) {
+        GerenciadorPassos gerenciador = new GerenciadorPassos();
+        for (String nome : lista.split(",")) {
+            if (!nome.isBlank()) {
+                gerenciador.adicionar(criarPasso(nome.trim()));
+            }
+        }
+        return gerenciador;
+    }
+
+    public static PassoOtimizacao criarPasso(String nome) {
+        if (nome.startsWith("registradores=")) {
+            return new AlocadorRegistradores(Integer.parseInt(nome.substring("registradores=".length())));
+        }
+        switch (nome) {
+            case "constantes": return new OtimizadorConstantes();
+            case "saltos": return new OtimizadorSaltos();
+            case "ssa": return new FormaSSA();
+            default:
+                throw new IllegalArgumentException("Passo de otimização desconhecido: '" + nome
+                        + "' (disponíveis: constantes, saltos, ssa, registradores=K).");
+        }
+    }
+
+    public List<String> executar(List<String> codigo) {
+        return InstrucaoTAC.escreverTodas(executarInstrucoes(InstrucaoTAC.lerTodas(codigo)));
+    }
+
+    public List<InstrucaoTAC> executarInstrucoes(List<InstrucaoTAC> codigo) {
+        medicoes.clear();
+        List<InstrucaoTAC> atual = codigo;
+        for (PassoOtimizacao passo : passos) {
+            int antes = InstrucaoTAC.contarExecutaveis(atual);
+            long inicio = System.nanoTime();
+            atual = passo.executar(atual);
+            long nanos = System.nanoTime() - inicio;
+            medicoes.add(new Medicao(passo.getNome(), nanos, antes, InstrucaoTAC.contarExecutaveis(atual)));
+        }
+        return atual;
+    }
+
+    public List<PassoOtimizacao> getPassos() {
+        return passos;
+    }
+
+    /**
+     * Relatórios de cada passo, na ordem de execução, seguidos da tabela de tempos.
+     */
+    public String relatorio() {
+        StringBuilder sb = new StringBuilder();
+        for (PassoOtimizacao passo : passos) {
+            sb.append(passo.relatorio());
+        }
+        sb.append(relatorioTempos());
+        return sb.toString();
+    }
+
+    /**
+     * Tabela com o tempo e as instruções antes e depois de cada passo da última execução.
+     */
+    public String relatorioTempos() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Tempos por passo\n");
+        sb.append(String.format("  %-20s %10s %10s %12s\n", "Passo", "Antes", "Depois", "Tempo (ms)"));
+        long total = 0;
+        for (Medicao medicao : medicoes) {
+            sb.append(String.format("  %-20s %10d %10d %12.3f\n", medicao.nome, medicao.instrucoesAntes,
+                    medicao.instrucoesDepois, medicao.nanos / 1_000_000.0));
+            total += medicao.nanos;
+        }
+        sb.append(String.format("  %-20s %10s %10s %12.3f\n", "Total", "", "", total / 1_000_000.0));
+        return sb.toString();
+    }
+}
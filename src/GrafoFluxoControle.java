@@ -0,0 +1,166 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Grafo de fluxo de controle do TAC: blocos básicos na ordem do código, ligados pelos saltos
+ * e pela passagem direta (fall-through) de um bloco para o seguinte.
+ * O bloco 0 é a entrada; um bloco sem sucessores termina o programa.
+ */
+public class GrafoFluxoControle {
+
+    private final List<BlocoBasico> blocos = new ArrayList<>();
+    private final Map<String, BlocoBasico> blocosPorRotulo = new HashMap<>();
+
+    private GrafoFluxoControle() {
+    }
+
+    /**
+     * Divide o código em blocos básicos e liga cada bloco aos seus sucessores.
+     * Líderes: a primeira instrução, todo LABEL e toda instrução que segue um salto.
+     */
+    public static GrafoFluxoControle construir(List<InstrucaoTAC> codigo) {
+        GrafoFluxoControle grafo = new GrafoFluxoControle();
+        BlocoBasico atual = null;
+        for (InstrucaoTAC instrucao : codigo) {
+            if (atual == null || instrucao.isLabel()) {
+                atual = grafo.novoBloco();
+            }
+            atual.instrucoes.add(instrucao);
+            if (instrucao.isLabel()) {
+                grafo.blocosPorRotulo.put(instrucao.operandos[0], atual);
+            }
+            if (instrucao.isSalto()) {
+                atual = null; // A próxima instrução abre um bloco novo
+            }
+        }
+        if (grafo.blocos.isEmpty()) {
+            grafo.novoBloco();
+        }
+
+        for (BlocoBasico bloco : grafo.blocos) {
+            InstrucaoTAC ultima = bloco.ultima();
+            if (ultima != null && ultima.isSalto()) {
+                BlocoBasico destino = grafo.blocosPorRotulo.get(ultima.destinoSalto());
+                if (destino == null) {
+                    throw new RuntimeException("Erro de Otimização: label '" + ultima.destinoSalto() + "' não definido.");
+                }
+                ligar(bloco, destino);
+            }
+            boolean passaAdiante = ultima == null || !ultima.isSaltoIncondicional();
+            if (passaAdiante && bloco.indice + 1 < grafo.blocos.size()) {
+                ligar(bloco, grafo.blocos.get(bloco.indice + 1));
+            }
+        }
+        return grafo;
+    }
+
+    private BlocoBasico novoBloco() {
+        BlocoBasico bloco = new BlocoBasico(blocos.size());
+        blocos.add(bloco);
+        return bloco;
+    }
+
+    private static void ligar(BlocoBasico origem, BlocoBasico destino) {
+        if (!origem.sucessores.contains(destino)) {
+            origem.sucessores.add(destino);
+            destino.predecessores.add(origem);
+        }
+    }
+
+    public List<BlocoBasico> getBlocos() {
+        return blocos;
+    }
+
+    public BlocoBasico getEntrada() {
+        return blocos.get(0);
+    }
+
+    public BlocoBasico bloco(String rotulo) {
+        return blocosPorRotulo.get(rotulo);
+    }
+
+    /**
+     * Marca os blocos alcançáveis a partir da entrada (busca em largura pelos sucessores).
+     */
+    public boolean[] alcancaveis() {
+        boolean[] alcancado = new boolean[blocos.size()];
+        ArrayDeque<BlocoBasico> fila = new ArrayDeque<>();
+        alcancado[0] = true;
+        fila.add(getEntrada());
+        while (!fila.isEmpty()) {
+            for (BlocoBasico sucessor : fila.poll().sucessores) {
+                if (!alcancado[sucessor.indice]) {
+                    alcancado[sucessor.indice] = true;
+                    fila.add(sucessor);
+                }
+            }
+        }
+        return alcancado;
+    }
+
+    /**
+     * Vivacidade de registradores: para cada bloco, os registradores lidos a partir da sua entrada
+     * antes de serem reescritos. Calculada de trás para frente até estabilizar; nenhum registrador
+     * está vivo no fim do programa.
+     */
+    public List<Set<String>> registradoresVivosNaEntrada() {
+        List<Set<String>> vivosNaEntrada = new ArrayList<>();
+        for (int i = 0; i < blocos.size(); i++) {
+            vivosNaEntrada.add(new HashSet<>());
+        }
+        boolean mudou = true;
+        while (mudou) {
+            mudou = false;
+            for (int i = blocos.size() - 1; i >= 0; i--) {
+                BlocoBasico bloco = blocos.get(i);
+                Set<String> vivos = registradoresVivosNaSaida(bloco, vivosNaEntrada);
+                for (int k = bloco.instrucoes.size() - 1; k >= 0; k--) {
+                    recuarVivos(bloco.instrucoes.get(k), vivos);
+                }
+                if (!vivos.equals(vivosNaEntrada.get(i))) {
+                    vivosNaEntrada.set(i, vivos);
+                    mudou = true;
+                }
+            }
+        }
+        return vivosNaEntrada;
+    }
+
+    /**
+     * Registradores vivos na saída do bloco: a união dos vivos na entrada dos sucessores.
+     */
+    public static Set<String> registradoresVivosNaSaida(BlocoBasico bloco, List<Set<String>> vivosNaEntrada) {
+        Set<String> vivos = new HashSet<>();
+        for (BlocoBasico sucessor : bloco.sucessores) {
+            vivos.addAll(vivosNaEntrada.get(sucessor.indice));
+        }
+        return vivos;
+    }
+
+    /**
+     * Transforma o conjunto de vivos depois da instrução no conjunto de vivos antes dela.
+     */
+    public static void recuarVivos(InstrucaoTAC instrucao, Set<String> vivos) {
+        String destino = instrucao.registradorDefinido();
+        if (destino != null) {
+            vivos.remove(destino);
+        }
+        vivos.addAll(instrucao.registradoresUsados());
+    }
+
+    /**
+     * Devolve o código dos blocos na ordem atual, concatenado.
+     */
+    public List<InstrucaoTAC> linearizar() {
+        List<InstrucaoTAC> codigo = new ArrayList<>();
+        for (BlocoBasico bloco : blocos) {
+            codigo.addAll(bloco.instrucoes);
+        }
+        return codigo;
+    }
+}
@@ -0,0 +1,311 @@
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Gravação das saídas da compilação (fase*.txt, erro.txt, .tac) em uma thread própria, enquanto a
+ * compilação segue para a fase seguinte. Quem grava codifica o texto em blocos de TAMANHO_BLOCO bytes
+ * e os entrega a uma fila; a thread de escrita os grava com um FileChannel por arquivo.
+ *
+ * - Ordem: há uma única thread de escrita e uma única fila, então os arquivos e os blocos de cada um
+ *   são gravados na ordem em que foram entregues.
+ * - Memória: existem no máximo BLOCOS blocos, reaproveitados depois de gravados. Com todos na fila, quem
+ *   grava espera o disco liberar um; esse tempo, e o da espera final em concluir(), é o tempo bloqueado
+ *   em I/O (getNanosBloqueado).
+ * - Conclusão: cada arquivo é sincronizado com o disco (FileChannel.force) antes de ser fechado, e
+ *   concluir() só retorna depois que todos foram. Uma falha de escrita descarta o que ainda estava na
+ *   fila e é lançada em todas as entregas seguintes, ou em concluir() se nenhuma entrega a lançou.
+ *
+ * Usado por uma única thread (a da compilação), além da thread de escrita.
+ */
+public class GravadorAssincrono implements AutoCloseable {
+
+    public static final int TAMANHO_BLOCO = 64 * 1024; // Bytes por bloco entregue à thread de escrita
+    public static final int BLOCOS = 32;                // Blocos em trânsito (2 MB)
+
+    private static final Pedido FIM = new Pedido(null, null, true); // Encerra a thread de escrita
+
+    private final CharsetEncoder codificador;
+    private final char[] caracteres = new char[TAMANHO_BLOCO];
+    private final BlockingQueue<ByteBuffer> livres = new ArrayBlockingQueue<>(BLOCOS);
+    private final BlockingQueue<Pedido> pedidos = new LinkedBlockingQueue<>();
+    private final Thread escritor;
+    private int criados;        // Blocos alocados até agora (no máximo BLOCOS)
+    private long bytes;         // Bytes entregues
+    private long nanosBloqueado;
+    private boolean concluido;
+    private volatile IOException falha; // Primeira falha da thread de escrita
+    private boolean falhaLancada;       // A falha já chegou a quem grava
+
+    // Um bloco a gravar no arquivo (ou nenhum) e se o arquivo termina com ele
+    private static final class Pedido {
+        final Arquivo arquivo;
+        final ByteBuffer bloco;
+        final boolean fim;
+
+        Pedido(Arquivo arquivo, ByteBuffer bloco, boolean fim) {
+            this.arquivo = arquivo;
+            this.bloco = bloco;
+            this.fim = fim;
+        }
+    }
+
+    /**
+     * Canal de um arquivo de saída: o que é escrito nele é copiado para blocos e entregue à thread de escrita.
+     * Fechá-lo entrega o último bloco; o arquivo só está completo no disco depois de concluir().
+     */
+    public final class Arquivo implements WritableByteChannel {
+        private final Path caminho;
+        private FileChannel canal; // Aberto e usado só pela thread de escrita
+        private ByteBuffer atual;  // Bloco sendo preenchido
+        private boolean aberto = true;
+
+        private Arquivo(Path caminho) {
+            this.caminho = caminho;
+        }
+
+        @Override
+        public int write(ByteBuffer origem) throws IOException {
+            if (!aberto) {
+                throw new ClosedChannelException();
+            }
+            int tamanho = origem.remaining();
+            while (origem.hasRemaining()) {
+                if (atual == null) {
+                    atual = bloco();
+                }
+                int parte = Math.min(atual.remaining(), origem.remaining());
+                atual.put(origem.slice().limit(parte));
+                origem.position(origem.position() + parte);
+                if (!atual.hasRemaining()) {
+                    entregar(this, false);
+                }
+            }
+            bytes += tamanho;
+            return tamanho;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return aberto;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (aberto) {
+                aberto = false;
+                entregar(this, true);
+            }
+        }
+    }
+
+    /**
+     * Gravador que codifica o texto com 'charset' (o de FileWriter é o Charset.defaultCharset()).
+     */
+    public GravadorAssincrono(Charset charset) {
+        codificador = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        escritor = new Thread(this::escrever, "gravador-saidas");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    /**
+     * Abre (ou recria) o arquivo para ser escrito em blocos.
+     */
+    public Arquivo abrir(Path caminho) throws IOException {
+        verificarFalha();
+        if (concluido) {
+            throw new IllegalStateException("Gravador já concluído.");
+        }
+        return new Arquivo(caminho);
+    }
+
+    /**
+     * Grava o texto inteiro no arquivo. Retorna assim que o último bloco é entregue.
+     */
+    public void gravar(Path caminho, String conteudo) throws IOException {
+        try (Arquivo arquivo = abrir(caminho)) {
+            codificador.reset();
+            int lidos = 0;
+            int pendentes = 0; // Caractere que ficou para o trecho seguinte (metade de um par surrogate)
+            while (true) {
+                int quantidade = Math.min(caracteres.length - pendentes, conteudo.length() - lidos);
+                conteudo.getChars(lidos, lidos + quantidade, caracteres, pendentes);
+                lidos += quantidade;
+                boolean fim = lidos == conteudo.length();
+                CharBuffer entrada = CharBuffer.wrap(caracteres, 0, pendentes + quantidade);
+                codificar(arquivo, entrada, fim);
+                pendentes = entrada.remaining();
+                System.arraycopy(caracteres, entrada.position(), caracteres, 0, pendentes);
+                if (fim) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Espera a gravação de tudo o que foi entregue e encerra a thread de escrita.
+     * @throws IOException com a primeira falha de escrita, se houve alguma e ainda não foi lançada.
+     */
+    public void concluir() throws IOException {
+        if (!concluido) {
+            concluido = true;
+            pedidos.add(FIM);
+            long inicio = System.nanoTime();
+            try {
+                escritor.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrompido esperando a gravação das saídas.");
+            } finally {
+                nanosBloqueado += System.nanoTime() - inicio;
+            }
+        }
+        if (!falhaLancada) {
+            verificarFalha();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        concluir();
+    }
+
+    /**
+     * Bytes entregues para gravação.
+     */
+    public long getBytesEscritos() {
+        return bytes;
+    }
+
+    /**
+     * Tempo que a compilação passou esperando o disco: por um bloco livre e em concluir().
+     */
+    public long getNanosBloqueado() {
+        return nanosBloqueado;
+    }
+
+    // Codifica a entrada nos blocos do arquivo; sem 'fim', pode sobrar na entrada metade de um par surrogate
+    private void codificar(Arquivo arquivo, CharBuffer entrada, boolean fim) throws IOException {
+        while (true) {
+            if (arquivo.atual == null) {
+                arquivo.atual = bloco();
+            }
+            int antes = arquivo.atual.position();
+            boolean cheio = codificador.encode(entrada, arquivo.atual, fim).isOverflow();
+            if (!cheio && fim) {
+                cheio = codificador.flush(arquivo.atual).isOverflow();
+            }
+            bytes += arquivo.atual.position() - antes;
+            if (!cheio) {
+                return;
+            }
+            entregar(arquivo, false);
+        }
+    }
+
+    // Um bloco livre: reaproveitado, novo (até BLOCOS) ou, com todos em trânsito, o próximo que for gravado
+    private ByteBuffer bloco() throws IOException {
+        ByteBuffer bloco = livres.poll();
+        if (bloco != null) {
+            return bloco;
+        }
+        if (criados < BLOCOS) {
+            criados++;
+            return ByteBuffer.allocate(TAMANHO_BLOCO);
+        }
+        long inicio = System.nanoTime();
+        try {
+            return livres.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrompido esperando a gravação das saídas.");
+        } finally {
+            nanosBloqueado += System.nanoTime() - inicio;
+        }
+    }
+
+    // Entrega o bloco atual do arquivo (se houver) à thread de escrita
+    private void entregar(Arquivo arquivo, boolean fim) throws IOException {
+        verificarFalha();
+        pedidos.add(new Pedido(arquivo, arquivo.atual, fim));
+        arquivo.atual = null;
+    }
+
+    private void verificarFalha() throws IOException {
+        IOException e = falha;
+        if (e != null) {
+            falhaLancada = true;
+            throw e;
+        }
+    }
+
+    // Laço da thread de escrita: grava os blocos na ordem da fila e devolve cada um aos livres
+    private void escrever() {
+        while (true) {
+            Pedido pedido;
+            try {
+                pedido = pedidos.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (pedido == FIM) {
+                return;
+            }
+            Arquivo arquivo = pedido.arquivo;
+            try {
+                if (falha == null) {
+                    if (arquivo.canal == null) {
+                        arquivo.canal = FileChannel.open(arquivo.caminho, StandardOpenOption.CREATE,
+                                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                    }
+                    if (pedido.bloco != null) {
+                        pedido.bloco.flip();
+                        while (pedido.bloco.hasRemaining()) {
+                            arquivo.canal.write(pedido.bloco);
+                        }
+                    }
+                    if (pedido.fim) {
+                        arquivo.canal.force(true);
+                        arquivo.canal.close();
+                    }
+                } else if (pedido.fim) {
+                    fecharSemFalha(arquivo.canal);
+                }
+            } catch (IOException e) {
+                falha = e;
+                fecharSemFalha(arquivo.canal);
+            } finally {
+                if (pedido.bloco != null) {
+                    pedido.bloco.clear();
+                    livres.add(pedido.bloco);
+                }
+            }
+        }
+    }
+
+    private static void fecharSemFalha(FileChannel canal) {
+        if (canal != null) {
+            try {
+                canal.close();
+            } catch (IOException e) {
+                // A falha original já foi registrada
+            }
+        }
+    }
+}
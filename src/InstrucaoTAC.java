@@ -0,0 +1,190 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Uma instrução do código de três endereços, separada em mnemônico e operandos.
+ * É a forma estruturada do texto produzido pelo GeradorCodigoIntermediario ("ADD R1, R1, R2"),
+ * usada pelos passos de otimização e pelo montador. Instâncias são imutáveis: reescrever uma
+ * instrução significa criar outra.
+ */
+public class InstrucaoTAC {
+
+    public final String op;          // Mnemônico (LOADI, LOAD, STORE, ADD, CMPLT, JMP, LABEL, SPILL, RELOAD...)
+    public final String[] operandos; // Operandos na ordem do texto
+
+    public InstrucaoTAC(String op, String... operandos) {
+        this.op = op;
+        this.operandos = operandos;
+    }
+
+    /**
+     * Separa uma linha de TAC em mnemônico e operandos.
+     */
+    public static InstrucaoTAC ler(String linha) {
+        String texto = linha.trim();
+        int espaco = texto.indexOf(' ');
+        if (espaco < 0) {
+            return new InstrucaoTAC(texto);
+        }
+        String[] operandos = texto.substring(espaco + 1).split(",");
+        for (int k = 0; k < operandos.length; k++) {
+            operandos[k] = operandos[k].trim();
+        }
+        return new InstrucaoTAC(texto.substring(0, espaco), operandos);
+    }
+
+    /**
+     * Converte a lista de linhas do gerador, ignorando linhas vazias.
+     */
+    public static List<InstrucaoTAC> lerTodas(List<String> codigo) {
+        List<InstrucaoTAC> instrucoes = new ArrayList<>(codigo.size());
+        for (String linha : codigo) {
+            if (!linha.trim().isEmpty()) {
+                instrucoes.add(ler(linha));
+            }
+        }
+        return instrucoes;
+    }
+
+    public static List<String> escreverTodas(List<InstrucaoTAC> instrucoes) {
+        List<String> codigo = new ArrayList<>(instrucoes.size());
+        for (InstrucaoTAC instrucao : instrucoes) {
+            codigo.add(instrucao.toString());
+        }
+        return codigo;
+    }
+
+    /**
+     * Quantidade de instruções executáveis (LABEL não conta: é só uma marca de posição).
+     */
+    public static int contarExecutaveis(List<InstrucaoTAC> instrucoes) {
+        int quantidade = 0;
+        for (InstrucaoTAC instrucao : instrucoes) {
+            if (!instrucao.isLabel()) {
+                quantidade++;
+            }
+        }
+        return quantidade;
+    }
+
+    // ---------------------------------------------------------
+    // Classificação
+    // ---------------------------------------------------------
+
+    public boolean isLabel() {
+        return op.equals("LABEL");
+    }
+
+    public boolean isSaltoIncondicional() {
+        return op.equals("JMP");
+    }
+
+    public boolean isSaltoCondicional() {
+        return op.equals("JMPTRUE") || op.equals("JMPFALSE");
+    }
+
+    public boolean isSalto() {
+        return isSaltoIncondicional() || isSaltoCondicional();
+    }
+
+    public boolean isComparacao() {
+        return op.startsWith("CMP");
+    }
+
+    public boolean isAritmetica() {
+        switch (op) {
+            case "ADD": case "ADDI": case "SUB": case "SUBI": case "MUL": case "DIV": case "MOD":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Forma de 2 operandos (ex: "ADDI R1, 1", "MUL R1, 2", "CMPLT R1, R2"): destino também é a primeira fonte.
+     */
+    public boolean isFormaCurta() {
+        return (isAritmetica() || isComparacao()) && operandos.length == 2;
+    }
+
+    /**
+     * Label de destino de um salto (null se não for salto).
+     */
+    public String destinoSalto() {
+        if (isSaltoIncondicional()) {
+            return operandos[0];
+        }
+        return isSaltoCondicional() ? operandos[1] : null;
+    }
+
+    /**
+     * Registrador escrito pela instrução (null se não escreve registrador).
+     */
+    public String registradorDefinido() {
+        if (op.equals("LOADI") || op.equals("LOAD") || op.equals("RELOAD") || isAritmetica() || isComparacao()) {
+            return operandos[0];
+        }
+        return null;
+    }
+
+    /**
+     * Registradores lidos pela instrução (imediatos e variáveis não entram).
+     */
+    public List<String> registradoresUsados() {
+        List<String> usados = new ArrayList<>(2);
+        if (op.equals("STORE") || op.equals("SPILL")) {
+            usados.add(operandos[1]);
+        } else if (isSaltoCondicional()) {
+            usados.add(operandos[0]);
+        } else if (isAritmetica() || isComparacao()) {
+            // 3 operandos: fontes nas posições 1 e 2; forma curta: o destino também é lido
+            for (int k = operandos.length == 2 ? 0 : 1; k < operandos.length; k++) {
+                if (!isNumero(operandos[k])) {
+                    usados.add(operandos[k]);
+                }
+            }
+        }
+        return usados;
+    }
+
+    /**
+     * Cria uma cópia com os registradores trocados: 'uso' é aplicado aos registradores lidos e, depois,
+     * 'definicao' ao registrador escrito. Nas formas de dois endereços (forma curta e CMPxx) o destino
+     * também é lido e recebe apenas 'uso', pois o mesmo operando precisa ter um único nome.
+     */
+    public InstrucaoTAC comRegistradores(UnaryOperator<String> uso, UnaryOperator<String> definicao) {
+        String[] novos = operandos.clone();
+        if (op.equals("STORE") || op.equals("SPILL")) {
+            novos[1] = uso.apply(operandos[1]);
+        } else if (isSaltoCondicional()) {
+            novos[0] = uso.apply(operandos[0]);
+        } else if (isAritmetica() || isComparacao()) {
+            for (int k = 1; k < operandos.length; k++) {
+                if (!isNumero(operandos[k])) {
+                    novos[k] = uso.apply(operandos[k]);
+                }
+            }
+            novos[0] = operandos.length == 2 ? uso.apply(operandos[0]) : definicao.apply(operandos[0]);
+        } else if (registradorDefinido() != null) {
+            novos[0] = definicao.apply(operandos[0]); // LOADI, LOAD, RELOAD
+        }
+        return new InstrucaoTAC(op, novos);
+    }
+
+    /**
+     * Verifica se o operando é um literal numérico (inteiro ou real, possivelmente negativo após dobras).
+     */
+    public static boolean isNumero(String s) {
+        if (s.isEmpty()) {
+            return false;
+        }
+        char c = s.charAt(0) == '-' && s.length() > 1 ? s.charAt(1) : s.charAt(0);
+        return Character.isDigit(c) || c == '.';
+    }
+
+    @Override
+    public String toString() {
+        return operandos.length == 0 ? op : op + " " + String.join(", ", operandos);
+    }
+}
@@ -0,0 +1,261 @@
+import java.util.Arrays;
+
+/**
+ * Execução direta da árvore sintática (ArvorePlana), sem geração de código: cada comando é
+ * interpretado percorrendo seus nós. Serve de referência para o CompiladorJVM, que executa o
+ * mesmo programa como bytecode, e para a comparação de desempenho entre os dois.
+ *
+ * Semântica: expressões avaliadas da esquerda para a direita (sem precedência), inteiros em long,
+ * reais em double, E/OR com curto-circuito. O limite de execução conta voltas de laços 'enquanto'.
+ */
+public class InterpretadorArvore {
+
+    // Sinaliza o fim do combustível; sem stack trace, pois é um desvio de controle e não um erro
+    private static final class LimiteAtingido extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        LimiteAtingido() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final int NAO_ORDENADO = Integer.MIN_VALUE; // Resultado de comparação envolvendo NaN
+
+    private final ArvorePlana arvore;
+    private final TabelaDeSimbolos tabela;
+    private final BufferDeTokens buffer;
+    private final long[] literais;  // Valor de cada folha numérica (bits do double para reais), por nó
+    private final boolean[] reais;  // Tipo de cada variável, por slot
+
+    private long[] memoria;
+    private long combustivel;
+
+    // Pilha de avaliarCondicao, reaproveitada entre as avaliações
+    private int[] logicosAbertos = new int[16];
+    private boolean[] negacoesAbertas = new boolean[16];
+
+    public InterpretadorArvore(ArvorePlana arvore, TabelaDeSimbolos tabela) {
+        this.arvore = arvore;
+        this.tabela = tabela;
+        this.buffer = arvore.getBuffer();
+
+        // Converte os literais numéricos uma única vez, em vez de a cada avaliação
+        this.literais = new long[arvore.tamanho()];
+        for (int no = 0; no < arvore.tamanho(); no++) {
+            if (arvore.tipoToken(no) == TipoToken.NUMERO) {
+                String texto = arvore.rotulo(no);
+                literais[no] = texto.indexOf('.') >= 0
+                        ? Double.doubleToRawLongBits(Double.parseDouble(texto))
+                        : Long.parseLong(texto);
+            }
+        }
+        this.reais = new boolean[tabela.tamanho()];
+        for (int i = 0; i < reais.length; i++) {
+            reais[i] = tabela.tipoNaOrdem(i) == TipoDado.REAL;
+        }
+    }
+
+    /**
+     * Executa o programa com todas as variáveis zeradas.
+     * @param limite Quantidade máxima de voltas de laço antes de interromper.
+     */
+    public ResultadoExecucao executar(long limite) {
+        memoria = new long[tabela.tamanho()];
+        combustivel = limite;
+        boolean limiteAtingido = false;
+        long inicio = System.nanoTime();
+        try {
+            for (int filho = arvore.primeiroFilho(arvore.getRaiz()); filho != ArvorePlana.NENHUM; filho = arvore.proximoIrmao(filho)) {
+                executarComando(filho);
+            }
+        } catch (LimiteAtingido e) {
+            limiteAtingido = true;
+        } catch (ArithmeticException e) {
+            throw new ErroExecucao("Erro de Execução: divisão inteira por zero.");
+        }
+        long nanos = System.nanoTime() - inicio;
+
+        String[] nomes = new String[tabela.tamanho()];
+        TipoDado[] tipos = new TipoDado[tabela.tamanho()];
+        for (int i = 0; i < nomes.length; i++) {
+            nomes[i] = tabela.nomeNaOrdem(i);
+            tipos[i] = tabela.tipoNaOrdem(i);
+        }
+        return new ResultadoExecucao(nomes, tipos, memoria, null, limiteAtingido, nanos);
+    }
+
+    private void executarComando(int no) {
+        switch (arvore.tipo(no)) {
+            case ATRIBUICAO:
+                executarAtribuicao(no);
+                break;
+            case CONDICIONAL: {
+                // Filhos: 'se', Condicao, 'entao', Comando ['senao', Comando]
+                int condicao = arvore.filho(no, 1);
+                int entao = arvore.proximoIrmao(arvore.proximoIrmao(condicao));
+                int senao = arvore.proximoIrmao(entao);
+                if (avaliarCondicao(condicao)) {
+                    executarComando(entao);
+                } else if (senao != ArvorePlana.NENHUM) {
+                    executarComando(arvore.proximoIrmao(senao));
+                }
+                break;
+            }
+            case ITERATIVO: {
+                // Filhos: 'enquanto', Condicao, Comando
+                int condicao = arvore.filho(no, 1);
+                int corpo = arvore.proximoIrmao(condicao);
+                while (avaliarCondicao(condicao)) {
+                    executarComando(corpo);
+                    if (--combustivel < 0) {
+                        throw new LimiteAtingido();
+                    }
+                }
+                break;
+            }
+            default:
+                // Declarações, '$', '$.' e comandos vazios não executam nada
+        }
+    }
+
+    // Filhos: ID, '=', Expressao, (Operador, Expressao)*
+    private void executarAtribuicao(int no) {
+        int variavel = arvore.primeiroFilho(no);
+        int slot = tabela.posicao(arvore.id(variavel));
+        int primeira = arvore.filho(no, 2);
+        memoria[slot] = reais[slot]
+                ? Double.doubleToRawLongBits(avaliarReal(primeira))
+                : avaliarInteiro(primeira);
+    }
+
+    private long avaliarInteiro(int expressao) {
+        long valor = termo(expressao);
+        for (int op = arvore.proximoIrmao(expressao); op != ArvorePlana.NENHUM; ) {
+            int proxima = arvore.proximoIrmao(op);
+            long operando = termo(proxima);
+            switch (arvore.tipoToken(op)) {
+                case OP_SOMA:  valor += operando; break;
+                case OP_MULT:  valor *= operando; break;
+                case OP_DIV:   valor /= operando; break;
+                default:       valor %= operando; break; // OP_RESTO
+            }
+            op = arvore.proximoIrmao(proxima);
+        }
+        return valor;
+    }
+
+    private double avaliarReal(int expressao) {
+        double valor = Double.longBitsToDouble(termo(expressao));
+        for (int op = arvore.proximoIrmao(expressao); op != ArvorePlana.NENHUM; ) {
+            int proxima = arvore.proximoIrmao(op);
+            double operando = Double.longBitsToDouble(termo(proxima));
+            switch (arvore.tipoToken(op)) {
+                case OP_SOMA:  valor += operando; break;
+                case OP_MULT:  valor *= operando; break;
+                case OP_DIV:   valor /= operando; break;
+                default:       valor %= operando; break; // OP_RESTO
+            }
+            op = arvore.proximoIrmao(proxima);
+        }
+        return valor;
+    }
+
+    // Valor da folha de um nó Expressao (a análise semântica garante que o termo é ID ou número)
+    private long termo(int expressao) {
+        int folha = arvore.primeiroFilho(expressao);
+        return valorFolha(folha);
+    }
+
+    private long valorFolha(int folha) {
+        return arvore.tipoToken(folha) == TipoToken.NUMERO
+                ? literais[folha]
+                : memoria[tabela.posicao(arvore.id(folha))];
+    }
+
+    /**
+     * Filhos: '(', (CondicaoSimples | Condicao | NOT Condicao), ')', [(E | OR), Condicao]
+     * Sem recursão: cada Condicao aberta deixa na pilha o seu operador lógico (ou NENHUM) e se a parte entre
+     * parênteses é negada. Quando o lado esquerdo não decide sozinho, a Condicao da direita toma o lugar da
+     * aberta (o valor dela é o da Condicao inteira), então cadeias de E/OR não fazem a pilha crescer.
+     */
+    private boolean avaliarCondicao(int condicao) {
+        int topo = 0;
+        int no = condicao;
+        while (true) {
+            // Desce pelas partes entre parênteses até uma comparação
+            int interno = arvore.proximoIrmao(arvore.primeiroFilho(no));
+            boolean negada = arvore.tipoToken(interno) == TipoToken.OP_BOOLEANO_NOT;
+            int alvo = negada ? arvore.proximoIrmao(interno) : interno;
+            if (topo == logicosAbertos.length) {
+                logicosAbertos = Arrays.copyOf(logicosAbertos, topo * 2);
+                negacoesAbertas = Arrays.copyOf(negacoesAbertas, topo * 2);
+            }
+            logicosAbertos[topo] = arvore.proximoIrmao(arvore.proximoIrmao(alvo)); // Depois do ')'
+            negacoesAbertas[topo] = negada;
+            topo++;
+            if (negada || arvore.tipo(alvo) == TipoNo.CONDICAO) {
+                no = alvo;
+                continue;
+            }
+
+            // Sobe fechando as Condicao abertas, até uma cujo lado direito precise ser avaliado
+            boolean valor = avaliarComparacao(alvo);
+            no = ArvorePlana.NENHUM;
+            while (topo > 0 && no == ArvorePlana.NENHUM) {
+                topo--;
+                if (negacoesAbertas[topo]) {
+                    valor = !valor;
+                }
+                int logico = logicosAbertos[topo];
+                if (logico != ArvorePlana.NENHUM
+                        && valor == (arvore.tipoToken(logico) == TipoToken.OP_BOOLEANO_E)) {
+                    no = arvore.proximoIrmao(logico);
+                }
+            }
+            if (no == ArvorePlana.NENHUM) {
+                return valor;
+            }
+        }
+    }
+
+    // Filhos: ID, operador relacional, (ID | número)
+    private boolean avaliarComparacao(int no) {
+        int termo1 = arvore.primeiroFilho(no);
+        int op = arvore.proximoIrmao(termo1);
+        int termo2 = arvore.proximoIrmao(op);
+        int comparacao;
+        if (reais[tabela.posicao(arvore.id(termo1))]) {
+            comparacao = compararReais(Double.longBitsToDouble(valorFolha(termo1)), Double.longBitsToDouble(valorFolha(termo2)));
+        } else {
+            comparacao = Long.compare(valorFolha(termo1), valorFolha(termo2));
+        }
+        if (comparacao == NAO_ORDENADO) {
+            return operadorRelacional(op) == '!';
+        }
+        switch (operadorRelacional(op)) {
+            case '=': return comparacao == 0;
+            case '!': return comparacao != 0;
+            case '<': return comparacao < 0;
+            case 'l': return comparacao <= 0;
+            case '>': return comparacao > 0;
+            default:  return comparacao >= 0; // 'g'
+        }
+    }
+
+    private static int compararReais(double a, double b) {
+        if (a < b) return -1;
+        if (a > b) return 1;
+        if (a == b) return 0;
+        return NAO_ORDENADO;
+    }
+
+    // Identifica o operador relacional pelo código fonte: '<', '>', '=' (==), '!' (!=), 'l' (<=), 'g' (>=)
+    private char operadorRelacional(int op) {
+        int token = arvore.token(op);
+        char c = buffer.caractere(token, 0);
+        if (buffer.comprimento(token) == 2 && (c == '<' || c == '>')) {
+            return c == '<' ? 'l' : 'g';
+        }
+        return c;
+    }
+}
@@ -0,0 +1,127 @@
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Executa o AnalisadorLexico em uma thread própria, entregando os tokens ao analisador sintático
+ * em lotes através de uma fila limitada. Assim a análise léxica e a sintática ocupam núcleos distintos.
+ *
+ * A troca de lotes (e não de tokens individuais) mantém a contenção na fila baixa: o lock da fila
+ * é adquirido uma vez a cada TAMANHO_LOTE tokens. A capacidade limitada impede que o léxico
+ * avance indefinidamente à frente do sintático em programas muito grandes.
+ *
+ * O resultado é idêntico ao modo sequencial: um erro léxico é relançado somente quando o
+ * sintático pede o token em que o erro ocorreu. Qualquer outra falha da thread do léxico (inclusive
+ * um Error, como OutOfMemoryError) também chega ao sintático no último lote e é relançada por ele.
+ */
+public class LexicoEmPipeline implements FonteDeTokens, AutoCloseable {
+
+    private static final int TAMANHO_LOTE = 512;   // Tokens por lote entregue ao consumidor
+    private static final int CAPACIDADE_FILA = 16; // Lotes máximos aguardando consumo
+
+    /**
+     * Unidade de transferência entre as threads: tokens já reconhecidos e,
+     * opcionalmente, o erro (léxico ou não) que interrompeu a produção logo após eles.
+     */
+    private static final class Lote {
+        final Token[] tokens;
+        final int tamanho;
+        final Throwable erro;
+
+        Lote(Token[] tokens, int tamanho, Throwable erro) {
+            this.tokens = tokens;
+            this.tamanho = tamanho;
+            this.erro = erro;
+        }
+    }
+
+    private final BlockingQueue<Lote> fila = new ArrayBlockingQueue<>(CAPACIDADE_FILA);
+    private final Thread produtor;
+
+    // Estado do consumidor (thread do analisador sintático)
+    private Lote loteAtual;
+    private int posicaoLote;
+    private Token tokenFinal; // Último token (EOF), devolvido indefinidamente após o fim
+
+    public LexicoEmPipeline(AnalisadorLexico lexico) {
+        this.produtor = new Thread(() -> produzir(lexico), "lexico-pipeline");
+        this.produtor.setDaemon(true);
+        this.produtor.start();
+    }
+
+    /**
+     * Laço da thread produtora: agrupa tokens em lotes até o EOF ou até um erro léxico.
+     */
+    private void produzir(AnalisadorLexico lexico) {
+        try {
+            while (true) {
+                Token[] tokens = null;
+                int tamanho = 0;
+                Throwable erro = null;
+                boolean fim = false;
+                try {
+                    tokens = new Token[TAMANHO_LOTE];
+                    while (tamanho < TAMANHO_LOTE) {
+                        Token t = lexico.proximoToken();
+                        tokens[tamanho++] = t;
+                        if (t.tipo == TipoToken.EOF) {
+                            fim = true;
+                            break;
+                        }
+                    }
+                } catch (Throwable e) {
+                    erro = e; // Sem o lote final, o sintático esperaria na fila para sempre
+                }
+                fila.put(new Lote(tokens, tamanho, erro));
+                if (fim || erro != null) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            // O consumidor desistiu (ex: erro sintático): encerra a produção silenciosamente
+        }
+    }
+
+    @Override
+    public Token proximoToken() {
+        while (loteAtual == null || posicaoLote >= loteAtual.tamanho) {
+            if (tokenFinal != null) {
+                return tokenFinal;
+            }
+            if (loteAtual != null && loteAtual.erro != null) {
+                relancar(loteAtual.erro);
+            }
+            try {
+                loteAtual = fila.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Análise léxica em pipeline interrompida.", e);
+            }
+            posicaoLote = 0;
+        }
+
+        Token t = loteAtual.tokens[posicaoLote++];
+        if (t.tipo == TipoToken.EOF) {
+            tokenFinal = t;
+        }
+        return t;
+    }
+
+    // Relança no consumidor a falha da thread produtora, sem alterar o seu tipo
+    private static void relancar(Throwable erro) {
+        if (erro instanceof RuntimeException) {
+            throw (RuntimeException) erro;
+        }
+        if (erro instanceof Error) {
+            throw (Error) erro;
+        }
+        throw new RuntimeException(erro);
+    }
+
+    /**
+     * Interrompe a thread produtora caso o consumo termine antes do fim do arquivo.
+     */
+    @Override
+    public void close() {
+        produtor.interrupt();
+    }
+}
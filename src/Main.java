@@ -1,8 +1,14 @@
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.io.StringWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
 import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
 
 /**
  * Classe principal que orquestra todo o processo de compilação.
@@ -11,161 +17,567 @@ import java.nio.file.*;
  * 2. Sintática
  * 3. Semântica
  * 4. Geração de Código
+ *
+ * Uso: java Main [--saida DIR] [--parar-apos FASE] [--listagens LISTA] [--arvore-compacta] [--silencioso] [--pausar] [--metricas]
+ *                [--pipeline] [--paralelo] [--otimizar] [--passos LISTA] [--registradores K] [--objeto] [--executar]
+ *                [--cache DIR [--cache-limite MB]] [arquivo]
+ *      java Main --lote [--saida DIR] [--threads N] [--cache DIR [--cache-limite MB]] [opções de compilação] <diretório|arquivos...>
+ *      java Main --fluxo [--saida DIR] <arquivo>
+ *      java Main --comparar-backends [--repeticoes N] <arquivo>
+ *      java Main --carregar [--listar] <arquivo.cmpo>
+ *      java Main --medir [--medidas LISTA] [--tamanhos LISTA] [--profundidades LISTA] [--aquecimento N] [--iteracoes N] [--tempo MS]
+ *      java Main --escala [--tamanhos 16K,1M,64M,...] [--csv ARQUIVO] [opções do GeradorProgramas]
+ *      java Main --servidor [--porta N | --socket CAMINHO] [--cache DIR [--cache-limite MB]]
+ *      java Main --cliente [--porta N | --socket CAMINHO] [--saida DIR] [opções de compilação] <arquivo>
+ *
+ * Sem modo, compila o arquivo (padrão: 'código.txt') passo a passo e grava as listagens das fases em --saida
+ * (padrão: diretório atual), além do código final em '<arquivo>.tac'. --parar-apos encerra depois da fase
+ * indicada (lexico, sintatico, semantico ou codigo); --listagens escolhe as listagens montadas (ex.: lexico,codigo,
+ * todas ou nenhuma); --silencioso não imprime o acompanhamento nem monta listagens, gravando só o código final;
+ * --pausar pausa 5 segundos entre as fases. O código de saída é 1 se houve erro de compilação.
+ * As saídas são gravadas em segundo plano (GravadorAssincrono) enquanto as fases seguintes rodam.
+ * fase2_sintatico.txt é gravado em blocos enquanto a árvore é percorrida (EscritorArvore); --arvore-compacta
+ * troca o desenho por uma linha por nó (nível, rótulo e linha, separados por tabulação), para ferramentas.
+ * A análise não para no primeiro erro: erro.txt lista todos os erros sintáticos (ou, se não houver,
+ * todos os semânticos) encontrados na mesma execução.
+ * A opção --pipeline executa o analisador léxico em uma thread separada do sintático.
+ * A opção --paralelo divide a semântica e a geração de código entre tarefas fork-join, um trecho de comandos
+ * externos por tarefa (FasesParalelas); as saídas são as mesmas da execução sequencial. Sem efeito com --pipeline.
+ * A opção --otimizar dobra e propaga constantes e simplifica os saltos do TAC (fase4_otimizado.txt);
+ * a execução usa o código otimizado. A opção --passos escolhe e ordena os passos da otimização
+ * (constantes, saltos, ssa, registradores=K; padrão: constantes,saltos) e mede o tempo de cada um.
+ * A opção --registradores K aloca os temporários do TAC em K registradores físicos (fase4_registradores.txt).
+ * A opção --objeto grava o programa montado no formato binário (programa.cmpo).
+ * A opção --executar roda o código gerado na máquina virtual (Fase 5: fase5_execucao.txt).
+ * A opção --metricas grava 'metricas.json' com a duração de cada fase, os tokens, nós, símbolos, instruções e
+ * bytes produzidos e o tempo de espera pela gravação das saídas (ver MetricasCompilacao); no lote, um por
+ * arquivo. As mesmas medidas são publicadas como eventos JFR 'compilador.Fase' e 'compilador.Compilacao'
+ * quando há uma gravação ativa, por exemplo:
+ *   java -XX:StartFlightRecording=filename=compilacao.jfr Main ...  e depois  jfr print --events compilador.Fase compilacao.jfr
+ * A opção --cache DIR guarda as fases 1-4 de cada fonte em disco (CacheCompilacao), também no modo em lote:
+ * um arquivo que não mudou desde a última compilação não passa por nenhuma fase.
+ * O modo --fluxo compila em uma única passada e em memória constante (CompiladorEmFluxo): cada comando é
+ * analisado, verificado, gerado e gravado em '<arquivo>.tac' antes do próximo; só grava fase3_semantico.txt.
+ * O modo --carregar mapeia um arquivo .cmpo e o executa sem recompilar; --listar descreve o arquivo antes.
+ * O modo --comparar-backends compila o programa para bytecode JVM e compara com a interpretação da árvore.
+ * O modo --medir mede a vazão e a alocação de cada fase (lexico, sintatico, semantico, codigo, completo)
+ * sobre programas gerados com o tamanho e a profundidade de aninhamento indicados (ver MedidorDesempenho).
+ * O modo --escala compila programas gerados de tamanhos crescentes e grafa o tempo e o pico de heap de cada
+ * fase, para evidenciar comportamento superlinear (ver MedidorEscala e GeradorProgramas).
+ * O modo --servidor mantém o compilador residente em um socket local (JIT aquecido entre as compilações);
+ * o modo --cliente envia um arquivo a ele e grava as saídas das fases em --saida (ver ClienteCompilacao).
  */
 public class Main {
+    private static boolean pausas;     // --pausar: pausa de 5 segundos entre as fases, para acompanhar o fluxo
+    private static boolean silencioso; // --silencioso: sem mensagens de acompanhamento nem listagens das fases
+    private static MetricasCompilacao metricas; // Métricas da compilação (null sem --metricas e sem gravação JFR)
+    private static GravadorAssincrono gravador; // Grava as saídas em segundo plano enquanto as fases seguintes rodam
+
     public static void main(String[] args) throws IOException {
 
-        // Leitura do arquivo de entrada contendo o código fonte
-        String codigo = Files.readString(Path.of("código.txt"));
+        if (args.length > 0 && args[0].equals("--lote")) {
+            executarLote(Arrays.asList(args).subList(1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--fluxo")) {
+            if (!compilarEmFluxo(Arrays.asList(args).subList(1, args.length))) {
+                System.exit(1);
+            }
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--comparar-backends")) {
+            compararBackends(Arrays.asList(args).subList(1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--carregar")) {
+            carregarObjeto(Arrays.asList(args).subList(1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--medir")) {
+            MedidorDesempenho.principal(Arrays.asList(args).subList(1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--escala")) {
+            MedidorEscala.principal(Arrays.asList(args).subList(1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--servidor")) {
+            ServidorCompilacao.principal(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--cliente")) {
+            int situacao = ClienteCompilacao.principal(Arrays.copyOfRange(args, 1, args.length));
+            if (situacao != 0) {
+                System.exit(situacao);
+            }
+            return;
+        }
 
+        OpcoesCompilacao opcoes = new OpcoesCompilacao();
+        Path entrada = null;
+        Path saida = Path.of(".");
+        List<String> argumentos = Arrays.asList(args);
         try {
-            // ---------------------------------------------------------
-            // Fase 1: Análise Léxica
-            // Transforma o texto bruto em uma sequência de tokens.
-            // ---------------------------------------------------------
-            System.out.println("Iniciando Fase 1: Léxica...");
-
-            // Instância usada para passar ao sintático
-            AnalisadorLexico lexico = new AnalisadorLexico(codigo);
-            // Instância separada apenas para impressão/debug, para não consumir os tokens da principal
-            AnalisadorLexico lexicoParaImpressao = new AnalisadorLexico(codigo);
-
-            StringBuilder saidaLexica = new StringBuilder();
-            saidaLexica.append("--- Fase 1: Análise Léxica (Lista de Tokens) ---\n");
-            Token t;
-            // Itera sobre todos os tokens até encontrar o fim do arquivo (EOF)
-            while((t = lexicoParaImpressao.proximoToken()).tipo != TipoToken.EOF) {
-                saidaLexica.append(t.toString()).append("\n");
-            }
-            saidaLexica.append("-------------------------------------------------\n");
-            escreverArquivo("fase1_lexico.txt", saidaLexica.toString());
-            System.out.println("Fase 1 concluída. Saída em fase1_lexico.txt");
-
-            pausar(); // Pausa para visualização do fluxo
-
-            // ---------------------------------------------------------
-            // Fase 2: Análise Sintática
-            // Verifica a estrutura gramatical e constrói a Árvore Sintática.
-            // ---------------------------------------------------------
-            System.out.println("Iniciando Fase 2: Sintática...");
-            AnalisadorSintatico sintatico = new AnalisadorSintatico(lexico);
-
-            // Inicia a análise a partir da regra inicial 'programa'
-            NoArvore arvoreSintatica = sintatico.programa();
-
-            StringBuilder saidaSintatica = new StringBuilder();
-            saidaSintatica.append("--- Fase 2: Análise Sintática (Arvore) ---\n");
-            // Gera a representação visual da árvore para o arquivo de saída
-            construirStringArvore(arvoreSintatica, "", true, saidaSintatica);
-            saidaSintatica.append("Análise sintática concluída com sucesso!\n");
-            saidaSintatica.append("-------------------------------------------------\n");
-            escreverArquivo("fase2_sintatico.txt", saidaSintatica.toString());
-            System.out.println("Fase 2 concluída. Saída em fase2_sintatico.txt");
-
-            pausar();
-
-            // ---------------------------------------------------------
-            // Fase 3: Análise Semântica
-            // Verifica regras de contexto, como tipos de variáveis e declarações.
-            // ---------------------------------------------------------
-            System.out.println("Iniciando Fase 3: Semântica...");
-            // Recupera a tabela preenchida durante a fase sintática
-            TabelaDeSimbolos tabela = sintatico.getTabelaDeSimbolos();
-            AnalisadorSemantico semantico = new AnalisadorSemantico(tabela);
-
-            // Percorre a árvore sintática validando as regras semânticas
-            semantico.analisar(arvoreSintatica);
-
-            StringBuilder saidaSemantica = new StringBuilder();
-            saidaSemantica.append("--- Fase 3: Análise Semântica (Tabela Símbolos) ---\n");
-            saidaSemantica.append(tabela.toString());
-            saidaSemantica.append("Análise semântica concluída com sucesso!\n");
-            saidaSemantica.append("-------------------------------------------------\n");
-            escreverArquivo("fase3_semantico.txt", saidaSemantica.toString());
-            System.out.println("Fase 3 concluída. Saída em fase3_semantico.txt");
-
-            pausar();
-
-            // ---------------------------------------------------------
-            // Fase 4: Geração de Código Intermediário
-            // Converte a árvore sintática em instruções de baixo nível (TAC).
-            // ---------------------------------------------------------
-            System.out.println("Iniciando Fase 4: Geração de Código...");
-            GeradorCodigoIntermediario gerador = new GeradorCodigoIntermediario();
-            gerador.gerar(arvoreSintatica);
-
-            StringBuilder saidaCodigo = new StringBuilder();
-            saidaCodigo.append("--- Fase 4: Código Intermediário (TAC) ---\n");
-            for (String instrucao : gerador.getCodigo()) {
-                saidaCodigo.append(instrucao).append("\n");
-            }
-            saidaCodigo.append("Geração de código concluída com sucesso!\n");
-            saidaCodigo.append("-------------------------------------------------\n");
-            escreverArquivo("fase4_codigo.txt", saidaCodigo.toString());
-            System.out.println("Fase 4 concluída. Saída em fase4_codigo.txt");
+            for (int i = 0; i < argumentos.size(); i++) {
+                String arg = argumentos.get(i);
+                if (arg.equals("--saida") && i + 1 < argumentos.size()) {
+                    saida = Path.of(argumentos.get(++i));
+                } else if (arg.equals("--pausar")) {
+                    pausas = true;
+                } else if (arg.equals("--silencioso")) {
+                    silencioso = true;
+                    opcoes.listagens = EnumSet.noneOf(OpcoesCompilacao.Fase.class); // Uma --listagens posterior prevalece
+                } else {
+                    int consumidos = opcoes.reconhecer(argumentos, i);
+                    if (consumidos > 0) {
+                        i += consumidos - 1;
+                    } else if (arg.startsWith("--")) {
+                        throw new IllegalArgumentException("Opção desconhecida: " + arg);
+                    } else {
+                        entrada = Path.of(arg);
+                    }
+                }
+            }
+            if (entrada == null) {
+                // Só agora: o nome padrão não tem representação em locales sem acentos (ex: LC_ALL=C)
+                entrada = Path.of("código.txt");
+            }
+            opcoes.validar();
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        }
 
-        } catch (RuntimeException e) {
-            // Tratamento centralizado de erros de compilação (Léxico, Sintático, Semântico)
-            System.err.println("\n--- ERRO ---");
-            System.err.println("Erro detectado: " + e.getMessage());
-            System.err.println("Verifique 'erro.txt' para detalhes.");
+        if (!compilarArquivo(entrada, saida, opcoes)) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Compila um arquivo pelo Compilador, gravando em 'saida' a listagem de cada fase à medida que termina.
+     * Só são montadas as listagens pedidas (--listagens, --silencioso) e a compilação termina na fase
+     * indicada por --parar-apos. O código final é gravado em '<entrada>.tac' quando chega à Fase 4; as
+     * listagens da otimização e da alocação seguem a seleção da fase codigo.
+     * As listagens são entregues ao GravadorAssincrono (ver acompanhar) enquanto a compilação segue; o que
+     * resta no resultado (erro.txt, programa.cmpo) é gravado ao fim, como no modo em lote. Ao fim, tudo está
+     * no disco (com fsync) antes de metricas.json, que informa o tempo de espera pelo disco.
+     * Com --cache, um fonte que não mudou desde a última compilação não passa por nenhuma das fases 1-4.
+     * @return Verdadeiro se não houve erro de compilação nem falha ao gravar as saídas.
+     */
+    private static boolean compilarArquivo(Path entrada, Path saida, OpcoesCompilacao opcoes) throws IOException {
+        String codigo = Files.readString(entrada);
+        Files.createDirectories(saida);
+        gravador = new GravadorAssincrono(Charset.defaultCharset());
+        boolean sucesso = false;
+        try {
+            if (opcoes.diretorioCache != null) {
+                informar("Compilando com o cache em " + opcoes.diretorioCache + "...");
+            }
+            ResultadoCompilacao resultado = Compilador.compilar(codigo, opcoes, entrada.toString(), acompanhar(saida, opcoes));
+            metricas = resultado.metricas;
+            if (resultado.codigoIntermediario != null) {
+                escreverCodigoFinal(entrada, saida, resultado.codigoIntermediario);
+            }
+            long bytes = resultado.gravar(saida, opcoes.objeto, gravador);
+            if (metricas != null) {
+                metricas.bytesEscritos += bytes;
+            }
+            if (opcoes.objeto && resultado.programa != null) {
+                informar("Programa montado gravado em " + saida.resolve("programa" + ArquivoObjeto.EXTENSAO));
+            }
+            if (opcoes.cache() != null && !silencioso) {
+                System.out.print(opcoes.cache().relatorio());
+            }
+            if (!resultado.sucesso()) {
+                relatarErro(resultado.erro, saida.resolve("erro.txt"));
+            }
+            sucesso = resultado.sucesso();
+        } catch (IOException | UncheckedIOException e) {
+            Throwable causa = e instanceof UncheckedIOException ? e.getCause() : e;
+            System.err.println("Erro fatal de I/O ao escrever arquivo de saída: " + causa.getMessage());
+            causa.printStackTrace();
+        } finally {
+            sucesso &= concluirGravacao();
+            gravarMetricas(saida, opcoes);
+        }
+        return sucesso;
+    }
+
+    /**
+     * Acompanhamento da compilação de um arquivo: avisa o início e o fim de cada etapa (com as pausas de
+     * --pausar entre as fases) e entrega as listagens ao gravador assim que cada etapa termina.
+     */
+    private static SaidaFases acompanhar(Path saida, OpcoesCompilacao opcoes) {
+        return new SaidaFases() {
+            @Override
+            public void iniciar(String etapa) {
+                switch (etapa) {
+                    case "lexico": informar("Iniciando Fase 1: Léxica..."); break;
+                    case "sintatico": pausar(); informar("Iniciando Fase 2: Sintática..."); break;
+                    case "semantico": pausar(); informar("Iniciando Fase 3: Semântica..."); break;
+                    case "codigo": pausar(); informar("Iniciando Fase 4: Geração de Código..."); break;
+                    case "execucao": pausar(); informar("Iniciando Fase 5: Execução..."); break;
+                    default: break;
+                }
+            }
 
-            try {
-                StringBuilder erroBuilder = new StringBuilder();
-                erroBuilder.append("--- ERRO DE COMPILAÇÃO ---\n");
-                erroBuilder.append(e.getMessage()).append("\n\n");
-                erroBuilder.append("--- Stack Trace ---\n");
-                StringWriter sw = new StringWriter();
-                e.printStackTrace(new PrintWriter(sw));
-                erroBuilder.append(sw.toString());
+            @Override
+            public void concluir(String etapa) {
+                boolean codigo = opcoes.lista(OpcoesCompilacao.Fase.CODIGO);
+                switch (etapa) {
+                    case "lexico":
+                        informarFase(1, opcoes.lista(OpcoesCompilacao.Fase.LEXICO), saida.resolve("fase1_lexico.txt"));
+                        break;
+                    case "sintatico":
+                        informar("Análise sintática concluída com sucesso!");
+                        informarFase(2, opcoes.lista(OpcoesCompilacao.Fase.SINTATICO), saida.resolve("fase2_sintatico.txt"));
+                        break;
+                    case "semantico":
+                        informarFase(3, opcoes.lista(OpcoesCompilacao.Fase.SEMANTICO), saida.resolve("fase3_semantico.txt"));
+                        break;
+                    case "codigo":
+                        informarFase(4, codigo, saida.resolve("fase4_codigo.txt"));
+                        break;
+                    case "otimizacao":
+                        informar("Otimização concluída." + (codigo ? " Saída em " + saida.resolve("fase4_otimizado.txt") : ""));
+                        break;
+                    case "registradores":
+                        informar("Alocação de registradores concluída."
+                                + (codigo ? " Saída em " + saida.resolve("fase4_registradores.txt") : ""));
+                        break;
+                    case "execucao":
+                        informar("Fase 5 concluída. Saída em " + saida.resolve("fase5_execucao.txt"));
+                        break;
+                    default:
+                        break;
+                }
+            }
 
-                escreverArquivo("erro.txt", erroBuilder.toString());
-            } catch (IOException ioEx) {
-                System.err.println("Erro CRÍTICO: Não foi possível escrever o arquivo de erro.");
-                ioEx.printStackTrace();
+            @Override
+            public void gravar(String arquivo, String conteudo) throws IOException {
+                escreverArquivo(saida.resolve(arquivo), conteudo);
             }
 
+            @Override
+            public WritableByteChannel abrir(String arquivo) throws IOException {
+                return gravador.abrir(saida.resolve(arquivo));
+            }
+        };
+    }
+
+    // Imprime os erros de erro.txt (as linhas da mensagem, entre o cabeçalho e a primeira linha em branco)
+    private static void relatarErro(String erro, Path arquivo) {
+        if (!silencioso) {
+            System.err.println("\n--- ERRO ---");
+        }
+        String[] linhas = erro.split("\n");
+        for (int i = 1; i < linhas.length && !linhas[i].isEmpty(); i++) {
+            System.err.println("Erro detectado: " + linhas[i]);
+        }
+        if (!silencioso) {
+            System.err.println("Verifique '" + arquivo + "' para detalhes.");
+        }
+    }
+
+    // Espera o gravador terminar e registra nas métricas o que foi gravado e a espera; falso se a gravação falhou
+    private static boolean concluirGravacao() {
+        try {
+            gravador.concluir();
+            return true;
         } catch (IOException e) {
             System.err.println("Erro fatal de I/O ao escrever arquivo de saída: " + e.getMessage());
             e.printStackTrace();
+            return false;
+        } finally {
+            if (metricas != null) {
+                metricas.bytesEscritos += gravador.getBytesEscritos();
+                metricas.nanosEsperaEscrita = gravador.getNanosBloqueado();
+            }
+            gravador = null;
+        }
+    }
+
+    // Grava metricas.json (apenas com --metricas)
+    private static void gravarMetricas(Path saida, OpcoesCompilacao opcoes) throws IOException {
+        if (metricas == null) {
+            return;
+        }
+        if (opcoes.metricas) {
+            Files.writeString(saida.resolve(MetricasCompilacao.ARQUIVO), metricas.paraJson());
+            informar("Métricas gravadas em " + saida.resolve(MetricasCompilacao.ARQUIVO));
         }
     }
 
     /**
-     * Método auxiliar recursivo para formatar a impressão da Árvore Sintática.
-     * @param no O nó atual sendo processado.
-     * @param prefixo A string de indentação acumulada.
-     * @param isUltimo Indica se é o último filho, alterando o caractere de desenho (└ vs ├).
-     * @param sb StringBuilder onde a árvore será montada.
+     * Modo em lote: compila todos os arquivos indicados em paralelo e imprime o resumo.
+     * Opções: --saida DIR (padrão 'saida_lote'), --threads N (padrão: número de núcleos) e as de compilação
+     * (--pipeline, --paralelo, --otimizar, --passos LISTA, --registradores K, --objeto, --executar, --parar-apos FASE,
+     * --listagens LISTA, --arvore-compacta, --metricas, --cache DIR, --cache-limite MB).
+     * Sai com 2 diante de uma opção desconhecida e com 1 se nenhum fonte foi informado ou algum arquivo teve erro.
      */
-    public static void construirStringArvore(NoArvore no, String prefixo, boolean isUltimo, StringBuilder sb) {
-        if (no == null) return;
+    private static void executarLote(List<String> args) throws IOException {
+        Path diretorioSaida = Path.of("saida_lote");
+        int threads = Runtime.getRuntime().availableProcessors();
+        OpcoesCompilacao opcoes = new OpcoesCompilacao();
+        List<String> entradas = new ArrayList<>();
 
-        sb.append(prefixo)
-                .append(isUltimo ? "└── " : "├── ")
-                .append(no.valor)
-                .append(" (L")
-                .append(no.linha)
-                .append(")\n");
+        try {
+            for (int i = 0; i < args.size(); i++) {
+                String arg = args.get(i);
+                if (arg.equals("--saida") && i + 1 < args.size()) {
+                    diretorioSaida = Path.of(args.get(++i));
+                } else if (arg.equals("--threads") && i + 1 < args.size()) {
+                    threads = quantidadeThreads(args.get(++i));
+                } else {
+                    int consumidos = opcoes.reconhecer(args, i);
+                    if (consumidos > 0) {
+                        i += consumidos - 1;
+                    } else if (arg.startsWith("--")) {
+                        throw new IllegalArgumentException("Opção desconhecida: " + arg);
+                    } else {
+                        entradas.add(arg);
+                    }
+                }
+            }
+            opcoes.validar();
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        }
 
-        String prefixoFilho = prefixo + (isUltimo ? "    " : "│   ");
+        List<Path> fontes = CompiladorEmLote.coletarFontes(entradas);
+        if (fontes.isEmpty()) {
+            System.err.println("Nenhum arquivo fonte informado para o modo em lote.");
+            System.exit(1);
+        }
+        System.out.println("Compilando " + fontes.size() + " arquivo(s) com " + threads + " thread(s)...");
+        CompiladorEmLote lote = new CompiladorEmLote(diretorioSaida, threads, opcoes);
+        String resumo = lote.compilar(fontes);
+        System.out.print(resumo);
+        System.out.println("Saídas por arquivo em " + diretorioSaida);
+        if (lote.getFalhas() > 0) {
+            System.exit(1);
+        }
+    }
 
-        for (int i = 0; i < no.filhos.size(); i++) {
-            NoArvore filho = no.filhos.get(i);
-            boolean ultimoFilho = (i == no.filhos.size() - 1);
-            construirStringArvore(filho, prefixoFilho, ultimoFilho, sb);
+    private static int quantidadeThreads(String valor) {
+        try {
+            int threads = Integer.parseInt(valor);
+            if (threads > 0) {
+                return threads;
+            }
+        } catch (NumberFormatException e) {
+            // Relatado abaixo
         }
+        throw new IllegalArgumentException("A opção --threads exige a quantidade de threads (pelo menos 1): " + valor);
     }
 
-    // Escreve o conteúdo em um arquivo físico no disco
-    private static void escreverArquivo(String nomeArquivo, String conteudo) throws IOException {
-        try (PrintWriter out = new PrintWriter(new FileWriter(nomeArquivo))) {
-            out.print(conteudo);
+    /**
+     * Modo em fluxo: compila o arquivo comando a comando (CompiladorEmFluxo), gravando o TAC em
+     * '<arquivo>.tac' à medida que é gerado, e a tabela de símbolos em fase3_semantico.txt.
+     * Com erro, grava erro.txt e apaga o TAC incompleto.
+     * @return Verdadeiro se não houve erro de compilação.
+     */
+    private static boolean compilarEmFluxo(List<String> args) throws IOException {
+        Path saida = Path.of(".");
+        Path entrada = null;
+        for (int i = 0; i < args.size(); i++) {
+            if (args.get(i).equals("--saida") && i + 1 < args.size()) {
+                saida = Path.of(args.get(++i));
+            } else if (args.get(i).startsWith("--")) {
+                System.err.println("Opção desconhecida: " + args.get(i)); // Como no modo de um arquivo
+                System.exit(2);
+            } else {
+                entrada = Path.of(args.get(i));
+            }
+        }
+        if (entrada == null) {
+            System.err.println("Informe o arquivo fonte para a compilação em fluxo.");
+            return false;
         }
+        Files.createDirectories(saida);
+        String nome = entrada.getFileName().toString();
+        int ponto = nome.lastIndexOf('.');
+        Path tac = saida.resolve((ponto > 0 ? nome.substring(0, ponto) : nome) + ".tac");
+
+        CompiladorEmFluxo compilador = new CompiladorEmFluxo();
+        long inicio = System.nanoTime();
+        gravador = new GravadorAssincrono(Charset.defaultCharset());
+        try {
+            try (Reader leitor = Files.newBufferedReader(entrada);
+                 Writer escritor = Files.newBufferedWriter(tac)) {
+                compilador.compilar(leitor, escritor);
+            } catch (ErroCompilacao e) {
+                Files.deleteIfExists(tac);
+                for (Diagnostico diagnostico : e.getDiagnosticos()) {
+                    System.err.println("Erro detectado: " + diagnostico.mensagem);
+                }
+                escreverArquivo(saida.resolve("erro.txt"), Compilador.formatarErro(e));
+                return false;
+            }
+            escreverArquivo(saida.resolve("fase3_semantico.txt"), Compilador.formatarTabela(compilador.getTabela()));
+        } finally {
+            gravador.concluir();
+            gravador = null;
+        }
+        System.out.printf("Compilação em fluxo concluída em %.1f ms: %s.%n", (System.nanoTime() - inicio) / 1e6, compilador.resumo());
+        System.out.println("Código final gravado em " + tac);
+        return true;
     }
 
-    // Realiza uma pausa na execução para facilitar o acompanhamento visual
+    /**
+     * Modo de comparação de backends: analisa o arquivo, compila a árvore para bytecode JVM (classe oculta)
+     * e mede a execução repetida contra o interpretador de árvore. Opção: --repeticoes N (padrão 20).
+     * Erros de compilação ou de execução são relatados como nos demais modos. Sai com 2 diante de uma opção
+     * inválida e com 1 se não houve arquivo, se houve erro ou se os dois backends chegaram a valores diferentes.
+     */
+    private static void compararBackends(List<String> args) {
+        int repeticoes = 20;
+        String arquivo = null;
+        try {
+            for (int i = 0; i < args.size(); i++) {
+                String arg = args.get(i);
+                if (arg.equals("--repeticoes") && i + 1 < args.size()) {
+                    repeticoes = quantidadeRepeticoes(args.get(++i));
+                } else if (arg.startsWith("--")) {
+                    throw new IllegalArgumentException("Opção desconhecida: " + arg);
+                } else {
+                    arquivo = arg;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        }
+        if (arquivo == null) {
+            System.err.println("Informe o arquivo fonte para a comparação de backends.");
+            System.exit(1);
+        }
+
+        StringBuilder relatorio = new StringBuilder();
+        boolean identicos;
+        try {
+            String codigo = Files.readString(Path.of(arquivo));
+            BufferDeTokens buffer = new AnalisadorLexico(codigo).tokenizar();
+            AnalisadorSintatico sintatico = new AnalisadorSintatico(buffer);
+            ArvorePlana arvore = sintatico.programaPlano();
+            TabelaDeSimbolos tabela = sintatico.getTabelaDeSimbolos();
+            new AnalisadorSemantico(tabela).analisar(arvore);
+
+            identicos = CompiladorJVM.compararComArvore(arvore, tabela, repeticoes, CompiladorJVM.LIMITE_PADRAO, relatorio);
+        } catch (ErroCompilacao e) {
+            for (Diagnostico diagnostico : e.getDiagnosticos()) {
+                System.err.println("Erro detectado: " + diagnostico.mensagem);
+            }
+            System.exit(1);
+            return;
+        } catch (IOException e) {
+            System.err.println("Erro de I/O: falha ao ler " + arquivo + ": " + e);
+            System.exit(1);
+            return;
+        } catch (RuntimeException | LinkageError e) {
+            // Erros de execução (ex: divisão por zero) e falhas ao carregar ou verificar a classe gerada
+            System.err.println("Erro detectado: " + e.getMessage());
+            System.exit(1);
+            return;
+        } catch (StackOverflowError e) {
+            System.err.println("Erro detectado: programa aninhado demais para a comparação de backends.");
+            System.exit(1);
+            return;
+        }
+        System.out.print(relatorio);
+        if (!identicos) {
+            System.err.println("Os backends chegaram a resultados diferentes.");
+            System.exit(1);
+        }
+    }
+
+    private static int quantidadeRepeticoes(String valor) {
+        try {
+            int repeticoes = Integer.parseInt(valor);
+            if (repeticoes > 0) {
+                return repeticoes;
+            }
+        } catch (NumberFormatException e) {
+            // Relatado abaixo
+        }
+        throw new IllegalArgumentException("A opção --repeticoes exige a quantidade de repetições (pelo menos 1): " + valor);
+    }
+
+    /**
+     * Modo de carga: mapeia o arquivo objeto (ArquivoObjeto), opcionalmente o descreve (--listar)
+     * e executa o programa na máquina virtual, imprimindo o relatório da Fase 5.
+     * Sai com 2 diante de uma opção desconhecida e com 1 se não houve arquivo ou se a carga ou a execução falhou.
+     */
+    private static void carregarObjeto(List<String> args) {
+        boolean listar = false;
+        String arquivo = null;
+        for (String arg : args) {
+            if (arg.equals("--listar")) {
+                listar = true;
+            } else if (arg.startsWith("--")) {
+                System.err.println("Opção desconhecida: " + arg);
+                System.exit(2);
+            } else {
+                arquivo = arg;
+            }
+        }
+        if (arquivo == null) {
+            System.err.println("Informe o arquivo objeto (.cmpo) a carregar.");
+            System.exit(1);
+        }
+
+        try {
+            ArquivoObjeto objeto = ArquivoObjeto.carregar(Path.of(arquivo));
+            if (listar) {
+                System.out.print(objeto.descrever());
+            }
+            ResultadoExecucao execucao = new MaquinaVirtual(objeto.paraPrograma()).executar();
+            System.out.print(Compilador.formatarExecucao(execucao));
+        } catch (IOException e) {
+            System.err.println("Erro de I/O: falha ao ler " + arquivo + ": " + e);
+            System.exit(1);
+        } catch (RuntimeException e) {
+            // Erros de carga (arquivo inválido ou corrompido) e de execução (ex: divisão por zero)
+            System.err.println("Erro detectado: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    // Entrega o conteúdo ao gravador; o arquivo está completo no disco quando o gravador é concluído
+    private static void escreverArquivo(Path arquivo, String conteudo) throws IOException {
+        gravador.gravar(arquivo, conteudo);
+    }
+
+    // Grava o código final (uma instrução TAC por linha) em '<entrada sem extensão>.tac', no diretório de saída
+    private static void escreverCodigoFinal(Path entrada, Path saida, List<String> codigo) throws IOException {
+        String nome = entrada.getFileName().toString();
+        int ponto = nome.lastIndexOf('.');
+        Path arquivo = saida.resolve((ponto > 0 ? nome.substring(0, ponto) : nome) + ".tac");
+        StringBuilder sb = new StringBuilder();
+        for (String instrucao : codigo) {
+            sb.append(instrucao).append('\n');
+        }
+        escreverArquivo(arquivo, sb.toString());
+        informar("Código final gravado em " + arquivo);
+    }
+
+    // Mensagem de acompanhamento (omitida com --silencioso)
+    private static void informar(String mensagem) {
+        if (!silencioso) {
+            System.out.println(mensagem);
+        }
+    }
+
+    private static void informarFase(int fase, boolean listada, Path arquivo) {
+        informar("Fase " + fase + " concluída." + (listada ? " Saída em " + arquivo : ""));
+    }
+
+    // Realiza uma pausa na execução para facilitar o acompanhamento visual (apenas com --pausar)
     private static void pausar() {
+        if (!pausas) {
+            return;
+        }
         System.out.println("...pausando por 5 segundos...\n");
         try {
             Thread.sleep(5000);
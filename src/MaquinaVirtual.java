@@ -0,0 +1,170 @@
+/**
+ * Máquina virtual de registradores que executa um ProgramaVM (TAC montado pelo MontadorTAC).
+ *
+ * O laço de despacho lê a instrução diretamente do array de inteiros e faz um único switch sobre
+ * o código de operação; nenhum nome é consultado durante a execução. Inteiros usam aritmética long
+ * e reais usam double (guardados como bits no mesmo banco de registradores).
+ *
+ * Como a linguagem permite laços sem saída (ex: 'enquanto (i < 10)' sem alterar 'i'),
+ * a execução para ao atingir um limite de instruções, informado no resultado.
+ */
+public class MaquinaVirtual {
+
+    public static final long LIMITE_PADRAO = 100_000_000L; // Instruções executadas antes de interromper
+
+    private final ProgramaVM programa;
+
+    public MaquinaVirtual(ProgramaVM programa) {
+        this.programa = programa;
+    }
+
+    public ResultadoExecucao executar() {
+        return executar(LIMITE_PADRAO);
+    }
+
+    /**
+     * Executa o programa a partir da primeira instrução com todas as variáveis zeradas.
+     * @param limite Quantidade máxima de instruções a executar.
+     * @throws ErroExecucao em erros de execução (ex: divisão inteira por zero).
+     */
+    public ResultadoExecucao executar(long limite) {
+        final int[] codigo = programa.getCodigo();
+        final long[] r = new long[programa.tamanhoBancoRegistradores()];
+        final long[] mem = new long[programa.getVariaveis().length];
+        final long[] spill = new long[programa.quantidadeSlotsSpill()];
+        final long[] contagem = new long[CodigoOperacao.QUANTIDADE];
+        System.arraycopy(programa.getConstantes(), 0, r, programa.quantidadeRegistradores(), programa.getConstantes().length);
+
+        long restante = limite;
+        boolean limiteAtingido = false;
+        int pc = 0;
+        long inicio = System.nanoTime();
+        try {
+            while (true) {
+                if (--restante < 0) {
+                    limiteAtingido = true;
+                    break;
+                }
+                int i = pc * CodigoOperacao.TAMANHO_INSTRUCAO;
+                int op = codigo[i];
+                contagem[op]++;
+                pc++;
+                switch (op) {
+                    case CodigoOperacao.MOV:
+                        r[codigo[i + 1]] = r[codigo[i + 2]];
+                        break;
+                    case CodigoOperacao.LOAD:
+                        r[codigo[i + 1]] = mem[codigo[i + 2]];
+                        break;
+                    case CodigoOperacao.STORE:
+                        mem[codigo[i + 1]] = r[codigo[i + 2]];
+                        break;
+
+                    case CodigoOperacao.ADD_I:
+                        r[codigo[i + 1]] = r[codigo[i + 2]] + r[codigo[i + 3]];
+                        break;
+                    case CodigoOperacao.SUB_I:
+                        r[codigo[i + 1]] = r[codigo[i + 2]] - r[codigo[i + 3]];
+                        break;
+                    case CodigoOperacao.MUL_I:
+                        r[codigo[i + 1]] = r[codigo[i + 2]] * r[codigo[i + 3]];
+                        break;
+                    case CodigoOperacao.DIV_I:
+                        r[codigo[i + 1]] = r[codigo[i + 2]] / r[codigo[i + 3]];
+                        break;
+                    case CodigoOperacao.MOD_I:
+                        r[codigo[i + 1]] = r[codigo[i + 2]] % r[codigo[i + 3]];
+                        break;
+
+                    case CodigoOperacao.ADD_R:
+                        r[codigo[i + 1]] = real(real(r[codigo[i + 2]]) + real(r[codigo[i + 3]]));
+                        break;
+                    case CodigoOperacao.SUB_R:
+                        r[codigo[i + 1]] = real(real(r[codigo[i + 2]]) - real(r[codigo[i + 3]]));
+                        break;
+                    case CodigoOperacao.MUL_R:
+                        r[codigo[i + 1]] = real(real(r[codigo[i + 2]]) * real(r[codigo[i + 3]]));
+                        break;
+                    case CodigoOperacao.DIV_R:
+                        r[codigo[i + 1]] = real(real(r[codigo[i + 2]]) / real(r[codigo[i + 3]]));
+                        break;
+                    case CodigoOperacao.MOD_R:
+                        r[codigo[i + 1]] = real(real(r[codigo[i + 2]]) % real(r[codigo[i + 3]]));
+                        break;
+
+                    case CodigoOperacao.CMPEQ_I:
+                        r[codigo[i + 1]] = r[codigo[i + 2]] == r[codigo[i + 3]] ? 1 : 0;
+                        break;
+                    case CodigoOperacao.CMPNE_I:
+                        r[codigo[i + 1]] = r[codigo[i + 2]] != r[codigo[i + 3]] ? 1 : 0;
+                        break;
+                    case CodigoOperacao.CMPLT_I:
+                        r[codigo[i + 1]] = r[codigo[i + 2]] < r[codigo[i + 3]] ? 1 : 0;
+                        break;
+                    case CodigoOperacao.CMPLE_I:
+                        r[codigo[i + 1]] = r[codigo[i + 2]] <= r[codigo[i + 3]] ? 1 : 0;
+                        break;
+                    case CodigoOperacao.CMPGT_I:
+                        r[codigo[i + 1]] = r[codigo[i + 2]] > r[codigo[i + 3]] ? 1 : 0;
+                        break;
+                    case CodigoOperacao.CMPGE_I:
+                        r[codigo[i + 1]] = r[codigo[i + 2]] >= r[codigo[i + 3]] ? 1 : 0;
+                        break;
+
+                    case CodigoOperacao.CMPEQ_R:
+                        r[codigo[i + 1]] = real(r[codigo[i + 2]]) == real(r[codigo[i + 3]]) ? 1 : 0;
+                        break;
+                    case CodigoOperacao.CMPNE_R:
+                        r[codigo[i + 1]] = real(r[codigo[i + 2]]) != real(r[codigo[i + 3]]) ? 1 : 0;
+                        break;
+                    case CodigoOperacao.CMPLT_R:
+                        r[codigo[i + 1]] = real(r[codigo[i + 2]]) < real(r[codigo[i + 3]]) ? 1 : 0;
+                        break;
+                    case CodigoOperacao.CMPLE_R:
+                        r[codigo[i + 1]] = real(r[codigo[i + 2]]) <= real(r[codigo[i + 3]]) ? 1 : 0;
+                        break;
+                    case CodigoOperacao.CMPGT_R:
+                        r[codigo[i + 1]] = real(r[codigo[i + 2]]) > real(r[codigo[i + 3]]) ? 1 : 0;
+                        break;
+                    case CodigoOperacao.CMPGE_R:
+                        r[codigo[i + 1]] = real(r[codigo[i + 2]]) >= real(r[codigo[i + 3]]) ? 1 : 0;
+                        break;
+
+                    case CodigoOperacao.JMP:
+                        pc = codigo[i + 1];
+                        break;
+                    case CodigoOperacao.JMPTRUE:
+                        if (r[codigo[i + 1]] != 0) pc = codigo[i + 2];
+                        break;
+                    case CodigoOperacao.JMPFALSE:
+                        if (r[codigo[i + 1]] == 0) pc = codigo[i + 2];
+                        break;
+
+                    case CodigoOperacao.SPILL:
+                        spill[codigo[i + 1]] = r[codigo[i + 2]];
+                        break;
+                    case CodigoOperacao.RELOAD:
+                        r[codigo[i + 1]] = spill[codigo[i + 2]];
+                        break;
+
+                    case CodigoOperacao.HALT:
+                        return new ResultadoExecucao(programa.getVariaveis(), programa.getTiposVariaveis(), mem, contagem, false, System.nanoTime() - inicio);
+                    default:
+                        throw new ErroExecucao("Erro de Execução: operação inválida " + op + " na instrução " + (pc - 1));
+                }
+            }
+        } catch (ArithmeticException e) {
+            throw new ErroExecucao("Erro de Execução: divisão inteira por zero na instrução " + (pc - 1)
+                    + " (linha " + (programa.getLinhasTac()[pc - 1] + 1) + " do TAC).");
+        }
+        return new ResultadoExecucao(programa.getVariaveis(), programa.getTiposVariaveis(), mem, contagem, limiteAtingido, System.nanoTime() - inicio);
+    }
+
+    private static double real(long bits) {
+        return Double.longBitsToDouble(bits);
+    }
+
+    private static long real(double valor) {
+        return Double.doubleToRawLongBits(valor);
+    }
+}
@@ -0,0 +1,301 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+/**
+ * Medição de desempenho de cada fase do compilador, no molde do JMH: para cada combinação de medida,
+ * tamanho do programa e profundidade de aninhamento, roda iterações de aquecimento e depois iterações
+ * de medição de duração fixa, repetindo a operação até o tempo da iteração acabar.
+ *
+ * Relata a vazão (operações por segundo, com o desvio padrão entre as iterações), o tempo por operação
+ * e, como o perfilador 'gc' do JMH, a taxa de alocação (MB/s e bytes por operação, contados pela
+ * ThreadMXBean da própria thread) e as coletas de lixo ocorridas durante a medição.
+ *
+ * As medidas isolam uma fase cada: a entrada de cada fase é preparada uma vez, fora do tempo medido
+ * (o léxico mede apenas a tokenização; o sintático parte do BufferDeTokens pronto; o semântico e a
+ * geração de código partem da árvore pronta). A medida 'completo' é Compilador.compilar com as listagens.
+ *
+ * Uso: java Main --medir [--medidas LISTA] [--tamanhos LISTA] [--profundidades LISTA]
+ *                        [--aquecimento N] [--iteracoes N] [--tempo MS]
+ */
+public class MedidorDesempenho {
+
+    public enum Medida { LEXICO, SINTATICO, SEMANTICO, CODIGO, COMPLETO }
+
+    private final EnumSet<Medida> medidas;
+    private final int[] tamanhos;      // Comandos no nível mais externo do programa
+    private final int[] profundidades; // Aninhamento de se/enquanto em cada comando (1 a 10)
+    private final int aquecimento;
+    private final int iteracoes;
+    private final long nanosPorIteracao;
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private int consumidor; // Resultados das operações, para o JIT não descartar o trabalho medido
+
+    public MedidorDesempenho(EnumSet<Medida> medidas, int[] tamanhos, int[] profundidades,
+                             int aquecimento, int iteracoes, long msPorIteracao) {
+        this.medidas = medidas;
+        this.tamanhos = tamanhos;
+        this.profundidades = profundidades;
+        this.aquecimento = aquecimento;
+        this.iteracoes = iteracoes;
+        this.nanosPorIteracao = msPorIteracao * 1_000_000L;
+    }
+
+    /**
+     * Resultado de uma combinação (medida, tamanho, profundidade).
+     */
+    private static class Resultado {
+        double[] vazoes;         // Operações por segundo em cada iteração de medição
+        long operacoes;
+        long nanos;
+        long bytesAlocados = -1; // -1: a JVM não mede a alocação por thread
+        long coletas;
+        long msColetas;
+    }
+
+    /**
+     * Executa todas as combinações e devolve a tabela de resultados.
+     */
+    public String executar() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-10s %8s %8s %5s %14s %12s %12s %10s %12s %6s %7s\n",
+                "Medida", "Tamanho", "Profund.", "Iter.", "ops/s", "± desvio", "µs/op",
+                "MB/s aloc.", "B/op", "GCs", "ms GC"));
+        for (Medida medida : medidas) {
+            for (int tamanho : tamanhos) {
+                for (int profundidade : profundidades) {
+                    String codigo = gerarPrograma(tamanho, profundidade);
+                    Resultado r = medir(preparar(medida, codigo));
+                    double media = media(r.vazoes);
+                    String alocacao = r.bytesAlocados < 0 ? String.format("%10s %12s", "n/d", "n/d")
+                            : String.format("%10.1f %12d", r.bytesAlocados / 1048576.0 / (r.nanos / 1e9),
+                            r.bytesAlocados / r.operacoes);
+                    sb.append(String.format("%-10s %8d %8d %5d %14.1f %12.1f %12.3f %s %6d %7d\n",
+                            medida.name().toLowerCase(), tamanho, profundidade, iteracoes, media,
+                            desvio(r.vazoes, media), r.nanos / 1e3 / r.operacoes, alocacao, r.coletas, r.msColetas));
+                }
+            }
+        }
+        sb.append(String.format("(aquecimento: %d x %d ms; medição: %d x %d ms; %s)\n", aquecimento,
+                nanosPorIteracao / 1_000_000, iteracoes, nanosPorIteracao / 1_000_000,
+                Runtime.version()));
+        if (consumidor == 42) {
+            sb.append(' '); // Uso do consumidor: impede a eliminação das operações medidas
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Prepara, fora do tempo medido, a entrada da fase e devolve a operação que a executa uma vez.
+     */
+    private static IntSupplier preparar(Medida medida, String codigo) {
+        ResultadoCompilacao verificacao = Compilador.compilar(codigo);
+        if (!verificacao.sucesso()) {
+            throw new IllegalStateException("Programa gerado inválido:\n" + verificacao.erro);
+        }
+        BufferDeTokens buffer = new AnalisadorLexico(codigo).tokenizar();
+        AnalisadorSintatico sintatico = new AnalisadorSintatico(buffer);
+        ArvorePlana arvore = sintatico.programaPlano();
+        TabelaDeSimbolos tabela = sintatico.getTabelaDeSimbolos();
+
+        switch (medida) {
+            case LEXICO:
+                return () -> new AnalisadorLexico(codigo).tokenizar().tamanho();
+            case SINTATICO:
+                return () -> new AnalisadorSintatico(buffer).programaPlano().tamanho();
+            case SEMANTICO:
+                return () -> {
+                    // Diagnósticos próprios a cada operação: o resultado consumido é o que a análise encontrou
+                    Diagnosticos diagnosticos = new Diagnosticos();
+                    new AnalisadorSemantico(tabela, diagnosticos).verificar(arvore, arvore.getRaiz());
+                    return diagnosticos.quantidade();
+                };
+            case CODIGO:
+                return () -> {
+                    GeradorCodigoIntermediario gerador = new GeradorCodigoIntermediario();
+                    gerador.gerar(arvore);
+                    return gerador.getCodigo().size();
+                };
+            default:
+                return () -> Compilador.compilar(codigo).saidaCodigo.length();
+        }
+    }
+
+    private Resultado medir(IntSupplier operacao) {
+        for (int i = 0; i < aquecimento; i++) {
+            executarIteracao(operacao, new long[2]);
+        }
+
+        Resultado r = new Resultado();
+        r.vazoes = new double[iteracoes];
+        long id = Thread.currentThread().getId();
+        long alocadosAntes = bytesAlocados(id);
+        long coletasAntes = 0, msAntes = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            coletasAntes += Math.max(0, gc.getCollectionCount());
+            msAntes += Math.max(0, gc.getCollectionTime());
+        }
+
+        long[] contagem = new long[2];
+        for (int i = 0; i < iteracoes; i++) {
+            contagem[0] = contagem[1] = 0;
+            executarIteracao(operacao, contagem);
+            r.vazoes[i] = contagem[0] / (contagem[1] / 1e9);
+            r.operacoes += contagem[0];
+            r.nanos += contagem[1];
+        }
+
+        long alocadosDepois = bytesAlocados(id);
+        if (alocadosAntes >= 0 && alocadosDepois >= 0) {
+            r.bytesAlocados = alocadosDepois - alocadosAntes;
+        }
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            r.coletas += Math.max(0, gc.getCollectionCount());
+            r.msColetas += Math.max(0, gc.getCollectionTime());
+        }
+        r.coletas -= coletasAntes;
+        r.msColetas -= msAntes;
+        return r;
+    }
+
+    // Repete a operação até completar o tempo da iteração; 'contagem' recebe operações e nanossegundos
+    private void executarIteracao(IntSupplier operacao, long[] contagem) {
+        long inicio = System.nanoTime();
+        long decorrido;
+        long operacoes = 0;
+        int acumulado = 0;
+        do {
+            acumulado += operacao.getAsInt();
+            operacoes++;
+            decorrido = System.nanoTime() - inicio;
+        } while (decorrido < nanosPorIteracao);
+        consumidor ^= acumulado;
+        contagem[0] = operacoes;
+        contagem[1] = decorrido;
+    }
+
+    // Bytes alocados pela thread desde o seu início (-1 se a JVM não oferece a medição)
+    private long bytesAlocados(long id) {
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean medidor = (com.sun.management.ThreadMXBean) threads;
+            if (medidor.isThreadAllocatedMemorySupported() && medidor.isThreadAllocatedMemoryEnabled()) {
+                return medidor.getThreadAllocatedBytes(id);
+            }
+        }
+        return -1;
+    }
+
+    private static double media(double[] valores) {
+        double soma = 0;
+        for (double v : valores) {
+            soma += v;
+        }
+        return soma / valores.length;
+    }
+
+    private static double desvio(double[] valores, double media) {
+        if (valores.length < 2) {
+            return 0;
+        }
+        double soma = 0;
+        for (double v : valores) {
+            soma += (v - media) * (v - media);
+        }
+        return Math.sqrt(soma / (valores.length - 1));
+    }
+
+    /**
+     * Programa válido com 'comandos' comandos no nível externo, cada um uma cadeia de 'profundidade' - 1
+     * se/enquanto aninhados terminando em uma atribuição. A semente é fixa, então o texto depende apenas
+     * dos parâmetros e as medições são comparáveis entre execuções.
+     */
+    static String gerarPrograma(int comandos, int profundidade) {
+        GeradorProgramas gerador = new GeradorProgramas();
+        gerador.comandos = comandos;
+        gerador.profundidade = profundidade;
+        gerador.probabilidadeAninhamento = 1.0;
+        return gerador.gerar();
+    }
+
+    /**
+     * Ponto de entrada do modo --medir. Sai com 2 diante de uma opção desconhecida, sem valor ou com valor inválido.
+     */
+    public static void principal(List<String> args) {
+        EnumSet<Medida> medidas = EnumSet.allOf(Medida.class);
+        int[] tamanhos = {100, 1000, 10000};
+        int[] profundidades = {1, 5, 10};
+        int aquecimento = 3;
+        int iteracoes = 5;
+        long ms = 500;
+        try {
+            for (int i = 0; i < args.size(); i += 2) {
+                String opcao = args.get(i);
+                if (!opcao.equals("--medidas") && !opcao.equals("--tamanhos") && !opcao.equals("--profundidades")
+                        && !opcao.equals("--aquecimento") && !opcao.equals("--iteracoes") && !opcao.equals("--tempo")) {
+                    throw new IllegalArgumentException("Opção desconhecida para --medir: " + opcao);
+                }
+                if (i + 1 == args.size()) {
+                    throw new IllegalArgumentException("A opção " + opcao + " exige um valor.");
+                }
+                String valor = args.get(i + 1);
+                switch (opcao) {
+                    case "--medidas":
+                        medidas = EnumSet.noneOf(Medida.class);
+                        for (String nome : valor.split(",")) {
+                            medidas.add(medida(nome.trim()));
+                        }
+                        break;
+                    case "--tamanhos": tamanhos = inteiros(opcao, valor, 1); break;
+                    case "--profundidades": profundidades = inteiros(opcao, valor, 1); break;
+                    case "--aquecimento": aquecimento = inteiro(opcao, valor, 0); break;
+                    case "--iteracoes": iteracoes = inteiro(opcao, valor, 1); break;
+                    default: ms = inteiro(opcao, valor, 1); break; // --tempo
+                }
+            }
+            for (int profundidade : profundidades) {
+                if (profundidade > 10) {
+                    throw new IllegalArgumentException("A profundidade deve estar entre 1 e 10 (limite da gramática): " + profundidade);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        }
+        System.out.print(new MedidorDesempenho(medidas, tamanhos, profundidades, aquecimento, iteracoes, ms).executar());
+    }
+
+    private static Medida medida(String nome) {
+        for (Medida medida : Medida.values()) {
+            if (medida.name().equalsIgnoreCase(nome)) {
+                return medida;
+            }
+        }
+        throw new IllegalArgumentException("Medida desconhecida para --medidas: " + nome
+                + " (use lexico, sintatico, semantico, codigo ou completo).");
+    }
+
+    private static int inteiro(String opcao, String valor, int minimo) {
+        try {
+            int numero = Integer.parseInt(valor.trim());
+            if (numero >= minimo) {
+                return numero;
+            }
+        } catch (NumberFormatException e) {
+            // Relatado abaixo
+        }
+        throw new IllegalArgumentException("A opção " + opcao + " exige números inteiros de pelo menos " + minimo + ": " + valor);
+    }
+
+    private static int[] inteiros(String opcao, String lista, int minimo) {
+        List<Integer> valores = new ArrayList<>();
+        for (String parte : lista.split(",")) {
+            valores.add(inteiro(opcao, parte, minimo));
+        }
+        return valores.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
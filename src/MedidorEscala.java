@@ -0,0 +1,393 @@
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Varredura de escala: gera programas (GeradorProgramas) de tamanhos crescentes, de KB a centenas de MB,
+ * compila cada um uma vez medindo o tempo e o pico de heap de cada fase, e grava uma tabela CSV e um
+ * gráfico em texto. Cada tamanho é compilado 'repeticoes' vezes e vale o menor tempo de cada fase
+ * (o maior pico de heap), o que descarta a interferência do JIT e de coletas. O custo por byte de cada fase deve ficar constante conforme o tamanho cresce;
+ * o expoente local (log do crescimento do tempo / log do crescimento da entrada) acima de 1 indica
+ * comportamento superlinear.
+ *
+ * Fases medidas: fluxo (compilação completa em uma passada, CompiladorEmFluxo, descartando o TAC),
+ * lexico (tokenização), sintatico (árvore plana), semantico, codigo (TAC) e listagens (formatação de
+ * fase1..fase4, que o modo --silencioso dispensa). O fluxo é medido primeiro, com apenas o texto vivo;
+ * como quase tudo o que ele aloca morre no mesmo comando, o seu pico acompanha a geração jovem e não
+ * o programa (com um -Xmx pequeno, ele completa tamanhos em que as outras fases ficam sem memória).
+ * O pico de heap soma o pico de cada área do heap desde o início da fase (após uma coleta), então
+ * inclui os dados das fases anteriores que continuam vivos, como o texto fonte e os tokens.
+ * Tamanhos grandes exigem heap compatível (-Xmx); uma fase sem memória encerra a varredura.
+ *
+ * Uso: java Main --escala [--tamanhos 16K,1M,64M,...] [--repeticoes N] [--csv ARQUIVO] [--semente N] [--declaracoes N]
+ *                         [--termos N] [--profundidade N] [--aninhamento P] [--enquanto P] [--senao P]
+ *                         [--not P] [--e P] [--or P]
+ */
+public class MedidorEscala {
+
+    private static final String[] FASES = {"fluxo", "lexico", "sintatico", "semantico", "codigo", "listagens"};
+    private static final int LARGURA_GRAFICO = 40;
+    private static final double LIMIAR_SUPERLINEAR = 1.2;
+    private static final long MINIMO_SUPERLINEAR = 1024 * 1024; // Abaixo disso, os poucos ms medidos são dominados por JIT e GC
+    // Opções do modo --escala (todas com valor)
+    private static final List<String> OPCOES = List.of("--tamanhos", "--csv", "--repeticoes", "--semente", "--declaracoes",
+            "--termos", "--profundidade", "--aninhamento", "--enquanto", "--senao", "--not", "--e", "--or");
+
+    private final GeradorProgramas gerador;
+    private final long[] tamanhos;
+    private final int repeticoes;
+
+    /**
+     * Medição de um tamanho: contagens do programa e, por fase, tempo e pico de heap (-1 se não chegou à fase).
+     */
+    static class Medicao {
+        long bytes;
+        long linhas;
+        int tokens;
+        int nos;
+        int simbolos;
+        int instrucoes;
+        final double[] ms = new double[FASES.length];
+        final double[] heapMb = new double[FASES.length];
+        String falha; // Fase que ficou sem memória (null se completou)
+
+        Medicao() {
+            Arrays.fill(ms, -1);
+            Arrays.fill(heapMb, -1);
+        }
+
+        // Fica com o menor tempo e o maior pico de heap de cada fase
+        void combinar(Medicao outra) {
+            if (outra.bytes == 0) {
+                return;
+            }
+            bytes = outra.bytes;
+            linhas = outra.linhas;
+            tokens = outra.tokens;
+            nos = outra.nos;
+            simbolos = outra.simbolos;
+            instrucoes = outra.instrucoes;
+            for (int f = 0; f < FASES.length; f++) {
+                if (outra.ms[f] >= 0) {
+                    ms[f] = ms[f] < 0 ? outra.ms[f] : Math.min(ms[f], outra.ms[f]);
+                }
+                heapMb[f] = Math.max(heapMb[f], outra.heapMb[f]);
+            }
+        }
+    }
+
+    public MedidorEscala(GeradorProgramas gerador, long[] tamanhos, int repeticoes) {
+        this.gerador = gerador;
+        this.tamanhos = tamanhos;
+        this.repeticoes = Math.max(1, repeticoes);
+    }
+
+    /**
+     * Executa a varredura. Os programas são descartados após cada tamanho.
+     */
+    public List<Medicao> executar() {
+        // Aquecimento: alguns programas pequenos antes de medir, para o JIT não distorcer os primeiros tamanhos
+        String aquecimento = gerador.gerarComTamanho(1024 * 1024);
+        for (int i = 0; i < 5; i++) {
+            medir(aquecimento, new Medicao());
+        }
+        List<Medicao> medicoes = new ArrayList<>();
+        for (long tamanho : tamanhos) {
+            Medicao m = new Medicao();
+            medicoes.add(m);
+            Medicao tentativa = null;
+            try {
+                String codigo = gerador.gerarComTamanho(tamanho);
+                for (int r = 0; r < repeticoes; r++) {
+                    tentativa = new Medicao();
+                    medir(codigo, tentativa);
+                    m.combinar(tentativa);
+                }
+            } catch (OutOfMemoryError e) {
+                // As fases que a tentativa completou continuam valendo
+                m.combinar(tentativa != null ? tentativa : new Medicao());
+                m.falha = tentativa != null ? tentativa.falha : "geracao";
+            }
+            System.err.println("Medido: " + formatarTamanho(tamanho)
+                    + (m.falha != null ? " (sem memória em " + m.falha + ")" : ""));
+            if (m.falha != null) {
+                break;
+            }
+        }
+        return medicoes;
+    }
+
+    // Compila o programa fase a fase, registrando tempo e pico de heap em 'm'
+    private static void medir(String codigo, Medicao m) {
+        m.bytes = codigo.length();
+        m.linhas = codigo.chars().filter(c -> c == '\n').count();
+
+        int fase = 0;
+        try {
+            iniciarFase();
+            long inicio = System.nanoTime();
+            new CompiladorEmFluxo().compilar(new StringReader(codigo), Writer.nullWriter());
+            encerrarFase(m, fase++, inicio);
+
+            iniciarFase();
+            inicio = System.nanoTime();
+            BufferDeTokens buffer = new AnalisadorLexico(codigo).tokenizar();
+            encerrarFase(m, fase++, inicio);
+            m.tokens = buffer.tamanho();
+
+            iniciarFase();
+            inicio = System.nanoTime();
+            AnalisadorSintatico sintatico = new AnalisadorSintatico(buffer);
+            ArvorePlana arvore = sintatico.programaPlano();
+            encerrarFase(m, fase++, inicio);
+            m.nos = arvore.tamanho();
+
+            iniciarFase();
+            inicio = System.nanoTime();
+            TabelaDeSimbolos tabela = sintatico.getTabelaDeSimbolos();
+            new AnalisadorSemantico(tabela).analisar(arvore);
+            encerrarFase(m, fase++, inicio);
+            m.simbolos = tabela.tamanho();
+
+            iniciarFase();
+            inicio = System.nanoTime();
+            GeradorCodigoIntermediario gerador = new GeradorCodigoIntermediario();
+            gerador.gerar(arvore);
+            encerrarFase(m, fase++, inicio);
+            m.instrucoes = gerador.getCodigo().size();
+
+            iniciarFase();
+            inicio = System.nanoTime();
+            long caracteres = Compilador.formatarTokens(buffer).length()
+                    + Compilador.formatarArvore(arvore).length()
+                    + Compilador.formatarTabela(tabela).length()
+                    + Compilador.formatarCodigo(gerador.getCodigo()).length();
+            encerrarFase(m, fase, inicio);
+            if (caracteres == 0) {
+                throw new IllegalStateException("Listagens vazias.");
+            }
+        } catch (OutOfMemoryError e) {
+            m.falha = FASES[fase];
+            throw e;
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Programa gerado inválido (" + FASES[fase] + "): " + e.getMessage(), e);
+        }
+    }
+
+    // Coleta o lixo das fases anteriores e zera o pico das áreas do heap
+    private static void iniciarFase() {
+        System.gc();
+        for (MemoryPoolMXBean area : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (area.getType() == MemoryType.HEAP && area.isValid()) {
+                area.resetPeakUsage();
+            }
+        }
+    }
+
+    private static void encerrarFase(Medicao m, int fase, long inicio) {
+        m.ms[fase] = (System.nanoTime() - inicio) / 1e6;
+        long pico = 0;
+        for (MemoryPoolMXBean area : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (area.getType() == MemoryType.HEAP && area.isValid()) {
+                pico += area.getPeakUsage().getUsed();
+            }
+        }
+        m.heapMb[fase] = pico / 1048576.0;
+    }
+
+    /**
+     * Tabela CSV: uma linha por tamanho e fase.
+     */
+    public static String csv(List<Medicao> medicoes) {
+        StringBuilder sb = new StringBuilder("bytes,linhas,tokens,nos,simbolos,instrucoes,fase,ms,ns_por_byte,heap_pico_mb,expoente\n");
+        for (int i = 0; i < medicoes.size(); i++) {
+            Medicao m = medicoes.get(i);
+            for (int f = 0; f < FASES.length; f++) {
+                if (m.ms[f] < 0) {
+                    continue;
+                }
+                double expoente = expoente(medicoes, i, f);
+                sb.append(String.format(Locale.ROOT, "%d,%d,%d,%d,%d,%d,%s,%.3f,%.2f,%.1f,%s\n",
+                        m.bytes, m.linhas, m.tokens, m.nos, m.simbolos, m.instrucoes, FASES[f], m.ms[f],
+                        m.ms[f] * 1e6 / m.bytes, m.heapMb[f],
+                        Double.isNaN(expoente) ? "" : String.format(Locale.ROOT, "%.2f", expoente)));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Gráfico em texto: para cada fase, o custo por byte (barra proporcional ao maior valor da fase),
+     * o tempo, o pico de heap e o expoente local em relação ao tamanho anterior.
+     */
+    public static String grafico(List<Medicao> medicoes) {
+        StringBuilder sb = new StringBuilder();
+        for (int f = 0; f < FASES.length; f++) {
+            double maximo = 0;
+            for (Medicao m : medicoes) {
+                if (m.ms[f] >= 0) {
+                    maximo = Math.max(maximo, m.ms[f] * 1e6 / m.bytes);
+                }
+            }
+            sb.append("--- ").append(FASES[f]).append(" (ns por byte; tempo; pico de heap; expoente) ---\n");
+            for (int i = 0; i < medicoes.size(); i++) {
+                Medicao m = medicoes.get(i);
+                if (m.ms[f] < 0) {
+                    sb.append(String.format("%8s | %s\n", formatarTamanho(m.bytes),
+                            m.falha != null ? "sem memória (" + m.falha + ")" : "-"));
+                    continue;
+                }
+                double nsPorByte = m.ms[f] * 1e6 / m.bytes;
+                int largura = maximo > 0 ? (int) Math.round(nsPorByte / maximo * LARGURA_GRAFICO) : 0;
+                double expoente = expoente(medicoes, i, f);
+                sb.append(String.format("%8s | %-" + LARGURA_GRAFICO + "s %8.2f ns/B %10.1f ms %8.1f MB %s\n",
+                        formatarTamanho(m.bytes), "#".repeat(Math.max(1, largura)), nsPorByte, m.ms[f], m.heapMb[f],
+                        Double.isNaN(expoente) ? "" : String.format("%.2f%s", expoente,
+                                expoente > LIMIAR_SUPERLINEAR && medicoes.get(i - 1).bytes >= MINIMO_SUPERLINEAR
+                                        ? "  <- superlinear?" : "")));
+            }
+        }
+        return sb.toString();
+    }
+
+    // log(t_i / t_{i-1}) / log(n_i / n_{i-1}): ~1 é linear (NaN para o primeiro tamanho)
+    private static double expoente(List<Medicao> medicoes, int i, int fase) {
+        if (i == 0) {
+            return Double.NaN;
+        }
+        Medicao anterior = medicoes.get(i - 1);
+        Medicao atual = medicoes.get(i);
+        if (anterior.ms[fase] <= 0 || atual.ms[fase] <= 0 || atual.bytes <= anterior.bytes) {
+            return Double.NaN;
+        }
+        return Math.log(atual.ms[fase] / anterior.ms[fase]) / Math.log((double) atual.bytes / anterior.bytes);
+    }
+
+    static String formatarTamanho(long bytes) {
+        if (bytes >= 1024 * 1024) {
+            return String.format("%.1fM", bytes / 1048576.0);
+        }
+        return String.format("%.1fK", bytes / 1024.0);
+    }
+
+    // "64K", "8M", "1G" ou um número de bytes
+    static long interpretarTamanho(String texto) {
+        String t = texto.trim().toUpperCase();
+        long multiplicador = 1;
+        if (t.endsWith("K")) {
+            multiplicador = 1024;
+        } else if (t.endsWith("M")) {
+            multiplicador = 1024 * 1024;
+        } else if (t.endsWith("G")) {
+            multiplicador = 1024L * 1024 * 1024;
+        }
+        if (multiplicador > 1) {
+            t = t.substring(0, t.length() - 1);
+        }
+        return Long.parseLong(t) * multiplicador;
+    }
+
+    /**
+     * Ponto de entrada do modo --escala. Sai com 2 diante de uma opção desconhecida, sem valor ou com valor inválido.
+     */
+    public static void principal(List<String> args) throws IOException {
+        GeradorProgramas gerador = new GeradorProgramas();
+        String tamanhos = "16K,128K,1M,8M,32M";
+        int repeticoes = 3;
+        Path csv = null;
+        long[] bytes = null;
+        try {
+            for (int i = 0; i < args.size(); i += 2) {
+                String opcao = args.get(i);
+                if (!OPCOES.contains(opcao)) {
+                    throw new IllegalArgumentException("Opção desconhecida para --escala: " + opcao);
+                }
+                if (i + 1 == args.size()) {
+                    throw new IllegalArgumentException("A opção " + opcao + " exige um valor.");
+                }
+                String valor = args.get(i + 1);
+                switch (opcao) {
+                    case "--tamanhos": tamanhos = valor; break;
+                    case "--csv": csv = Path.of(valor); break;
+                    case "--repeticoes": repeticoes = (int) inteiro(opcao, valor, 1, Integer.MAX_VALUE); break;
+                    case "--semente": gerador.semente = inteiro(opcao, valor, Long.MIN_VALUE, Long.MAX_VALUE); break;
+                    case "--declaracoes": gerador.declaracoes = (int) inteiro(opcao, valor, 1, Integer.MAX_VALUE); break;
+                    case "--termos": gerador.termos = (int) inteiro(opcao, valor, 1, Integer.MAX_VALUE); break;
+                    case "--profundidade":
+                        gerador.profundidade = (int) inteiro(opcao, valor, 1, GeradorProgramas.PROFUNDIDADE_MAXIMA);
+                        break;
+                    case "--aninhamento": gerador.probabilidadeAninhamento = probabilidade(opcao, valor); break;
+                    case "--enquanto": gerador.proporcaoEnquanto = probabilidade(opcao, valor); break;
+                    case "--senao": gerador.proporcaoSenao = probabilidade(opcao, valor); break;
+                    case "--not": gerador.probabilidadeNot = probabilidade(opcao, valor); break;
+                    case "--e": gerador.probabilidadeE = probabilidade(opcao, valor); break;
+                    default: gerador.probabilidadeOr = probabilidade(opcao, valor); break; // --or
+                }
+            }
+            String[] partes = tamanhos.split(",");
+            bytes = new long[partes.length];
+            for (int i = 0; i < partes.length; i++) {
+                bytes[i] = tamanho(partes[i]);
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        }
+
+        List<Medicao> medicoes = new MedidorEscala(gerador, bytes, repeticoes).executar();
+        System.out.print(grafico(medicoes));
+        if (csv != null) {
+            Files.writeString(csv, csv(medicoes));
+            System.out.println("Tabela CSV gravada em " + csv);
+        }
+    }
+
+    // Tamanho de --tamanhos, até o limite de uma String do GeradorProgramas
+    private static long tamanho(String texto) {
+        try {
+            long bytes = interpretarTamanho(texto);
+            if (bytes > 0 && bytes <= Integer.MAX_VALUE - 1024) {
+                return bytes;
+            }
+        } catch (NumberFormatException e) {
+            // Relatado abaixo
+        }
+        throw new IllegalArgumentException("A opção --tamanhos exige tamanhos positivos em bytes, com sufixo K, M ou G "
+                + "opcional, até 2G: " + texto);
+    }
+
+    private static long inteiro(String opcao, String valor, long minimo, long maximo) {
+        try {
+            long numero = Long.parseLong(valor.trim());
+            if (numero >= minimo && numero <= maximo) {
+                return numero;
+            }
+        } catch (NumberFormatException e) {
+            // Relatado abaixo
+        }
+        throw new IllegalArgumentException("A opção " + opcao + " exige um inteiro"
+                + (minimo == Long.MIN_VALUE ? "" : maximo == Integer.MAX_VALUE ? " de pelo menos " + minimo : " entre " + minimo + " e " + maximo)
+                + ": " + valor);
+    }
+
+    private static double probabilidade(String opcao, String valor) {
+        try {
+            double numero = Double.parseDouble(valor.trim());
+            if (numero >= 0 && numero <= 1) {
+                return numero;
+            }
+        } catch (NumberFormatException e) {
+            // Relatado abaixo
+        }
+        throw new IllegalArgumentException("A opção " + opcao + " exige uma probabilidade entre 0 e 1: " + valor);
+    }
+}
@@ -0,0 +1,200 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Métricas de uma compilação: a duração e a produção de cada fase e os totais (tokens, nós da árvore,
+ * símbolos declarados, instruções emitidas, bytes escritos e a espera pelo disco). Com a opção --metricas são gravadas em
+ * 'metricas.json' junto às demais saídas; com uma gravação JFR ativa, cada fase vira um EventoFaseCompilacao
+ * e a compilação, um EventoCompilacao.
+ *
+ * Sem --metricas e sem gravação JFR, criar() devolve null: o compilador apenas abre e fecha os eventos
+ * de fase (que a JVM descarta) e não calcula as contagens que só servem às métricas.
+ */
+public class MetricasCompilacao {
+
+    // Unidades dos itens de cada fase; determinam qual total a fase atualiza
+    public static final String TOKENS = "tokens";
+    public static final String NOS = "nós";
+    public static final String SIMBOLOS = "símbolos";
+    public static final String INSTRUCOES = "instruções";
+    public static final String BYTES = "bytes";
+
+    public static final String ARQUIVO = "metricas.json";
+
+    public final String origem;
+    public boolean cache;          // Fases 1-4 recuperadas do CacheCompilacao
+    public long tokens = -1;       // -1: a fase não foi executada
+    public long nos = -1;
+    public long simbolos = -1;
+    public long instrucoes = -1;   // Do último passo que alterou o TAC (geração, otimização ou alocação)
+    public long bytesEscritos;
+    public long nanosEsperaEscrita; // Tempo que a compilação esperou o disco (ver GravadorAssincrono)
+
+    private final long inicio = System.nanoTime();
+    private final List<Fase> fases = new ArrayList<>();
+    private long nanosTotal = -1;
+    private boolean sucesso;
+    private String erro;
+
+    private static class Fase {
+        final String nome;
+        final long nanos;
+        final long itens;
+        final String unidade;
+
+        Fase(String nome, long nanos, long itens, String unidade) {
+            this.nome = nome;
+            this.nanos = nanos;
+            this.itens = itens;
+            this.unidade = unidade;
+        }
+    }
+
+    private MetricasCompilacao(String origem) {
+        this.origem = origem;
+    }
+
+    /**
+     * Métricas de uma nova compilação, ou null se ninguém vai lê-las (nem --metricas nem gravação JFR).
+     */
+    public static MetricasCompilacao criar(boolean pedidas, String origem) {
+        if (!pedidas && !new EventoCompilacao().isEnabled()) {
+            return null;
+        }
+        return new MetricasCompilacao(origem);
+    }
+
+    /**
+     * Abre o evento de uma fase e marca o seu início.
+     */
+    public static EventoFaseCompilacao iniciarFase(String fase) {
+        EventoFaseCompilacao evento = new EventoFaseCompilacao();
+        evento.fase = fase;
+        evento.inicio = System.nanoTime();
+        evento.begin();
+        return evento;
+    }
+
+    /**
+     * Verdadeiro se a produção da fase será lida: só então vale a pena contar itens que custam
+     * uma passada extra (ex: os nós da árvore de objetos).
+     */
+    public static boolean ativa(MetricasCompilacao metricas, EventoFaseCompilacao evento) {
+        return metricas != null || evento.isEnabled();
+    }
+
+    /**
+     * Fecha o evento da fase e a registra nas métricas (se existirem).
+     */
+    public static void encerrarFase(MetricasCompilacao metricas, EventoFaseCompilacao evento, long itens, String unidade) {
+        evento.end();
+        long nanos = System.nanoTime() - evento.inicio;
+        if (evento.shouldCommit()) {
+            evento.itens = itens;
+            evento.unidade = unidade;
+            evento.commit();
+        }
+        if (metricas != null) {
+            metricas.registrar(evento.fase, nanos, itens, unidade);
+        }
+    }
+
+    private void registrar(String fase, long nanos, long itens, String unidade) {
+        fases.add(new Fase(fase, nanos, itens, unidade));
+        switch (unidade) {
+            case TOKENS: tokens = itens; break;
+            case NOS: nos = itens; break;
+            case SIMBOLOS: simbolos = itens; break;
+            case INSTRUCOES: instrucoes = itens; break;
+            case BYTES: bytesEscritos += itens; break;
+            default: break;
+        }
+    }
+
+    /**
+     * Encerra a compilação (antes da escrita das saídas) e publica o EventoCompilacao.
+     * @param erro Conteúdo de erro.txt (null se a compilação teve sucesso).
+     */
+    public void concluir(String erro) {
+        nanosTotal = System.nanoTime() - inicio;
+        sucesso = erro == null;
+        this.erro = erro == null ? null : primeiraLinhaDoErro(erro);
+
+        EventoCompilacao evento = new EventoCompilacao();
+        if (evento.shouldCommit()) {
+            evento.origem = origem;
+            evento.sucesso = sucesso;
+            evento.cache = cache;
+            evento.tokens = tokens;
+            evento.nos = nos;
+            evento.simbolos = simbolos;
+            evento.instrucoes = instrucoes;
+            evento.commit();
+        }
+    }
+
+    // A mensagem do erro, sem o cabeçalho e o stack trace de erro.txt
+    private static String primeiraLinhaDoErro(String erro) {
+        for (String linha : erro.split("\n")) {
+            if (!linha.isBlank() && !linha.startsWith("---")) {
+                return linha.trim();
+            }
+        }
+        return erro.trim();
+    }
+
+    /**
+     * Resumo em JSON (conteúdo de metricas.json).
+     */
+    public String paraJson() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\n");
+        sb.append("  \"origem\": ").append(texto(origem)).append(",\n");
+        sb.append("  \"sucesso\": ").append(sucesso).append(",\n");
+        sb.append("  \"erro\": ").append(texto(erro)).append(",\n");
+        sb.append("  \"cache\": ").append(cache).append(",\n");
+        sb.append(String.format(Locale.ROOT, "  \"msTotal\": %.3f,\n", (nanosTotal >= 0 ? nanosTotal : System.nanoTime() - inicio) / 1e6));
+        sb.append("  \"tokens\": ").append(tokens).append(",\n");
+        sb.append("  \"nos\": ").append(nos).append(",\n");
+        sb.append("  \"simbolos\": ").append(simbolos).append(",\n");
+        sb.append("  \"instrucoes\": ").append(instrucoes).append(",\n");
+        sb.append("  \"bytesEscritos\": ").append(bytesEscritos).append(",\n");
+        sb.append(String.format(Locale.ROOT, "  \"msEsperaEscrita\": %.3f,\n", nanosEsperaEscrita / 1e6));
+        sb.append("  \"fases\": [");
+        for (int i = 0; i < fases.size(); i++) {
+            Fase fase = fases.get(i);
+            sb.append(i > 0 ? ",\n" : "\n");
+            sb.append(String.format(Locale.ROOT, "    {\"fase\": %s, \"ms\": %.3f, \"itens\": %d, \"unidade\": %s}",
+                    texto(fase.nome), fase.nanos / 1e6, fase.itens, texto(fase.unidade)));
+        }
+        sb.append(fases.isEmpty() ? "]\n" : "\n  ]\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    // Literal de texto JSON (null se ausente)
+    private static String texto(String valor) {
+        if (valor == null) {
+            return "null";
+        }
+        StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
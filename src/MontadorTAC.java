@@ -0,0 +1,408 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Monta o código de três endereços (texto gerado pelo GeradorCodigoIntermediario) em um ProgramaVM.
+ *
+ * Todos os nomes são resolvidos antes da execução: labels viram índices de instrução, variáveis viram
+ * slots de memória, literais viram posições de constante no banco de registradores. O TAC não carrega
+ * tipos, então a montagem os infere (literais com '.' são reais; variáveis têm o tipo da Tabela de
+ * Símbolos ou, sem ela, o tipo do primeiro valor armazenado) e escolhe a versão inteira ou real de cada operação.
+ * SPILL/RELOAD (inseridos pelo AlocadorRegistradores) usam slots próprios, com o tipo do último registrador derramado.
+ */
+public class MontadorTAC {
+
+    private static final int T = CodigoOperacao.TAMANHO_INSTRUCAO;
+
+    // Instrução do TAC já separada em mnemônico e operandos
+    private static final class Linha {
+        final String op;
+        final String[] operandos;
+        final int indiceTac; // Posição da linha na lista TAC original
+
+        Linha(String op, String[] operandos, int indiceTac) {
+            this.op = op;
+            this.operandos = operandos;
+            this.indiceTac = indiceTac;
+        }
+
+        String texto() {
+            return op + " " + String.join(", ", operandos);
+        }
+    }
+
+    private final List<Linha> linhas = new ArrayList<>();
+    private final Map<String, Integer> labels = new HashMap<>();
+
+    private final Map<String, Integer> slots = new HashMap<>();
+    private final List<String> variaveis = new ArrayList<>();
+    private final List<TipoDado> tiposVariaveis = new ArrayList<>();
+
+    // Slots de derramamento (SPILL/RELOAD), separados das variáveis. Como os registradores, o tipo do slot
+    // acompanha o texto: é o do último registrador derramado nele antes do RELOAD
+    private final Map<String, Integer> slotsSpill = new HashMap<>();
+    private final List<Boolean> spillReal = new ArrayList<>();
+
+    private final Map<String, Integer> indicesConstantes = new HashMap<>();
+    private final List<Long> constantes = new ArrayList<>();
+    private final List<Boolean> constantesReais = new ArrayList<>();
+
+    private int quantidadeRegistradores = 1; // R0 existe mesmo sem uso (os geradores começam em R1)
+
+    /**
+     * Monta o TAC. A tabela de símbolos é opcional (pode ser null): quando presente, define os slots
+     * e os tipos das variáveis, e todas as variáveis declaradas aparecem no resultado da execução.
+     */
+    public static ProgramaVM montar(List<String> tac, TabelaDeSimbolos tabela) {
+        return new MontadorTAC().executar(tac, tabela);
+    }
+
+    private ProgramaVM executar(List<String> tac, TabelaDeSimbolos tabela) {
+        if (tabela != null) {
+            for (int i = 0; i < tabela.tamanho(); i++) {
+                slot(tabela.nomeNaOrdem(i));
+                tiposVariaveis.set(i, tabela.tipoNaOrdem(i));
+            }
+        }
+
+        // 1ª passada: separa as instruções, registra os labels e dimensiona o banco de registradores
+        for (int i = 0; i < tac.size(); i++) {
+            String texto = tac.get(i).trim();
+            if (texto.isEmpty()) {
+                continue;
+            }
+            int espaco = texto.indexOf(' ');
+            String op = espaco < 0 ? texto : texto.substring(0, espaco);
+            String[] operandos = espaco < 0 ? new String[0] : texto.substring(espaco + 1).split(",");
+            for (int k = 0; k < operandos.length; k++) {
+                operandos[k] = operandos[k].trim();
+            }
+
+            if (op.equals("LABEL")) {
+                exigirOperandos(operandos, 1, texto);
+                if (labels.put(operandos[0], linhas.size()) != null) {
+                    throw new RuntimeException("Erro de Montagem: label '" + operandos[0] + "' definido mais de uma vez.");
+                }
+                continue;
+            }
+            Linha linha = new Linha(op, operandos, i);
+            linhas.add(linha);
+            for (int k : posicoesDeRegistrador(linha)) {
+                quantidadeRegistradores = Math.max(quantidadeRegistradores, numeroRegistrador(operandos[k], linha) + 1);
+            }
+        }
+
+        inferirTiposVariaveis();
+
+        // 2ª passada: codifica as instruções (mais um HALT final, destino dos labels no fim do código)
+        int quantidade = linhas.size() + 1;
+        int[] codigo = new int[quantidade * T];
+        int[] linhasTac = new int[quantidade];
+        boolean[] reais = new boolean[quantidadeRegistradores];
+        for (int i = 0; i < linhas.size(); i++) {
+            codificar(linhas.get(i), codigo, i * T, reais);
+            linhasTac[i] = linhas.get(i).indiceTac;
+        }
+        codigo[linhas.size() * T] = CodigoOperacao.HALT;
+        linhasTac[linhas.size()] = -1;
+
+        long[] valoresConstantes = new long[constantes.size()];
+        boolean[] tiposConstantes = new boolean[constantes.size()];
+        for (int k = 0; k < valoresConstantes.length; k++) {
+            valoresConstantes[k] = constantes.get(k);
+            tiposConstantes[k] = constantesReais.get(k);
+        }
+        return new ProgramaVM(codigo, quantidade, quantidadeRegistradores,
+                valoresConstantes, tiposConstantes,
+                variaveis.toArray(new String[0]), tiposVariaveis.toArray(new TipoDado[0]), slotsSpill.size(),
+                linhasTac, labels);
+    }
+
+    /**
+     * Sem tabela de símbolos, o tipo de cada variável vem do primeiro STORE. Como um LOAD pode
+     * aparecer antes do STORE no texto (laços), repete a simulação até nenhum tipo mudar.
+     */
+    private void inferirTiposVariaveis() {
+        boolean[] reais = new boolean[quantidadeRegistradores];
+        boolean mudou = true;
+        while (mudou) {
+            mudou = false;
+            for (Linha linha : linhas) {
+                String[] o = linha.operandos;
+                switch (linha.op) {
+                    case "LOADI":
+                        reais[numeroRegistrador(o[0], linha)] = literalReal(o[1]);
+                        break;
+                    case "LOAD":
+                        TipoDado tipo = tiposVariaveis.get(slot(o[1]));
+                        reais[numeroRegistrador(o[0], linha)] = tipo == TipoDado.REAL;
+                        break;
+                    case "STORE":
+                        int slot = slot(o[0]);
+                        if (tiposVariaveis.get(slot) == null) {
+                            tiposVariaveis.set(slot, reais[numeroRegistrador(o[1], linha)] ? TipoDado.REAL : TipoDado.INTEIRO);
+                            mudou = true;
+                        }
+                        break;
+                    case "SPILL":
+                        spillReal.set(slotSpill(o[0]), reais[numeroRegistrador(o[1], linha)]);
+                        break;
+                    case "RELOAD":
+                        reais[numeroRegistrador(o[0], linha)] = Boolean.TRUE.equals(spillReal.get(slotSpill(o[1])));
+                        break;
+                    default:
+                        if (linha.op.startsWith("CMP")) {
+                            reais[numeroRegistrador(o[0], linha)] = false;
+                        } else if (operacaoAritmetica(linha.op) >= 0) {
+                            reais[numeroRegistrador(o[0], linha)] = reais[numeroRegistrador(o[o.length == 2 ? 0 : 1], linha)];
+                        }
+                }
+            }
+        }
+        // Variáveis apenas lidas (nunca armazenadas) valem 0 inteiro
+        for (int i = 0; i < tiposVariaveis.size(); i++) {
+            if (tiposVariaveis.get(i) == null) {
+                tiposVariaveis.set(i, TipoDado.INTEIRO);
+            }
+        }
+    }
+
+    private void codificar(Linha linha, int[] codigo, int base, boolean[] reais) {
+        String[] o = linha.operandos;
+        switch (linha.op) {
+            case "LOADI": {
+                exigirOperandos(o, 2, linha.texto());
+                int destino = numeroRegistrador(o[0], linha);
+                codigo[base] = CodigoOperacao.MOV;
+                codigo[base + 1] = destino;
+                codigo[base + 2] = constante(o[1], linha);
+                reais[destino] = literalReal(o[1]);
+                return;
+            }
+            case "LOAD": {
+                exigirOperandos(o, 2, linha.texto());
+                int destino = numeroRegistrador(o[0], linha);
+                int slot = slot(o[1]);
+                codigo[base] = CodigoOperacao.LOAD;
+                codigo[base + 1] = destino;
+                codigo[base + 2] = slot;
+                reais[destino] = tiposVariaveis.get(slot) == TipoDado.REAL;
+                return;
+            }
+            case "STORE": {
+                exigirOperandos(o, 2, linha.texto());
+                int slot = slot(o[0]);
+                int origem = numeroRegistrador(o[1], linha);
+                if ((tiposVariaveis.get(slot) == TipoDado.REAL) != reais[origem]) {
+                    throw new RuntimeException("Erro de Montagem: tipos incompatíveis ao armazenar em '" + o[0]
+                            + "' (" + tiposVariaveis.get(slot) + "): " + linha.texto());
+                }
+                codigo[base] = CodigoOperacao.STORE;
+                codigo[base + 1] = slot;
+                codigo[base + 2] = origem;
+                return;
+            }
+            case "SPILL": {
+                exigirOperandos(o, 2, linha.texto());
+                int origem = numeroRegistrador(o[1], linha);
+                int indice = slotSpill(o[0]);
+                codigo[base] = CodigoOperacao.SPILL;
+                codigo[base + 1] = indice;
+                codigo[base + 2] = origem;
+                spillReal.set(indice, reais[origem]);
+                return;
+            }
+            case "RELOAD": {
+                exigirOperandos(o, 2, linha.texto());
+                int destino = numeroRegistrador(o[0], linha);
+                int indice = slotSpill(o[1]);
+                codigo[base] = CodigoOperacao.RELOAD;
+                codigo[base + 1] = destino;
+                codigo[base + 2] = indice;
+                reais[destino] = Boolean.TRUE.equals(spillReal.get(indice));
+                return;
+            }
+            case "JMP":
+                exigirOperandos(o, 1, linha.texto());
+                codigo[base] = CodigoOperacao.JMP;
+                codigo[base + 1] = destinoLabel(o[0]);
+                return;
+            case "JMPTRUE":
+            case "JMPFALSE":
+                exigirOperandos(o, 2, linha.texto());
+                codigo[base] = linha.op.equals("JMPTRUE") ? CodigoOperacao.JMPTRUE : CodigoOperacao.JMPFALSE;
+                codigo[base + 1] = numeroRegistrador(o[0], linha);
+                codigo[base + 2] = destinoLabel(o[1]);
+                return;
+            default:
+        }
+
+        // Comparações (CMPxx R1, R2 -> resultado em R1) e aritméticas (OP Rd, Rs1, Rs2 / OP Rd, imediato)
+        int operacaoBase;
+        boolean comparacao = linha.op.startsWith("CMP");
+        if (comparacao) {
+            operacaoBase = operacaoComparacao(linha.op);
+            exigirOperandos(o, 2, linha.texto());
+        } else {
+            operacaoBase = operacaoAritmetica(linha.op);
+            if (o.length != 2 && o.length != 3) {
+                exigirOperandos(o, 3, linha.texto());
+            }
+        }
+        if (operacaoBase < 0) {
+            throw new RuntimeException("Erro de Montagem: instrução desconhecida '" + linha.op + "'.");
+        }
+
+        int destino = numeroRegistrador(o[0], linha);
+        int fonte1 = o.length == 3 ? numeroRegistrador(o[1], linha) : destino;
+        String segundo = o[o.length - 1];
+        int fonte2;
+        boolean real2;
+        if (isNumero(segundo)) {
+            fonte2 = constante(segundo, linha);
+            real2 = literalReal(segundo);
+        } else {
+            fonte2 = numeroRegistrador(segundo, linha);
+            real2 = reais[fonte2];
+        }
+        boolean real = reais[fonte1];
+        if (real != real2) {
+            throw new RuntimeException("Erro de Montagem: operandos de tipos diferentes: " + linha.texto());
+        }
+
+        // As versões reais ficam a uma distância fixa das inteiras na tabela de operações
+        int deslocamentoReal = comparacao
+                ? CodigoOperacao.CMPEQ_R - CodigoOperacao.CMPEQ_I
+                : CodigoOperacao.ADD_R - CodigoOperacao.ADD_I;
+        codigo[base] = real ? operacaoBase + deslocamentoReal : operacaoBase;
+        codigo[base + 1] = destino;
+        codigo[base + 2] = fonte1;
+        codigo[base + 3] = fonte2;
+        reais[destino] = !comparacao && real;
+    }
+
+    // Versão inteira da operação aritmética correspondente ao mnemônico do TAC (-1 se não for aritmética)
+    private static int operacaoAritmetica(String op) {
+        switch (op) {
+            case "ADD": case "ADDI": return CodigoOperacao.ADD_I;
+            case "SUB": case "SUBI": return CodigoOperacao.SUB_I;
+            case "MUL": return CodigoOperacao.MUL_I;
+            case "DIV": return CodigoOperacao.DIV_I;
+            case "MOD": return CodigoOperacao.MOD_I;
+            default: return -1;
+        }
+    }
+
+    private static int operacaoComparacao(String op) {
+        switch (op) {
+            case "CMPEQ": return CodigoOperacao.CMPEQ_I;
+            case "CMPNE": return CodigoOperacao.CMPNE_I;
+            case "CMPLT": return CodigoOperacao.CMPLT_I;
+            case "CMPLE": return CodigoOperacao.CMPLE_I;
+            case "CMPGT": return CodigoOperacao.CMPGT_I;
+            case "CMPGE": return CodigoOperacao.CMPGE_I;
+            default: return -1;
+        }
+    }
+
+    // Posições dos operandos que são registradores, conforme a instrução
+    private static int[] posicoesDeRegistrador(Linha linha) {
+        String[] o = linha.operandos;
+        switch (linha.op) {
+            case "LOADI":
+            case "LOAD":
+            case "RELOAD":
+            case "JMPTRUE":
+            case "JMPFALSE":
+                return new int[]{0};
+            case "STORE":
+            case "SPILL":
+                return new int[]{1};
+            case "JMP":
+                return new int[0];
+            default:
+                // Aritméticas e comparações: todos os operandos, exceto um imediato no final
+                int quantidade = o.length > 0 && isNumero(o[o.length - 1]) ? o.length - 1 : o.length;
+                int[] posicoes = new int[quantidade];
+                for (int k = 0; k < quantidade; k++) {
+                    posicoes[k] = k;
+                }
+                return posicoes;
+        }
+    }
+
+    private static int numeroRegistrador(String operando, Linha linha) {
+        if (operando.length() < 2 || operando.charAt(0) != 'R') {
+            throw new RuntimeException("Erro de Montagem: registrador esperado em '" + linha.texto() + "', encontrado '" + operando + "'.");
+        }
+        try {
+            return Integer.parseInt(operando.substring(1));
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Erro de Montagem: registrador inválido '" + operando + "' em '" + linha.texto() + "'.");
+        }
+    }
+
+    private int slot(String variavel) {
+        Integer slot = slots.get(variavel);
+        if (slot == null) {
+            slot = variaveis.size();
+            slots.put(variavel, slot);
+            variaveis.add(variavel);
+            tiposVariaveis.add(null);
+        }
+        return slot;
+    }
+
+    private int slotSpill(String nome) {
+        Integer indice = slotsSpill.get(nome);
+        if (indice == null) {
+            indice = slotsSpill.size();
+            slotsSpill.put(nome, indice);
+            spillReal.add(null);
+        }
+        return indice;
+    }
+
+    // Posição da constante no banco de registradores (constantes iguais são compartilhadas)
+    private int constante(String literal, Linha linha) {
+        Integer indice = indicesConstantes.get(literal);
+        if (indice == null) {
+            boolean real = literalReal(literal);
+            long valor;
+            try {
+                valor = real ? Double.doubleToRawLongBits(Double.parseDouble(literal)) : Long.parseLong(literal);
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("Erro de Montagem: literal inválido '" + literal + "' em '" + linha.texto() + "'.");
+            }
+            indice = constantes.size();
+            indicesConstantes.put(literal, indice);
+            constantes.add(valor);
+            constantesReais.add(real);
+        }
+        return quantidadeRegistradores + indice;
+    }
+
+    private int destinoLabel(String label) {
+        Integer destino = labels.get(label);
+        if (destino == null) {
+            throw new RuntimeException("Erro de Montagem: label '" + label + "' não definido.");
+        }
+        return destino;
+    }
+
+    private static void exigirOperandos(String[] operandos, int quantidade, String texto) {
+        if (operandos.length != quantidade) {
+            throw new RuntimeException("Erro de Montagem: esperados " + quantidade + " operandos em '" + texto + "'.");
+        }
+    }
+
+    private static boolean isNumero(String s) {
+        return InstrucaoTAC.isNumero(s); // Aceita também os literais negativos produzidos pelas dobras de constantes
+    }
+
+    private static boolean literalReal(String literal) {
+        return literal.indexOf('.') >= 0;
+    }
+}
@@ -8,6 +8,7 @@ public class NoArvore {
     public String valor;           // Nome da regra ou valor do token
     public int linha;              // Origem no código fonte
     public List<NoArvore> filhos;  // Lista de sub-nós
+    public int id = -1;            // ID interno quando o nó é um identificador (-1 caso contrário)
 
     public NoArvore(String valor, int linha) {
         this.valor = valor;
@@ -15,6 +16,11 @@ public class NoArvore {
         this.filhos = new ArrayList<>();
     }
 
+    public NoArvore(String valor, int linha, int id) {
+        this(valor, linha);
+        this.id = id;
+    }
+
     public void adicionarFilho(NoArvore filho) {
         this.filhos.add(filho);
     }
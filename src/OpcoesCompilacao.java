@@ -0,0 +1,191 @@
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Opções que alteram o pipeline de compilação, compartilhadas por Main e pelo modo em lote.
+ * Todas desligadas por padrão: sem opções, as saídas das fases 1-4 são as do compilador original.
+ */
+public class OpcoesCompilacao {
+
+    /**
+     * Fases 1-4, na ordem do pipeline (nomes aceitos por --parar-apos e --listagens).
+     */
+    public enum Fase { LEXICO, SINTATICO, SEMANTICO, CODIGO }
+
+    public boolean pipeline;  // Léxico em thread própria, em pipeline com o sintático
+    public boolean otimizar;  // Otimiza o TAC gerado (fase4_otimizado.txt); a execução usa o código otimizado
+    public boolean executar;  // Executa o programa na máquina virtual (Fase 5)
+    public boolean objeto;    // Grava o programa montado no formato binário (programa.cmpo, ver ArquivoObjeto)
+    public int registradores; // Registradores físicos para o AlocadorRegistradores (0: sem alocação)
+    public String passos = GerenciadorPassos.PASSOS_PADRAO; // Passos da otimização, na ordem
+    public Path diretorioCache; // Cache das fases 1-4 (null: sem cache)
+    public long limiteCache = CacheCompilacao.LIMITE_PADRAO; // Tamanho máximo do cache, em bytes
+    public Fase pararApos;    // Última fase executada (null ou codigo: todas, seguidas de otimização e execução)
+    public EnumSet<Fase> listagens = EnumSet.allOf(Fase.class); // Listagens montadas (fase1_lexico.txt ... fase4_codigo.txt)
+    public boolean metricas;  // Grava metricas.json com a duração e a produção de cada fase (ver MetricasCompilacao)
+    public boolean paralelo;  // Semântica e geração de código em tarefas fork-join (ver FasesParalelas; ignorada com pipeline)
+    public boolean arvoreCompacta; // fase2_sintatico.txt no formato COMPACTO do EscritorArvore, sem o desenho
+
+    private CacheCompilacao cache; // Aberto na primeira compilação e compartilhado pelas threads do lote
+
+    /**
+     * Reconhece a opção na posição 'i' dos argumentos e a aplica.
+     * @return Quantidade de argumentos consumidos (0 se não for uma opção de compilação).
+     */
+    public int reconhecer(List<String> argumentos, int i) {
+        switch (argumentos.get(i)) {
+            case "--pipeline": pipeline = true; return 1;
+            case "--otimizar": otimizar = true; return 1;
+            case "--executar": executar = true; return 1;
+            case "--objeto": objeto = true; return 1;
+            case "--metricas": metricas = true; return 1;
+            case "--paralelo": paralelo = true; return 1;
+            case "--arvore-compacta": arvoreCompacta = true; return 1;
+            case "--registradores":
+                if (i + 1 >= argumentos.size()) {
+                    throw new IllegalArgumentException("A opção --registradores exige a quantidade de registradores.");
+                }
+                registradores = Integer.parseInt(argumentos.get(i + 1));
+                if (registradores < AlocadorRegistradores.MINIMO_REGISTRADORES) {
+                    throw new IllegalArgumentException("A opção --registradores exige pelo menos "
+                            + AlocadorRegistradores.MINIMO_REGISTRADORES + " registradores.");
+                }
+                return 2;
+            case "--passos":
+                if (i + 1 >= argumentos.size()) {
+                    throw new IllegalArgumentException("A opção --passos exige a lista de passos (ex.: constantes,ssa,saltos).");
+                }
+                passos = argumentos.get(i + 1);
+                GerenciadorPassos.criar(passos); // Valida os nomes antes de compilar
+                otimizar = true;
+                return 2;
+            case "--cache":
+                if (i + 1 >= argumentos.size()) {
+                    throw new IllegalArgumentException("A opção --cache exige o diretório do cache.");
+                }
+                diretorioCache = Path.of(argumentos.get(i + 1));
+                return 2;
+            case "--cache-limite":
+                if (i + 1 >= argumentos.size()) {
+                    throw new IllegalArgumentException("A opção --cache-limite exige o tamanho em MB.");
+                }
+                limiteCache = Long.parseLong(argumentos.get(i + 1)) * 1024 * 1024;
+                return 2;
+            case "--parar-apos":
+                if (i + 1 >= argumentos.size()) {
+                    throw new IllegalArgumentException("A opção --parar-apos exige a fase (lexico, sintatico, semantico ou codigo).");
+                }
+                pararApos = fase(argumentos.get(i + 1));
+                return 2;
+            case "--listagens":
+                if (i + 1 >= argumentos.size()) {
+                    throw new IllegalArgumentException("A opção --listagens exige a lista de fases (ex.: lexico,codigo, todas ou nenhuma).");
+                }
+                listagens = fases(argumentos.get(i + 1));
+                return 2;
+            default: return 0;
+        }
+    }
+
+    /**
+     * Rejeita combinações sem efeito: otimização, alocação, arquivo objeto e execução partem do TAC,
+     * então não combinam com --parar-apos antes da fase codigo.
+     */
+    public void validar() {
+        if (pararApos != null && pararApos != Fase.CODIGO && (otimizar || registradores > 0 || objeto || executar)) {
+            throw new IllegalArgumentException("A opção --parar-apos " + pararApos.name().toLowerCase()
+                    + " não pode ser combinada com --otimizar, --passos, --registradores, --objeto ou --executar.");
+        }
+    }
+
+    /**
+     * Verdadeiro se a fase é executada (não vem depois da indicada em --parar-apos).
+     */
+    public boolean executa(Fase fase) {
+        return pararApos == null || fase.compareTo(pararApos) <= 0;
+    }
+
+    /**
+     * Verdadeiro se a listagem da fase deve ser montada: as demais nem chegam a ser formatadas.
+     */
+    public boolean lista(Fase fase) {
+        return listagens.contains(fase) && executa(fase);
+    }
+
+    /**
+     * Formato da listagem da árvore sintática (fase2_sintatico.txt).
+     */
+    public EscritorArvore.Formato formatoArvore() {
+        return arvoreCompacta ? EscritorArvore.Formato.COMPACTO : EscritorArvore.Formato.DESENHO;
+    }
+
+    /**
+     * Verdadeiro se as fases 1-4 rodam inteiras, com a árvore no formato padrão: as compilações que usam o cache
+     * (ele guarda todas as listagens; as não pedidas são descartadas depois).
+     */
+    public boolean fasesCompletas() {
+        return executa(Fase.CODIGO) && !arvoreCompacta;
+    }
+
+    /**
+     * Cópia destas opções com todas as listagens, para montar uma entrada completa do cache.
+     * A cópia usa o mesmo cache.
+     */
+    public OpcoesCompilacao comTodasAsListagens() {
+        OpcoesCompilacao copia = new OpcoesCompilacao();
+        copia.pipeline = pipeline;
+        copia.otimizar = otimizar;
+        copia.executar = executar;
+        copia.objeto = objeto;
+        copia.registradores = registradores;
+        copia.passos = passos;
+        copia.diretorioCache = diretorioCache;
+        copia.limiteCache = limiteCache;
+        copia.pararApos = pararApos;
+        copia.listagens = EnumSet.allOf(Fase.class);
+        copia.metricas = metricas;
+        copia.paralelo = paralelo;
+        copia.arvoreCompacta = arvoreCompacta;
+        copia.usarCache(cache());
+        return copia;
+    }
+
+    private static Fase fase(String nome) {
+        try {
+            return Fase.valueOf(nome.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Fase desconhecida: " + nome + " (use lexico, sintatico, semantico ou codigo).");
+        }
+    }
+
+    private static EnumSet<Fase> fases(String lista) {
+        if (lista.equals("todas")) {
+            return EnumSet.allOf(Fase.class);
+        }
+        EnumSet<Fase> fases = EnumSet.noneOf(Fase.class);
+        if (!lista.equals("nenhuma")) {
+            for (String nome : lista.split(",")) {
+                fases.add(fase(nome));
+            }
+        }
+        return fases;
+    }
+
+    /**
+     * Usa um cache já aberto (ex: o do servidor, compartilhado por todas as requisições).
+     */
+    public synchronized void usarCache(CacheCompilacao cacheCompartilhado) {
+        cache = cacheCompartilhado;
+    }
+
+    /**
+     * Cache de compilação indicado por --cache (null se desligado).
+     */
+    public synchronized CacheCompilacao cache() {
+        if (cache == null && diretorioCache != null) {
+            cache = new CacheCompilacao(diretorioCache, limiteCache);
+        }
+        return cache;
+    }
+}
@@ -0,0 +1,419 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Otimização do TAC por constantes: dobra de expressões com operandos conhecidos, propagação dos
+ * valores constantes das variáveis e eliminação de desvios decididos em tempo de compilação.
+ *
+ * Cada rodada:
+ * 1. propaga, pelo grafo de fluxo, quais variáveis têm valor constante na entrada de cada bloco
+ *    (só pelos caminhos viáveis: um salto com condição conhecida segue apenas o lado tomado);
+ * 2. reescreve os blocos: LOAD de variável constante vira LOADI, operações com os dois operandos
+ *    conhecidos viram LOADI, registrador constante como segundo operando vira imediato e
+ *    JMPTRUE/JMPFALSE com condição conhecida vira JMP ou desaparece;
+ * 3. descarta os blocos que deixaram de ser alcançáveis;
+ * 4. remove as instruções cujo registrador de destino não é mais lido (análise de vivacidade).
+ * As rodadas se repetem até o código parar de mudar.
+ *
+ * Variáveis começam desconhecidas (o programa pode ler uma variável antes de atribuí-la) e os
+ * STOREs são sempre mantidos, pois os valores finais das variáveis são o resultado do programa.
+ * Divisões inteiras por zero não são dobradas, para que o erro continue acontecendo na execução.
+ */
+public class OtimizadorConstantes implements PassoOtimizacao {
+
+    private static final int MAXIMO_RODADAS = 16;
+
+    // Valor conhecido em tempo de compilação; reais seguem a convenção do TAC (literal com '.')
+    private static final class Constante {
+        final boolean real;
+        final long inteiro;
+        final double valorReal;
+
+        private Constante(boolean real, long inteiro, double valorReal) {
+            this.real = real;
+            this.inteiro = inteiro;
+            this.valorReal = valorReal;
+        }
+
+        static Constante inteiro(long valor) {
+            return new Constante(false, valor, 0);
+        }
+
+        static Constante real(double valor) {
+            return new Constante(true, 0, valor);
+        }
+
+        // Literais que não cabem em long/double (ex.: 99999999999999999999 ou 1.2.3) devolvem null:
+        // o operando é tratado como desconhecido e a instrução fica sem dobrar
+        static Constante ler(String literal) {
+            try {
+                return literal.indexOf('.') >= 0
+                        ? real(Double.parseDouble(literal))
+                        : inteiro(Long.parseLong(literal));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        boolean verdadeiro() {
+            return real ? valorReal != 0 : inteiro != 0;
+        }
+
+        String texto() {
+            return real ? Double.toString(valorReal) : Long.toString(inteiro);
+        }
+
+        @Override
+        public boolean equals(Object outro) {
+            if (!(outro instanceof Constante)) {
+                return false;
+            }
+            Constante c = (Constante) outro;
+            return real == c.real && inteiro == c.inteiro
+                    && Double.doubleToRawLongBits(valorReal) == Double.doubleToRawLongBits(c.valorReal);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(real, inteiro, Double.doubleToRawLongBits(valorReal));
+        }
+    }
+
+    // Estatísticas acumuladas de todas as rodadas
+    private int instrucoesAntes;
+    private int instrucoesDepois;
+    private int rodadas;
+    private int dobras;
+    private int propagacoes;
+    private int imediatos;
+    private int saltosDecididos;
+    private int blocosRemovidos;
+    private int instrucoesMortas;
+
+    /**
+     * Otimiza o código gerado pelo GeradorCodigoIntermediario e devolve o novo TAC.
+     */
+    public List<String> otimizar(List<String> codigo) {
+        return InstrucaoTAC.escreverTodas(otimizarInstrucoes(InstrucaoTAC.lerTodas(codigo)));
+    }
+
+    @Override
+    public String getNome() {
+        return "constantes";
+    }
+
+    @Override
+    public List<InstrucaoTAC> executar(List<InstrucaoTAC> codigo) {
+        return otimizarInstrucoes(codigo);
+    }
+
+    public List<InstrucaoTAC> otimizarInstrucoes(List<InstrucaoTAC> codigo) {
+        instrucoesAntes = InstrucaoTAC.contarExecutaveis(codigo);
+        List<InstrucaoTAC> atual = codigo;
+        List<String> textoAtual = InstrucaoTAC.escreverTodas(atual);
+        boolean mudou = true;
+        rodadas = 0;
+        while (mudou && rodadas < MAXIMO_RODADAS) {
+            atual = eliminarCodigoMorto(propagarEDobrar(atual));
+            rodadas++;
+            List<String> textoNovo = InstrucaoTAC.escreverTodas(atual);
+            mudou = !textoNovo.equals(textoAtual);
+            textoAtual = textoNovo;
+        }
+        instrucoesDepois = InstrucaoTAC.contarExecutaveis(atual);
+        return atual;
+    }
+
+    public int getInstrucoesEliminadas() {
+        return instrucoesAntes - instrucoesDepois;
+    }
+
+    /**
+     * Relatório com a quantidade de instruções eliminadas e de cada transformação aplicada.
+     */
+    @Override
+    public String relatorio() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Otimização de constantes (").append(rodadas).append(rodadas == 1 ? " rodada)\n" : " rodadas)\n");
+        sb.append(String.format("  %-35s %d\n", "Instruções antes:", instrucoesAntes));
+        sb.append(String.format("  %-35s %d\n", "Instruções depois:", instrucoesDepois));
+        sb.append(String.format("  %-35s %d\n", "Instruções eliminadas:", getInstrucoesEliminadas()));
+        sb.append(String.format("  %-35s %d\n", "Operações dobradas:", dobras));
+        sb.append(String.format("  %-35s %d\n", "Leituras de variável propagadas:", propagacoes));
+        sb.append(String.format("  %-35s %d\n", "Operandos convertidos em imediato:", imediatos));
+        sb.append(String.format("  %-35s %d\n", "Saltos decididos:", saltosDecididos));
+        sb.append(String.format("  %-35s %d\n", "Blocos inalcançáveis removidos:", blocosRemovidos));
+        sb.append(String.format("  %-35s %d\n", "Instruções mortas removidas:", instrucoesMortas));
+        return sb.toString();
+    }
+
+    // ---------------------------------------------------------
+    // Propagação de constantes e dobras
+    // ---------------------------------------------------------
+
+    private List<InstrucaoTAC> propagarEDobrar(List<InstrucaoTAC> codigo) {
+        GrafoFluxoControle grafo = GrafoFluxoControle.construir(codigo);
+        List<BlocoBasico> blocos = grafo.getBlocos();
+
+        // Variáveis constantes na entrada de cada bloco (null: bloco ainda não alcançado).
+        // A junção de dois caminhos mantém apenas as variáveis com o mesmo valor nos dois.
+        List<Map<String, Constante>> entradas = new ArrayList<>();
+        for (int i = 0; i < blocos.size(); i++) {
+            entradas.add(null);
+        }
+        entradas.set(0, new HashMap<>());
+        ArrayDeque<BlocoBasico> pendentes = new ArrayDeque<>();
+        pendentes.add(grafo.getEntrada());
+        while (!pendentes.isEmpty()) {
+            BlocoBasico bloco = pendentes.poll();
+            Map<String, Constante> saida = new HashMap<>(entradas.get(bloco.indice));
+            List<InstrucaoTAC> reescrito = simular(bloco.instrucoes, saida, false);
+            for (BlocoBasico sucessor : sucessoresViaveis(grafo, bloco, reescrito)) {
+                Map<String, Constante> entrada = entradas.get(sucessor.indice);
+                if (entrada == null) {
+                    entradas.set(sucessor.indice, new HashMap<>(saida));
+                    pendentes.add(sucessor);
+                } else if (entrada.entrySet().removeIf(e -> !e.getValue().equals(saida.get(e.getKey())))) {
+                    pendentes.add(sucessor);
+                }
+            }
+        }
+
+        // Reescreve os blocos alcançados; os demais só eram atingidos por saltos que foram decididos
+        List<InstrucaoTAC> resultado = new ArrayList<>(codigo.size());
+        for (BlocoBasico bloco : blocos) {
+            Map<String, Constante> entrada = entradas.get(bloco.indice);
+            if (entrada == null) {
+                if (!bloco.instrucoes.isEmpty()) {
+                    blocosRemovidos++;
+                }
+                continue;
+            }
+            resultado.addAll(simular(bloco.instrucoes, new HashMap<>(entrada), true));
+        }
+        return resultado;
+    }
+
+    /**
+     * Sucessores que a execução pode realmente atingir, conforme a última instrução já reescrita.
+     */
+    private static List<BlocoBasico> sucessoresViaveis(GrafoFluxoControle grafo, BlocoBasico bloco, List<InstrucaoTAC> reescrito) {
+        List<BlocoBasico> viaveis = new ArrayList<>(2);
+        InstrucaoTAC ultima = reescrito.isEmpty() ? null : reescrito.get(reescrito.size() - 1);
+        if (ultima != null && ultima.isSalto()) {
+            viaveis.add(grafo.bloco(ultima.destinoSalto()));
+        }
+        List<BlocoBasico> blocos = grafo.getBlocos();
+        if ((ultima == null || !ultima.isSaltoIncondicional()) && bloco.indice + 1 < blocos.size()) {
+            viaveis.add(blocos.get(bloco.indice + 1));
+        }
+        return viaveis;
+    }
+
+    /**
+     * Percorre as instruções de um bloco acompanhando os valores constantes de registradores
+     * e variáveis, e devolve o bloco reescrito. 'variaveis' é atualizado para a saída do bloco.
+     * Registradores começam desconhecidos em cada bloco.
+     * @param contar Se true, contabiliza as transformações nas estatísticas.
+     */
+    private List<InstrucaoTAC> simular(List<InstrucaoTAC> instrucoes, Map<String, Constante> variaveis, boolean contar) {
+        Map<String, Constante> registradores = new HashMap<>();
+        List<InstrucaoTAC> saida = new ArrayList<>(instrucoes.size());
+        for (InstrucaoTAC instrucao : instrucoes) {
+            String[] o = instrucao.operandos;
+            switch (instrucao.op) {
+                case "LABEL":
+                case "JMP":
+                    saida.add(instrucao);
+                    break;
+                case "LOADI": {
+                    Constante valor = Constante.ler(o[1]);
+                    if (valor != null) {
+                        registradores.put(o[0], valor);
+                    } else {
+                        registradores.remove(o[0]);
+                    }
+                    saida.add(instrucao);
+                    break;
+                }
+                case "LOAD": {
+                    Constante valor = variaveis.get(o[1]);
+                    if (valor != null) {
+                        registradores.put(o[0], valor);
+                        saida.add(new InstrucaoTAC("LOADI", o[0], valor.texto()));
+                        if (contar) propagacoes++;
+                    } else {
+                        registradores.remove(o[0]);
+                        saida.add(instrucao);
+                    }
+                    break;
+                }
+                case "STORE": {
+                    Constante valor = registradores.get(o[1]);
+                    if (valor != null) {
+                        variaveis.put(o[0], valor);
+                    } else {
+                        variaveis.remove(o[0]);
+                    }
+                    saida.add(instrucao);
+                    break;
+                }
+                case "JMPTRUE":
+                case "JMPFALSE": {
+                    Constante condicao = registradores.get(o[0]);
+                    if (condicao == null) {
+                        saida.add(instrucao);
+                        break;
+                    }
+                    // Condição conhecida: o salto sempre acontece (vira JMP) ou nunca acontece (some)
+                    if (condicao.verdadeiro() == instrucao.op.equals("JMPTRUE")) {
+                        saida.add(new InstrucaoTAC("JMP", o[1]));
+                    }
+                    if (contar) saltosDecididos++;
+                    break;
+                }
+                default:
+                    saida.add(simularOperacao(instrucao, registradores, contar));
+            }
+        }
+        return saida;
+    }
+
+    // Aritméticas e comparações: "OP Rd, Rs1, Rs2", "OP Rd, imediato" ou "CMPxx R1, R2"
+    private InstrucaoTAC simularOperacao(InstrucaoTAC instrucao, Map<String, Constante> registradores, boolean contar) {
+        String[] o = instrucao.operandos;
+        String destino = o[0];
+        String primeiro = instrucao.isFormaCurta() ? o[0] : o[1];
+        String segundo = o[o.length - 1];
+        Constante a = registradores.get(primeiro);
+        Constante b = InstrucaoTAC.isNumero(segundo) ? Constante.ler(segundo) : registradores.get(segundo);
+
+        if (a != null && b != null) {
+            Constante resultado = calcular(instrucao.op, a, b);
+            if (resultado != null) {
+                registradores.put(destino, resultado);
+                if (contar) dobras++;
+                return new InstrucaoTAC("LOADI", destino, resultado.texto());
+            }
+        }
+        registradores.remove(destino);
+
+        // Segundo operando em registrador com valor conhecido: usa o valor como imediato
+        if (b != null && !InstrucaoTAC.isNumero(segundo)) {
+            InstrucaoTAC imediata = null;
+            if (instrucao.isComparacao()) {
+                imediata = new InstrucaoTAC(instrucao.op, destino, b.texto());
+            } else if (o.length == 3 && o[0].equals(o[1])) {
+                imediata = new InstrucaoTAC(mnemonicoImediato(instrucao.op), destino, b.texto());
+            }
+            if (imediata != null) {
+                if (contar) imediatos++;
+                return imediata;
+            }
+        }
+        return instrucao;
+    }
+
+    // Mesma convenção do gerador: ADDI/SUBI para soma e subtração, mnemônico com 2 operandos nas demais
+    private static String mnemonicoImediato(String op) {
+        switch (op) {
+            case "ADD": return "ADDI";
+            case "SUB": return "SUBI";
+            default: return op;
+        }
+    }
+
+    /**
+     * Calcula a operação em tempo de compilação, com a mesma semântica da máquina virtual.
+     * Devolve null quando o resultado não deve ser dobrado (tipos diferentes, divisão inteira por
+     * zero ou real não finito, que não tem representação como literal).
+     */
+    private static Constante calcular(String op, Constante a, Constante b) {
+        if (a.real != b.real) {
+            return null;
+        }
+        if (op.startsWith("CMP")) {
+            int comparacao = a.real ? 0 : Long.compare(a.inteiro, b.inteiro);
+            boolean valor;
+            switch (op) {
+                case "CMPEQ": valor = a.real ? a.valorReal == b.valorReal : comparacao == 0; break;
+                case "CMPNE": valor = a.real ? a.valorReal != b.valorReal : comparacao != 0; break;
+                case "CMPLT": valor = a.real ? a.valorReal < b.valorReal : comparacao < 0; break;
+                case "CMPLE": valor = a.real ? a.valorReal <= b.valorReal : comparacao <= 0; break;
+                case "CMPGT": valor = a.real ? a.valorReal > b.valorReal : comparacao > 0; break;
+                case "CMPGE": valor = a.real ? a.valorReal >= b.valorReal : comparacao >= 0; break;
+                default: return null;
+            }
+            return Constante.inteiro(valor ? 1 : 0);
+        }
+        if (a.real) {
+            double valor;
+            switch (op) {
+                case "ADD": case "ADDI": valor = a.valorReal + b.valorReal; break;
+                case "SUB": case "SUBI": valor = a.valorReal - b.valorReal; break;
+                case "MUL": valor = a.valorReal * b.valorReal; break;
+                case "DIV": valor = a.valorReal / b.valorReal; break;
+                case "MOD": valor = a.valorReal % b.valorReal; break;
+                default: return null;
+            }
+            return Double.isFinite(valor) ? Constante.real(valor) : null;
+        }
+        switch (op) {
+            case "ADD": case "ADDI": return Constante.inteiro(a.inteiro + b.inteiro);
+            case "SUB": case "SUBI": return Constante.inteiro(a.inteiro - b.inteiro);
+            case "MUL": return Constante.inteiro(a.inteiro * b.inteiro);
+            case "DIV": return b.inteiro == 0 ? null : Constante.inteiro(a.inteiro / b.inteiro);
+            case "MOD": return b.inteiro == 0 ? null : Constante.inteiro(a.inteiro % b.inteiro);
+            default: return null;
+        }
+    }
+
+    // ---------------------------------------------------------
+    // Eliminação de código morto (registradores)
+    // ---------------------------------------------------------
+
+    /**
+     * Remove instruções sem efeito colateral cujo registrador de destino não é lido depois.
+     * A vivacidade é calculada de trás para frente sobre o grafo de fluxo, até estabilizar.
+     */
+    private List<InstrucaoTAC> eliminarCodigoMorto(List<InstrucaoTAC> codigo) {
+        GrafoFluxoControle grafo = GrafoFluxoControle.construir(codigo);
+        List<Set<String>> vivosNaEntrada = grafo.registradoresVivosNaEntrada();
+
+        List<InstrucaoTAC> resultado = new ArrayList<>(codigo.size());
+        for (BlocoBasico bloco : grafo.getBlocos()) {
+            Set<String> vivos = GrafoFluxoControle.registradoresVivosNaSaida(bloco, vivosNaEntrada);
+            ArrayDeque<InstrucaoTAC> mantidas = new ArrayDeque<>();
+            for (int k = bloco.instrucoes.size() - 1; k >= 0; k--) {
+                InstrucaoTAC instrucao = bloco.instrucoes.get(k);
+                String destino = instrucao.registradorDefinido();
+                if (destino != null && !vivos.contains(destino) && semEfeitoColateral(instrucao)) {
+                    instrucoesMortas++;
+                    continue;
+                }
+                GrafoFluxoControle.recuarVivos(instrucao, vivos);
+                mantidas.addFirst(instrucao);
+            }
+            resultado.addAll(mantidas);
+        }
+        return resultado;
+    }
+
+    // DIV/MOD podem lançar divisão por zero; só são removíveis com divisor literal diferente de zero
+    private static boolean semEfeitoColateral(InstrucaoTAC instrucao) {
+        if (instrucao.op.equals("DIV") || instrucao.op.equals("MOD")) {
+            String divisor = instrucao.operandos[instrucao.operandos.length - 1];
+            if (!InstrucaoTAC.isNumero(divisor)) {
+                return false;
+            }
+            Constante valor = Constante.ler(divisor);
+            return valor != null && valor.verdadeiro();
+        }
+        return true;
+    }
+}
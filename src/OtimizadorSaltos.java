@@ -0,0 +1,425 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Otimização dos desvios do TAC: simplifica a malha de labels e saltos deixada pelo gerador
+ * e reorganiza os blocos para que o caminho mais comum siga em frente, sem saltar.
+ *
+ * Transformações, repetidas até o código parar de mudar:
+ * - labels consecutivos são fundidos em um só;
+ * - saltos para um label seguido de JMP vão direto ao destino final (jump threading);
+ * - "JMPTRUE R, A / JMP B / LABEL A" vira "JMPFALSE R, B / LABEL A" (e vice-versa);
+ * - um bloco alcançado apenas por um JMP é movido para logo depois dele, eliminando o salto;
+ * - laços 'enquanto' são rotacionados: a condição é repetida no fim do corpo, com o salto invertido
+ *   voltando ao início do corpo, e cada volta executa um desvio em vez de dois;
+ * - saltos para a instrução seguinte, blocos inalcançáveis e labels sem referência são removidos.
+ */
+public class OtimizadorSaltos implements PassoOtimizacao {
+
+    private static final int MAXIMO_RODADAS = 16;
+    private static final int LIMITE_CABECALHO = 8; // Maior condição de laço duplicada na rotação (instruções)
+
+    private int instrucoesAntes;
+    private int instrucoesDepois;
+    private int saltosAntes;
+    private int saltosDepois;
+    private int labelsAntes;
+    private int labelsDepois;
+    private int rodadas;
+    private int labelsFundidos;
+    private int saltosEncadeados;
+    private int condicoesInvertidas;
+    private int blocosReposicionados;
+    private int lacosRotacionados;
+    private int saltosRemovidos;
+    private int instrucoesInalcancaveis;
+
+    private int proximoLabel; // Numeração dos labels criados pela rotação (continua a do gerador)
+
+    /**
+     * Otimiza o código gerado pelo GeradorCodigoIntermediario e devolve o novo TAC.
+     */
+    public List<String> otimizar(List<String> codigo) {
+        return InstrucaoTAC.escreverTodas(otimizarInstrucoes(InstrucaoTAC.lerTodas(codigo)));
+    }
+
+    @Override
+    public String getNome() {
+        return "saltos";
+    }
+
+    @Override
+    public List<InstrucaoTAC> executar(List<InstrucaoTAC> codigo) {
+        return otimizarInstrucoes(codigo);
+    }
+
+    public List<InstrucaoTAC> otimizarInstrucoes(List<InstrucaoTAC> codigo) {
+        instrucoesAntes = InstrucaoTAC.contarExecutaveis(codigo);
+        labelsAntes = codigo.size() - instrucoesAntes;
+        saltosAntes = contarSaltos(codigo);
+        proximoLabel = maiorNumeroDeLabel(codigo) + 1;
+
+        List<InstrucaoTAC> atual = new ArrayList<>(codigo);
+        List<String> textoAtual = InstrucaoTAC.escreverTodas(atual);
+        boolean mudou = true;
+        rodadas = 0;
+        while (mudou && rodadas < MAXIMO_RODADAS) {
+            atual = fundirLabels(atual);
+            atual = encadearSaltos(atual);
+            atual = inverterCondicoes(atual);
+            atual = removerSaltosParaProxima(atual);
+            atual = removerInalcancaveis(atual);
+            atual = posicionarBlocos(atual);
+            atual = rotacionarLacos(atual);
+            atual = removerLabelsSemUso(atual);
+            rodadas++;
+            List<String> textoNovo = InstrucaoTAC.escreverTodas(atual);
+            mudou = !textoNovo.equals(textoAtual);
+            textoAtual = textoNovo;
+        }
+        instrucoesDepois = InstrucaoTAC.contarExecutaveis(atual);
+        labelsDepois = atual.size() - instrucoesDepois;
+        saltosDepois = contarSaltos(atual);
+        return atual;
+    }
+
+    /**
+     * Diferença de tamanho do código; pode ser negativa, pois a rotação de laços duplica condições.
+     */
+    public int getInstrucoesEliminadas() {
+        return instrucoesAntes - instrucoesDepois;
+    }
+
+    /**
+     * Relatório com o tamanho do código, saltos e labels antes e depois, e cada transformação aplicada.
+     */
+    @Override
+    public String relatorio() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Otimização de saltos e leiaute de blocos (").append(rodadas).append(rodadas == 1 ? " rodada)\n" : " rodadas)\n");
+        sb.append(String.format("  %-35s %d\n", "Instruções antes:", instrucoesAntes));
+        sb.append(String.format("  %-35s %d\n", "Instruções depois:", instrucoesDepois));
+        sb.append(String.format("  %-35s %d -> %d\n", "Saltos no código:", saltosAntes, saltosDepois));
+        sb.append(String.format("  %-35s %d -> %d\n", "Labels:", labelsAntes, labelsDepois));
+        sb.append(String.format("  %-35s %d\n", "Labels fundidos:", labelsFundidos));
+        sb.append(String.format("  %-35s %d\n", "Saltos encadeados (threading):", saltosEncadeados));
+        sb.append(String.format("  %-35s %d\n", "Condições invertidas:", condicoesInvertidas));
+        sb.append(String.format("  %-35s %d\n", "Blocos reposicionados:", blocosReposicionados));
+        sb.append(String.format("  %-35s %d\n", "Laços rotacionados:", lacosRotacionados));
+        sb.append(String.format("  %-35s %d\n", "Saltos para a próxima instrução:", saltosRemovidos));
+        sb.append(String.format("  %-35s %d\n", "Instruções inalcançáveis:", instrucoesInalcancaveis));
+        return sb.toString();
+    }
+
+    // ---------------------------------------------------------
+    // Labels e saltos
+    // ---------------------------------------------------------
+
+    /**
+     * Labels em sequência marcam a mesma posição: mantém o primeiro e redireciona os saltos dos demais.
+     */
+    private List<InstrucaoTAC> fundirLabels(List<InstrucaoTAC> codigo) {
+        Map<String, String> equivalentes = new HashMap<>();
+        List<InstrucaoTAC> resultado = new ArrayList<>(codigo.size());
+        String anterior = null; // Label imediatamente anterior, se a última instrução mantida for um LABEL
+        for (InstrucaoTAC instrucao : codigo) {
+            if (instrucao.isLabel() && anterior != null) {
+                equivalentes.put(instrucao.operandos[0], anterior);
+                labelsFundidos++;
+                continue;
+            }
+            anterior = instrucao.isLabel() ? instrucao.operandos[0] : null;
+            resultado.add(instrucao);
+        }
+        return equivalentes.isEmpty() ? resultado : redirecionar(resultado, equivalentes);
+    }
+
+    /**
+     * Um salto para um label cuja primeira instrução é "JMP M" pode ir direto para M.
+     * Cadeias são seguidas até o fim; ciclos de JMPs (laço vazio infinito) são deixados como estão.
+     */
+    private List<InstrucaoTAC> encadearSaltos(List<InstrucaoTAC> codigo) {
+        Map<String, String> proximoSalto = new HashMap<>();
+        for (int i = 0; i < codigo.size(); i++) {
+            if (codigo.get(i).isLabel()) {
+                InstrucaoTAC seguinte = primeiraExecutavel(codigo, i);
+                if (seguinte != null && seguinte.isSaltoIncondicional()) {
+                    proximoSalto.put(codigo.get(i).operandos[0], seguinte.operandos[0]);
+                }
+            }
+        }
+
+        Map<String, String> destinoFinal = new HashMap<>();
+        for (String label : proximoSalto.keySet()) {
+            Set<String> visitados = new HashSet<>();
+            String destino = label;
+            while (proximoSalto.containsKey(destino) && visitados.add(destino)) {
+                destino = proximoSalto.get(destino);
+            }
+            if (!visitados.contains(destino)) {
+                destinoFinal.put(label, destino);
+            }
+        }
+
+        List<InstrucaoTAC> resultado = new ArrayList<>(codigo.size());
+        for (InstrucaoTAC instrucao : codigo) {
+            String destino = instrucao.destinoSalto();
+            if (destino != null && destinoFinal.containsKey(destino)) {
+                instrucao = comDestino(instrucao, destinoFinal.get(destino));
+                saltosEncadeados++;
+            }
+            resultado.add(instrucao);
+        }
+        return resultado;
+    }
+
+    /**
+     * Salto condicional que só pula um JMP: inverte a condição e salta direto para o destino do JMP.
+     */
+    private List<InstrucaoTAC> inverterCondicoes(List<InstrucaoTAC> codigo) {
+        List<InstrucaoTAC> resultado = new ArrayList<>(codigo.size());
+        for (int i = 0; i < codigo.size(); i++) {
+            InstrucaoTAC instrucao = codigo.get(i);
+            if (instrucao.isSaltoCondicional() && i + 2 < codigo.size()
+                    && codigo.get(i + 1).isSaltoIncondicional()
+                    && labelNaPosicao(codigo, i + 2, instrucao.destinoSalto())) {
+                resultado.add(new InstrucaoTAC(inverso(instrucao.op), instrucao.operandos[0], codigo.get(i + 1).operandos[0]));
+                condicoesInvertidas++;
+                i++; // O JMP foi absorvido
+                continue;
+            }
+            resultado.add(instrucao);
+        }
+        return resultado;
+    }
+
+    /**
+     * Remove saltos cujo destino é a própria instrução seguinte (apenas labels no meio).
+     */
+    private List<InstrucaoTAC> removerSaltosParaProxima(List<InstrucaoTAC> codigo) {
+        List<InstrucaoTAC> resultado = new ArrayList<>(codigo.size());
+        for (int i = 0; i < codigo.size(); i++) {
+            InstrucaoTAC instrucao = codigo.get(i);
+            if (instrucao.isSalto() && labelNaPosicao(codigo, i + 1, instrucao.destinoSalto())) {
+                saltosRemovidos++;
+                continue;
+            }
+            resultado.add(instrucao);
+        }
+        return resultado;
+    }
+
+    private List<InstrucaoTAC> removerInalcancaveis(List<InstrucaoTAC> codigo) {
+        GrafoFluxoControle grafo = GrafoFluxoControle.construir(codigo);
+        boolean[] alcancado = grafo.alcancaveis();
+        List<InstrucaoTAC> resultado = new ArrayList<>(codigo.size());
+        for (BlocoBasico bloco : grafo.getBlocos()) {
+            if (alcancado[bloco.indice]) {
+                resultado.addAll(bloco.instrucoes);
+            } else {
+                instrucoesInalcancaveis += InstrucaoTAC.contarExecutaveis(bloco.instrucoes);
+            }
+        }
+        return resultado;
+    }
+
+    private List<InstrucaoTAC> removerLabelsSemUso(List<InstrucaoTAC> codigo) {
+        Set<String> usados = new HashSet<>();
+        for (InstrucaoTAC instrucao : codigo) {
+            if (instrucao.isSalto()) {
+                usados.add(instrucao.destinoSalto());
+            }
+        }
+        List<InstrucaoTAC> resultado = new ArrayList<>(codigo.size());
+        for (InstrucaoTAC instrucao : codigo) {
+            if (!instrucao.isLabel() || usados.contains(instrucao.operandos[0])) {
+                resultado.add(instrucao);
+            }
+        }
+        return resultado;
+    }
+
+    // ---------------------------------------------------------
+    // Leiaute de blocos
+    // ---------------------------------------------------------
+
+    /**
+     * Um bloco alcançado apenas pelo "JMP X" de outro bloco (e não pela passagem direta) é movido,
+     * com os blocos que ele alcança em sequência até terminar em JMP, para logo depois do salto,
+     * que deixa de ser necessário. Um reposicionamento por chamada; as rodadas completam o resto.
+     */
+    private List<InstrucaoTAC> posicionarBlocos(List<InstrucaoTAC> codigo) {
+        GrafoFluxoControle grafo = GrafoFluxoControle.construir(codigo);
+        List<BlocoBasico> blocos = grafo.getBlocos();
+        for (BlocoBasico origem : blocos) {
+            InstrucaoTAC ultima = origem.ultima();
+            if (ultima == null || !ultima.isSaltoIncondicional()) {
+                continue;
+            }
+            BlocoBasico alvo = grafo.bloco(ultima.destinoSalto());
+            if (alvo.indice <= origem.indice + 1 || alvo.predecessores.size() != 1) {
+                continue; // Alvo já vem logo depois, está antes (laço) ou tem outras entradas
+            }
+            // A cadeia segue pela passagem direta e precisa terminar em JMP para poder sair do lugar
+            int fim = alvo.indice;
+            while (fim < blocos.size() && !terminaEmSaltoIncondicional(blocos.get(fim))) {
+                fim++;
+            }
+            if (fim == blocos.size()) {
+                continue;
+            }
+
+            List<InstrucaoTAC> resultado = new ArrayList<>(codigo.size());
+            for (BlocoBasico bloco : blocos) {
+                if (bloco.indice >= alvo.indice && bloco.indice <= fim) {
+                    continue;
+                }
+                if (bloco == origem) {
+                    resultado.addAll(bloco.instrucoes.subList(0, bloco.instrucoes.size() - 1));
+                    for (int k = alvo.indice; k <= fim; k++) {
+                        resultado.addAll(blocos.get(k).instrucoes);
+                    }
+                } else {
+                    resultado.addAll(bloco.instrucoes);
+                }
+            }
+            blocosReposicionados += fim - alvo.indice + 1;
+            return resultado;
+        }
+        return codigo;
+    }
+
+    /**
+     * Rotação de laços: em
+     *     LABEL H / condição / JMPFALSE R, X / corpo / JMP H
+     * o JMP de volta é trocado por uma cópia da condição com o salto invertido para o corpo:
+     *     LABEL H / condição / JMPFALSE R, X / LABEL C / corpo / condição / JMPTRUE R, C
+     * A primeira avaliação continua no topo; as demais ficam no fim, e a volta custa um só desvio.
+     */
+    private List<InstrucaoTAC> rotacionarLacos(List<InstrucaoTAC> codigo) {
+        Map<String, Integer> posicoes = new HashMap<>();
+        for (int i = 0; i < codigo.size(); i++) {
+            if (codigo.get(i).isLabel()) {
+                posicoes.put(codigo.get(i).operandos[0], i);
+            }
+        }
+
+        List<InstrucaoTAC> resultado = new ArrayList<>(codigo);
+        for (int j = 0; j < resultado.size(); j++) {
+            InstrucaoTAC volta = resultado.get(j);
+            if (!volta.isSaltoIncondicional()) {
+                continue;
+            }
+            Integer cabecalho = posicoes.get(volta.operandos[0]);
+            if (cabecalho == null || cabecalho >= j) {
+                continue;
+            }
+            // Condição: instruções sem labels nem saltos após o label, terminadas por um salto condicional
+            int salto = cabecalho + 1;
+            while (salto < j && !resultado.get(salto).isSalto() && !resultado.get(salto).isLabel()) {
+                salto++;
+            }
+            InstrucaoTAC saida = resultado.get(salto);
+            if (salto >= j || !saida.isSaltoCondicional() || salto - cabecalho - 1 > LIMITE_CABECALHO) {
+                continue;
+            }
+
+            String labelCorpo;
+            int deslocamento = 0;
+            if (resultado.get(salto + 1).isLabel()) {
+                labelCorpo = resultado.get(salto + 1).operandos[0];
+            } else {
+                labelCorpo = "L" + proximoLabel++;
+                resultado.add(salto + 1, new InstrucaoTAC("LABEL", labelCorpo));
+                deslocamento = 1;
+            }
+
+            List<InstrucaoTAC> copia = new ArrayList<>(resultado.subList(cabecalho + 1, salto));
+            copia.add(new InstrucaoTAC(inverso(saida.op), saida.operandos[0], labelCorpo));
+            int posicaoVolta = j + deslocamento;
+            if (!labelNaPosicao(resultado, posicaoVolta + 1, saida.destinoSalto())) {
+                copia.add(new InstrucaoTAC("JMP", saida.destinoSalto()));
+            }
+            resultado.remove(posicaoVolta);
+            resultado.addAll(posicaoVolta, copia);
+            lacosRotacionados++;
+            return resultado;
+        }
+        return resultado;
+    }
+
+    // ---------------------------------------------------------
+    // Auxiliares
+    // ---------------------------------------------------------
+
+    private static int contarSaltos(List<InstrucaoTAC> codigo) {
+        int quantidade = 0;
+        for (InstrucaoTAC instrucao : codigo) {
+            if (instrucao.isSalto()) {
+                quantidade++;
+            }
+        }
+        return quantidade;
+    }
+
+    private static boolean terminaEmSaltoIncondicional(BlocoBasico bloco) {
+        InstrucaoTAC ultima = bloco.ultima();
+        return ultima != null && ultima.isSaltoIncondicional();
+    }
+
+    // Primeira instrução que não é LABEL a partir de 'inicio' (null se o código acabar)
+    private static InstrucaoTAC primeiraExecutavel(List<InstrucaoTAC> codigo, int inicio) {
+        for (int i = inicio; i < codigo.size(); i++) {
+            if (!codigo.get(i).isLabel()) {
+                return codigo.get(i);
+            }
+        }
+        return null;
+    }
+
+    // Verifica se 'label' está entre os labels consecutivos que começam em 'inicio'
+    private static boolean labelNaPosicao(List<InstrucaoTAC> codigo, int inicio, String label) {
+        for (int i = inicio; i < codigo.size() && codigo.get(i).isLabel(); i++) {
+            if (codigo.get(i).operandos[0].equals(label)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<InstrucaoTAC> redirecionar(List<InstrucaoTAC> codigo, Map<String, String> novosDestinos) {
+        List<InstrucaoTAC> resultado = new ArrayList<>(codigo.size());
+        for (InstrucaoTAC instrucao : codigo) {
+            String destino = instrucao.destinoSalto();
+            resultado.add(destino != null && novosDestinos.containsKey(destino)
+                    ? comDestino(instrucao, novosDestinos.get(destino))
+                    : instrucao);
+        }
+        return resultado;
+    }
+
+    private static InstrucaoTAC comDestino(InstrucaoTAC salto, String destino) {
+        return salto.isSaltoIncondicional()
+                ? new InstrucaoTAC("JMP", destino)
+                : new InstrucaoTAC(salto.op, salto.operandos[0], destino);
+    }
+
+    private static String inverso(String saltoCondicional) {
+        return saltoCondicional.equals("JMPTRUE") ? "JMPFALSE" : "JMPTRUE";
+    }
+
+    // Maior N entre os labels "LN" do código, para que os labels novos não colidam
+    private static int maiorNumeroDeLabel(List<InstrucaoTAC> codigo) {
+        int maior = 0;
+        for (InstrucaoTAC instrucao : codigo) {
+            if (instrucao.isLabel() && instrucao.operandos[0].matches("L\\d+")) {
+                maior = Math.max(maior, Integer.parseInt(instrucao.operandos[0].substring(1)));
+            }
+        }
+        return maior;
+    }
+}
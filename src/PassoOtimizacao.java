@@ -0,0 +1,24 @@
+import java.util.List;
+
+/**
+ * Um passo do GerenciadorPassos: transforma o TAC estruturado e descreve o que fez.
+ * Implementado pelos otimizadores (constantes, saltos), pela ida e volta da FormaSSA e pelo
+ * AlocadorRegistradores, para que possam ser encadeados em qualquer ordem e medidos um a um.
+ */
+public interface PassoOtimizacao {
+
+    /**
+     * Nome curto do passo, usado na lista da opção --passos e no relatório de tempos.
+     */
+    String getNome();
+
+    /**
+     * Aplica o passo e devolve o novo código; a lista recebida não é alterada.
+     */
+    List<InstrucaoTAC> executar(List<InstrucaoTAC> codigo);
+
+    /**
+     * Relatório da última execução do passo.
+     */
+    String relatorio();
+}
@@ -0,0 +1,51 @@
+import java.lang.invoke.MethodHandle;
+
+/**
+ * Programa compilado pelo CompiladorJVM e carregado como classe oculta (hidden class).
+ * O método gerado recebe a memória de variáveis (long[], reais como bits do double) e o combustível
+ * (voltas de laço permitidas) e devolve o combustível restante, negativo se o limite foi atingido.
+ */
+public class ProgramaJVM {
+
+    private final MethodHandle metodo;       // static long executar(long[] memoria, long combustivel)
+    private final String[] variaveis;        // Nome de cada slot de variável
+    private final TipoDado[] tipos;          // Tipo de cada slot de variável
+    private final int tamanhoBytecode;       // Bytes de bytecode do método gerado
+    private final byte[] classe;             // Arquivo .class gerado
+
+    public ProgramaJVM(MethodHandle metodo, String[] variaveis, TipoDado[] tipos, int tamanhoBytecode, byte[] classe) {
+        this.metodo = metodo;
+        this.variaveis = variaveis;
+        this.tipos = tipos;
+        this.tamanhoBytecode = tamanhoBytecode;
+        this.classe = classe;
+    }
+
+    public int getTamanhoBytecode() {
+        return tamanhoBytecode;
+    }
+
+    public byte[] getClasse() {
+        return classe;
+    }
+
+    /**
+     * Executa o programa com todas as variáveis zeradas.
+     * @param limite Quantidade máxima de voltas de laço antes de interromper.
+     */
+    public ResultadoExecucao executar(long limite) {
+        long[] memoria = new long[variaveis.length];
+        long inicio = System.nanoTime();
+        long restante;
+        try {
+            restante = (long) metodo.invokeExact(memoria, limite);
+        } catch (ArithmeticException e) {
+            throw new ErroExecucao("Erro de Execução: divisão inteira por zero.");
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new RuntimeException("Erro de Execução: " + t, t);
+        }
+        return new ResultadoExecucao(variaveis, tipos, memoria, null, restante < 0, System.nanoTime() - inicio);
+    }
+}
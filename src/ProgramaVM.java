@@ -0,0 +1,153 @@
+import java.util.Map;
+
+/**
+ * Programa montado para a MaquinaVirtual: o código de três endereços já resolvido para índices.
+ *
+ * - Instruções: array compacto de inteiros, TAMANHO_INSTRUCAO posições por instrução (ver CodigoOperacao).
+ * - Labels: substituídos pelo índice da instrução de destino.
+ * - Variáveis: substituídas pelo índice do slot na memória de variáveis.
+ * - Registradores e constantes: compartilham o banco de registradores. Os registradores R0..Rn ocupam
+ *   as primeiras posições e as constantes (literais do código) vêm logo depois, carregadas antes da execução.
+ *   Valores inteiros são guardados como long e reais como os bits do double.
+ * - Slots de derramamento: área separada das variáveis, usada por SPILL/RELOAD quando o código passou pelo
+ *   AlocadorRegistradores e faltaram registradores físicos. Não aparece no resultado da execução.
+ */
+public class ProgramaVM {
+
+    private final int[] codigo;              // Instruções codificadas
+    private final int quantidadeInstrucoes;
+    private final int quantidadeRegistradores; // Registradores R0..Rn (as constantes começam neste índice)
+    private final long[] constantes;         // Valores das constantes, na ordem do banco
+    private final boolean[] constantesReais; // Verdadeiro se a constante é real (para listagem)
+    private final String[] variaveis;        // Nome de cada slot de variável
+    private final TipoDado[] tiposVariaveis; // Tipo de cada slot de variável
+    private final int quantidadeSlotsSpill;  // Tamanho da área de derramamento
+    private final int[] linhasTac;           // Índice, na lista TAC, da linha que originou cada instrução (-1 = gerada)
+    private final Map<String, Integer> labels; // Label do TAC -> índice da instrução
+
+    public ProgramaVM(int[] codigo, int quantidadeInstrucoes, int quantidadeRegistradores,
+                      long[] constantes, boolean[] constantesReais,
+                      String[] variaveis, TipoDado[] tiposVariaveis, int quantidadeSlotsSpill,
+                      int[] linhasTac, Map<String, Integer> labels) {
+        this.codigo = codigo;
+        this.quantidadeInstrucoes = quantidadeInstrucoes;
+        this.quantidadeRegistradores = quantidadeRegistradores;
+        this.constantes = constantes;
+        this.constantesReais = constantesReais;
+        this.variaveis = variaveis;
+        this.tiposVariaveis = tiposVariaveis;
+        this.quantidadeSlotsSpill = quantidadeSlotsSpill;
+        this.linhasTac = linhasTac;
+        this.labels = labels;
+    }
+
+    public int[] getCodigo() {
+        return codigo;
+    }
+
+    public int quantidadeInstrucoes() {
+        return quantidadeInstrucoes;
+    }
+
+    public int quantidadeRegistradores() {
+        return quantidadeRegistradores;
+    }
+
+    /**
+     * Tamanho total do banco: registradores seguidos das constantes.
+     */
+    public int tamanhoBancoRegistradores() {
+        return quantidadeRegistradores + constantes.length;
+    }
+
+    public long[] getConstantes() {
+        return constantes;
+    }
+
+    public boolean constanteReal(int indice) {
+        return constantesReais[indice];
+    }
+
+    public String[] getVariaveis() {
+        return variaveis;
+    }
+
+    public TipoDado[] getTiposVariaveis() {
+        return tiposVariaveis;
+    }
+
+    public int quantidadeSlotsSpill() {
+        return quantidadeSlotsSpill;
+    }
+
+    public int[] getLinhasTac() {
+        return linhasTac;
+    }
+
+    public Map<String, Integer> getLabels() {
+        return labels;
+    }
+
+    public int operacao(int instrucao) {
+        return codigo[instrucao * CodigoOperacao.TAMANHO_INSTRUCAO];
+    }
+
+    public int operando(int instrucao, int k) {
+        return codigo[instrucao * CodigoOperacao.TAMANHO_INSTRUCAO + 1 + k];
+    }
+
+    /**
+     * Listagem legível do programa montado (uma instrução por linha, com os operandos resolvidos).
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < quantidadeInstrucoes; i++) {
+            int op = operacao(i);
+            sb.append(String.format("%4d: %-9s", i, CodigoOperacao.mnemonico(op)));
+            switch (op) {
+                case CodigoOperacao.MOV:
+                    sb.append(registrador(operando(i, 0))).append(", ").append(registrador(operando(i, 1)));
+                    break;
+                case CodigoOperacao.LOAD:
+                    sb.append(registrador(operando(i, 0))).append(", ").append(variaveis[operando(i, 1)]);
+                    break;
+                case CodigoOperacao.STORE:
+                    sb.append(variaveis[operando(i, 0)]).append(", ").append(registrador(operando(i, 1)));
+                    break;
+                case CodigoOperacao.SPILL:
+                    sb.append("S").append(operando(i, 0)).append(", ").append(registrador(operando(i, 1)));
+                    break;
+                case CodigoOperacao.RELOAD:
+                    sb.append(registrador(operando(i, 0))).append(", S").append(operando(i, 1));
+                    break;
+                case CodigoOperacao.JMP:
+                    sb.append("@").append(operando(i, 0));
+                    break;
+                case CodigoOperacao.JMPTRUE:
+                case CodigoOperacao.JMPFALSE:
+                    sb.append(registrador(operando(i, 0))).append(", @").append(operando(i, 1));
+                    break;
+                case CodigoOperacao.HALT:
+                    break;
+                default:
+                    sb.append(registrador(operando(i, 0))).append(", ")
+                            .append(registrador(operando(i, 1))).append(", ")
+                            .append(registrador(operando(i, 2)));
+            }
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+
+    // Nome de uma posição do banco: Rn para registradores, o valor literal para constantes
+    private String registrador(int indice) {
+        if (indice < quantidadeRegistradores) {
+            return "R" + indice;
+        }
+        int k = indice - quantidadeRegistradores;
+        return constantesReais[k]
+                ? "#" + Double.longBitsToDouble(constantes[k])
+                : "#" + constantes[k];
+    }
+}
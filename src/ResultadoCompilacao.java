@@ -0,0 +1,100 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Agrupa as saídas textuais produzidas por uma compilação completa.
+ * Quando uma fase falha, as saídas das fases seguintes ficam nulas e o campo 'erro' é preenchido.
+ */
+public class ResultadoCompilacao {
+    public String saidaLexica;    // Conteúdo de fase1_lexico.txt
+    public String saidaSintatica; // Conteúdo de fase2_sintatico.txt
+    public String saidaSemantica; // Conteúdo de fase3_semantico.txt
+    public String saidaCodigo;    // Conteúdo de fase4_codigo.txt
+    public String saidaOtimizacao; // Conteúdo de fase4_otimizado.txt (apenas com a otimização ligada)
+    public String saidaAlocacao;  // Conteúdo de fase4_registradores.txt (apenas com a alocação de registradores)
+    public String saidaExecucao;  // Conteúdo de fase5_execucao.txt (apenas quando o programa é executado)
+    public String erro;           // Conteúdo de erro.txt (null se a compilação teve sucesso)
+
+    // Produtos da compilação usados pela execução na máquina virtual
+    public List<String> codigoIntermediario;
+    public TabelaDeSimbolos tabela;
+    public ProgramaVM programa;   // TAC montado (apenas quando o programa é executado ou gravado como objeto)
+    public MetricasCompilacao metricas; // Duração e produção das fases (null sem --metricas e sem gravação JFR)
+    public SaidaFases saidas;     // Recebe as listagens etapa a etapa (null: ficam no resultado)
+
+    public boolean sucesso() {
+        return erro == null;
+    }
+
+    /**
+     * Saídas textuais presentes, pelo nome do arquivo correspondente, na ordem das fases.
+     */
+    public Map<String, String> arquivos() {
+        Map<String, String> arquivos = new LinkedHashMap<>();
+        adicionarSeExistir(arquivos, "fase1_lexico.txt", saidaLexica);
+        adicionarSeExistir(arquivos, "fase2_sintatico.txt", saidaSintatica);
+        adicionarSeExistir(arquivos, "fase3_semantico.txt", saidaSemantica);
+        adicionarSeExistir(arquivos, "fase4_codigo.txt", saidaCodigo);
+        adicionarSeExistir(arquivos, "fase4_otimizado.txt", saidaOtimizacao);
+        adicionarSeExistir(arquivos, "fase4_registradores.txt", saidaAlocacao);
+        adicionarSeExistir(arquivos, "fase5_execucao.txt", saidaExecucao);
+        adicionarSeExistir(arquivos, "erro.txt", erro);
+        return arquivos;
+    }
+
+    /**
+     * Entrega a 'saidas' as listagens presentes (todas menos erro.txt) e as remove do resultado.
+     */
+    void entregarListagens() throws IOException {
+        String erroAtual = erro;
+        erro = null;
+        try {
+            for (Map.Entry<String, String> arquivo : arquivos().entrySet()) {
+                saidas.gravar(arquivo.getKey(), arquivo.getValue());
+            }
+        } finally {
+            erro = erroAtual;
+        }
+        saidaLexica = null;
+        saidaSintatica = null;
+        saidaSemantica = null;
+        saidaCodigo = null;
+        saidaOtimizacao = null;
+        saidaAlocacao = null;
+        saidaExecucao = null;
+    }
+
+    /**
+     * Grava em 'destino' as saídas textuais presentes e, com 'objeto', o programa montado (programa.cmpo).
+     * Usado pelo modo em lote e pelo de um arquivo; com um 'gravador', os textos são entregues a ele e
+     * gravados em segundo plano.
+     * @return Bytes gravados por este método (os entregues ao gravador são contados por ele).
+     */
+    public long gravar(Path destino, boolean objeto, GravadorAssincrono gravador) throws IOException {
+        long bytes = 0;
+        Files.createDirectories(destino);
+        for (Map.Entry<String, String> arquivo : arquivos().entrySet()) {
+            if (gravador != null) {
+                gravador.gravar(destino.resolve(arquivo.getKey()), arquivo.getValue());
+            } else {
+                bytes += Files.size(Files.writeString(destino.resolve(arquivo.getKey()), arquivo.getValue()));
+            }
+        }
+        if (objeto && programa != null) {
+            Path arquivo = destino.resolve("programa" + ArquivoObjeto.EXTENSAO);
+            ArquivoObjeto.escrever(programa, arquivo, true);
+            bytes += Files.size(arquivo);
+        }
+        return bytes;
+    }
+
+    private static void adicionarSeExistir(Map<String, String> arquivos, String nome, String conteudo) {
+        if (conteudo != null) {
+            arquivos.put(nome, conteudo);
+        }
+    }
+}
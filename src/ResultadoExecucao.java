@@ -0,0 +1,99 @@
+import java.util.Arrays;
+
+/**
+ * Estado final de uma execução (MaquinaVirtual, InterpretadorArvore ou CompiladorJVM):
+ * valores das variáveis e, na máquina virtual, a contagem de instruções executadas.
+ * Valores inteiros ficam como long e reais como os bits do double.
+ */
+public class ResultadoExecucao {
+
+    private final String[] variaveis;         // Nome de cada slot de variável
+    private final TipoDado[] tipos;           // Tipo de cada slot de variável
+    private final long[] memoria;             // Valor final de cada slot de variável
+    private final long[] contagemPorOperacao; // Instruções executadas por código de operação (null fora da VM)
+    private final boolean limiteAtingido;     // Verdadeiro se a execução foi interrompida pelo limite
+    private final long nanos;                 // Duração da execução
+
+    public ResultadoExecucao(String[] variaveis, TipoDado[] tipos, long[] memoria, long[] contagemPorOperacao,
+                             boolean limiteAtingido, long nanos) {
+        this.variaveis = variaveis;
+        this.tipos = tipos;
+        this.memoria = memoria;
+        this.contagemPorOperacao = contagemPorOperacao;
+        this.limiteAtingido = limiteAtingido;
+        this.nanos = nanos;
+    }
+
+    public boolean limiteAtingido() {
+        return limiteAtingido;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public long instrucoesExecutadas() {
+        if (contagemPorOperacao == null) {
+            return 0;
+        }
+        long total = 0;
+        for (long c : contagemPorOperacao) {
+            total += c;
+        }
+        return total;
+    }
+
+    public long contagem(int operacao) {
+        return contagemPorOperacao[operacao];
+    }
+
+    /**
+     * Valor final da variável formatado conforme o tipo (null se a variável não existe no programa).
+     */
+    public String valor(String variavel) {
+        for (int i = 0; i < variaveis.length; i++) {
+            if (variaveis[i].equals(variavel)) {
+                return valorDoSlot(i);
+            }
+        }
+        return null;
+    }
+
+    private String valorDoSlot(int slot) {
+        return tipos[slot] == TipoDado.REAL
+                ? String.valueOf(Double.longBitsToDouble(memoria[slot]))
+                : String.valueOf(memoria[slot]);
+    }
+
+    /**
+     * Verifica se duas execuções terminaram com as mesmas variáveis e os mesmos valores.
+     */
+    public boolean mesmosValores(ResultadoExecucao outro) {
+        return Arrays.equals(variaveis, outro.variaveis) && Arrays.equals(memoria, outro.memoria);
+    }
+
+    /**
+     * Relatório: variáveis com os valores finais e instruções executadas por operação.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Variáveis:\n");
+        for (int i = 0; i < variaveis.length; i++) {
+            sb.append(String.format("  %-10s = %s (%s)\n", variaveis[i], valorDoSlot(i), tipos[i]));
+        }
+        if (contagemPorOperacao != null) {
+            sb.append(String.format("Instruções executadas: %d\n", instrucoesExecutadas()));
+            for (int op = 0; op < contagemPorOperacao.length; op++) {
+                if (contagemPorOperacao[op] > 0) {
+                    sb.append(String.format("  %-8s %d\n", CodigoOperacao.mnemonico(op), contagemPorOperacao[op]));
+                }
+            }
+        }
+        if (limiteAtingido) {
+            sb.append("Execução interrompida: limite de execução atingido (possível laço infinito).\n");
+        }
+        sb.append(String.format("Tempo de execução: %.3f ms\n", nanos / 1e6));
+        return sb.toString();
+    }
+}
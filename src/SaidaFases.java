@@ -0,0 +1,34 @@
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Acompanha uma compilação do Compilador etapa a etapa: cada listagem é entregue assim que a sua etapa
+ * termina, em vez de ficar no ResultadoCompilacao até o fim. O modo de um arquivo (Main) grava as listagens
+ * em segundo plano enquanto as etapas seguintes rodam e informa o andamento.
+ *
+ * As etapas têm os nomes das fases das métricas: lexico, sintatico, semantico, codigo, otimizacao,
+ * registradores e execucao. Uma falha de I/O interrompe a compilação (como UncheckedIOException).
+ */
+public interface SaidaFases {
+
+    /**
+     * Início de uma etapa.
+     */
+    void iniciar(String etapa) throws IOException;
+
+    /**
+     * Fim de uma etapa, depois da entrega das suas listagens.
+     */
+    void concluir(String etapa) throws IOException;
+
+    /**
+     * Listagem completa de um arquivo de saída (ex: fase1_lexico.txt), pelo nome do arquivo.
+     */
+    void gravar(String arquivo, String conteudo) throws IOException;
+
+    /**
+     * Canal para uma listagem gravada em blocos à medida que é produzida (fase2_sintatico.txt).
+     * Quem chama escreve a listagem inteira e fecha o canal.
+     */
+    WritableByteChannel abrir(String arquivo) throws IOException;
+}
@@ -0,0 +1,338 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servidor de compilação residente: uma única JVM atende todas as compilações, então a inicialização
+ * é paga uma vez e o JIT continua aquecido entre as requisições (ver ClienteCompilacao).
+ *
+ * Escuta em uma porta TCP local (somente loopback) ou em um socket de domínio Unix. Cada conexão é
+ * atendida por uma thread virtual quando a JVM oferece (Java 21+, obtida por reflexão para que o código
+ * continue compilando em versões anteriores); sem elas, por um pool de threads que cresce sob demanda.
+ * Uma conexão pode enviar várias requisições seguidas.
+ *
+ * Protocolo (DataOutputStream; textos com tamanho em 4 bytes + UTF-8):
+ * - Requisição: MAGICO, tipo (COMPILAR, ESTATISTICAS ou ENCERRAR); COMPILAR traz a quantidade de opções,
+ *   as opções de compilação (as mesmas do modo em lote) e o texto fonte.
+ * - Resposta: situação (OK, ERRO_COMPILACAO ou ERRO_REQUISICAO), a quantidade de arquivos e, para cada
+ *   um, nome e conteúdo (fase1_lexico.txt ... erro.txt, como em ResultadoCompilacao.arquivos). Quando há
+ *   código final, ele vem em CODIGO_FINAL (uma instrução TAC por linha); o cliente o grava como '<arquivo>.tac'.
+ */
+public class ServidorCompilacao {
+
+    public static final int PORTA_PADRAO = 7070;
+
+    static final int MAGICO = 0x434F4D50; // "COMP"
+    static final int COMPILAR = 1;
+    static final int ESTATISTICAS = 2;
+    static final int ENCERRAR = 3;
+
+    static final int OK = 0;
+    static final int ERRO_COMPILACAO = 1;
+    static final int ERRO_REQUISICAO = 2;
+
+    static final String CODIGO_FINAL = "codigo_final.tac"; // Nome, na resposta, do código final do programa
+
+    private static final int MAXIMO_TEXTO = 64 * 1024 * 1024; // Rejeita requisições corrompidas antes de alocar
+
+    private final SocketAddress endereco;
+    private final CacheCompilacao cache; // Compartilhado por todas as requisições (null: sem cache)
+    private final ExecutorService executor;
+    private final boolean threadsVirtuais;
+    private ServerSocketChannel canal;
+
+    private final long inicio = System.nanoTime();
+    private final AtomicLong requisicoes = new AtomicLong();
+    private final AtomicLong nanosCompilando = new AtomicLong();
+    private final AtomicInteger conexoesAtivas = new AtomicInteger();
+
+    public ServidorCompilacao(SocketAddress endereco, CacheCompilacao cache) {
+        this.endereco = endereco;
+        this.cache = cache;
+        ExecutorService virtuais = criarExecutorVirtual();
+        this.threadsVirtuais = virtuais != null;
+        this.executor = virtuais != null ? virtuais : Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "compilacao-" + r.hashCode());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Endereço TCP na interface de loopback: o servidor não fica exposto à rede.
+     */
+    public static SocketAddress enderecoLocal(int porta) {
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), porta);
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor(), se existir nesta JVM
+    private static ExecutorService criarExecutorVirtual() {
+        try {
+            Method fabrica = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) fabrica.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Abre o socket e atende conexões até receber ENCERRAR.
+     */
+    public void executar() throws IOException {
+        boolean unix = endereco instanceof UnixDomainSocketAddress;
+        if (unix) {
+            Files.deleteIfExists(((UnixDomainSocketAddress) endereco).getPath()); // Sobra de uma execução anterior
+        }
+        canal = unix ? ServerSocketChannel.open(StandardProtocolFamily.UNIX) : ServerSocketChannel.open();
+        try (ServerSocketChannel servidor = canal) {
+            servidor.bind(endereco);
+            System.out.println("Servidor de compilação em " + endereco + " ("
+                    + (threadsVirtuais ? "threads virtuais" : "pool de threads") + ")");
+            while (true) {
+                SocketChannel conexao;
+                try {
+                    conexao = servidor.accept();
+                } catch (AsynchronousCloseException e) {
+                    break; // ENCERRAR fechou o canal
+                }
+                executor.execute(() -> atender(conexao));
+            }
+        } finally {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (unix) {
+                Files.deleteIfExists(((UnixDomainSocketAddress) endereco).getPath());
+            }
+        }
+        System.out.println("Servidor encerrado após " + requisicoes.get() + " requisição(ões).");
+    }
+
+    private void atender(SocketChannel conexao) {
+        conexoesAtivas.incrementAndGet();
+        try (SocketChannel c = conexao;
+             DataInputStream entrada = new DataInputStream(new BufferedInputStream(Channels.newInputStream(c)));
+             DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(c)))) {
+            while (true) {
+                int magico;
+                try {
+                    magico = entrada.readInt();
+                } catch (EOFException e) {
+                    return; // O cliente fechou a conexão
+                }
+                if (magico != MAGICO) {
+                    responder(saida, ERRO_REQUISICAO, Map.of("erro.txt", "Requisição inválida.\n"));
+                    return;
+                }
+                int tipo = entrada.readInt();
+                if (tipo == COMPILAR) {
+                    compilar(entrada, saida);
+                } else if (tipo == ESTATISTICAS) {
+                    responder(saida, OK, Map.of("estatisticas.txt", estatisticas()));
+                } else if (tipo == ENCERRAR) {
+                    responder(saida, OK, Map.of());
+                    canal.close();
+                    return;
+                } else {
+                    responder(saida, ERRO_REQUISICAO, Map.of("erro.txt", "Tipo de requisição desconhecido: " + tipo + "\n"));
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            // Conexão interrompida pelo cliente: nada a responder
+        } finally {
+            conexoesAtivas.decrementAndGet();
+        }
+    }
+
+    private void compilar(DataInputStream entrada, DataOutputStream saida) throws IOException {
+        int quantidadeOpcoes = entrada.readInt();
+        List<String> argumentos = new ArrayList<>();
+        for (int i = 0; i < quantidadeOpcoes; i++) {
+            argumentos.add(lerTexto(entrada));
+        }
+        String codigo = lerTexto(entrada);
+
+        OpcoesCompilacao opcoes = new OpcoesCompilacao();
+        try {
+            for (int i = 0; i < argumentos.size(); i++) {
+                int consumidos = opcoes.reconhecer(argumentos, i);
+                if (consumidos == 0 || opcoes.objeto || opcoes.diretorioCache != null) {
+                    throw new IllegalArgumentException("Opção não aceita pelo servidor: " + argumentos.get(i));
+                }
+                i += consumidos - 1;
+            }
+            opcoes.validar();
+        } catch (IllegalArgumentException e) {
+            responder(saida, ERRO_REQUISICAO, Map.of("erro.txt", e.getMessage() + "\n"));
+            return;
+        }
+        opcoes.usarCache(cache);
+
+        long inicioCompilacao = System.nanoTime();
+        ResultadoCompilacao resultado = Compilador.compilar(codigo, opcoes);
+        nanosCompilando.addAndGet(System.nanoTime() - inicioCompilacao);
+        requisicoes.incrementAndGet();
+        Map<String, String> arquivos = resultado.arquivos();
+        if (resultado.codigoIntermediario != null) {
+            StringBuilder tac = new StringBuilder();
+            for (String instrucao : resultado.codigoIntermediario) {
+                tac.append(instrucao).append('\n');
+            }
+            arquivos.put(CODIGO_FINAL, tac.toString());
+        }
+        if (opcoes.metricas) {
+            // Quem grava os arquivos é o cliente: os bytes escritos são os das saídas enviadas
+            for (String conteudo : arquivos.values()) {
+                resultado.metricas.bytesEscritos += conteudo.getBytes(StandardCharsets.UTF_8).length;
+            }
+            arquivos.put(MetricasCompilacao.ARQUIVO, resultado.metricas.paraJson());
+        }
+        responder(saida, resultado.sucesso() ? OK : ERRO_COMPILACAO, arquivos);
+    }
+
+    private String estatisticas() {
+        long n = requisicoes.get();
+        StringBuilder sb = new StringBuilder();
+        sb.append("--- Servidor de Compilação ---\n");
+        sb.append(String.format("Endereço:      %s\n", endereco));
+        sb.append(String.format("Threads:       %s\n", threadsVirtuais ? "virtuais" : "pool"));
+        sb.append(String.format("Ativo há:      %.1f s\n", (System.nanoTime() - inicio) / 1e9));
+        sb.append(String.format("Requisições:   %d\n", n));
+        sb.append(String.format("Conexões:      %d ativa(s)\n", conexoesAtivas.get()));
+        sb.append(String.format("Tempo médio:   %.3f ms por compilação\n", n > 0 ? nanosCompilando.get() / 1e6 / n : 0.0));
+        sb.append("------------------------------\n");
+        if (cache != null) {
+            sb.append(cache.relatorio());
+        }
+        return sb.toString();
+    }
+
+    static void responder(DataOutputStream saida, int situacao, Map<String, String> arquivos) throws IOException {
+        saida.writeInt(situacao);
+        saida.writeInt(arquivos.size());
+        for (Map.Entry<String, String> arquivo : arquivos.entrySet()) {
+            escreverTexto(saida, arquivo.getKey());
+            escreverTexto(saida, arquivo.getValue());
+        }
+        saida.flush();
+    }
+
+    /**
+     * Lê uma resposta: a situação fica na chave null do mapa devolvido (como texto), seguida dos arquivos.
+     */
+    static Map<String, String> lerResposta(DataInputStream entrada) throws IOException {
+        Map<String, String> resposta = new LinkedHashMap<>();
+        resposta.put(null, Integer.toString(entrada.readInt()));
+        int quantidade = entrada.readInt();
+        for (int i = 0; i < quantidade; i++) {
+            resposta.put(lerTexto(entrada), lerTexto(entrada));
+        }
+        return resposta;
+    }
+
+    static void escreverTexto(DataOutputStream saida, String texto) throws IOException {
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        saida.writeInt(bytes.length);
+        saida.write(bytes);
+    }
+
+    static String lerTexto(DataInputStream entrada) throws IOException {
+        int tamanho = entrada.readInt();
+        if (tamanho < 0 || tamanho > MAXIMO_TEXTO) {
+            throw new IOException("Tamanho de texto inválido na requisição: " + tamanho);
+        }
+        byte[] bytes = new byte[tamanho];
+        entrada.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Interpreta as opções --porta N / --socket CAMINHO (padrão: porta PORTA_PADRAO) e as remove de 'argumentos'.
+     * @throws IllegalArgumentException se a opção não tem valor ou a porta não é um número de 1 a 65535.
+     */
+    static SocketAddress extrairEndereco(List<String> argumentos) {
+        SocketAddress endereco = enderecoLocal(PORTA_PADRAO);
+        for (int i = 0; i < argumentos.size(); i++) {
+            boolean opcaoEndereco = argumentos.get(i).equals("--porta") || argumentos.get(i).equals("--socket");
+            if (opcaoEndereco && i + 1 == argumentos.size()) {
+                throw new IllegalArgumentException("A opção " + argumentos.get(i) + " exige um valor.");
+            }
+            if (argumentos.get(i).equals("--porta")) {
+                endereco = enderecoLocal(porta(argumentos.get(i + 1)));
+            } else if (argumentos.get(i).equals("--socket")) {
+                endereco = UnixDomainSocketAddress.of(Path.of(argumentos.get(i + 1)));
+            } else {
+                continue;
+            }
+            argumentos.subList(i, i + 2).clear();
+            i--;
+        }
+        return endereco;
+    }
+
+    private static int porta(String valor) {
+        try {
+            int porta = Integer.parseInt(valor);
+            if (porta >= 1 && porta <= 65535) {
+                return porta;
+            }
+        } catch (NumberFormatException e) {
+            // Relatado abaixo
+        }
+        throw new IllegalArgumentException("A opção --porta exige um número de porta (1 a 65535): " + valor);
+    }
+
+    /**
+     * Ponto de entrada do modo servidor: [--porta N | --socket CAMINHO] [--cache DIR [--cache-limite MB]].
+     * Sai com 2 diante de uma opção desconhecida ou inválida.
+     */
+    public static void principal(String[] args) throws IOException {
+        List<String> argumentos = new ArrayList<>(Arrays.asList(args));
+        SocketAddress endereco = null;
+        OpcoesCompilacao opcoesCache = new OpcoesCompilacao();
+        try {
+            endereco = extrairEndereco(argumentos);
+            for (int i = 0; i < argumentos.size(); i++) {
+                int consumidos = opcoesCache.reconhecer(argumentos, i);
+                if (consumidos == 0) {
+                    throw new IllegalArgumentException("Opção desconhecida para o servidor: " + argumentos.get(i));
+                }
+                i += consumidos - 1;
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        }
+        new ServidorCompilacao(endereco, opcoesCache.cache()).executar();
+    }
+}
@@ -0,0 +1,85 @@
+import java.util.Arrays;
+
+/**
+ * Tabela de internação de nomes: associa cada identificador distinto a um ID inteiro denso (0, 1, 2...).
+ * Usada pelo analisador léxico para que as fases seguintes comparem e indexem nomes por inteiros,
+ * sem calcular hash de Strings.
+ *
+ * Implementada com endereçamento aberto (sondagem linear). A busca compara direto com o trecho
+ * do código fonte, de modo que a String do nome só é criada na primeira ocorrência.
+ */
+public class TabelaDeNomes {
+
+    private String[] nomes = new String[64]; // nomes[id] = texto do identificador
+    private int[] hashes = new int[64];      // hashes[id] = hash do nome (evita recomparar textos)
+    private int[] slots = new int[128];      // Tabela hash: id + 1 de cada nome (0 = slot vazio)
+    private int tamanho;
+
+    /**
+     * Devolve o ID do nome contido em codigoFonte[inicio, fim), registrando-o se for novo.
+     */
+    public int internar(String codigoFonte, int inicio, int fim) {
+        int hash = 0;
+        for (int i = inicio; i < fim; i++) {
+            hash = 31 * hash + codigoFonte.charAt(i);
+        }
+        hash ^= (hash >>> 16);
+
+        int mascara = slots.length - 1;
+        int slot = hash & mascara;
+        while (slots[slot] != 0) {
+            int id = slots[slot] - 1;
+            String nome = nomes[id];
+            if (hashes[id] == hash && nome.length() == fim - inicio
+                    && codigoFonte.regionMatches(inicio, nome, 0, nome.length())) {
+                return id;
+            }
+            slot = (slot + 1) & mascara;
+        }
+        return inserir(codigoFonte.substring(inicio, fim), hash, slot);
+    }
+
+    /**
+     * Devolve o ID de um nome, registrando-o se for novo.
+     */
+    public int internar(String nome) {
+        return internar(nome, 0, nome.length());
+    }
+
+    public String nome(int id) {
+        return nomes[id];
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    private int inserir(String nome, int hash, int slot) {
+        if (tamanho == nomes.length) {
+            nomes = Arrays.copyOf(nomes, tamanho * 2);
+            hashes = Arrays.copyOf(hashes, tamanho * 2);
+        }
+        int id = tamanho++;
+        nomes[id] = nome;
+        hashes[id] = hash;
+        slots[slot] = id + 1;
+
+        // Mantém o fator de carga abaixo de 50% para sondagens curtas
+        if (tamanho * 2 > slots.length) {
+            redimensionar();
+        }
+        return id;
+    }
+
+    private void redimensionar() {
+        slots = new int[slots.length * 2];
+        int mascara = slots.length - 1;
+        for (int id = 0; id < tamanho; id++) {
+            int slot = hashes[id] & mascara;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mascara;
+            }
+            slots[slot] = id + 1;
+        }
+    }
+}
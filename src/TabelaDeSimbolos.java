@@ -1,47 +1,129 @@
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 /**
  * Estrutura de dados que armazena informações sobre os identificadores (variáveis) declarados.
  * Fundamental para a análise semântica.
+ *
+ * Indexada pelo ID interno de cada identificador (atribuído pela TabelaDeNomes do léxico):
+ * declarar e consultar são acessos diretos a arrays, sem hash de Strings.
+ *
+ * Os erros (variável duplicada ou não declarada) não interrompem a análise: ficam registrados
+ * nos Diagnosticos da tabela, que a fase em andamento lança ao terminar.
  */
 public class TabelaDeSimbolos {
 
-    // Armazena par (Nome da Variável, Tipo da Variável)
-    private Map<String, String> simbolos;
+    private static final TipoDado[] TIPOS = TipoDado.values();
 
-    public TabelaDeSimbolos() {
-        this.simbolos = new HashMap<>();
-    }
+    // Por ID: tipo da variável (ordinal + 1; 0 = não declarada) e nome (para mensagens e listagem)
+    private byte[] tipos = new byte[64];
+    private String[] nomes = new String[64];
+    private int[] posicoes = new int[64]; // Posição na ordem de declaração (slot da variável na execução)
+
+    // IDs na ordem de declaração, para a listagem da tabela
+    private int[] ordemDeclaracao = new int[16];
+    private int quantidade;
+
+    private final Diagnosticos diagnosticos = new Diagnosticos();
 
     /**
-     * Registra uma nova variável. Lança erro se duplicada.
+     * Registra uma nova variável. Se já declarada, registra o erro e mantém a primeira declaração.
      */
-    public void declarar(String nome, String tipo, int linha) {
-        if (simbolos.containsKey(nome)) {
-            throw new RuntimeException("Erro Semântico: Variável '" + nome + "' já declarada. Linha " + linha);
+    public void declarar(int id, String nome, TipoDado tipo, int linha) {
+        if (id >= tipos.length) {
+            int novaCapacidade = Math.max(id + 1, tipos.length * 2);
+            tipos = Arrays.copyOf(tipos, novaCapacidade);
+            nomes = Arrays.copyOf(nomes, novaCapacidade);
+            posicoes = Arrays.copyOf(posicoes, novaCapacidade);
         }
-        simbolos.put(nome, tipo);
+        if (tipos[id] != 0) {
+            diagnosticos.registrar(OpcoesCompilacao.Fase.SEMANTICO, linha,
+                    "Erro Semântico: Variável '" + nome + "' já declarada. Linha " + linha);
+            return;
+        }
+        tipos[id] = (byte) (tipo.ordinal() + 1);
+        nomes[id] = nome;
+        posicoes[id] = quantidade;
+
+        if (quantidade == ordemDeclaracao.length) {
+            ordemDeclaracao = Arrays.copyOf(ordemDeclaracao, quantidade * 2);
+        }
+        ordemDeclaracao[quantidade++] = id;
     }
 
     /**
-     * Verifica existência e retorna o tipo. Lança erro se não encontrada.
+     * Verifica existência e retorna o tipo. Se não encontrada, registra o erro e retorna null
+     * (tipo desconhecido: quem chama não compara tipos com ele, para não relatar o mesmo erro de novo).
+     * @param nome Usado apenas na mensagem de erro.
      */
-    public String verificarDeclarada(String nome, int linha) {
-        if (!simbolos.containsKey(nome)) {
-            throw new RuntimeException("Erro Semântico: Variável '" + nome + "' não declarada. Linha " + linha);
+    public TipoDado verificarDeclarada(int id, String nome, int linha) {
+        return verificarDeclarada(id, nome, linha, diagnosticos);
+    }
+
+    /**
+     * Como verificarDeclarada(id, nome, linha), registrando o erro em 'destino': a consulta não altera a
+     * tabela, então várias threads podem verificar ao mesmo tempo, cada uma com os próprios Diagnosticos.
+     */
+    public TipoDado verificarDeclarada(int id, String nome, int linha, Diagnosticos destino) {
+        if (id < 0 || id >= tipos.length || tipos[id] == 0) {
+            destino.registrar(OpcoesCompilacao.Fase.SEMANTICO, linha,
+                    "Erro Semântico: Variável '" + nome + "' não declarada. Linha " + linha);
+            return null;
         }
-        return simbolos.get(nome);
+        return TIPOS[tipos[id] - 1];
+    }
+
+    /**
+     * Erros acumulados pelas fases que usam esta tabela.
+     */
+    public Diagnosticos getDiagnosticos() {
+        return diagnosticos;
+    }
+
+    /**
+     * Quantidade de variáveis declaradas.
+     */
+    public int tamanho() {
+        return quantidade;
+    }
+
+    /**
+     * Posição da variável (já declarada) na ordem de declaração: 0 para a primeira, 1 para a segunda...
+     * Os backends de execução a usam como índice da variável na memória.
+     */
+    public int posicao(int id) {
+        return posicoes[id];
+    }
+
+    /**
+     * ID interno da i-ésima variável declarada (ordem de declaração).
+     */
+    public int idNaOrdem(int i) {
+        return ordemDeclaracao[i];
+    }
+
+    /**
+     * Nome da i-ésima variável declarada (ordem de declaração).
+     */
+    public String nomeNaOrdem(int i) {
+        return nomes[ordemDeclaracao[i]];
+    }
+
+    /**
+     * Tipo da i-ésima variável declarada (ordem de declaração).
+     */
+    public TipoDado tipoNaOrdem(int i) {
+        return TIPOS[tipos[ordemDeclaracao[i]] - 1];
     }
 
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
         sb.append("--- Tabela de Símbolos ---\n");
-        for (Map.Entry<String, String> entry : simbolos.entrySet()) {
-            sb.append(String.format("ID: %-10s | Categoria: variável %s\n", entry.getKey(), entry.getValue()));
+        for (int i = 0; i < quantidade; i++) {
+            int id = ordemDeclaracao[i];
+            sb.append(String.format("ID: %-10s | Categoria: variável %s\n", nomes[id], TIPOS[tipos[id] - 1].getNome()));
         }
         sb.append("----------------------------\n");
         return sb.toString();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,34 @@
+/**
+ * Tipos de dados da linguagem, usados pela Tabela de Símbolos e pela análise semântica.
+ * Comparar tipos passa a ser uma comparação de referências em vez de String.equals.
+ */
+public enum TipoDado {
+    INTEIRO("inteiro"), REAL("real"), CARACTER("caracter");
+
+    private final String nome; // Grafia da palavra reservada correspondente
+
+    TipoDado(String nome) {
+        this.nome = nome;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    /**
+     * Converte o token de tipo de uma declaração (inteiro, real, caracter) no TipoDado correspondente.
+     */
+    public static TipoDado deToken(TipoToken tipoToken) {
+        switch (tipoToken) {
+            case TIPO_INTEIRO: return INTEIRO;
+            case TIPO_REAL: return REAL;
+            case TIPO_CARACTER: return CARACTER;
+            default: throw new RuntimeException("Erro Sintático: " + tipoToken + " não é um tipo de dado.");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return nome;
+    }
+}
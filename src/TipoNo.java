@@ -0,0 +1,26 @@
+/**
+ * Categorias de nós da árvore sintática plana (ArvorePlana).
+ * Substituem a comparação de Strings ("Atribuicao", "Condicional"...) por comparação de enum.
+ */
+public enum TipoNo {
+    PROGRAMA("Programa"),
+    DECLARACAO_TIPO("DeclaracaoTipo"),
+    ATRIBUICAO("Atribuicao"),
+    EXPRESSAO("Expressao"),
+    CONDICIONAL("Condicional"),
+    ITERATIVO("Iterativo"),
+    CONDICAO("Condicao"),
+    CONDICAO_SIMPLES("CondicaoSimples"),
+    COMANDO_VAZIO("ComandoVazio(ε)"),
+    TERMINAL(null); // Folha associada a um token (o rótulo é o lexema)
+
+    private final String rotulo; // Nome exibido na árvore (mesmo valor usado em NoArvore)
+
+    TipoNo(String rotulo) {
+        this.rotulo = rotulo;
+    }
+
+    public String getRotulo() {
+        return rotulo;
+    }
+}
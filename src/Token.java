@@ -6,12 +6,21 @@ public class Token {
     public final TipoToken tipo; // Categoria do token (ex: NUMERO, IDENTIFICADOR, SE)
     public final String lexema;  // O texto exato encontrado no código fonte
     public final int linha;      // Linha onde foi encontrado (para mensagens de erro)
+    public final int id;         // ID interno do identificador (TabelaDeNomes); -1 para os demais tokens
 
     public Token(TipoToken tipo, String lexema, int linha) {
+        this(tipo, lexema, linha, -1);
+    }
+
+    public Token(TipoToken tipo, String lexema, int linha, int id) {
         this.tipo = tipo;
         this.lexema = lexema;
         this.linha = linha;
+        this.id = id;
     }
 
-    // ... (toString omitido)
+    @Override
+    public String toString() {
+        return "Token{tipo=" + tipo + ", lexema='" + lexema + "', linha=" + linha + "}";
+    }
 }
\ No newline at end of file
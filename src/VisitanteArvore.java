@@ -0,0 +1,27 @@
+/**
+ * Visitante tipado da ArvorePlana: um método por categoria de nó, chamado por ArvorePlana.percorrer.
+ * Cada método devolve true para que os filhos do nó também sejam visitados.
+ * Por padrão, todos os nós são apenas atravessados.
+ */
+public interface VisitanteArvore {
+
+    default boolean visitarPrograma(ArvorePlana arvore, int no) { return true; }
+
+    default boolean visitarDeclaracaoTipo(ArvorePlana arvore, int no) { return true; }
+
+    default boolean visitarAtribuicao(ArvorePlana arvore, int no) { return true; }
+
+    default boolean visitarExpressao(ArvorePlana arvore, int no) { return true; }
+
+    default boolean visitarCondicional(ArvorePlana arvore, int no) { return true; }
+
+    default boolean visitarIterativo(ArvorePlana arvore, int no) { return true; }
+
+    default boolean visitarCondicao(ArvorePlana arvore, int no) { return true; }
+
+    default boolean visitarCondicaoSimples(ArvorePlana arvore, int no) { return true; }
+
+    default boolean visitarComandoVazio(ArvorePlana arvore, int no) { return true; }
+
+    default boolean visitarTerminal(ArvorePlana arvore, int no) { return true; }
+}